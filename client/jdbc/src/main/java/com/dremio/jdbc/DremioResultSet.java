@@ -38,7 +38,7 @@ public interface DremioResultSet extends ResultSet  {
    * {@inheritDoc}
    * <p>
    *   <strong>Dremio</strong>:
-   *   Accepts {@code DremioResultSet.class}.
+   *   Accepts {@code DremioResultSet.class} and {@link DremioResultSetMetrics}{@code .class}.
    * </p>
    */
   @Override
@@ -48,7 +48,7 @@ public interface DremioResultSet extends ResultSet  {
    * {@inheritDoc}
    * <p>
    *   <strong>Dremio</strong>:
-   *   Returns true for {@code DremioResultSet.class}.
+   *   Returns true for {@code DremioResultSet.class} and {@link DremioResultSetMetrics}{@code .class}.
    * </p>
    */
   @Override
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc;
+
+/**
+ * Fetch metrics of a Dremio {@link java.sql.ResultSet}, obtained with
+ * {@code resultSet.unwrap(DremioResultSetMetrics.class)}.
+ * <p>
+ *   Batches of results are prefetched in a queue, and the server is throttled
+ *   while the queue holds more than {@code dremio.jdbc.batch_queue_throttling_threshold}
+ *   batches or {@code dremio.jdbc.batch_queue_max_bytes} bytes. The metrics
+ *   remain available once the result set is closed.
+ * </p>
+ */
+public interface DremioResultSetMetrics {
+
+  /**
+   * Gets the total bytes of batch data received from the server.
+   */
+  long getReceivedBytes();
+
+  /**
+   * Gets the bytes of batch data currently waiting in the queue.
+   */
+  long getQueuedBytes();
+
+  /**
+   * Gets the highest number of bytes of batch data the queue held at once.
+   */
+  long getPeakQueuedBytes();
+
+  /**
+   * Gets the number of times the server was throttled because the queue was full.
+   */
+  int getThrottleCount();
+
+  /**
+   * Gets the time spent waiting for batches to arrive, in milliseconds.
+   */
+  long getWaitTimeMs();
+}
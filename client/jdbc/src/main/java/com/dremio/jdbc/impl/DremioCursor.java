@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.calcite.avatica.AvaticaStatement;
 import org.apache.calcite.avatica.ColumnMetaData;
@@ -47,6 +48,7 @@ import com.dremio.exec.proto.UserProtos.PreparedStatement;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchLoader;
 import com.dremio.exec.rpc.ConnectionThrottle;
+import com.dremio.jdbc.DremioResultSetMetrics;
 import com.dremio.jdbc.SchemaChangeListener;
 import com.dremio.jdbc.SqlTimeoutException;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
@@ -57,8 +59,10 @@ import com.google.common.collect.Queues;
 
 class DremioCursor implements Cursor {
 
-  /** Size of JDBC batch queue (in batches) above which throttling begins. */
+  /** Size of JDBC batch queue (in batches) above which throttling begins, i.e. the prefetch depth. */
   public static final String JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD = "dremio.jdbc.batch_queue_throttling_threshold";
+  /** Size of JDBC batch queue (in bytes of batch data) above which throttling begins. */
+  public static final String JDBC_BATCH_QUEUE_MAX_BYTES = "dremio.jdbc.batch_queue_max_bytes";
   public static final String IS_CATALOG_NAME = "DREMIO";
   // END_OF_STREAM_MESSAGE gets added to batchQueue to signal the waiting threads
   // that there is no more data in the queue, therefore aborting the operations waiting
@@ -69,7 +73,7 @@ class DremioCursor implements Cursor {
 
   ////////////////////////////////////////
   // ResultsListener:
-  static class ResultsListener implements UserResultsListener {
+  static class ResultsListener implements UserResultsListener, DremioResultSetMetrics {
     private static final org.slf4j.Logger logger =
         org.slf4j.LoggerFactory.getLogger(ResultsListener.class);
 
@@ -80,6 +84,8 @@ class DremioCursor implements Cursor {
 
     private final int batchQueueThrottlingThreshold;
 
+    private final long batchQueueMaxBytes;
+
     /** (Just for logging.) */
     private volatile QueryId queryId;
 
@@ -105,6 +111,15 @@ class DremioCursor implements Cursor {
     final LinkedBlockingDeque<QueryDataBatch> batchQueue =
         Queues.newLinkedBlockingDeque();
 
+    /** Bytes of batch data (held off-heap) currently in batchQueue. */
+    private final AtomicLong queuedBytes = new AtomicLong();
+
+    /** (Just for metrics.) */
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong peakQueuedBytes = new AtomicLong();
+    private final AtomicInteger throttleCount = new AtomicInteger();
+    private final AtomicLong waitNanos = new AtomicLong();
+
     private final long batchQueuePollTimeoutMs;
 
     // time (as epoch in millis) the query should complete before
@@ -114,24 +129,53 @@ class DremioCursor implements Cursor {
      * ...
      * @param  batchQueueThrottlingThreshold
      *         queue size threshold for throttling server
+     * @param  batchQueueMaxBytes
+     *         queued bytes threshold for throttling server
      * @param  batchQueuePollTimeoutMs
      *         timeout for batchQueue.Poll() in ms
      */
     @VisibleForTesting
-    ResultsListener( int batchQueueThrottlingThreshold, long batchQueuePollTimeoutMs ) {
+    ResultsListener( int batchQueueThrottlingThreshold, long batchQueueMaxBytes, long batchQueuePollTimeoutMs ) {
       instanceId = INSTANCE_ID_COUNTER.getAndIncrement();
       this.batchQueueThrottlingThreshold = batchQueueThrottlingThreshold;
+      this.batchQueueMaxBytes = batchQueueMaxBytes;
       this.batchQueuePollTimeoutMs = batchQueuePollTimeoutMs;
       logger.debug( "[#{}] Query listener created.", instanceId );
     }
 
+    @VisibleForTesting
+    ResultsListener( int batchQueueThrottlingThreshold, long batchQueuePollTimeoutMs ) {
+      this(batchQueueThrottlingThreshold, Long.MAX_VALUE, batchQueuePollTimeoutMs);
+    }
+
     /**
      * ...
      * @param  batchQueueThrottlingThreshold
      *         queue size threshold for throttling server
+     * @param  batchQueueMaxBytes
+     *         queued bytes threshold for throttling server
      */
-    ResultsListener( int batchQueueThrottlingThreshold ) {
-      this(batchQueueThrottlingThreshold, 50);
+    ResultsListener( int batchQueueThrottlingThreshold, long batchQueueMaxBytes ) {
+      this(batchQueueThrottlingThreshold, batchQueueMaxBytes, 50);
+    }
+
+    private static long sizeOf(QueryDataBatch batch) {
+      return batch.hasData() ? batch.getData().capacity() : 0;
+    }
+
+    /** Whether the queue holds more batches or bytes than allowed. */
+    private boolean isOverThreshold() {
+      return batchQueue.size() > batchQueueThrottlingThreshold
+          || queuedBytes.get() > batchQueueMaxBytes;
+    }
+
+    /** Whether the queue has drained enough below both thresholds to resume. */
+    private boolean isBelowResumeThreshold() {
+      final boolean batchesDrained = batchQueue.size() < batchQueueThrottlingThreshold / 2
+          || batchQueue.size() == 0;  // (in case threshold < 2)
+      final boolean bytesDrained = queuedBytes.get() <= batchQueueMaxBytes / 2
+          || batchQueue.size() == 0;  // (in case a single batch exceeds the limit)
+      return batchesDrained && bytesDrained;
     }
 
     /**
@@ -209,13 +253,17 @@ class DremioCursor implements Cursor {
       }
 
       // We're active; let's add to the queue.
+      final long size = sizeOf(result);
+      receivedBytes.addAndGet(size);
+      peakQueuedBytes.accumulateAndGet(queuedBytes.addAndGet(size), Math::max);
       batchQueue.add(result);
 
       // Throttle server if queue size has exceed threshold.
-      if (batchQueue.size() > batchQueueThrottlingThreshold ) {
+      if (isOverThreshold()) {
         if ( startThrottlingIfNot( throttle ) ) {
-          logger.debug( "[#{}] Throttling started at queue size {}.",
-                        instanceId, batchQueue.size() );
+          throttleCount.incrementAndGet();
+          logger.debug( "[#{}] Throttling started at queue size {} ({} bytes).",
+                        instanceId, batchQueue.size(), queuedBytes.get() );
         }
       }
 
@@ -260,23 +308,24 @@ class DremioCursor implements Cursor {
           if (remaining < 0) {
             throw new TimeoutException("Query did not complete before timeout expiration");
           }
+          final long waitStart = System.nanoTime();
           final QueryDataBatch qdb = completed ? batchQueue.poll() :
             batchQueue.poll(Math.min(remaining, batchQueuePollTimeoutMs), TimeUnit.MILLISECONDS);
+          waitNanos.addAndGet(System.nanoTime() - waitStart);
           if (qdb == END_OF_STREAM_MESSAGE) {
             return null;
           }
           if (qdb != null) {
             lastDequeuedBatchNumber++;
+            queuedBytes.addAndGet(-sizeOf(qdb));
             logger.debug( "[#{}] Dequeued query data batch #{}: {}.",
                           instanceId, lastDequeuedBatchNumber, qdb );
 
             // Unthrottle server if queue size has dropped enough below threshold:
-            if ( batchQueue.size() < batchQueueThrottlingThreshold / 2
-                 || batchQueue.size() == 0  // (in case threshold < 2)
-                 ) {
+            if (isBelowResumeThreshold()) {
               if ( stopThrottlingIfSo() ) {
-                logger.debug( "[#{}] Throttling stopped at queue size {}.",
-                              instanceId, batchQueue.size() );
+                logger.debug( "[#{}] Throttling stopped at queue size {} ({} bytes).",
+                              instanceId, batchQueue.size(), queuedBytes.get() );
               }
             }
             return qdb;
@@ -289,8 +338,36 @@ class DremioCursor implements Cursor {
       this.shouldCompleteBefore = shouldCompleteBefore;
     }
 
+    @Override
+    public long getQueuedBytes() {
+      return queuedBytes.get();
+    }
+
+    @Override
+    public long getPeakQueuedBytes() {
+      return peakQueuedBytes.get();
+    }
+
+    @Override
+    public long getReceivedBytes() {
+      return receivedBytes.get();
+    }
+
+    @Override
+    public int getThrottleCount() {
+      return throttleCount.get();
+    }
+
+    @Override
+    public long getWaitTimeMs() {
+      return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
     void close() {
-      logger.debug( "[#{}] Query listener closing.", instanceId );
+      logger.debug( "[#{}] Query listener closing. Received {} batches ({} bytes), peak queue {} bytes,"
+                    + " throttled {} times, waited {} ms for data.",
+                    instanceId, lastReceivedBatchNumber, receivedBytes.get(), peakQueuedBytes.get(),
+                    throttleCount.get(), getWaitTimeMs() );
       closed = true;
       if ( stopThrottlingIfSo() ) {
         logger.debug( "[#{}] Throttling stopped at close() (at queue size {}).",
@@ -303,6 +380,7 @@ class DremioCursor implements Cursor {
           qdb.getData().close();
         }
       }
+      queuedBytes.set(0);
 
       completed = true;
       // Add an END_OF_STREAM_MESSAGE batch to the queue to signify no more data in a race condition
@@ -387,7 +465,9 @@ class DremioCursor implements Cursor {
     DremioClient client = connection.getClient();
     final int batchQueueThrottlingThreshold =
         client.getConfig().getInt(JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD );
-    resultsListener = new ResultsListener(batchQueueThrottlingThreshold);
+    final long batchQueueMaxBytes =
+        client.getConfig().getBytes(JDBC_BATCH_QUEUE_MAX_BYTES );
+    resultsListener = new ResultsListener(batchQueueThrottlingThreshold, batchQueueMaxBytes);
     currentBatchHolder = new RecordBatchLoader(client.getRecordAllocator());
   }
 
@@ -403,6 +483,10 @@ class DremioCursor implements Cursor {
     }
   }
 
+  DremioResultSetMetrics getMetrics() {
+    return resultsListener;
+  }
+
   public boolean isBeforeFirst() {
     return currentRowNumber < 0;
   }
@@ -50,6 +50,7 @@ import org.apache.calcite.avatica.util.Cursor;
 import com.dremio.common.SuppressForbidden;
 import com.dremio.jdbc.AlreadyClosedSqlException;
 import com.dremio.jdbc.DremioResultSet;
+import com.dremio.jdbc.DremioResultSetMetrics;
 import com.dremio.jdbc.ExecutionCanceledSqlException;
 import com.dremio.jdbc.SchemaChangeListener;
 
@@ -57,7 +58,7 @@ import com.dremio.jdbc.SchemaChangeListener;
 /**
  * Dremio's implementation of {@link ResultSet}.
  */
-class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
+class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet, DremioResultSetMetrics {
   @SuppressWarnings("unused")
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(DremioResultSetImpl.class);
@@ -67,13 +68,18 @@ class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
   SchemaChangeListener changeListener;
   boolean hasPendingCancelationNotification;
 
+  /** Fetch metrics of the Dremio cursor, kept once the cursor is closed (null for Avatica cursors). */
+  private DremioResultSetMetrics metrics;
+
 
   DremioResultSetImpl(AvaticaStatement statement, QueryState state,
                      Meta.Signature signature, ResultSetMetaData resultSetMetaData,
                      TimeZone timeZone, Meta.Frame firstFrame) throws SQLException {
     super(statement, state, signature, resultSetMetaData, timeZone, firstFrame);
     connection = (DremioConnectionImpl) statement.getConnection();
-    cursor = new DremioCursor(connection, statement, signature);
+    final DremioCursor dremioCursor = new DremioCursor(connection, statement, signature);
+    cursor = dremioCursor;
+    metrics = dremioCursor.getMetrics();
   }
 
   /**
@@ -1869,6 +1875,34 @@ class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
     return null;
   }
 
+  ////////////////////////////////////////
+  // DremioResultSetMetrics methods:
+
+  @Override
+  public long getReceivedBytes() {
+    return metrics != null ? metrics.getReceivedBytes() : 0;
+  }
+
+  @Override
+  public long getQueuedBytes() {
+    return metrics != null ? metrics.getQueuedBytes() : 0;
+  }
+
+  @Override
+  public long getPeakQueuedBytes() {
+    return metrics != null ? metrics.getPeakQueuedBytes() : 0;
+  }
+
+  @Override
+  public int getThrottleCount() {
+    return metrics != null ? metrics.getThrottleCount() : 0;
+  }
+
+  @Override
+  public long getWaitTimeMs() {
+    return metrics != null ? metrics.getWaitTimeMs() : 0;
+  }
+
   ////////////////////////////////////////
 
   @Override
@@ -1882,6 +1916,7 @@ class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
     else {
       DremioCursor cursor = new DremioCursor(connection, statement, signature);
       super.execute2(cursor, this.signature.columns);
+      metrics = cursor.getMetrics();
 
       // Read first (schema-only) batch to initialize result-set metadata from
       // (initial) schema before Statement.execute...(...) returns result set:
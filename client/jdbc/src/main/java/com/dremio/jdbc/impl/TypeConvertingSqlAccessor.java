@@ -25,6 +25,7 @@ import java.sql.Timestamp;
 import java.util.Calendar;
 
 import com.dremio.common.types.TypeProtos.MajorType;
+import com.dremio.common.types.TypeProtos.MinorType;
 import com.dremio.exec.vector.accessor.InvalidAccessException;
 import com.dremio.exec.vector.accessor.SqlAccessor;
 import com.dremio.jdbc.SQLConversionOverflowException;
@@ -35,9 +36,12 @@ import com.dremio.jdbc.SQLConversionOverflowException;
  */
 class TypeConvertingSqlAccessor implements SqlAccessor {
   private final SqlAccessor innerAccessor;
+  /** Type of the column, resolved once rather than on every row access. */
+  private final MinorType minorType;
 
   public TypeConvertingSqlAccessor( SqlAccessor innerAccessor ) {
     this.innerAccessor = innerAccessor;
+    this.minorType = innerAccessor.getType().getMinorType();
   }
 
   @Override
@@ -273,7 +277,7 @@ class TypeConvertingSqlAccessor implements SqlAccessor {
   @Override
   public byte getByte( int rowOffset ) throws InvalidAccessException {
     final byte result;
-    switch ( getType().getMinorType() ) {
+    switch ( minorType ) {
       // 1. Regular type:
       case TINYINT:
         result = innerAccessor.getByte( rowOffset );
@@ -341,7 +345,7 @@ class TypeConvertingSqlAccessor implements SqlAccessor {
   @Override
   public short getShort( int rowOffset ) throws InvalidAccessException {
     final short result;
-    switch ( getType().getMinorType() ) {
+    switch ( minorType ) {
       // 1. Regular type:
       case SMALLINT:
         result = innerAccessor.getShort( rowOffset );
@@ -408,7 +412,7 @@ class TypeConvertingSqlAccessor implements SqlAccessor {
   @Override
   public int getInt( int rowOffset ) throws InvalidAccessException {
     final int result;
-    switch ( getType().getMinorType() ) {
+    switch ( minorType ) {
       // 1. Regular type:
       case INT:
         result = innerAccessor.getInt( rowOffset );
@@ -465,7 +469,7 @@ class TypeConvertingSqlAccessor implements SqlAccessor {
   @Override
   public long getLong( int rowOffset ) throws InvalidAccessException {
     final long result;
-    switch ( getType().getMinorType() ) {
+    switch ( minorType ) {
       // 1. Regular type:
       case BIGINT:
         result = innerAccessor.getLong( rowOffset );
@@ -513,7 +517,7 @@ class TypeConvertingSqlAccessor implements SqlAccessor {
   @Override
   public float getFloat( int rowOffset ) throws InvalidAccessException {
     final float result;
-    switch ( getType().getMinorType() ) {
+    switch ( minorType ) {
       // 1. Regular type:
       case FLOAT4:
         result = innerAccessor.getFloat( rowOffset );
@@ -566,7 +570,7 @@ class TypeConvertingSqlAccessor implements SqlAccessor {
   @Override
   public double getDouble( int rowOffset ) throws InvalidAccessException {
     final double result;
-    switch ( getType().getMinorType() ) {
+    switch ( minorType ) {
       // 1. Regular type:
       case FLOAT8:
         result = innerAccessor.getDouble( rowOffset );
@@ -605,7 +609,7 @@ class TypeConvertingSqlAccessor implements SqlAccessor {
   @Override
   public BigDecimal getBigDecimal( int rowOffset ) throws InvalidAccessException {
     final BigDecimal result;
-    switch ( getType().getMinorType() ) {
+    switch ( minorType ) {
       // 1. Regular type:
       case DECIMAL9:
       case DECIMAL18:
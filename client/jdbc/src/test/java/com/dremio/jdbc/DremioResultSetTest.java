@@ -103,6 +103,30 @@ public class DremioResultSetTest extends JdbcWithServerTestBase {
     assertThat(resultSet.getRow()).isEqualTo(0);
   }
 
+  @Test
+  public void test_unwrap_reportsFetchMetrics() throws Exception {
+    Statement statement = getConnection().createStatement();
+    ResultSet resultSet =
+      statement.executeQuery("SELECT * FROM cp.\"donuts.json\"");
+
+    assertThat(resultSet.isWrapperFor(DremioResultSetMetrics.class)).isTrue();
+    final DremioResultSetMetrics metrics = resultSet.unwrap(DremioResultSetMetrics.class);
+    while (resultSet.next()) {
+      // Fetch all the batches.
+    }
+
+    assertThat(metrics.getReceivedBytes()).isGreaterThan(0);
+    assertThat(metrics.getPeakQueuedBytes()).isGreaterThan(0);
+    assertThat(metrics.getPeakQueuedBytes()).isLessThanOrEqualTo(metrics.getReceivedBytes());
+    assertThat(metrics.getQueuedBytes()).isEqualTo(0);
+    assertThat(metrics.getThrottleCount()).isEqualTo(0);
+
+    // Still reported once closed.
+    final long receivedBytes = metrics.getReceivedBytes();
+    resultSet.close();
+    assertThat(metrics.getReceivedBytes()).isEqualTo(receivedBytes);
+  }
+
   // TODO:  Ideally, test other methods.
 
 }
@@ -16,14 +16,20 @@
 package com.dremio.jdbc.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
 import org.junit.Test;
 
 import com.dremio.exec.proto.UserBitShared.QueryData;
 import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.rpc.ConnectionThrottle;
 import com.dremio.jdbc.impl.DremioCursor.ResultsListener;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
 import com.dremio.test.DremioTest;
@@ -79,4 +85,54 @@ public class ResultsListenerTest extends DremioTest {
     resultsListenerThread.join();
     assertTrue(String.format("Actual time elapsed [%s]ms, exceeds Expected time [%s]ms elapsed for the call getNext()", actualTimeElapsedMs, EXPECTED_TIME_ELAPSED_MS), actualTimeElapsedMs < EXPECTED_TIME_ELAPSED_MS);
   }
+
+  @Test
+  public void testWaitTimeIsReported() throws Exception {
+    final ResultsListener resultsListener = new ResultsListener(THROTTLING_THRESHOLD, BATCH_QUEUE_POLL_TIMEOUT_MS);
+
+    final Thread resultsListenerThread = new Thread(() -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        // Ignore Exception.
+      }
+      resultsListener.dataArrived(INSERTED_BATCH, null);
+    });
+    resultsListenerThread.start();
+    assertEquals(INSERTED_BATCH, resultsListener.getNext());
+    resultsListenerThread.join();
+
+    final long waitTimeMs = resultsListener.getWaitTimeMs();
+    assertTrue("Wait time not reported: " + waitTimeMs, waitTimeMs >= 50);
+    resultsListener.close();
+  }
+
+  @Test
+  public void testThrottlingOnQueuedBytes() throws Exception {
+    final AtomicBoolean autoRead = new AtomicBoolean(true);
+    final ConnectionThrottle throttle = autoRead::set;
+
+    try (BufferAllocator allocator = new RootAllocator();
+         ArrowBuf first = allocator.buffer(1024);
+         ArrowBuf second = allocator.buffer(1024)) {
+      final ResultsListener resultsListener = new ResultsListener(THROTTLING_THRESHOLD, 1500, BATCH_QUEUE_POLL_TIMEOUT_MS);
+
+      resultsListener.dataArrived(new QueryDataBatch(QueryData.getDefaultInstance(), first), throttle);
+      assertTrue(autoRead.get());
+      resultsListener.dataArrived(new QueryDataBatch(QueryData.getDefaultInstance(), second), throttle);
+      assertFalse(autoRead.get());
+      assertEquals(1, resultsListener.getThrottleCount());
+      assertEquals(resultsListener.getReceivedBytes(), resultsListener.getQueuedBytes());
+
+      // Below half the byte limit once a single batch is left in the queue.
+      resultsListener.getNext().release();
+      assertFalse(autoRead.get());
+      resultsListener.getNext().release();
+      assertTrue(autoRead.get());
+      assertEquals(0, resultsListener.getQueuedBytes());
+      assertEquals(resultsListener.getReceivedBytes(), resultsListener.getPeakQueuedBytes());
+
+      resultsListener.close();
+    }
+  }
 }
@@ -92,6 +92,12 @@ public class DremioConfig extends NestedConfig {
   public static final String PLAN_CACHE_TIMEOUT_MINUTES = "dremio.plan.cache.timeout_minutes";
   public static final String PLAN_CACHE_MAX_ENTRIES = "dremio.plan.cache.max_entries";
 
+  /**
+   * Config values related to query result caching
+   */
+  public static final String RESULT_CACHE_TIMEOUT_MINUTES = "dremio.result.cache.timeout_minutes";
+  public static final String RESULT_CACHE_MAX_SIZE_BYTES = "dremio.result.cache.max_size_bytes";
+
   /**
    * Config values related to statistics caching
    */
@@ -61,6 +61,8 @@ public class ElasticScanCreator implements ProducerOperator.Creator<Elasticsearc
       final ImmutableMap<SchemaPath, FieldAnnotation> annotations = FieldAnnotation.getAnnotationMap(tableAttributes.getAnnotationList());
       final int maxCellSize = Math.toIntExact(context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
       final boolean forceDoublePrecision = plugin.getConfig().isForceDoublePrecision();
+      final ElasticSliceStats sliceStats = new ElasticSliceStats(context.getStats(),
+        context.getOptions().getOption(ExecConstants.ELASTIC_SLICE_TARGET_PAGE_BYTES));
       for (SplitAndPartitionInfo split : subScan.getSplits()) {
 
         final ElasticConnection connection = plugin.getConnection(FluentIterable.from(split.getDatasetSplitInfo().getAffinitiesList()).transform(new Function<Affinity, String>(){
@@ -80,7 +82,8 @@ public class ElasticScanCreator implements ProducerOperator.Creator<Elasticsearc
           connection,
           subScan.getColumns(),
           FieldReadDefinition.getTree(subScan.getFullSchema(), annotations, workingBuffer, maxCellSize, new ElasticVersionBehaviorProvider(connection.getESVersionInCluster()), forceDoublePrecision),
-          plugin.getConfig()
+          plugin.getConfig(),
+          sliceStats
         ));
       }
 
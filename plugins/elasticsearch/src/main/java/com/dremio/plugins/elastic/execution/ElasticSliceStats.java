@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.execution;
+
+import java.util.concurrent.TimeUnit;
+
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.metrics.ElasticStats.Metric;
+
+/**
+ * Tracks the pages and slices read by the elasticsearch readers of a scan, reporting them in the operator profile
+ * and sizing the pages of the slices yet to be read from the bytes per document seen so far.
+ */
+final class ElasticSliceStats {
+
+  // elasticsearch rejects pages larger than index.max_result_window, 10000 unless the index overrides it.
+  static final int MAX_PAGE_SIZE = 10_000;
+  static final int MIN_PAGE_SIZE = 100;
+
+  private final OperatorStats stats;
+  private final long targetPageBytes;
+
+  private long records;
+  private long bytes;
+  private long slices;
+  private long minRecordsPerSec = Long.MAX_VALUE;
+  private long maxRecordsPerSec;
+
+  ElasticSliceStats(OperatorStats stats, long targetPageBytes) {
+    this.stats = stats;
+    this.targetPageBytes = targetPageBytes;
+  }
+
+  /**
+   * Page size for the next slice: enough documents to fill the target page size at the average document size seen
+   * so far, or the configured scroll size until a slice has been read. The configured scroll size is kept as the
+   * upper bound when it is above what elasticsearch accepts by default, as the index was then set up for it.
+   */
+  int getPageSize(int configuredSize) {
+    if (records == 0) {
+      return configuredSize;
+    }
+    final long bytesPerRecord = Math.max(1, bytes / records);
+    final long pageSize = targetPageBytes / bytesPerRecord;
+    return (int) Math.max(Math.min(configuredSize, MIN_PAGE_SIZE), Math.min(pageSize, Math.max(configuredSize, MAX_PAGE_SIZE)));
+  }
+
+  void pageRead(int pageBytes) {
+    if (stats != null) {
+      stats.addLongStat(Metric.NUM_PAGES_READ, 1);
+      stats.addLongStat(Metric.BYTES_READ, pageBytes);
+    }
+  }
+
+  void sliceRead(long sliceRecords, long sliceBytes, long elapsedNanos) {
+    records += sliceRecords;
+    bytes += sliceBytes;
+    slices++;
+
+    final long recordsPerSec = sliceRecords * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+    minRecordsPerSec = Math.min(minRecordsPerSec, recordsPerSec);
+    maxRecordsPerSec = Math.max(maxRecordsPerSec, recordsPerSec);
+    if (stats != null) {
+      stats.setLongStat(Metric.NUM_SLICES_READ, slices);
+      stats.setLongStat(Metric.MIN_SLICE_RECORDS_PER_SEC, minRecordsPerSec);
+      stats.setLongStat(Metric.MAX_SLICE_RECORDS_PER_SEC, maxRecordsPerSec);
+    }
+  }
+}
@@ -42,6 +42,7 @@ import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.elastic.proto.ElasticReaderProto.ElasticSplitXattr;
 import com.dremio.elastic.proto.ElasticReaderProto.ElasticTableXattr;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType;
 import com.dremio.exec.store.AbstractRecordReader;
 import com.dremio.exec.store.SplitAndPartitionInfo;
@@ -64,10 +65,12 @@ import com.dremio.sabot.op.scan.OutputMutator;
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
- * Record reader for Elasticsearch.
+ * Record reader for Elasticsearch. Reads a shard, or a slice of it when the split carries one, through a scroll.
  */
 public class ElasticsearchRecordReader extends AbstractRecordReader {
 
@@ -100,10 +103,14 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
   private final boolean metaIndexSelected;
   private final boolean metaTypeSelected;
   private final ElasticsearchStoragePlugin plugin;
+  private final ElasticSliceStats sliceStats;
 
   private long totalSize;
   private long totalCount;
   private String scrollId;
+  private int searchSize;
+  private long bytesRead;
+  private long readNanos;
   private VectorContainerWriter complexWriter;
   private BaseJsonProcessor jsonReader;
   private State state = State.INIT;
@@ -121,7 +128,25 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     List<SchemaPath> columns,
     FieldReadDefinition readDefinition,
     ElasticsearchConf config) throws InvalidProtocolBufferException {
+    this(plugin, tableSchemaPath, tableAttributes, context, spec, useElasticProjection, split, connection, columns,
+      readDefinition, config, null);
+  }
+
+  ElasticsearchRecordReader(
+    ElasticsearchStoragePlugin plugin,
+    List<String> tableSchemaPath,
+    ElasticTableXattr tableAttributes,
+    OperatorContext context,
+    ElasticsearchScanSpec spec,
+    boolean useElasticProjection,
+    SplitAndPartitionInfo split,
+    ElasticConnection connection,
+    List<SchemaPath> columns,
+    FieldReadDefinition readDefinition,
+    ElasticsearchConf config,
+    ElasticSliceStats sliceStats) throws InvalidProtocolBufferException {
     super(context, columns);
+    this.sliceStats = sliceStats;
     this.plugin = plugin;
     this.tableAttributes = tableAttributes;
     this.tableSchemaPath = tableSchemaPath;
@@ -182,9 +207,38 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     return true;
   }
 
+  private boolean isSliced() {
+    return splitAttributes != null && splitAttributes.getSliceMax() > 1;
+  }
+
+  /**
+   * Adds the slice to read to the search body, elasticsearch then splits the index in sliceMax parts and only
+   * returns the documents of the given one.
+   */
+  static String withSlice(String query, int sliceId, int sliceMax) {
+    final JsonObject body = new JsonParser().parse(query).getAsJsonObject();
+    final JsonObject slice = new JsonObject();
+    slice.addProperty("id", sliceId);
+    slice.addProperty("max", sliceMax);
+    body.add("slice", slice);
+    return body.toString();
+  }
+
   private void getFirstPage() {
     assert state == State.INIT;
-    int searchSize = config.getScrollSize();
+    searchSize = config.getScrollSize();
+    if (isSliced()) {
+      if (!elasticVersionBehaviorProvider.isEs5Version()) {
+        throw UserException.unsupportedError()
+          .message("Reading shards in slices requires Elasticsearch 5.0 or later. Set %s to 1 to read each shard with a single scroll.",
+            ExecConstants.ELASTIC_SLICES_PER_SHARD.getOptionName())
+          .addContext("Resource", resource)
+          .build(logger);
+      }
+      if (sliceStats != null) {
+        searchSize = sliceStats.getPageSize(searchSize);
+      }
+    }
     int fetch = spec.getFetch();
     if (fetch >= 0 && fetch < searchSize) {
       searchSize = fetch;
@@ -192,14 +246,17 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
 
     final Search<byte[]> search;
     final String newQuery;
-    newQuery = elasticVersionBehaviorProvider.processElasticSearchQuery(query);
+    newQuery = isSliced()
+      ? withSlice(elasticVersionBehaviorProvider.processElasticSearchQuery(query), splitAttributes.getSliceId(), splitAttributes.getSliceMax())
+      : elasticVersionBehaviorProvider.processElasticSearchQuery(query);
     search = new SearchBytes()
       .setQuery(newQuery)
       .setResource(resource)
       .setParameter("scroll", config.getScrollTimeoutFormatted())
       .setParameter("size", Integer.toString(searchSize));
 
-    if (splitAttributes != null) {
+    if (splitAttributes != null && !isSliced()) {
+      // slices are taken over the whole index, see ElasticsearchGroupScan
       search.setParameter("preference", "_shards:" + splitAttributes.getShard());
     }
 
@@ -221,6 +278,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
 
       throw e;
     }
+    pageRead(bytes);
 
     try {
       jsonReader.setSource(bytes);
@@ -240,6 +298,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
         .message("Failure when initiating Elastic query.")
         .addContext("Resource", resource)
         .addContext("Shard %s", splitAttributes == null ? "all" : splitAttributes.getShard())
+        .addContext("Slice", isSliced() ? splitAttributes.getSliceId() + "/" + splitAttributes.getSliceMax() : "none")
         .addContext("Query", query)
         .build(logger);
     }
@@ -255,7 +314,9 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
       SearchScroll searchScroll = new SearchScroll()
         .setScrollId(scrollId)
         .setScrollTimeout(config.getScrollTimeoutFormatted());
-      return connection.execute(searchScroll, false);
+      final byte[] bytes = connection.execute(searchScroll, false);
+      pageRead(bytes);
+      return bytes;
     } finally {
       if (stats != null) {
         stats.stopWait();
@@ -263,6 +324,13 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     }
   }
 
+  private void pageRead(byte[] bytes) {
+    bytesRead += bytes.length;
+    if (sliceStats != null) {
+      sliceStats.pageRead(bytes.length);
+    }
+  }
+
 
   @Override
   public int next() {
@@ -270,6 +338,18 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
       return 0;
     }
 
+    final long startNanos = System.nanoTime();
+    try {
+      return readBatch();
+    } finally {
+      readNanos += System.nanoTime() - startNanos;
+      if (state == State.DEPLETED && sliceStats != null) {
+        sliceStats.sliceRead(totalCount, bytesRead, readNanos);
+      }
+    }
+  }
+
+  private int readBatch() {
     if (state == State.INIT) {
       getFirstPage();
     }
@@ -306,7 +386,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
         pageCount++;
 
         // if we're calling an ES server many times and isn't getting us the number of messages we expect, we should terminate the query to avoid a DOS attack
-        boolean badStreamBreak = pageCount > STREAM_COUNT_BREAK_MULTIPLIER * numRowsPerBatch / (1.0 * spec.getFetch()) && pageCount > 5;
+        boolean badStreamBreak = pageCount > STREAM_COUNT_BREAK_MULTIPLIER * numRowsPerBatch / (1.0 * searchSize) && pageCount > 5;
 
         if (!badStreamBreak) {
           jsonReader.setSource(bytes);
@@ -15,41 +15,62 @@
  */
 package com.dremio.plugins.elastic.planning;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.SchemaPath;
+import com.dremio.elastic.proto.ElasticReaderProto.ElasticSplitXattr;
 import com.dremio.exec.physical.base.AbstractGroupScan;
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.base.SubScan;
+import com.dremio.exec.planner.fragment.ExecutionNodeMap;
 import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
 import com.dremio.exec.store.SplitAndPartitionInfo;
 import com.dremio.exec.store.SplitWork;
 import com.dremio.exec.store.TableMetadata;
+import com.dremio.service.namespace.PartitionChunkMetadata;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf.DatasetSplit;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
+import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
- * Elasticsearch group scan.
+ * Elasticsearch group scan. When the scan is read with more than one slice per shard, each index is read with a
+ * sliced scroll of slicesPerShard slices for each of its shards, and each slice is handed out as its own split.
+ * <p>
+ * The slices are taken over the whole index rather than over a shard the search is routed to, as elasticsearch
+ * versions disagree on how a slice and a shard preference combine. Elasticsearch reads slice i from shard
+ * i % shards, so each slice still gets the affinity of the shard that holds its documents, but the search of a
+ * slice is sent to every shard of the index, the others returning no documents.
+ * </p>
  */
 public class ElasticsearchGroupScan extends AbstractGroupScan {
 
   private final ElasticsearchScanSpec spec;
   private final long rowCountEstimate;
+  private final int slicesPerShard;
 
   public ElasticsearchGroupScan(
       OpProps props,
       ElasticsearchScanSpec spec,
       TableMetadata table,
       List<SchemaPath> columns,
-      long rowCountEstimate
+      long rowCountEstimate,
+      int slicesPerShard
       ) {
     super(props, table, columns);
     this.spec = spec;
     this.rowCountEstimate = rowCountEstimate;
+    this.slicesPerShard = slicesPerShard;
   }
 
   @JsonProperty("spec")
@@ -57,6 +78,75 @@ public class ElasticsearchGroupScan extends AbstractGroupScan {
     return spec;
   }
 
+  @JsonProperty("slicesPerShard")
+  public int getSlicesPerShard() {
+    return slicesPerShard;
+  }
+
+  @Override
+  @JsonIgnore
+  public int getMaxParallelizationWidth() {
+    return super.getMaxParallelizationWidth() * slicesPerShard;
+  }
+
+  @Override
+  public Iterator<SplitWork> getSplits(ExecutionNodeMap nodeMap) {
+    if (slicesPerShard <= 1) {
+      return super.getSplits(nodeMap);
+    }
+
+    // shards of each index, ordered by shard number
+    final Map<String, List<ShardSplit>> shardsByIndex = new LinkedHashMap<>();
+    getDataset().getSplits().forEachRemaining(partitionChunk -> {
+      for (DatasetSplit datasetSplit : partitionChunk.getDatasetSplits()) {
+        final ShardSplit shard = new ShardSplit(partitionChunk, datasetSplit);
+        shardsByIndex.computeIfAbsent(shard.attributes.getResource(), r -> new ArrayList<>()).add(shard);
+      }
+    });
+
+    final List<SplitWork> work = new ArrayList<>();
+    for (List<ShardSplit> shards : shardsByIndex.values()) {
+      shards.sort(Comparator.comparingInt(shard -> shard.attributes.getShard()));
+      final int sliceMax = shards.size() * slicesPerShard;
+      for (int i = 0; i < sliceMax; i++) {
+        // elasticsearch reads slice i from shard i % shards
+        final ShardSplit shard = shards.get(i % shards.size());
+        work.add(new SplitWork(shard.partitionChunk, shard.slice(i, sliceMax), nodeMap, getDistributionAffinity()));
+      }
+    }
+    return work.iterator();
+  }
+
+  /**
+   * A shard split of the dataset, sliced into the splits of the index it belongs to.
+   */
+  private final class ShardSplit {
+    private final PartitionChunkMetadata partitionChunk;
+    private final DatasetSplit datasetSplit;
+    private final ElasticSplitXattr attributes;
+
+    private ShardSplit(PartitionChunkMetadata partitionChunk, DatasetSplit datasetSplit) {
+      this.partitionChunk = partitionChunk;
+      this.datasetSplit = datasetSplit;
+      try {
+        this.attributes = ElasticSplitXattr.parseFrom(datasetSplit.getSplitExtendedProperty());
+      } catch (InvalidProtocolBufferException e) {
+        throw new RuntimeException("failed to parse elasticsearch split", e);
+      }
+    }
+
+    private DatasetSplit slice(int sliceId, int sliceMax) {
+      final ElasticSplitXattr sliceAttributes = attributes.toBuilder()
+        .setSliceId(sliceId)
+        .setSliceMax(sliceMax)
+        .build();
+      return datasetSplit.toBuilder()
+        .setSize(datasetSplit.getSize() / slicesPerShard)
+        .setSplitExtendedProperty(sliceAttributes.toByteString())
+        .build();
+    }
+  }
+
   @Override
   public SubScan getSpecificScan(List<SplitWork> work) throws ExecutionSetupException {
     List<SplitAndPartitionInfo> splitWork = work
@@ -87,17 +177,19 @@ public class ElasticsearchGroupScan extends AbstractGroupScan {
       return false;
     }
     ElasticsearchGroupScan castOther = (ElasticsearchGroupScan) other;
-    return Objects.equal(spec, castOther.spec) && Objects.equal(rowCountEstimate, castOther.rowCountEstimate);
+    return Objects.equal(spec, castOther.spec) && Objects.equal(rowCountEstimate, castOther.rowCountEstimate)
+        && slicesPerShard == castOther.slicesPerShard;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(spec, rowCountEstimate);
+    return Objects.hashCode(spec, rowCountEstimate, slicesPerShard);
   }
 
   @Override
   public String toString() {
-    return MoreObjects.toStringHelper(this).add("spec", spec).add("rowCountEstimate", rowCountEstimate).toString();
+    return MoreObjects.toStringHelper(this).add("spec", spec).add("rowCountEstimate", rowCountEstimate)
+        .add("slicesPerShard", slicesPerShard).toString();
   }
 
 
@@ -27,6 +27,7 @@ import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.core.TableScan;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.planner.fragment.DistributionAffinity;
 import com.dremio.exec.planner.physical.CustomPrel;
@@ -98,7 +99,8 @@ public class ElasticScanPrel extends TableScan implements LeafPrel, CustomPrel {
     final BatchSchema schema = input.getSchema(creator.getFunctionLookupContext());
     return scanBuilder.toGroupScan(
         creator.props(this, null/*todo: need to send user?*/, schema, RESERVE, LIMIT),
-        mq.getRowCount(input).longValue());
+        mq.getRowCount(input).longValue(),
+        (int) creator.getOptionManager().getOption(ExecConstants.ELASTIC_SLICES_PER_SHARD));
   }
 
   @Override
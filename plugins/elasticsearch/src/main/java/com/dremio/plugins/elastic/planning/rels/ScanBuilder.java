@@ -62,9 +62,12 @@ public class ScanBuilder {
 
   private ElasticsearchScanSpec spec;
   private ElasticIntermediateScanPrel scan;
+  private boolean limited;
 
-  public GroupScan<SplitWork> toGroupScan(OpProps props, long estimatedRowCount){
-    return new ElasticsearchGroupScan(props, spec, scan.getTableMetadata(), scan.getProjectedColumns(), estimatedRowCount);
+  public GroupScan<SplitWork> toGroupScan(OpProps props, long estimatedRowCount, int slicesPerShard){
+    // a limit or sample is satisfied by the first page of each shard, slicing it would only add requests.
+    return new ElasticsearchGroupScan(props, spec, scan.getTableMetadata(), scan.getProjectedColumns(), estimatedRowCount,
+      limited ? 1 : slicesPerShard);
   }
 
   public String getResource(){
@@ -243,6 +246,7 @@ public class ScanBuilder {
 
       this.spec = scanSpec;
       this.scan = scan;
+      this.limited = sample != null || limit != null;
     } catch (ExpressionNotAnalyzableException e) {
       throw UserException.dataReadError(e).message("Elastic pushdown failed. Too late to recover query.").build(logger);
     }
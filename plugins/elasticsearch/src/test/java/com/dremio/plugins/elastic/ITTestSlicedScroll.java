@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic;
+
+import static com.dremio.plugins.elastic.ElasticsearchType.INTEGER;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.dremio.TestBuilder;
+import com.dremio.exec.ExecConstants;
+import com.dremio.plugins.elastic.ElasticBaseTestQuery.ElasticScrollSize;
+
+/**
+ * Reads every index in several slices per shard, each slice being its own split with its own scroll.
+ */
+@ElasticScrollSize(scrollSize=128)
+public class ITTestSlicedScroll extends ElasticBaseTestQuery {
+
+  @After
+  public void resetSlices() throws Exception {
+    resetSessionOption(ExecConstants.ELASTIC_SLICES_PER_SHARD);
+    resetSessionOption(ExecConstants.ELASTIC_SLICE_TARGET_PAGE_BYTES);
+  }
+
+  @Test
+  public void testSlicedScroll() throws Exception {
+    final int rowCount = 1000;
+    Object[][] obj = new Object[rowCount][1];
+    for (int i = 0; i < rowCount; i++) {
+      obj[i][0] = i;
+    }
+    ElasticsearchCluster.ColumnData[] data = new ElasticsearchCluster.ColumnData[]{
+      new ElasticsearchCluster.ColumnData("val", INTEGER, obj)
+    };
+
+    elastic.schema(2, 0, schema);
+    elastic.load(schema, table, data);
+    setSessionOption(ExecConstants.ELASTIC_SLICES_PER_SHARD, "4");
+    // small pages so later slices read with an adapted page size over several scroll requests.
+    setSessionOption(ExecConstants.ELASTIC_SLICE_TARGET_PAGE_BYTES, Long.toString(1 << 16));
+
+    TestBuilder builder = testBuilder()
+      .sqlQuery(String.format("select val from elasticsearch.%s.%s", schema, table))
+      .unOrdered()
+      .baselineColumns("val");
+
+    for (int i = 0; i < rowCount; i++) {
+      builder.baselineValues(i);
+    }
+
+    builder.go();
+  }
+
+  @Test
+  public void testSlicedScrollWithFilter() throws Exception {
+    final int rowCount = 1000;
+    Object[][] obj = new Object[rowCount][1];
+    for (int i = 0; i < rowCount; i++) {
+      obj[i][0] = i;
+    }
+    ElasticsearchCluster.ColumnData[] data = new ElasticsearchCluster.ColumnData[]{
+      new ElasticsearchCluster.ColumnData("val", INTEGER, obj)
+    };
+
+    elastic.schema(2, 0, schema);
+    elastic.load(schema, table, data);
+    setSessionOption(ExecConstants.ELASTIC_SLICES_PER_SHARD, "3");
+
+    testBuilder()
+      .sqlQuery(String.format("select count(*) as c from elasticsearch.%s.%s where val < 500", schema, table))
+      .unOrdered()
+      .baselineColumns("c")
+      .baselineValues(500L)
+      .go();
+  }
+}
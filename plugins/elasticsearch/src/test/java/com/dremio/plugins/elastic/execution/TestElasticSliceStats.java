@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.metrics.ElasticStats.Metric;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Tests for {@link ElasticSliceStats} and the slice the reader adds to its search.
+ */
+public class TestElasticSliceStats {
+
+  @Test
+  public void testPageSizeAdaptsToDocumentSize() {
+    final ElasticSliceStats sliceStats = new ElasticSliceStats(null, 1 << 20);
+
+    // nothing read yet, the configured size is used as is.
+    assertEquals(4000, sliceStats.getPageSize(4000));
+
+    // 1KB documents fill the 1MB target with 1024 of them.
+    sliceStats.sliceRead(1000, 1000 * 1024, 1_000_000);
+    assertEquals(1024, sliceStats.getPageSize(4000));
+
+    // small documents are capped by what elasticsearch accepts.
+    sliceStats.sliceRead(1_000_000, 1_000_000, 1_000_000);
+    assertEquals(ElasticSliceStats.MAX_PAGE_SIZE, sliceStats.getPageSize(4000));
+    assertEquals(20_000, sliceStats.getPageSize(20_000));
+  }
+
+  @Test
+  public void testPageSizeLowerBound() {
+    final ElasticSliceStats sliceStats = new ElasticSliceStats(null, 1 << 16);
+    sliceStats.sliceRead(10, 10 << 20, 1_000_000);
+    assertEquals(ElasticSliceStats.MIN_PAGE_SIZE, sliceStats.getPageSize(4000));
+    assertEquals(50, sliceStats.getPageSize(50));
+  }
+
+  @Test
+  public void testSliceMetrics() {
+    final OperatorStats stats = mock(OperatorStats.class);
+    final ElasticSliceStats sliceStats = new ElasticSliceStats(stats, 1 << 20);
+
+    sliceStats.pageRead(100);
+    verify(stats).addLongStat(Metric.NUM_PAGES_READ, 1);
+    verify(stats).addLongStat(Metric.BYTES_READ, 100);
+
+    sliceStats.sliceRead(1000, 100, 1_000_000_000);
+    sliceStats.sliceRead(4000, 100, 1_000_000_000);
+    verify(stats).setLongStat(Metric.NUM_SLICES_READ, 2);
+    verify(stats, times(2)).setLongStat(Metric.MIN_SLICE_RECORDS_PER_SEC, 1000);
+    verify(stats).setLongStat(Metric.MAX_SLICE_RECORDS_PER_SEC, 4000);
+  }
+
+  @Test
+  public void testWithSlice() {
+    final String query = ElasticsearchRecordReader.withSlice(ElasticsearchRecordReader.MATCH_ALL_REQUEST, 2, 4);
+    final JsonObject body = new JsonParser().parse(query).getAsJsonObject();
+    assertEquals(2, body.getAsJsonObject("slice").get("id").getAsInt());
+    assertEquals(4, body.getAsJsonObject("slice").get("max").getAsInt());
+    assertEquals(new JsonParser().parse(ElasticsearchRecordReader.MATCH_ALL_REQUEST).getAsJsonObject().get("query"),
+      body.get("query"));
+  }
+}
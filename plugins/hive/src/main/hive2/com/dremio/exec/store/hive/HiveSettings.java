@@ -81,4 +81,11 @@ public final class HiveSettings {
   public boolean useDirectMemoryForOrcReaders() {
     return options.getOption(HivePluginOptions.HIVE_ORC_READER_USE_DIRECT_MEMORY);
   }
+
+  /**
+   * Option to read ORC stripes through the async reader when the file system supports it
+   */
+  public boolean useAsyncReadsForOrcReaders() {
+    return options.getOption(HivePluginOptions.HIVE_ORC_READER_USE_ASYNC_READS);
+  }
 }
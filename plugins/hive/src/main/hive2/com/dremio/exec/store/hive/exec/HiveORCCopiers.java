@@ -59,6 +59,7 @@ import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.store.hive.exec.HiveAbstractReader.HiveOperatorContextOptions;
+import com.dremio.exec.util.PrimitiveArrayCopier;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
@@ -518,6 +519,8 @@ public class HiveORCCopiers {
    *    ii) No-nulls: We avoid checking for nulls in input vector
    *    iii) Non-repeating, has nulls: Before copying an element from input vector, we first check if the value is null
    *         in isNull array in input vector.
+   * 2) Numeric copiers write the values of the non-repeating paths straight into the data buffer of the output vector
+   *    with {@link PrimitiveArrayCopier}, including those that are null, and then set the validity bits.
    */
 
   private static class IntCopier  extends ORCCopierBase  {
@@ -546,16 +549,12 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, (int) input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, (int) input[inputIdx]);
-          }
+        PrimitiveArrayCopier.copyToInt(input, inputIdx, outputVector, outputIdx, count);
+        if (inputVector.noNulls) {
+          PrimitiveArrayCopier.setValid(outputVector, outputIdx, count);
+        } else {
+          PrimitiveArrayCopier.setValid(inputVector.isNull, inputIdx, outputVector, outputIdx, count);
         }
       }
     }
@@ -587,16 +586,12 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, input[inputIdx]);
-          }
+        PrimitiveArrayCopier.copy(input, inputIdx, outputVector, outputIdx, count);
+        if (inputVector.noNulls) {
+          PrimitiveArrayCopier.setValid(outputVector, outputIdx, count);
+        } else {
+          PrimitiveArrayCopier.setValid(inputVector.isNull, inputIdx, outputVector, outputIdx, count);
         }
       }
     }
@@ -1069,16 +1064,12 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, (float)input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, (float) input[inputIdx]);
-          }
+        PrimitiveArrayCopier.copyToFloat(input, inputIdx, outputVector, outputIdx, count);
+        if (inputVector.noNulls) {
+          PrimitiveArrayCopier.setValid(outputVector, outputIdx, count);
+        } else {
+          PrimitiveArrayCopier.setValid(inputVector.isNull, inputIdx, outputVector, outputIdx, count);
         }
       }
     }
@@ -1110,16 +1101,12 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, (float)input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, (float) input[inputIdx]);
-          }
+        PrimitiveArrayCopier.copyToFloat(input, inputIdx, outputVector, outputIdx, count);
+        if (inputVector.noNulls) {
+          PrimitiveArrayCopier.setValid(outputVector, outputIdx, count);
+        } else {
+          PrimitiveArrayCopier.setValid(inputVector.isNull, inputIdx, outputVector, outputIdx, count);
         }
       }
     }
@@ -1202,16 +1189,12 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, (double)input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, (double)input[inputIdx]);
-          }
+        PrimitiveArrayCopier.copyToDouble(input, inputIdx, outputVector, outputIdx, count);
+        if (inputVector.noNulls) {
+          PrimitiveArrayCopier.setValid(outputVector, outputIdx, count);
+        } else {
+          PrimitiveArrayCopier.setValid(inputVector.isNull, inputIdx, outputVector, outputIdx, count);
         }
       }
     }
@@ -1243,16 +1226,12 @@ public class HiveORCCopiers {
         for (int i = 0; i < count; i++, outputIdx++) {
           outputVector.set(outputIdx, value);
         }
-      } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, input[inputIdx]);
-        }
       } else {
-        final boolean[] isNull = inputVector.isNull;
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          if (!isNull[inputIdx]) {
-            outputVector.set(outputIdx, input[inputIdx]);
-          }
+        PrimitiveArrayCopier.copy(input, inputIdx, outputVector, outputIdx, count);
+        if (inputVector.noNulls) {
+          PrimitiveArrayCopier.setValid(outputVector, outputIdx, count);
+        } else {
+          PrimitiveArrayCopier.setValid(inputVector.isNull, inputIdx, outputVector, outputIdx, count);
         }
       }
     }
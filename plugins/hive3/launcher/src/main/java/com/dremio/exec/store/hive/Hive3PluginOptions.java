@@ -73,4 +73,9 @@ public interface Hive3PluginOptions {
    * Option to use bytebuffers using direct memory while reading ORC files
    */
   BooleanValidator HIVE_ORC_READER_USE_DIRECT_MEMORY = new BooleanValidator("store.hive3.orc.use_direct_memory", true);
+
+  /**
+   * Option to read ORC stripes through the async reader when the file system supports it
+   */
+  BooleanValidator HIVE_ORC_READER_USE_ASYNC_READS = new BooleanValidator("store.hive3.orc.use_async_reads", true);
 }
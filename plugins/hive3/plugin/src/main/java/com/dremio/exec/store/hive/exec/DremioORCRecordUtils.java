@@ -21,6 +21,7 @@
 package com.dremio.exec.store.hive.exec;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -30,6 +31,8 @@ import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
@@ -59,10 +62,15 @@ import org.apache.orc.impl.OrcIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.dremio.io.AsyncByteReader;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 
+import io.netty.buffer.NettyArrowBuf;
+
 /**
  * Stateless methods shared between RecordReaderImpl and EncodedReaderImpl.
  */
@@ -184,6 +192,9 @@ public class DremioORCRecordUtils {
     private boolean remoteRead = false;
     private final Set<ByteBuffer> buffersToRelease = Sets.newIdentityHashSet();
     private final Set<ByteBuffer> directBuffersToRelease = Sets.newIdentityHashSet();
+    private final Map<ByteBuffer, ArrowBuf> asyncBuffersToRelease = Maps.newIdentityHashMap();
+    private AsyncByteReader asyncReader;
+    private boolean ownsAsyncReader = true;
 
     protected void logMessage() {
       if(file != null) {
@@ -195,7 +206,7 @@ public class DremioORCRecordUtils {
     }
 
     private DefaultDataReader(BufferAllocator allocator, DataReaderProperties properties, boolean useDirectMemory,
-                              final boolean doComputeLocality) {
+                              final boolean doComputeLocality, AsyncByteReader asyncReader) {
       this.fs = properties.getFileSystem();
       this.path = properties.getPath();
       this.useZeroCopy = properties.getZeroCopy();
@@ -207,6 +218,7 @@ public class DremioORCRecordUtils {
       this.allocator = allocator;
       this.useDirectMemory = useDirectMemory;
       this.doComputeLocality = doComputeLocality;
+      this.asyncReader = asyncReader;
     }
 
     @Override
@@ -340,6 +352,11 @@ public class DremioORCRecordUtils {
         }
       }
 
+      // if an async reader is available, read all the ranges concurrently into direct memory
+      if (asyncReader != null && useDirectMemory) {
+        return readDiskRangesUsingAsyncReader(baseOffset, range);
+      }
+
       // if read can be done using direct memory, then try reading using direct memory
       if (useDirectMemory) {
         return readDiskRangesUsingDirectMemory(fs, file, path, pool, baseOffset, range);
@@ -362,6 +379,11 @@ public class DremioORCRecordUtils {
       }
       directBuffersToRelease.clear();
 
+      for (ArrowBuf buf : asyncBuffersToRelease.values()) {
+        buf.close();
+      }
+      asyncBuffersToRelease.clear();
+
       if (codec != null) {
         OrcCodecPool.returnCodec(compressionKind, codec);
         codec = null;
@@ -378,6 +400,19 @@ public class DremioORCRecordUtils {
           zcr = null;
         }
       }
+
+      if (asyncReader != null && !ownsAsyncReader) {
+        asyncReader = null;
+      } else if (asyncReader != null) {
+        try {
+          asyncReader.close();
+        } catch (Exception e) {
+          Throwables.propagateIfPossible(e, IOException.class);
+          throw new IOException(e);
+        } finally {
+          asyncReader = null;
+        }
+      }
     }
 
     @Override
@@ -387,6 +422,11 @@ public class DremioORCRecordUtils {
 
     @Override
     public void releaseBuffer(ByteBuffer buffer) {
+      final ArrowBuf asyncBuf = asyncBuffersToRelease.remove(buffer);
+      if (asyncBuf != null) {
+        asyncBuf.close();
+        return;
+      }
       if (directBuffersToRelease.remove(buffer)) {
         pool.putBuffer(buffer);
         return;
@@ -421,6 +461,9 @@ public class DremioORCRecordUtils {
           // Make sure we don't share the same codec between two readers.
           clone.codec = OrcCodecPool.getCodec(clone.compressionKind);
         }
+        // the ORC record reader reads through a clone; the async reader is shared, and closed by this reader only,
+        // which is closed after the record reader.
+        clone.ownsAsyncReader = false;
         return clone;
       } catch (CloneNotSupportedException e) {
         throw new UnsupportedOperationException("uncloneable", e);
@@ -450,6 +493,52 @@ public class DremioORCRecordUtils {
       return readDiskRanges(fs, file, path, null, null, false, base, range);
     }
 
+    /**
+     * Read the list of ranges through the async reader. All the reads are issued before waiting on
+     * any of them, so a stripe costs one round trip instead of one seek and read per range.
+     * @param base the base of the stripe
+     * @param range the disk ranges within the stripe to read
+     * @return the bytes read for each disk range, which is the same length as ranges
+     * @throws IOException
+     */
+    private DiskRangeList readDiskRangesUsingAsyncReader(long base, DiskRangeList range) throws IOException {
+      if (range == null) {
+        return null;
+      }
+      if (doComputeLocality) {
+        computeLocality(fs, path, range);
+      }
+      DiskRangeList prev = range.prev;
+      if (prev == null) {
+        prev = new DiskRangeList.MutateHelper(range);
+      }
+      final List<CompletableFuture<Void>> reads = new ArrayList<>();
+      while (range != null) {
+        if (range.hasData()) {
+          range = range.next;
+          continue;
+        }
+        int len = (int) (range.getEnd() - range.getOffset());
+        ArrowBuf buf = allocator.buffer(len);
+        ByteBuffer chunkBuffer = buf.nioBuffer(0, len);
+        asyncBuffersToRelease.put(chunkBuffer, buf);
+        reads.add(asyncReader.readFully(base + range.getOffset(), NettyArrowBuf.unwrapBuffer(buf), 0, len));
+        range = range.replaceSelfWith(new BufferChunk(chunkBuffer, range.getOffset()));
+        range = range.next;
+      }
+
+      try {
+        CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while reading " + path);
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), IOException.class);
+        throw new IOException("Failed to read " + path, e.getCause());
+      }
+      return prev.next;
+    }
+
     private void computeLocality(FileSystem fs, Path path, DiskRangeList range) {
       if (this.remoteRead) {
         return;
@@ -581,7 +670,17 @@ public class DremioORCRecordUtils {
 
   public static DremioORCRecordUtils.DefaultDataReader createDefaultDataReader(BufferAllocator allocator, DataReaderProperties properties,
                                                                                boolean useDirectMemory, final boolean doComputeLocality) {
-    return new DremioORCRecordUtils.DefaultDataReader(allocator, properties, useDirectMemory, doComputeLocality);
+    return createDefaultDataReader(allocator, properties, useDirectMemory, doComputeLocality, null);
+  }
+
+  /**
+   * Creates a data reader that reads stripe ranges through {@code asyncReader} when it is not null.
+   * The data reader takes ownership of {@code asyncReader} and closes it.
+   */
+  public static DremioORCRecordUtils.DefaultDataReader createDefaultDataReader(BufferAllocator allocator, DataReaderProperties properties,
+                                                                               boolean useDirectMemory, final boolean doComputeLocality,
+                                                                               AsyncByteReader asyncReader) {
+    return new DremioORCRecordUtils.DefaultDataReader(allocator, properties, useDirectMemory, doComputeLocality, asyncReader);
   }
 
   /*
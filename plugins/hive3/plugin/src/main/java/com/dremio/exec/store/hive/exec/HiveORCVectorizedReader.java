@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
@@ -28,6 +29,7 @@ import java.util.stream.Collectors;
 
 import org.apache.arrow.vector.ValueVector;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
@@ -69,18 +71,22 @@ import com.dremio.common.expression.SchemaPath;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.store.ScanFilter;
 import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.exec.store.hive.HiveAsyncStreamConf;
 import com.dremio.exec.store.hive.HiveSettings;
 import com.dremio.exec.store.hive.HiveUtilities;
 import com.dremio.exec.store.hive.exec.HiveORCCopiers.ORCCopier;
 import com.dremio.exec.store.hive.exec.apache.HadoopFileSystemWrapper;
+import com.dremio.exec.store.hive.exec.dfs.DremioHadoopFileSystemWrapper;
 import com.dremio.hive.proto.HiveReaderProto.HiveTableXattr;
+import com.dremio.io.AsyncByteReader;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.scan.ScanOperator;
 import com.dremio.sabot.op.scan.ScanOperator.Metric;
 
 /**
  * Use vectorized reader provided by the Hive to read ORC files. We copy one column completely at a time,
- * instead of one row at time.
+ * instead of one row at time. Stripes are decoded by the ORC reader (dictionaries, RLE and nested types) into Hive
+ * column vectors, skipping the row groups excluded by the search argument through the row index.
  */
 public class HiveORCVectorizedReader extends HiveAbstractReader {
 
@@ -370,6 +376,21 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
     }
   }
 
+  /**
+   * Returns a file system to read the stripes of {@code path} asynchronously, or null if the
+   * stripes should be read through the input stream.
+   */
+  private DremioHadoopFileSystemWrapper getAsyncFileSystem(Path path, JobConf jobConf) throws IOException {
+    final HiveSettings hiveSettings = new HiveSettings(context.getOptions());
+    if (!hiveSettings.useDirectMemoryForOrcReaders() || !hiveSettings.useAsyncReadsForOrcReaders() ||
+      !HiveAsyncStreamConf.from(path.toUri().getScheme(), jobConf, context.getOptions()).isAsyncEnabled()) {
+      return null;
+    }
+    final DremioHadoopFileSystemWrapper asyncFs = new DremioHadoopFileSystemWrapper(jobConf,
+      path.getFileSystem(jobConf), context.getStats(), true);
+    return asyncFs.supportsAsync() ? asyncFs : null;
+  }
+
   @Override
   protected void internalInit(InputSplit inputSplit, JobConf jobConf, ValueVector[] vectors) throws IOException {
     final OrcSplit fSplit = (OrcSplit)inputSplit;
@@ -377,9 +398,16 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
 
     final OrcFile.ReaderOptions opts = OrcFile.readerOptions(jobConf);
 
-    // TODO: DX-16001 make enabling async configurable.
     final FileSystem fs = new HadoopFileSystemWrapper(jobConf, path.getFileSystem(jobConf), this.context.getStats());
     opts.filesystem(fs);
+    final DremioHadoopFileSystemWrapper asyncFs = getAsyncFileSystem(path, jobConf);
+    String fileVersion = null;
+    if (asyncFs != null) {
+      // the length saves the ORC reader its own status lookup, the modification time versions the async reads
+      final FileStatus fileStatus = fs.getFileStatus(path);
+      opts.maxLength(fileStatus.getLen());
+      fileVersion = Long.toString(fileStatus.getModificationTime());
+    }
     final Reader hiveReader = OrcFile.createReader(path, opts);
 
     final List<OrcProto.Type> types = hiveReader.getTypes();
@@ -406,7 +434,9 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
       .withPath(path)
       .withTypeCount(types.size())
       .withZeroCopy(zeroCopy)
-      .build(), useDirectMemory, context.getOptions().getOption(ExecConstants.SCAN_COMPUTE_LOCALITY));
+      .build(), useDirectMemory, context.getOptions().getOption(ExecConstants.SCAN_COMPUTE_LOCALITY),
+      asyncFs == null ? null : asyncFs.getAsyncByteReader(AsyncByteReader.FileKey.of(com.dremio.io.file.Path.of(path.toUri()),
+        fileVersion, AsyncByteReader.FileKey.FileType.ORC), Collections.emptyMap()));
     options.dataReader(dataReader);
 
     String[] selectedColNames = getColumns().stream().map(x -> x.getAsUnescapedPath().toLowerCase()).toArray(String[]::new);
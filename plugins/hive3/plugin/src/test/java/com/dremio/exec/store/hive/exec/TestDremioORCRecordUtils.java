@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hive.exec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.io.DiskRangeList;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.orc.CompressionKind;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.RecordReader;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.Writer;
+import org.apache.orc.impl.DataReaderProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests for reading stripe ranges in {@link DremioORCRecordUtils.DefaultDataReader}, and for skipping row groups
+ * with a search argument when the ORC reader goes through it
+ */
+public class TestDremioORCRecordUtils extends DremioTest {
+  private static final int FILE_SIZE = 64 * 1024;
+  private static final long BASE_OFFSET = 7;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Rule
+  public final TemporaryFolder tempDir = new TemporaryFolder();
+
+  private BufferAllocator allocator;
+  private byte[] fileData;
+  private Path path;
+  private FileSystem fs;
+
+  @Before
+  public void setup() throws Exception {
+    allocator = allocatorRule.newAllocator("test-orc-record-utils", 0, Long.MAX_VALUE);
+    fileData = new byte[FILE_SIZE];
+    new Random(0).nextBytes(fileData);
+    final File file = tempDir.newFile("stripes.orc");
+    Files.write(file.toPath(), fileData);
+    path = new Path(file.toURI());
+    fs = FileSystem.getLocal(new Configuration());
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    allocator.close();
+  }
+
+  @Test
+  public void testAsyncReadsMatchStreamReads() throws Exception {
+    final BytesAsyncByteReader asyncReader = new BytesAsyncByteReader(fileData);
+    final List<byte[]> streamBytes;
+    try (DremioORCRecordUtils.DefaultDataReader dataReader = newDataReader(false, null)) {
+      streamBytes = toBytes(dataReader.readFileData(newRanges(), BASE_OFFSET, false));
+    }
+
+    final List<byte[]> asyncBytes;
+    try (DremioORCRecordUtils.DefaultDataReader dataReader = newDataReader(true, asyncReader)) {
+      final DiskRangeList ranges = dataReader.readFileData(newRanges(), BASE_OFFSET, false);
+      asyncBytes = toBytes(ranges);
+      assertTrue(dataReader.isTrackingDiskRanges());
+      // release one range the way the ORC reader does, leave the others to close()
+      dataReader.releaseBuffer(ranges.getData());
+    }
+
+    assertEquals(3, asyncReader.reads.get());
+    assertTrue(asyncReader.closed);
+    assertEquals(streamBytes.size(), asyncBytes.size());
+    for (int i = 0; i < streamBytes.size(); i++) {
+      assertArrayEquals(streamBytes.get(i), asyncBytes.get(i));
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testAsyncReadFailure() throws Exception {
+    final AsyncByteReader failingReader = new BytesAsyncByteReader(fileData) {
+      @Override
+      public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new IOException("read failed"));
+        return future;
+      }
+    };
+
+    try (DremioORCRecordUtils.DefaultDataReader dataReader = newDataReader(true, failingReader)) {
+      dataReader.readFileData(newRanges(), BASE_OFFSET, false);
+      fail("Expected the failed read to be reported");
+    } catch (IOException e) {
+      assertEquals("read failed", e.getMessage());
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testSearchArgumentSkipsRowGroups() throws Exception {
+    final int rowCount = 10_000;
+    final int rowIndexStride = 1_000;
+    final Path orcPath = new Path(tempDir.newFolder().toURI().toString(), "rows.orc");
+    final TypeDescription schema = TypeDescription.fromString("struct<x:bigint>");
+    try (Writer writer = OrcFile.createWriter(orcPath, OrcFile.writerOptions(new Configuration())
+      .fileSystem(fs)
+      .setSchema(schema)
+      .compress(CompressionKind.NONE)
+      .rowIndexStride(rowIndexStride))) {
+      final VectorizedRowBatch batch = schema.createRowBatch();
+      final LongColumnVector x = (LongColumnVector) batch.cols[0];
+      for (int row = 0; row < rowCount; row++) {
+        x.vector[batch.size++] = row;
+        if (batch.size == batch.getMaxSize()) {
+          writer.addRowBatch(batch);
+          batch.reset();
+        }
+      }
+      if (batch.size > 0) {
+        writer.addRowBatch(batch);
+      }
+    }
+
+    final Reader reader = OrcFile.createReader(orcPath, OrcFile.readerOptions(new Configuration()).filesystem(fs));
+    final BytesAsyncByteReader asyncReader = new BytesAsyncByteReader(Files.readAllBytes(new File(orcPath.toUri()).toPath()));
+    final SearchArgument sarg = SearchArgumentFactory.newBuilder()
+      .startAnd()
+      .lessThan("x", PredicateLeaf.Type.LONG, 1500L)
+      .end()
+      .build();
+
+    long rowsRead = 0;
+    long lastValue = -1;
+    try (DremioORCRecordUtils.DefaultDataReader dataReader = newDataReader(orcPath, reader.getCompressionSize(),
+      reader.getCompressionKind(), reader.getTypes().size(), true, asyncReader);
+         RecordReader rows = reader.rows(new Reader.Options()
+           .dataReader(dataReader)
+           .searchArgument(sarg, new String[]{null, "x"}))) {
+      final VectorizedRowBatch batch = reader.getSchema().createRowBatch();
+      while (rows.nextBatch(batch)) {
+        final LongColumnVector x = (LongColumnVector) batch.cols[0];
+        for (int i = 0; i < batch.size; i++) {
+          assertEquals(lastValue + 1, x.vector[i]);
+          lastValue = x.vector[i];
+        }
+        rowsRead += batch.size;
+      }
+    }
+
+    // only the first two row groups can hold values below 1500
+    assertEquals(2 * rowIndexStride, rowsRead);
+    assertTrue(asyncReader.reads.get() > 0);
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  private DremioORCRecordUtils.DefaultDataReader newDataReader(boolean useDirectMemory, AsyncByteReader asyncReader)
+    throws IOException {
+    return newDataReader(path, FILE_SIZE, CompressionKind.NONE, 1, useDirectMemory, asyncReader);
+  }
+
+  private DremioORCRecordUtils.DefaultDataReader newDataReader(Path filePath, int bufferSize,
+                                                               CompressionKind compression, int typeCount,
+                                                               boolean useDirectMemory, AsyncByteReader asyncReader)
+    throws IOException {
+    final DremioORCRecordUtils.DefaultDataReader dataReader = DremioORCRecordUtils.createDefaultDataReader(allocator,
+      DataReaderProperties.builder()
+        .withBufferSize(bufferSize)
+        .withCompression(compression)
+        .withFileSystem(fs)
+        .withPath(filePath)
+        .withTypeCount(typeCount)
+        .withZeroCopy(false)
+        .build(), useDirectMemory, false, asyncReader);
+    dataReader.open();
+    return dataReader;
+  }
+
+  private static DiskRangeList newRanges() {
+    final DiskRangeList.CreateHelper ranges = new DiskRangeList.CreateHelper();
+    ranges.addOrMerge(0, 100, false, false);
+    ranges.addOrMerge(200, 4096, false, false);
+    ranges.addOrMerge(40_000, FILE_SIZE - BASE_OFFSET, false, false);
+    return ranges.get();
+  }
+
+  private static List<byte[]> toBytes(DiskRangeList ranges) {
+    final List<byte[]> bytes = new ArrayList<>();
+    for (DiskRangeList range = ranges; range != null; range = range.next) {
+      final ByteBuffer data = range.getData().duplicate();
+      final byte[] rangeBytes = new byte[data.remaining()];
+      data.get(rangeBytes);
+      bytes.add(rangeBytes);
+    }
+    return bytes;
+  }
+
+  private static class BytesAsyncByteReader implements AsyncByteReader {
+    private final byte[] data;
+    private final AtomicInteger reads = new AtomicInteger();
+    private volatile boolean closed;
+
+    BytesAsyncByteReader(byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+      reads.incrementAndGet();
+      return CompletableFuture.runAsync(() -> dst.setBytes(dstOffset, data, (int) offset, len));
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
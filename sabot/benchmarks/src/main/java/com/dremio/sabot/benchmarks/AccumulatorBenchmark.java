@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.aggregate.vectorized.Accumulator;
+import com.dremio.sabot.op.aggregate.vectorized.AccumulatorSet;
+import com.dremio.sabot.op.aggregate.vectorized.CountColumnAccumulator;
+import com.dremio.sabot.op.aggregate.vectorized.MaxAccumulators;
+import com.dremio.sabot.op.aggregate.vectorized.MinAccumulators;
+import com.dremio.sabot.op.aggregate.vectorized.SumAccumulators;
+import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
+import com.dremio.sabot.op.common.ht2.BoundedPivots;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.LBlockHashTable;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.koloboke.collect.hash.HashConfig;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Cost of {@link Accumulator#accumulate} for a batch whose keys have already been inserted into the
+ * hash table, i.e. the part of the hash aggregation that runs once the ordinals are known.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccumulatorBenchmark {
+
+  private static final int RECORDS = 4096;
+  private static final int MAX_HASHTABLE_BATCH_SIZE = 3968;
+  private static final int JOINT_ALLOCATION_MIN = 4 * 1024;
+  private static final int JOINT_ALLOCATION_MAX = 64 * 1024;
+
+  /**
+   * Accumulators over a BIGINT measure.
+   */
+  public enum AccumulatorKind {
+    SUM, MIN, MAX, COUNT
+  }
+
+  @Param({"SUM", "MIN", "MAX", "COUNT"})
+  private AccumulatorKind accumulator;
+
+  @Param({"0", "10", "50"})
+  private int nullPercent;
+
+  @Param({"16", "1024", "65536"})
+  private int cardinality;
+
+  private BufferAllocator allocator;
+  private IntVector key;
+  private IntVector keyOut;
+  private BigIntVector measure;
+  private BigIntVector output;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+  private ArrowBuf hashes;
+  private ArrowBuf offsets;
+  private AccumulatorSet accumulatorSet;
+  private LBlockHashTable table;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    key = new IntVector("key", allocator);
+    keyOut = new IntVector("key-out", allocator);
+    measure = new BigIntVector("measure", allocator);
+    output = new BigIntVector("output", allocator);
+    SyntheticBatches.fill(key, ColumnType.INT, RECORDS, cardinality, 0, 0);
+    SyntheticBatches.fill(measure, ColumnType.BIGINT, RECORDS, Integer.MAX_VALUE, nullPercent, 1);
+
+    final PivotDef pivot = PivotBuilder.getBlockDefinition(new FieldVectorPair(key, keyOut));
+    fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+    variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+    fixed.ensureAvailableBlocks(RECORDS);
+    BoundedPivots.pivot(pivot, 0, RECORDS, fixed, variable);
+
+    accumulatorSet = new AccumulatorSet(JOINT_ALLOCATION_MIN, JOINT_ALLOCATION_MAX, allocator, newAccumulator());
+    table = new LBlockHashTable(HashConfig.getDefault(), pivot, allocator, RECORDS, 0, true,
+      MAX_HASHTABLE_BATCH_SIZE);
+    table.registerResizeListener(accumulatorSet);
+
+    // insert the keys and record (ordinal, record index) pairs the way the operator does
+    hashes = allocator.buffer(RECORDS * 8);
+    offsets = allocator.buffer(RECORDS * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH);
+    table.computeHash(RECORDS, fixed.getBuf(), null, 0, hashes);
+    for (int keyIndex = 0; keyIndex < RECORDS; keyIndex++) {
+      final int keyHash = (int) hashes.getLong(keyIndex * 8L);
+      final int ordinal = table.add(fixed.getMemoryAddress(), 0, 0, keyIndex, keyHash);
+      final long offsetAddr = offsets.memoryAddress() + keyIndex * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+      PlatformDependent.putInt(offsetAddr + VectorizedHashAggOperator.HTORDINAL_OFFSET, ordinal);
+      PlatformDependent.putInt(offsetAddr + VectorizedHashAggOperator.KEYINDEX_OFFSET, keyIndex);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(table, accumulatorSet, hashes, offsets, fixed, variable,
+      key, keyOut, measure, output, allocator);
+  }
+
+  @Benchmark
+  public void accumulate() {
+    accumulatorSet.accumulate(offsets.memoryAddress(), RECORDS, table.getBitsInChunk(), table.getChunkOffsetMask());
+  }
+
+  private Accumulator newAccumulator() {
+    final FieldVector input = measure;
+    switch (accumulator) {
+      case SUM:
+        return new SumAccumulators.BigIntSumAccumulator(input, output, output, MAX_HASHTABLE_BATCH_SIZE, allocator);
+      case MIN:
+        return new MinAccumulators.BigIntMinAccumulator(input, output, output, MAX_HASHTABLE_BATCH_SIZE, allocator);
+      case MAX:
+        return new MaxAccumulators.BigIntMaxAccumulator(input, output, output, MAX_HASHTABLE_BATCH_SIZE, allocator);
+      case COUNT:
+        return new CountColumnAccumulator(input, output, output, MAX_HASHTABLE_BATCH_SIZE, allocator);
+      default:
+        throw new UnsupportedOperationException("Unknown accumulator " + accumulator);
+    }
+  }
+}
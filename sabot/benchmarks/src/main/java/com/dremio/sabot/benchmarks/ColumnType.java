@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+
+import com.google.common.base.Splitter;
+
+/**
+ * Column types the benchmarks know how to generate synthetic data for.
+ */
+public enum ColumnType {
+  INT {
+    @Override
+    public FieldVector newVector(String name, BufferAllocator allocator) {
+      return new IntVector(name, allocator);
+    }
+
+    @Override
+    void set(FieldVector vector, int index, int value) {
+      ((IntVector) vector).setSafe(index, value);
+    }
+  },
+
+  BIGINT {
+    @Override
+    public FieldVector newVector(String name, BufferAllocator allocator) {
+      return new BigIntVector(name, allocator);
+    }
+
+    @Override
+    void set(FieldVector vector, int index, int value) {
+      // spread the values over the upper word as well so that hashing sees all 8 bytes
+      ((BigIntVector) vector).setSafe(index, ((long) value << 32) | (value & 0xFFFFFFFFL));
+    }
+  },
+
+  VARCHAR {
+    @Override
+    public FieldVector newVector(String name, BufferAllocator allocator) {
+      return new VarCharVector(name, allocator);
+    }
+
+    @Override
+    void set(FieldVector vector, int index, int value) {
+      final byte[] bytes = String.format(Locale.ROOT, "key-%012d", value).getBytes(UTF_8);
+      ((VarCharVector) vector).setSafe(index, bytes, 0, bytes.length);
+    }
+  };
+
+  public abstract FieldVector newVector(String name, BufferAllocator allocator);
+
+  abstract void set(FieldVector vector, int index, int value);
+
+  /**
+   * Parses an underscore separated list of column types, e.g. {@code "INT_VARCHAR"}, as used by the
+   * {@code @Param} values of the benchmarks. JMH already uses commas to separate parameter values.
+   */
+  public static List<ColumnType> parse(String types) {
+    final List<ColumnType> columnTypes = new ArrayList<>();
+    for (String type : Splitter.on('_').trimResults().omitEmptyStrings().split(types)) {
+      columnTypes.add(ColumnType.valueOf(type.toUpperCase(Locale.ROOT)));
+    }
+    return columnTypes;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dremio.exec.util.PrimitiveArrayCopier;
+
+/**
+ * Cost of copying the on-heap column vectors of a decoded ORC batch (a value array and a null array, as in hive's
+ * LongColumnVector and DoubleColumnVector) into arrow vectors, with the per value setters the hive ORC copiers
+ * used to call and with {@link PrimitiveArrayCopier}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ColumnVectorCopyBenchmark {
+
+  // default size of a hive VectorizedRowBatch
+  private static final int RECORDS = 1024;
+
+  @Param({"0", "50"})
+  private int nullPercent;
+
+  private BufferAllocator allocator;
+  private final long[] longs = new long[RECORDS];
+  private final double[] doubles = new double[RECORDS];
+  private final boolean[] isNull = new boolean[RECORDS];
+  private boolean noNulls;
+  private BigIntVector bigInts;
+  private Float8Vector float8s;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final Random random = new Random(0);
+    for (int i = 0; i < RECORDS; i++) {
+      longs[i] = random.nextLong();
+      doubles[i] = random.nextDouble();
+      isNull[i] = random.nextInt(100) < nullPercent;
+    }
+    noNulls = nullPercent == 0;
+    bigInts = new BigIntVector("bigint", allocator);
+    float8s = new Float8Vector("float8", allocator);
+    bigInts.allocateNew(RECORDS);
+    float8s.allocateNew(RECORDS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    bigInts.close();
+    float8s.close();
+    allocator.close();
+  }
+
+  @Benchmark
+  public void perValueSetters(Blackhole blackhole) {
+    if (noNulls) {
+      for (int i = 0; i < RECORDS; i++) {
+        bigInts.set(i, longs[i]);
+        float8s.set(i, doubles[i]);
+      }
+    } else {
+      for (int i = 0; i < RECORDS; i++) {
+        if (!isNull[i]) {
+          bigInts.set(i, longs[i]);
+          float8s.set(i, doubles[i]);
+        }
+      }
+    }
+    blackhole.consume(bigInts);
+    blackhole.consume(float8s);
+  }
+
+  @Benchmark
+  public void bulkCopy(Blackhole blackhole) {
+    PrimitiveArrayCopier.copy(longs, 0, bigInts, 0, RECORDS);
+    PrimitiveArrayCopier.copy(doubles, 0, float8s, 0, RECORDS);
+    if (noNulls) {
+      PrimitiveArrayCopier.setValid(bigInts, 0, RECORDS);
+      PrimitiveArrayCopier.setValid(float8s, 0, RECORDS);
+    } else {
+      PrimitiveArrayCopier.setValid(isNull, 0, bigInts, 0, RECORDS);
+      PrimitiveArrayCopier.setValid(isNull, 0, float8s, 0, RECORDS);
+    }
+    blackhole.consume(bigInts);
+    blackhole.consume(float8s);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.dremio.sabot.op.copier.FieldBufferCopierFactory;
+import com.google.common.collect.ImmutableList;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Cost of the vectorized copiers driven by a two byte (sv2, filter output) or a four byte
+ * (sv4, sort output over a hyper batch) selection vector.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CopierBenchmark {
+
+  private static final int RECORDS = 4096;
+  private static final int HYPER_BATCHES = 4;
+
+  @Param({"INT", "BIGINT", "VARCHAR"})
+  private ColumnType type;
+
+  @Param({"0", "50"})
+  private int nullPercent;
+
+  @Param({"10", "50", "100"})
+  private int selectivityPercent;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private ArrowBuf sv2;
+  private ArrowBuf sv4;
+  private int selected;
+  private List<FieldBufferCopier> twoByteCopiers;
+  private List<FieldBufferCopier> fourByteCopiers;
+  private FieldVector twoByteOutput;
+  private FieldVector fourByteOutput;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final FieldVector[] batches = new FieldVector[HYPER_BATCHES];
+    for (int i = 0; i < HYPER_BATCHES; i++) {
+      batches[i] = type.newVector("in" + i, allocator);
+      vectors.add(batches[i]);
+      SyntheticBatches.fill(batches[i], type, RECORDS, RECORDS, nullPercent, i);
+    }
+    twoByteOutput = type.newVector("out2", allocator);
+    fourByteOutput = type.newVector("out4", allocator);
+    vectors.add(twoByteOutput);
+    vectors.add(fourByteOutput);
+
+    // build the selection vectors, sv2 in input order like a filter and sv4 scattered over the
+    // hyper batch like a sort
+    final Random random = new Random(0);
+    sv2 = allocator.buffer(RECORDS * 2);
+    sv4 = allocator.buffer(RECORDS * 4);
+    selected = 0;
+    for (int i = 0; i < RECORDS; i++) {
+      if (random.nextInt(100) < selectivityPercent) {
+        PlatformDependent.putShort(sv2.memoryAddress() + selected * 2, (short) i);
+        PlatformDependent.putInt(sv4.memoryAddress() + selected * 4, (random.nextInt(HYPER_BATCHES) << 16) | i);
+        selected++;
+      }
+    }
+
+    // the option manager is only consulted for complex types
+    final FieldBufferCopierFactory factory = new FieldBufferCopierFactory(null);
+    twoByteCopiers = factory.getTwoByteCopiers(ImmutableList.of(batches[0]), ImmutableList.of(twoByteOutput));
+    fourByteCopiers = factory.getFourByteCopiers(ImmutableList.<FieldVector[]>of(batches), ImmutableList.of(fourByteOutput));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(sv2, sv4);
+    AutoCloseables.close(vectors);
+    vectors.clear();
+    allocator.close();
+  }
+
+  @Benchmark
+  public void copySv2(Blackhole blackhole) {
+    for (FieldBufferCopier copier : twoByteCopiers) {
+      copier.copy(sv2.memoryAddress(), selected);
+    }
+    twoByteOutput.setValueCount(selected);
+    blackhole.consume(twoByteOutput);
+  }
+
+  @Benchmark
+  public void copySv4(Blackhole blackhole) {
+    for (FieldBufferCopier copier : fourByteCopiers) {
+      copier.copy(sv4.memoryAddress(), selected);
+    }
+    fourByteOutput.setValueCount(selected);
+    blackhole.consume(fourByteOutput);
+  }
+}
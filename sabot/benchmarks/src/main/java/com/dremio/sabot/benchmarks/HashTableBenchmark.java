@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.common.ht2.BoundedPivots;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.LBlockHashTable;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.koloboke.collect.hash.HashConfig;
+
+/**
+ * Insert and lookup throughput of {@link LBlockHashTable} over pivoted keys.
+ *
+ * The keys are pivoted and hashed once per trial, so the benchmarks only measure the table itself.
+ * {@code insert} adds every key to an empty table and then empties it again with
+ * {@link LBlockHashTable#resetToMinimumSize()}, as the hash aggregation does after a spill, so the reset
+ * and the growth of the table from its minimum size are part of the measured work. {@code find} probes a
+ * table that already holds every key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HashTableBenchmark {
+
+  private static final int RECORDS = 4096;
+  private static final int MAX_HASHTABLE_BATCH_SIZE = 3968;
+  private static final int VAR_FIELD_AVERAGE_SIZE = 16;
+  private static final int MAX_VARIABLE_BYTES_PER_RECORD = 128;
+
+  @Param({"INT", "BIGINT_BIGINT", "INT_VARCHAR", "VARCHAR_VARCHAR_BIGINT"})
+  private String keys;
+
+  @Param({"0", "10", "50"})
+  private int nullPercent;
+
+  @Param({"16", "1024", "65536"})
+  private int cardinality;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private PivotDef pivot;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+  private ArrowBuf hashes;
+  private ArrowBuf ordinals;
+  private LBlockHashTable populatedTable;
+  private LBlockHashTable emptyTable;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final List<ColumnType> types = ColumnType.parse(keys);
+    final FieldVectorPair[] pairs = new FieldVectorPair[types.size()];
+    for (int i = 0; i < types.size(); i++) {
+      final ColumnType type = types.get(i);
+      final FieldVector in = type.newVector("in" + i, allocator);
+      final FieldVector out = type.newVector("out" + i, allocator);
+      vectors.add(in);
+      vectors.add(out);
+      SyntheticBatches.fill(in, type, RECORDS, cardinality, nullPercent, i);
+      pairs[i] = new FieldVectorPair(in, out);
+    }
+    pivot = PivotBuilder.getBlockDefinition(pairs);
+
+    fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+    variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+    fixed.ensureAvailableBlocks(RECORDS);
+    variable.ensureAvailableDataSpace(RECORDS * MAX_VARIABLE_BYTES_PER_RECORD);
+    BoundedPivots.pivot(pivot, 0, RECORDS, fixed, variable);
+
+    hashes = allocator.buffer(RECORDS * 8);
+    ordinals = allocator.buffer(RECORDS * 4);
+    populatedTable = newTable();
+    populatedTable.computeHash(RECORDS, fixed.getBuf(), variableBuf(), 0, hashes);
+    populatedTable.add(RECORDS, fixed.getBuf(), variableBuf(), hashes, ordinals);
+  }
+
+  @Setup(Level.Iteration)
+  public void setupTable() {
+    emptyTable = newTable();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDownTable() throws Exception {
+    AutoCloseables.close(emptyTable);
+    emptyTable = null;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(populatedTable, hashes, ordinals, fixed, variable);
+    AutoCloseables.close(vectors);
+    vectors.clear();
+    allocator.close();
+  }
+
+  @Benchmark
+  public void hash(Blackhole blackhole) {
+    populatedTable.computeHash(RECORDS, fixed.getBuf(), variableBuf(), 0, hashes);
+    blackhole.consume(hashes);
+  }
+
+  @Benchmark
+  public int insert() throws Exception {
+    final int records = emptyTable.add(RECORDS, fixed.getBuf(), variableBuf(), hashes, ordinals);
+    emptyTable.resetToMinimumSize();
+    return records;
+  }
+
+  @Benchmark
+  public void find(Blackhole blackhole) {
+    populatedTable.find(RECORDS, fixed.getBuf(), variableBuf(), hashes, ordinals);
+    blackhole.consume(ordinals);
+  }
+
+  private ArrowBuf variableBuf() {
+    return pivot.getVariableCount() == 0 ? null : variable.getBuf();
+  }
+
+  private LBlockHashTable newTable() {
+    return new LBlockHashTable(HashConfig.getDefault(), pivot, allocator, RECORDS, VAR_FIELD_AVERAGE_SIZE,
+      true, MAX_HASHTABLE_BATCH_SIZE);
+  }
+}
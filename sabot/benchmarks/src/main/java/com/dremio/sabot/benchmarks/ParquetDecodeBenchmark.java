@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.store.parquet.ParquetColumnDecoder;
+import com.dremio.exec.store.parquet.ParquetReaderUtility;
+import com.dremio.exec.store.parquet.SchemaDerivationHelper;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+/**
+ * Cost of reading a parquet file into arrow vectors with the record assembly of parquet-mr, which drives the
+ * converters of {@code ParquetRowiseReader}, and with the {@link ParquetColumnDecoder}s of {@code
+ * ColumnarParquetReader}.
+ *
+ * Both paths write the same vectors, a batch at a time, so the difference is the cost of the assembly state
+ * machine and the converter calls per value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParquetDecodeBenchmark {
+
+  private static final int RECORDS = 4096;
+  private static final int ROWS = 256 * RECORDS;
+
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message bench {\n" +
+    "  required int32 id;\n" +
+    "  optional binary name (UTF8);\n" +
+    "  optional double value;\n" +
+    "}");
+
+  @Param({"0", "10"})
+  private int nullPercent;
+
+  @Param({"16", "65536"})
+  private int cardinality;
+
+  private File directory;
+  private org.apache.hadoop.fs.Path file;
+  private BufferAllocator allocator;
+  private IntVector id;
+  private VarCharVector name;
+  private Float8Vector value;
+  private List<FieldVector> vectors;
+  private int position;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    directory = Files.createTempDirectory("parquet-decode-benchmark").toFile();
+    file = new org.apache.hadoop.fs.Path(new File(directory, "bench.parquet").toURI());
+    final Random random = new Random(0);
+    final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(file).withType(SCHEMA).build()) {
+      for (int i = 0; i < ROWS; i++) {
+        final Group group = groups.newGroup().append("id", i);
+        final int key = random.nextInt(cardinality);
+        if (random.nextInt(100) >= nullPercent) {
+          group.append("name", "name-" + key);
+        }
+        if (random.nextInt(100) >= nullPercent) {
+          group.append("value", key / 3.0);
+        }
+        writer.write(group);
+      }
+    }
+
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    id = new IntVector("id", allocator);
+    name = new VarCharVector("name", allocator);
+    value = new Float8Vector("value", allocator);
+    vectors = Arrays.asList(id, name, value);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(vectors);
+    AutoCloseables.close(allocator);
+    MoreFiles.deleteRecursively(directory.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  @Benchmark
+  public long recordAssembly() throws Exception {
+    long total = 0;
+    try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(file, new Configuration()))) {
+      final MessageColumnIO columnIO = new ColumnIOFactory(false).getColumnIO(SCHEMA);
+      final VectorMaterializer materializer = new VectorMaterializer();
+      PageReadStore pages;
+      while ((pages = reader.readNextRowGroup()) != null) {
+        final RecordReader<Void> recordReader = columnIO.getRecordReader(pages, materializer);
+        for (long remaining = pages.getRowCount(); remaining > 0; ) {
+          final int count = (int) Math.min(RECORDS, remaining);
+          vectors.forEach(FieldVector::allocateNew);
+          for (position = 0; position < count; position++) {
+            recordReader.read();
+          }
+          vectors.forEach(v -> v.setValueCount(count));
+          remaining -= count;
+          total += count;
+        }
+      }
+    }
+    return total;
+  }
+
+  @Benchmark
+  public long columnDecoders() throws Exception {
+    long total = 0;
+    final SchemaDerivationHelper schemaHelper = SchemaDerivationHelper.builder()
+      .dateCorruptionStatus(ParquetReaderUtility.DateCorruptionStatus.META_SHOWS_NO_CORRUPTION)
+      .build();
+    try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(file, new Configuration()))) {
+      for (int rowGroup = 0; ; rowGroup++) {
+        final PageReadStore pages = reader.readNextRowGroup();
+        if (pages == null) {
+          break;
+        }
+        final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+        for (ColumnChunkMetaData chunk : reader.getFooter().getBlocks().get(rowGroup).getColumns()) {
+          chunks.put(chunk.getPath(), chunk);
+        }
+        final List<ParquetColumnDecoder> decoders = new ArrayList<>();
+        for (FieldVector vector : vectors) {
+          decoders.add(ParquetColumnDecoder.create(SCHEMA, SCHEMA.getType(vector.getName()), vector,
+            (descriptor, chunk) -> pages.getPageReader(descriptor), chunks, null, schemaHelper, Integer.MAX_VALUE));
+        }
+        for (long remaining = pages.getRowCount(); remaining > 0; ) {
+          final int count = (int) Math.min(RECORDS, remaining);
+          vectors.forEach(FieldVector::allocateNew);
+          for (ParquetColumnDecoder decoder : decoders) {
+            decoder.decode(count);
+          }
+          remaining -= count;
+          total += count;
+        }
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Writes the values assembled by parquet-mr at the current position of the vectors, in the same way as the
+   * converters of the rowwise reader.
+   */
+  private final class VectorMaterializer extends RecordMaterializer<Void> {
+    private final PrimitiveConverter[] converters = {
+      new PrimitiveConverter() {
+        @Override
+        public void addInt(int v) {
+          id.setSafe(position, v);
+        }
+      },
+      new PrimitiveConverter() {
+        @Override
+        public void addBinary(Binary v) {
+          final ByteBuffer buffer = v.toByteBuffer();
+          name.setSafe(position, buffer, buffer.position(), buffer.remaining());
+        }
+      },
+      new PrimitiveConverter() {
+        @Override
+        public void addDouble(double v) {
+          value.setSafe(position, v);
+        }
+      }
+    };
+
+    private final GroupConverter root = new GroupConverter() {
+      @Override
+      public Converter getConverter(int fieldIndex) {
+        return converters[fieldIndex];
+      }
+
+      @Override
+      public void start() {
+      }
+
+      @Override
+      public void end() {
+      }
+    };
+
+    @Override
+    public Void getCurrentRecord() {
+      return null;
+    }
+
+    @Override
+    public GroupConverter getRootConverter() {
+      return root;
+    }
+  }
+}
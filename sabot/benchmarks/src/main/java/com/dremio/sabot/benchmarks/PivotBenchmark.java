@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.FieldVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.common.ht2.BoundedPivots;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Unpivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+
+/**
+ * Cost of pivoting a batch of Arrow vectors into fixed and variable blocks, and of unpivoting it back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PivotBenchmark {
+
+  private static final int RECORDS = 4096;
+  private static final int MAX_VARIABLE_BYTES_PER_RECORD = 128;
+  private static final int VAR_FIELD_ALLOCATION_SIZE = 32;
+
+  @Param({"INT", "BIGINT_BIGINT", "INT_VARCHAR", "VARCHAR_VARCHAR_BIGINT",
+    "INT_INT_INT_INT_BIGINT_BIGINT_BIGINT_BIGINT"})
+  private String columns;
+
+  @Param({"0", "10", "50"})
+  private int nullPercent;
+
+  @Param({"1024"})
+  private int cardinality;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private PivotDef pivot;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final List<ColumnType> types = ColumnType.parse(columns);
+    final FieldVectorPair[] pairs = new FieldVectorPair[types.size()];
+    for (int i = 0; i < types.size(); i++) {
+      final ColumnType type = types.get(i);
+      final FieldVector in = type.newVector("in" + i, allocator);
+      final FieldVector out = type.newVector("out" + i, allocator);
+      vectors.add(in);
+      vectors.add(out);
+      SyntheticBatches.fill(in, type, RECORDS, cardinality, nullPercent, i);
+      AllocationHelper.allocate(out, RECORDS, VAR_FIELD_ALLOCATION_SIZE);
+      pairs[i] = new FieldVectorPair(in, out);
+    }
+    pivot = PivotBuilder.getBlockDefinition(pairs);
+
+    fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+    variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+    fixed.ensureAvailableBlocks(RECORDS);
+    variable.ensureAvailableDataSpace(RECORDS * MAX_VARIABLE_BYTES_PER_RECORD);
+    BoundedPivots.pivot(pivot, 0, RECORDS, fixed, variable);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(fixed, variable);
+    AutoCloseables.close(vectors);
+    vectors.clear();
+    allocator.close();
+  }
+
+  @Benchmark
+  public int pivot() {
+    return BoundedPivots.pivot(pivot, 0, RECORDS, fixed, variable);
+  }
+
+  @Benchmark
+  public void unpivot(Blackhole blackhole) {
+    Unpivots.unpivotToAllocedOutput(pivot, fixed, variable, 0, RECORDS, 0);
+    blackhole.consume(pivot.getOutputVectors());
+  }
+}
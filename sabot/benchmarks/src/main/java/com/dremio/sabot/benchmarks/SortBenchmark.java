@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.memory.util.ByteFunctionHelpers;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.exception.SchemaChangeException;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.sabot.exec.context.FunctionContext;
+import com.dremio.sabot.op.sort.external.QuickSorterTemplate;
+import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
+
+/**
+ * Cost of adding batches to {@link QuickSorterTemplate} and producing the final sv4, as done by the
+ * external sort for every run.
+ *
+ * The comparators are written by hand in the shape of the generated ones (single key, ascending,
+ * nulls last), so the benchmark does not depend on code generation.
+ *
+ * Sorting only reorders the selection vector, so the batches are built once per iteration and shared by
+ * its invocations. Every invocation sorts them with a new sorter and hyper container, which are part of the
+ * measured work, and which give the batches back without releasing them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+  private static final int RECORDS = 4096;
+
+  @Param({"INT", "BIGINT", "VARCHAR"})
+  private ColumnType type;
+
+  @Param({"0", "10"})
+  private int nullPercent;
+
+  @Param({"16", "65536"})
+  private int cardinality;
+
+  @Param({"16"})
+  private int batches;
+
+  private BufferAllocator allocator;
+  private final List<RecordBatchData> data = new ArrayList<>();
+  private SimpleIntVector sortBuffer;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    sortBuffer = new SimpleIntVector("sort", allocator);
+    sortBuffer.allocateNew(RECORDS * batches);
+  }
+
+  @Setup(Level.Iteration)
+  public void setupBatches() throws Exception {
+    for (int i = 0; i < batches; i++) {
+      try (VectorContainer container = new VectorContainer(allocator)) {
+        final FieldVector vector = type.newVector("key", allocator);
+        SyntheticBatches.fill(vector, type, RECORDS, cardinality, nullPercent, i);
+        container.add(vector);
+        container.setRecordCount(RECORDS);
+        container.buildSchema();
+        data.add(new RecordBatchData(container, allocator));
+      }
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDownBatches() throws Exception {
+    AutoCloseables.close(data);
+    data.clear();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(sortBuffer, allocator);
+  }
+
+  @Benchmark
+  public int sort() throws SchemaChangeException {
+    final Sv4HyperContainer hyperContainer = new Sv4HyperContainer(allocator, data.get(0).getContainer().getSchema());
+    try {
+      final QuickSorterTemplate sorter = newSorter();
+      sorter.init(null, hyperContainer);
+      sorter.setDataBuffer(sortBuffer);
+      for (RecordBatchData batch : data) {
+        sorter.add(batch);
+      }
+      try (SelectionVector4 sv4 = sorter.getFinalSort(allocator, RECORDS)) {
+        return sv4.getCount();
+      }
+    } finally {
+      // the batches are used again by the next invocation
+      hyperContainer.noReleaseClear();
+      hyperContainer.close();
+    }
+  }
+
+  private QuickSorterTemplate newSorter() {
+    switch (type) {
+      case INT:
+        return new IntSorter();
+      case BIGINT:
+        return new BigIntSorter();
+      case VARCHAR:
+        return new VarCharSorter();
+      default:
+        throw new UnsupportedOperationException("No sorter for " + type);
+    }
+  }
+
+  private static ValueVector[] keyVectors(VectorAccessible incoming) {
+    return incoming.getValueAccessorById(ValueVector.class, 0).getValueVectors();
+  }
+
+  private static int compareNulls(boolean leftNull, boolean rightNull) {
+    if (leftNull) {
+      return rightNull ? 0 : 1;
+    }
+    return -1;
+  }
+
+  private static final class IntSorter extends QuickSorterTemplate {
+    private IntVector[] vectors;
+
+    @Override
+    public void doSetup(FunctionContext context, VectorAccessible incoming, VectorAccessible outgoing) {
+      final ValueVector[] keys = keyVectors(incoming);
+      vectors = new IntVector[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        vectors[i] = (IntVector) keys[i];
+      }
+    }
+
+    @Override
+    public int doEval(int leftIndex, int rightIndex) {
+      final IntVector left = vectors[leftIndex >>> 16];
+      final IntVector right = vectors[rightIndex >>> 16];
+      final int l = leftIndex & 65535;
+      final int r = rightIndex & 65535;
+      final boolean leftNull = left.isNull(l);
+      final boolean rightNull = right.isNull(r);
+      if (leftNull || rightNull) {
+        return compareNulls(leftNull, rightNull);
+      }
+      return Integer.compare(left.get(l), right.get(r));
+    }
+  }
+
+  private static final class BigIntSorter extends QuickSorterTemplate {
+    private BigIntVector[] vectors;
+
+    @Override
+    public void doSetup(FunctionContext context, VectorAccessible incoming, VectorAccessible outgoing) {
+      final ValueVector[] keys = keyVectors(incoming);
+      vectors = new BigIntVector[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        vectors[i] = (BigIntVector) keys[i];
+      }
+    }
+
+    @Override
+    public int doEval(int leftIndex, int rightIndex) {
+      final BigIntVector left = vectors[leftIndex >>> 16];
+      final BigIntVector right = vectors[rightIndex >>> 16];
+      final int l = leftIndex & 65535;
+      final int r = rightIndex & 65535;
+      final boolean leftNull = left.isNull(l);
+      final boolean rightNull = right.isNull(r);
+      if (leftNull || rightNull) {
+        return compareNulls(leftNull, rightNull);
+      }
+      return Long.compare(left.get(l), right.get(r));
+    }
+  }
+
+  private static final class VarCharSorter extends QuickSorterTemplate {
+    private VarCharVector[] vectors;
+
+    @Override
+    public void doSetup(FunctionContext context, VectorAccessible incoming, VectorAccessible outgoing) {
+      final ValueVector[] keys = keyVectors(incoming);
+      vectors = new VarCharVector[keys.length];
+      for (int i = 0; i < keys.length; i++) {
+        vectors[i] = (VarCharVector) keys[i];
+      }
+    }
+
+    @Override
+    public int doEval(int leftIndex, int rightIndex) {
+      final VarCharVector left = vectors[leftIndex >>> 16];
+      final VarCharVector right = vectors[rightIndex >>> 16];
+      final int l = leftIndex & 65535;
+      final int r = rightIndex & 65535;
+      final boolean leftNull = left.isNull(l);
+      final boolean rightNull = right.isNull(r);
+      if (leftNull || rightNull) {
+        return compareNulls(leftNull, rightNull);
+      }
+      final int leftStart = left.getStartOffset(l);
+      final int rightStart = right.getStartOffset(r);
+      return ByteFunctionHelpers.compare(
+        left.getDataBuffer(), leftStart, leftStart + left.getValueLength(l),
+        right.getDataBuffer(), rightStart, rightStart + right.getValueLength(r));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.Random;
+
+import org.apache.arrow.vector.FieldVector;
+
+/**
+ * Fills vectors with reproducible synthetic data of a given cardinality and null density.
+ */
+public final class SyntheticBatches {
+
+  private SyntheticBatches() {
+  }
+
+  /**
+   * Fills the first {@code records} slots of the vector.
+   *
+   * @param vector vector to fill, allocated to at least {@code records} values
+   * @param type type of the vector
+   * @param records number of values to generate
+   * @param cardinality number of distinct non-null values
+   * @param nullPercent percentage (0-100) of values that are null
+   * @param seed seed of the generator, so that vectors built with the same seed line up
+   */
+  public static void fill(FieldVector vector, ColumnType type, int records, int cardinality, int nullPercent, long seed) {
+    final Random random = new Random(seed);
+    vector.allocateNew();
+    for (int i = 0; i < records; i++) {
+      // slots that are never set stay null, allocateNew() clears the validity buffer
+      if (random.nextInt(100) >= nullPercent) {
+        type.set(vector, i, random.nextInt(cardinality));
+      }
+    }
+    vector.setValueCount(records);
+  }
+}
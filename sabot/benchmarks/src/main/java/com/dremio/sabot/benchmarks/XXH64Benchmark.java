@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.common.ht2.XXH64;
+
+/**
+ * Throughput of {@link XXH64} over a batch of keys of a fixed length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class XXH64Benchmark {
+
+  private static final int RECORDS = 4096;
+
+  @Param({"4", "8", "16", "32", "128"})
+  private int keyLength;
+
+  private BufferAllocator allocator;
+  private ArrowBuf keys;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final byte[] bytes = new byte[RECORDS * keyLength];
+    new Random(0).nextBytes(bytes);
+    keys = allocator.buffer(bytes.length);
+    keys.setBytes(0, bytes);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(keys, allocator);
+  }
+
+  @Benchmark
+  public long xxHash64() {
+    long hash = 0;
+    final long endAddr = keys.memoryAddress() + (long) RECORDS * keyLength;
+    for (long addr = keys.memoryAddress(); addr < endAddr; addr += keyLength) {
+      hash ^= XXH64.xxHash64(addr, keyLength, 0);
+    }
+    return hash;
+  }
+
+  @Benchmark
+  public int xxHash6432() {
+    int hash = 0;
+    final long endAddr = keys.memoryAddress() + (long) RECORDS * keyLength;
+    for (long addr = keys.memoryAddress(); addr < endAddr; addr += keyLength) {
+      hash ^= XXH64.xxHash6432(addr, keyLength, 0);
+    }
+    return hash;
+  }
+}
@@ -19,6 +19,7 @@ import java.util.concurrent.TimeUnit;
 
 import com.dremio.common.expression.SupportedEngines;
 import com.dremio.exec.proto.CoordExecRPC.FragmentCodec;
+import com.dremio.exec.store.cache.BlockCache;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionValidator;
 import com.dremio.options.Options;
@@ -164,6 +165,9 @@ public interface ExecConstants {
   BooleanValidator ENABLE_VECTORIZED_HASHAGG = new BooleanValidator("exec.operator.aggregate.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN = new BooleanValidator("exec.operator.join.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN_SPECIFIC = new BooleanValidator("exec.operator.join.vectorize.specific", false);
+  // build side of the vectorized hash join split into cache-sized sub-tables by the high bits of the key hash
+  BooleanValidator ENABLE_HASHJOIN_RADIX_PARTITIONED_BUILD = new BooleanValidator("exec.operator.join.radix_partitioned_build", false);
+  PowerOfTwoLongValidator HASHJOIN_RADIX_PARTITIONS = new PowerOfTwoLongValidator("exec.operator.join.radix_partitioned_build.num_partitions", 1024, 64);
   BooleanValidator ENABLE_VECTORIZED_COPIER = new BooleanValidator("exec.operator.copier.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_COMPLEX_COPIER = new BooleanValidator("exec.operator.copier.complex.vectorize", true);
   BooleanValidator ENABLE_NATIVE_HASHTABLE_FOR_JOIN = new BooleanValidator("exec.join.hashtable.native", true);
@@ -242,8 +246,12 @@ public interface ExecConstants {
   BooleanValidator JSON_READER_ALL_TEXT_MODE_VALIDATOR = new BooleanValidator(JSON_ALL_TEXT_MODE, false);
   BooleanValidator JSON_EXTENDED_TYPES = new BooleanValidator("store.json.extended_types", false);
   BooleanValidator JSON_WRITER_UGLIFY = new BooleanValidator("store.json.writer.uglify", false);
+  // Whether flat JSON records are parsed from a structural index of the raw bytes rather than through Jackson
+  BooleanValidator JSON_STRUCTURAL_READER = new BooleanValidator("store.json.structural_reader.enabled", false);
   DoubleValidator TEXT_ESTIMATED_ROW_SIZE = new RangeDoubleValidator(
       "store.text.estimated_row_size_bytes", 1, Long.MAX_VALUE, 10.0);
+  // Whether block compressed (BGZF) text files are split so that they can be read by several fragments
+  BooleanValidator TEXT_SPLIT_BLOCK_COMPRESSED = new BooleanValidator("store.text.split_block_compressed", true);
 
   /**
    * The column label (for directory levels) in results when querying files in a directory
@@ -280,6 +288,11 @@ public interface ExecConstants {
   String ELASTIC_ACTION_RETRIES = "store.elastic.action_retries";
   LongValidator ELASTIC_ACTION_RETRIES_VALIDATOR = new LongValidator(ELASTIC_ACTION_RETRIES, 0);
 
+  // number of sliced scrolls each elasticsearch shard is read with, each slice being its own split. 1 disables slicing.
+  RangeLongValidator ELASTIC_SLICES_PER_SHARD = new RangeLongValidator("store.elastic.slices_per_shard", 1, 1024, 1);
+  // response size a sliced scroll sizes its pages for, from the bytes per document seen on the slices read before it.
+  RangeLongValidator ELASTIC_SLICE_TARGET_PAGE_BYTES = new RangeLongValidator("store.elastic.slice_target_page_bytes", 1L << 16, 1L << 30, 8L << 20);
+
   BooleanValidator ENABLE_UNION_TYPE = new BooleanValidator("exec.enable_union_type", true);
 
   BooleanValidator ACCELERATION_VERBOSE_LOGGING = new BooleanValidator("accelerator.system.verbose.logging", true);
@@ -376,6 +389,9 @@ public interface ExecConstants {
   String BOOTSTRAP_STORAGE_PLUGINS_FILE = "bootstrap-storage-plugins.json";
   String MAX_LOADING_CACHE_SIZE_CONFIG = "dremio.exec.compile.cache_max_size";
   String MAX_SPLIT_CACHE_SIZE_CONFIG = "dremio.exec.compile.split_cache_max_size";
+  String PERSISTENT_CODE_CACHE_ENABLED_CONFIG = "dremio.exec.compile.persistent_cache.enabled";
+  String PERSISTENT_CODE_CACHE_PATH_CONFIG = "dremio.exec.compile.persistent_cache.path";
+  String PERSISTENT_CODE_CACHE_MAX_ENTRIES_CONFIG = "dremio.exec.compile.persistent_cache.max_entries";
 
   // enable EXTEND on SELECT
   BooleanValidator ENABLE_EXTEND_ON_SELECT = new BooleanValidator("debug.extend_on_select.enabled", false);
@@ -460,9 +476,16 @@ public interface ExecConstants {
   BooleanValidator EXTERNAL_SORT_DIRECT_WRITE = new BooleanValidator("exec.operator.sort.external.direct_write", true);
   BooleanValidator EXTERNAL_SORT_VECTOR_COPIER = new BooleanValidator("exec.operator.sort.external.vector_copier", true);
   DoubleValidator EXTERNAL_SORT_SPILL_ALLOCATION_DENSITY = new RangeDoubleValidator("exec.operator.sort.external.spill.allocation_density", 0.0, Double.MAX_VALUE, 0.01);
+  // spill files of the external sort are written and read ahead on a background thread, using two buffers per file
+  BooleanValidator EXTERNAL_SORT_ASYNC_SPILL_IO = new BooleanValidator("exec.operator.sort.external.async_spill_io", true);
+  PositiveLongValidator EXTERNAL_SORT_ASYNC_SPILL_IO_BUFFER_SIZE = new PositiveLongValidator("exec.operator.sort.external.async_spill_io.buffer_size", 16 * 1024 * 1024, 256 * 1024);
 
   PositiveLongValidator EXTERNAL_SORT_BATCHSIZE_MULTIPLIER = new PositiveLongValidator("exec.operator.sort.external.batchsize_multiplier", Character.MAX_VALUE, 2);
 
+  // window operator spills the batches it buffers once they use more than the threshold
+  BooleanValidator WINDOW_SPILL_ENABLED = new BooleanValidator("exec.operator.window.spill.enabled", true);
+  PositiveLongValidator WINDOW_SPILL_THRESHOLD_BYTES = new PositiveLongValidator("exec.operator.window.spill.threshold_bytes", Long.MAX_VALUE, 128 * 1024 * 1024);
+
   LongValidator VOTING_SCHEDULE = new PositiveLongValidator("vote.schedule.millis", Long.MAX_VALUE, 0);
   PositiveLongValidator LAST_SEARCH_REINDEX  = new PositiveLongValidator("dac.search.last_reindex",  Long.MAX_VALUE, 0);
   PositiveLongValidator SEARCH_MANAGER_REFRESH_MILLIS  = new PositiveLongValidator("dac.search.refresh",  Long.MAX_VALUE, TimeUnit.MINUTES.toMillis(1));
@@ -557,6 +580,12 @@ public interface ExecConstants {
 
   PositiveLongValidator SLICING_THREAD_MIGRATION_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.migration_multiple", Long.MAX_VALUE, 50);
   PositiveLongValidator SLICING_THREAD_SPINDOWN_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.spindown_multiple", Long.MAX_VALUE, 100);
+  // number of threads used by the weighted slicing task pool, 0 means one thread per available core
+  RangeLongValidator SLICING_NUM_THREADS = new RangeLongValidator("dremio.sliced.num_threads", 0, 4096, 0);
+  // time a runnable task keeps its slicing thread before it is put back in the run queue
+  PositiveLongValidator SLICING_TIME_SLICE_MILLIS = new PositiveLongValidator("dremio.sliced.time_slice_millis", 10_000, 10);
+  // interval at which the per group scheduler stats are logged, 0 disables the logging
+  RangeLongValidator SLICING_STATS_LOG_INTERVAL_SECONDS = new RangeLongValidator("dremio.sliced.stats_log_interval_seconds", 0, 86_400, 60);
 
   // warning threshold for spilling
   PositiveLongValidator SPILL_IO_WARN_MAX_RUNTIME_MS = new PositiveLongValidator("dremio.spill.warn_max_runtime", Long.MAX_VALUE, 3000);
@@ -591,11 +620,17 @@ public interface ExecConstants {
   RangeLongValidator RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE = new RangeLongValidator("exec.non_partitioned_parquet.runtime_filter.max_size", 10, 1_000_000, 10000);
   RangeLongValidator RUNTIME_FILTER_KEY_MAX_SIZE = new RangeLongValidator("exec.runtime_filter.max_key_size", 32, 1_024, 128);
   BooleanValidator ENABLE_ROW_LEVEL_RUNTIME_FILTERING = new BooleanValidator("exec.row_level.runtime_filter.enable", true);
+  // skip parquet row groups whose footer stats, column indexes or bloom filters rule out all the runtime filter values
+  BooleanValidator ENABLE_ROWGROUP_RUNTIME_FILTERING = new BooleanValidator("exec.non_partitioned_parquet.runtime_filter.rowgroup_pruning", true);
+  BooleanValidator ENABLE_ROWGROUP_RUNTIME_FILTERING_BLOOM_FILTERS = new BooleanValidator("exec.non_partitioned_parquet.runtime_filter.rowgroup_pruning.bloom_filters", true);
+  RangeLongValidator ROWGROUP_RUNTIME_FILTERING_MAX_BLOOM_FILTER_PROBES = new RangeLongValidator("exec.non_partitioned_parquet.runtime_filter.rowgroup_pruning.max_bloom_filter_probes", 1, 1_000_000, 1000);
 
   String ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY = "exec.parquet.enable_vectorized_complex";
   BooleanValidator ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS = new BooleanValidator(ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY, true);
   BooleanValidator PREFETCH_READER = new BooleanValidator("store.parquet.prefetch_reader", true);
   BooleanValidator READ_COLUMN_INDEXES = new BooleanValidator("store.parquet.read_column_indexes", true);
+  // Decode the columns of the pushdown filters first, and the other columns only for the rows that pass them
+  BooleanValidator PARQUET_LATE_MATERIALIZATION = new BooleanValidator("store.parquet.late_materialization", true);
   // Increasing this will increase the number of splits that are prefetched. Unfortunately, it can also lead to multiple footer reads
   // if the future splits are from the same file
   RangeLongValidator NUM_SPLITS_TO_PREFETCH = new RangeLongValidator("store.parquet.num_splits_to_prefetch", 1, 20L, 1);
@@ -610,6 +645,13 @@ public interface ExecConstants {
   String ICEBERG_NAMESPACE_KEY = "iceberg.namespace";
   BooleanValidator HADOOP_BLOCK_CACHE_ENABLED = new BooleanValidator("hadoop_block_affinity_cache.enabled", true);
 
+  // local disk cache for async reads from distributed stores, see BlockCache
+  BooleanValidator BLOCK_CACHE_ENABLED = new BooleanValidator("exec.block_cache.enabled", false);
+  PowerOfTwoLongValidator BLOCK_CACHE_PAGE_SIZE_BYTES = new PowerOfTwoLongValidator("exec.block_cache.page_size_bytes", 64 * 1024 * 1024, 1024 * 1024);
+  EnumValidator<BlockCache.EvictionPolicy> BLOCK_CACHE_EVICTION_POLICY = new EnumValidator<>("exec.block_cache.eviction_policy", BlockCache.EvictionPolicy.class, BlockCache.EvictionPolicy.LRU);
+  // upper bound on the fetched pages waiting to be written to the cache, pages are not cached when it is reached
+  PositiveLongValidator BLOCK_CACHE_MAX_PENDING_WRITE_BYTES = new PositiveLongValidator("exec.block_cache.max_pending_write_bytes", Long.MAX_VALUE, 256 * 1024 * 1024);
+
   BooleanValidator ENABLE_DELTALAKE_HIVE_SUPPORT = new BooleanValidator("store.deltalake.hive_support.enabled", true);
 
   /**
@@ -90,16 +90,33 @@ public class ClassCompilerSelector {
     this.jdkClassCompiler = JDKClassCompiler.newInstance();
   }
 
-  public ClassBytes[] getClassByteCode(ClassNames className, String sourceCode)
-      throws CompileException, ClassNotFoundException, ClassTransformationException, IOException {
+  private CompilerPolicy getPolicy() {
     OptionValue value = sessionOptions.getOption(JAVA_COMPILER_OPTION);
-    CompilerPolicy policy = (value != null) ? CompilerPolicy.valueOf(value.getStringVal().toUpperCase()) : defaultPolicy;
+    return (value != null) ? CompilerPolicy.valueOf(value.getStringVal().toUpperCase()) : defaultPolicy;
+  }
+
+  private long getJaninoThreshold() {
+    OptionValue value = sessionOptions.getOption(JAVA_COMPILER_JANINO_MAXSIZE_OPTION);
+    return (value != null) ? value.getNumVal() : defaultJaninoThreshold;
+  }
 
-    value = sessionOptions.getOption(JAVA_COMPILER_JANINO_MAXSIZE_OPTION);
-    long janinoThreshold = (value != null) ? value.getNumVal() : defaultJaninoThreshold;
+  private boolean isDebug() {
+    OptionValue value = sessionOptions.getOption(JAVA_COMPILER_DEBUG_OPTION);
+    return (value != null) ? value.getBoolVal() : defaultDebug;
+  }
+
+  /**
+   * @return the current settings deciding which compiler is used and how, which the bytecode of a class depends on
+   */
+  public String getCompilerSettings() {
+    return getPolicy() + ":" + getJaninoThreshold() + ":" + isDebug() + ":" + (jdkClassCompiler != null);
+  }
 
-    value = sessionOptions.getOption(JAVA_COMPILER_DEBUG_OPTION);
-    boolean debug = (value != null) ? value.getBoolVal() : defaultDebug;
+  public ClassBytes[] getClassByteCode(ClassNames className, String sourceCode)
+      throws CompileException, ClassNotFoundException, ClassTransformationException, IOException {
+    CompilerPolicy policy = getPolicy();
+    long janinoThreshold = getJaninoThreshold();
+    boolean debug = isDebug();
 
     ClassCompiler classCompiler;
     if (jdkClassCompiler != null &&
@@ -16,6 +16,8 @@
 package com.dremio.exec.compile;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -43,8 +45,19 @@ public class CodeCompiler {
   private final ClassCompilerSelector selector;
   private final LoadingCache<CodeGenerator<?>, GeneratedClassEntry> generatedCodeToCompiledClazzCache;
   private final LoadingCache<ExpressionsHolder, GeneratedClassEntryWithFunctionErrorContextSizeInfo> expressionsToCompiledClazzCache;
+  private final PersistentCodeCache persistentCodeCache;
+  private final OptionManager optionManager;
 
   public CodeCompiler(final SabotConfig config, final OptionManager optionManager) {
+    this(config, optionManager, null);
+  }
+
+  /**
+   * @param defaultPersistentCacheRoot where the persistent code cache lives when no path is configured, usually under
+   *   the local path of the node
+   */
+  public CodeCompiler(final SabotConfig config, final OptionManager optionManager, final Path defaultPersistentCacheRoot) {
+    this.optionManager = optionManager;
     transformer = new ClassTransformer(optionManager);
     selector = new ClassCompilerSelector(config, optionManager);
     final int cacheMaxSize = config.getInt(ExecConstants.MAX_LOADING_CACHE_SIZE_CONFIG);
@@ -56,6 +69,27 @@ public class CodeCompiler {
       .softValues()
       .maximumSize(cacheMaxSize)
       .build(new ExpressionsToCompiledClazzCacheLoader());
+    persistentCodeCache = openPersistentCodeCache(config, defaultPersistentCacheRoot);
+  }
+
+  private static PersistentCodeCache openPersistentCodeCache(final SabotConfig config, final Path defaultRoot) {
+    if (!config.getBoolean(ExecConstants.PERSISTENT_CODE_CACHE_ENABLED_CONFIG)) {
+      return null;
+    }
+    final String path = config.getString(ExecConstants.PERSISTENT_CODE_CACHE_PATH_CONFIG);
+    final Path root = path.isEmpty() ? defaultRoot : Paths.get(path);
+    if (root == null) {
+      logger.warn("No path set for the persistent code cache, generated classes will not be persisted.");
+      return null;
+    }
+    return PersistentCodeCache.open(root, config.getInt(ExecConstants.PERSISTENT_CODE_CACHE_MAX_ENTRIES_CONFIG));
+  }
+
+  /**
+   * @return the settings the bytecode of a generated class depends on besides its source
+   */
+  String getCompilerSettings() {
+    return selector.getCompilerSettings() + ":" + optionManager.getOption(ExecConstants.EXEC_CODE_CACHE_SAVE_EXPR);
   }
 
   @SuppressWarnings("unchecked")
@@ -114,17 +148,63 @@ public class CodeCompiler {
     this.expressionsToCompiledClazzCache.invalidateAll();
   }
 
+  /**
+   * Compiles the generated code, unless the persistent code cache already has the classes for it.
+   */
+  private Class<?> compile(final CodeGenerator<?> cg) {
+    final String key = persistentCodeCache == null ? null : PersistentCodeCache.key(cg.getDefinition(), getCompilerSettings(), cg.getGenerifiedCode());
+    if (key != null) {
+      final PersistentCodeCache.Entry entry = persistentCodeCache.get(key);
+      if (entry != null) {
+        final Class<?> c = loadCachedClass(cg.getDefinition(), entry);
+        if (c != null) {
+          return c;
+        }
+      }
+    }
+
+    final QueryClassLoader loader = new QueryClassLoader(selector);
+    final long start = System.nanoTime();
+    final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(), cg.getGeneratedCode(), cg.getMaterializedClassName());
+    PersistentCodeCache.recordCompileTime(System.nanoTime() - start);
+    if (key != null) {
+      persistentCodeCache.put(key, new PersistentCodeCache.Entry(c.getName(), loader.getInjectedByteCode()));
+    }
+    return c;
+  }
+
+  private Class<?> loadCachedClass(final TemplateClassDefinition<?> definition, final PersistentCodeCache.Entry entry) {
+    try {
+      final QueryClassLoader loader = new QueryClassLoader(selector);
+      for (ClassBytes clazz : entry.getClasses()) {
+        loader.injectByteCode(clazz.getName(), clazz.getBytes());
+      }
+      final Class<?> c = loader.findClass(entry.getClassName());
+      if (definition.getExternalInterface().isAssignableFrom(c)) {
+        return c;
+      }
+      logger.warn("Cached class {} does not implement {}, compiling it again.", entry.getClassName(), definition.getExternalInterface());
+    } catch (IOException | ClassNotFoundException | LinkageError e) {
+      logger.warn("Unable to load cached class {}, compiling it again.", entry.getClassName(), e);
+    }
+    return null;
+  }
+
+  @VisibleForTesting
+  PersistentCodeCache getPersistentCodeCache() {
+    return persistentCodeCache;
+  }
+
   private class ExpressionsToCompiledClazzCacheLoader extends CacheLoader<ExpressionsHolder,
     GeneratedClassEntryWithFunctionErrorContextSizeInfo> {
     @Override
     public GeneratedClassEntryWithFunctionErrorContextSizeInfo load(final ExpressionsHolder expressionsHolder) throws Exception {
-      final QueryClassLoader loader = new QueryClassLoader(selector);
       ClassGenerator<?> rootGenerator = expressionsHolder.cg.getRoot();
       final int currentCount = rootGenerator.getFunctionErrorContextsCount();
       CodeGenerator<?> cg = expressionsHolder.cg;
       cg.getRoot().evaluateAllLazyExps();
       cg.generate();
-      final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(), cg.getGeneratedCode(), cg.getMaterializedClassName());
+      final Class<?> c = compile(cg);
       final GeneratedClassEntryWithFunctionErrorContextSizeInfo ce =
         new GeneratedClassEntryWithFunctionErrorContextSizeInfo(c,
           rootGenerator.getFunctionErrorContextsCount() - currentCount);
@@ -137,9 +217,7 @@ public class CodeCompiler {
     @Override
     public GeneratedClassEntry load(final CodeGenerator<?> cg) throws Exception {
       logger.debug("In Cache load; Compile code");
-      final QueryClassLoader loader = new QueryClassLoader(selector);
-      final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(),
-        cg.getGeneratedCode(), cg.getMaterializedClassName());
+      final Class<?> c = compile(cg);
       logger.debug("Exit Cache load");
       return new GeneratedClassEntry(c);
     }
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.CodeSource;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dremio.common.util.DremioVersionInfo;
+import com.dremio.telemetry.api.metrics.Counter;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.dremio.telemetry.api.metrics.Metrics.ResetType;
+import com.dremio.telemetry.api.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+/**
+ * Disk backed cache of the bytecode of generated classes, so that the classes compiled before an executor restart
+ * don't need to be compiled again.
+ *
+ * Entries are keyed by a hash of the template class, the compiler settings and the generified source of the
+ * {@code CodeGenerator}, which doesn't contain the per process generated class name, but does contain the inlined
+ * function bodies. Entries of every build live in their own sub directory, identified by the Dremio version and the
+ * timestamp of the jar this class was loaded from, and the directories of other builds are removed when the cache is
+ * opened. Nothing else under the root is touched.
+ *
+ * The executor runs the bytecode it finds in the cache, so the root and the build directories are created readable
+ * and writable by the owner only, and a root that other users can write to is not used.
+ */
+public class PersistentCodeCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PersistentCodeCache.class);
+
+  private static final int MAGIC = 0x44434331; // DCC1
+  private static final String ENTRY_SUFFIX = ".classes";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final String BUILD_DIRECTORY_PREFIX = "build-";
+  private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS =
+    EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+
+  private static final Counter HITS = Metrics.newCounter(Metrics.join("code_cache", "persistent", "hits"), ResetType.NEVER);
+  private static final Counter MISSES = Metrics.newCounter(Metrics.join("code_cache", "persistent", "misses"), ResetType.NEVER);
+  private static final Timer COMPILE_TIME = Metrics.newTimer(Metrics.join("code_cache", "compile_time"), ResetType.NEVER);
+
+  private final Path directory;
+  private final int maxEntries;
+  private final Set<String> keys = ConcurrentHashMap.newKeySet();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * A class loaded from the cache, or compiled and stored in it.
+   */
+  public static final class Entry {
+    private final String className;
+    private final ClassBytes[] classes;
+
+    public Entry(String className, ClassBytes[] classes) {
+      this.className = className;
+      this.classes = classes;
+    }
+
+    public String getClassName() {
+      return className;
+    }
+
+    public ClassBytes[] getClasses() {
+      return classes;
+    }
+  }
+
+  private PersistentCodeCache(Path directory, int maxEntries) {
+    this.directory = directory;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Opens the cache under the given root, removing the entries of other builds and indexing the existing ones.
+   *
+   * @return the cache, or null if the directory could not be used
+   */
+  public static PersistentCodeCache open(Path root, int maxEntries) {
+    return open(root, buildFingerprint(), maxEntries);
+  }
+
+  @VisibleForTesting
+  static PersistentCodeCache open(Path root, String fingerprint, int maxEntries) {
+    try {
+      createPrivateDirectory(root);
+      if (!isPrivate(root)) {
+        logger.warn("Persistent code cache root {} is not owned by this process or can be written by other users, generated classes will not be persisted.", root);
+        return null;
+      }
+
+      final String buildDirectoryName = BUILD_DIRECTORY_PREFIX
+        + Hashing.sha256().hashString(fingerprint, StandardCharsets.UTF_8).toString().substring(0, 16);
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, BUILD_DIRECTORY_PREFIX + "*")) {
+        for (Path child : stream) {
+          if (Files.isDirectory(child) && !child.getFileName().toString().equals(buildDirectoryName)) {
+            MoreFiles.deleteRecursively(child, RecursiveDeleteOption.ALLOW_INSECURE);
+          }
+        }
+      }
+
+      final Path directory = createPrivateDirectory(root.resolve(buildDirectoryName));
+      // entries being written when a previous executor stopped
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TMP_SUFFIX)) {
+        for (Path tmp : stream) {
+          Files.deleteIfExists(tmp);
+        }
+      }
+
+      final PersistentCodeCache cache = new PersistentCodeCache(directory, maxEntries);
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+        for (Path entry : stream) {
+          final String name = entry.getFileName().toString();
+          cache.keys.add(name.substring(0, name.length() - ENTRY_SUFFIX.length()));
+        }
+      }
+      logger.info("Opened persistent code cache at {} with {} entries.", directory, cache.keys.size());
+      return cache;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Unable to open persistent code cache at {}, generated classes will not be persisted.", root, e);
+      return null;
+    }
+  }
+
+  private static Path createPrivateDirectory(Path directory) throws IOException {
+    if (Files.isDirectory(directory)) {
+      return directory;
+    }
+    if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      return Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+    }
+    return Files.createDirectories(directory);
+  }
+
+  /**
+   * @return true if the directory is owned by the user of this process and no other user can write to it
+   */
+  private static boolean isPrivate(Path directory) throws IOException {
+    final PosixFileAttributeView view = Files.getFileAttributeView(directory, PosixFileAttributeView.class);
+    if (view == null) {
+      return true;
+    }
+    final PosixFileAttributes attributes = view.readAttributes();
+    final UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService()
+      .lookupPrincipalByName(System.getProperty("user.name"));
+    return attributes.owner().equals(user)
+      && !attributes.permissions().contains(PosixFilePermission.GROUP_WRITE)
+      && !attributes.permissions().contains(PosixFilePermission.OTHERS_WRITE);
+  }
+
+  private static String buildFingerprint() {
+    final StringBuilder fingerprint = new StringBuilder(DremioVersionInfo.getVersion());
+    try {
+      final CodeSource codeSource = PersistentCodeCache.class.getProtectionDomain().getCodeSource();
+      if (codeSource != null) {
+        final File location = new File(codeSource.getLocation().toURI());
+        fingerprint.append(':').append(location.getPath()).append(':').append(location.lastModified());
+      }
+    } catch (Exception e) {
+      logger.debug("Unable to locate the code source of the executor", e);
+    }
+    return fingerprint.toString();
+  }
+
+  /**
+   * @return the key of the class generated by the given template and generified source with the given compiler
+   *   settings, as returned by {@link CodeCompiler#getCompilerSettings()}
+   */
+  public static String key(TemplateClassDefinition<?> definition, String compilerSettings, String generifiedCode) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(definition.getTemplateClassName(), StandardCharsets.UTF_8);
+    hasher.putByte((byte) 0);
+    hasher.putString(definition.getExternalInterface().getName(), StandardCharsets.UTF_8);
+    hasher.putByte((byte) 0);
+    hasher.putString(compilerSettings, StandardCharsets.UTF_8);
+    hasher.putByte((byte) 0);
+    hasher.putString(generifiedCode, StandardCharsets.UTF_8);
+    return hasher.hash().toString();
+  }
+
+  /**
+   * @return the cached classes for the key, or null if they are not in the cache
+   */
+  public Entry get(String key) {
+    if (!keys.contains(key)) {
+      recordMiss();
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entryPath(key))))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Invalid code cache entry " + key);
+      }
+      final String className = in.readUTF();
+      final ClassBytes[] classes = new ClassBytes[in.readInt()];
+      for (int i = 0; i < classes.length; i++) {
+        final String name = in.readUTF();
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        classes[i] = new ClassBytes(name, bytes);
+      }
+      hitCount.incrementAndGet();
+      HITS.increment();
+      return new Entry(className, classes);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Unable to read code cache entry {}, removing it.", key, e);
+      remove(key);
+      recordMiss();
+      return null;
+    }
+  }
+
+  /**
+   * Stores the classes under the key. Failures are logged and ignored, the class is still usable.
+   */
+  public void put(String key, Entry entry) {
+    if (keys.contains(key) || keys.size() >= maxEntries) {
+      return;
+    }
+
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(directory, key, TMP_SUFFIX);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeUTF(entry.getClassName());
+        out.writeInt(entry.getClasses().length);
+        for (ClassBytes clazz : entry.getClasses()) {
+          out.writeUTF(clazz.getName());
+          out.writeInt(clazz.getBytes().length);
+          out.write(clazz.getBytes());
+        }
+      }
+      Files.move(tmp, entryPath(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      keys.add(key);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Unable to write code cache entry {}.", key, e);
+      if (tmp != null) {
+        try {
+          Files.deleteIfExists(tmp);
+        } catch (IOException ignored) {
+          // best effort
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the time taken to compile a class that was not in any of the caches.
+   */
+  public static void recordCompileTime(long nanos) {
+    COMPILE_TIME.update(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public int size() {
+    return keys.size();
+  }
+
+  private void recordMiss() {
+    missCount.incrementAndGet();
+    MISSES.increment();
+  }
+
+  private void remove(String key) {
+    keys.remove(key);
+    try {
+      Files.deleteIfExists(entryPath(key));
+    } catch (IOException e) {
+      logger.debug("Unable to delete code cache entry {}", key, e);
+    }
+  }
+
+  private Path entryPath(String key) {
+    return directory.resolve(key + ENTRY_SUFFIX);
+  }
+}
@@ -50,6 +50,15 @@ public class QueryClassLoader extends URLClassLoader {
     customClasses.put(className, classBytes);
   }
 
+  /**
+   * @return the bytecode of all the classes injected in this loader
+   */
+  public ClassBytes[] getInjectedByteCode() {
+    return customClasses.entrySet().stream()
+      .map(e -> new ClassBytes(e.getKey(), e.getValue()))
+      .toArray(ClassBytes[]::new);
+  }
+
   @Override
   protected Class<?> findClass(String className) throws ClassNotFoundException {
     byte[] ba = customClasses.get(className);
@@ -111,6 +111,13 @@ public class CodeGenerator<T> {
     return generifiedCode.replaceAll("GenericGenerated", this.className);
   }
 
+  /**
+   * @return the generated code, with a placeholder instead of the materialized class name
+   */
+  public String getGenerifiedCode() {
+    return generifiedCode;
+  }
+
   public TemplateClassDefinition<T> getDefinition() {
     return definition;
   }
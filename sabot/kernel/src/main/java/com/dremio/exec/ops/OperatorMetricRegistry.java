@@ -33,6 +33,7 @@ import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.filter.FilterStats;
 import com.dremio.sabot.op.join.nlje.NLJEOperator;
 import com.dremio.sabot.op.join.vhash.HashJoinStats;
+import com.dremio.sabot.op.metrics.ElasticStats;
 import com.dremio.sabot.op.metrics.MongoStats;
 import com.dremio.sabot.op.project.ProjectorStats;
 import com.dremio.sabot.op.receiver.BridgeFileReaderReceiverOperator;
@@ -47,6 +48,7 @@ import com.dremio.sabot.op.sender.roundrobin.RoundRobinOperator;
 import com.dremio.sabot.op.sender.single.SingleSenderOperator;
 import com.dremio.sabot.op.sort.external.ExternalSortOperator;
 import com.dremio.sabot.op.tablefunction.TableFunctionOperator;
+import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 import com.dremio.sabot.op.writer.WriterCommitterOperator;
 import com.dremio.sabot.op.writer.WriterOperator;
 
@@ -73,6 +75,7 @@ public class OperatorMetricRegistry {
     register(builder, CoreOperatorType.EXTERNAL_SORT_VALUE, ExternalSortOperator.Metric.class);
     register(builder, CoreOperatorType.HIVE_SUB_SCAN_VALUE, ScanOperator.Metric.class);
     register(builder, CoreOperatorType.MONGO_SUB_SCAN_VALUE, MongoStats.Metric.class);
+    register(builder, CoreOperatorType.ELASTICSEARCH_SUB_SCAN_VALUE, Arrays.asList(ScanOperator.Metric.class, ElasticStats.Metric.class));
     register(builder, CoreOperatorType.PARQUET_ROW_GROUP_SCAN_VALUE, ScanOperator.Metric.class);
     register(builder, CoreOperatorType.PARQUET_WRITER_VALUE, ParquetRecordWriter.Metric.class);
     register(builder, CoreOperatorType.ARROW_WRITER_VALUE, WriterOperator.Metric.class);
@@ -90,6 +93,7 @@ public class OperatorMetricRegistry {
     register(builder, CoreOperatorType.BRIDGE_FILE_READER_RECEIVER_VALUE, BridgeFileReaderReceiverOperator.Metric.class);
     register(builder, CoreOperatorType.ICEBERG_METADATA_FUNCTIONS_READER_VALUE, ScanOperator.Metric.class);
     register(builder, CoreOperatorType.TEXT_SUB_SCAN_VALUE, ScanOperator.Metric.class);
+    register(builder, CoreOperatorType.WINDOW_VALUE, WindowFrameOperator.Metric.class);
     CORE_OPERATOR_TYPE_METRICS_MAP = builder.build();
   }
 
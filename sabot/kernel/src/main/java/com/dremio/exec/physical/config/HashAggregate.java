@@ -18,10 +18,12 @@ package com.dremio.exec.physical.config;
 import java.util.List;
 
 import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.base.AbstractSingle;
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.base.PhysicalVisitor;
+import com.dremio.exec.planner.physical.PhysicalPlanCreator;
 import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggSpillStats;
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -38,6 +40,7 @@ public class HashAggregate extends AbstractSingle {
   private final boolean useSpill;
   private final float cardinality;
   private final int hashTableBatchSize;
+  private final boolean partialAggregation;
 
   /* testing related parameters */
   private VectorizedHashAggSpillStats spillStats;
@@ -51,7 +54,8 @@ public class HashAggregate extends AbstractSingle {
       @JsonProperty("vectorize") boolean vectorize,
       @JsonProperty("useSpill") boolean useSpill,
       @JsonProperty("cardinality") float cardinality,
-      @JsonProperty("hashTableBatchSize") int hashTableBatchSize
+      @JsonProperty("hashTableBatchSize") int hashTableBatchSize,
+      @JsonProperty("partialAggregation") boolean partialAggregation
       ) {
     super(props, child);
     this.groupByExprs = groupByExprs;
@@ -60,6 +64,19 @@ public class HashAggregate extends AbstractSingle {
     this.useSpill = useSpill;
     this.cardinality = cardinality;
     this.hashTableBatchSize = hashTableBatchSize;
+    this.partialAggregation = partialAggregation;
+  }
+
+  public HashAggregate(
+    OpProps props,
+    PhysicalOperator child,
+    List<NamedExpression> groupByExprs,
+    List<NamedExpression> aggrExprs,
+    boolean vectorize,
+    boolean useSpill,
+    float cardinality,
+    int hashTableBatchSize) {
+    this(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality, hashTableBatchSize, false);
   }
 
   // for testing only
@@ -71,7 +88,9 @@ public class HashAggregate extends AbstractSingle {
     boolean vectorize,
     boolean useSpill,
     float cardinality) {
-    this(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality, 3968);
+    this(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality,
+      PhysicalPlanCreator.optimizeBatchSizeForAllocs((int) ExecConstants.TARGET_BATCH_RECORDS_MAX.getDefault().getNumVal()),
+      false);
   }
 
   public boolean isVectorize(){
@@ -94,6 +113,13 @@ public class HashAggregate extends AbstractSingle {
     return cardinality;
   }
 
+  /**
+   * @return true if this is the first phase of a two phase aggregation, its output is aggregated again
+   */
+  public boolean isPartialAggregation() {
+    return partialAggregation;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E{
     return physicalVisitor.visitHashAggregate(this, value);
@@ -101,7 +127,8 @@ public class HashAggregate extends AbstractSingle {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashAggregate(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality);
+    return new HashAggregate(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality, hashTableBatchSize,
+      partialAggregation);
   }
 
   @Override
@@ -30,6 +30,7 @@ import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.store.CatalogService;
+import com.dremio.options.OptionManager;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.source.proto.SourceConfig;
 import com.google.common.base.Preconditions;
@@ -43,10 +44,16 @@ public class PlanCache {
 
   private final Cache<String, CachedPlan> cachePlans;
   private static Multimap<String, String> datasetMap;
+  private final ResultCache resultCache;
 
   public PlanCache(Cache<String, CachedPlan> cachePlans, Multimap<String, String> map) {
+    this(cachePlans, map, null);
+  }
+
+  public PlanCache(Cache<String, CachedPlan> cachePlans, Multimap<String, String> map, ResultCache resultCache) {
     this.cachePlans = cachePlans;
     this.datasetMap = map;
+    this.resultCache = resultCache;
   }
 
   public Multimap<String, String> getDatasetMap() {
@@ -57,6 +64,10 @@ public class PlanCache {
     return cachePlans;
   }
 
+  public ResultCache getResultCache() {
+    return resultCache;
+  }
+
   public void createNewCachedPlan(Catalog catalog, String cachedKey, String sql,
                                   Prel prel, String textPlan, SqlHandlerConfig config) {
     Preconditions.checkNotNull(catalog);
@@ -105,10 +116,25 @@ public class PlanCache {
       .putString(context.getWorkloadType().name(), UTF_8)
       .putString(context.getContextInformation().getCurrentDefaultSchema(), UTF_8);
 
-    context.getOptions().getNonDefaultOptions()
+    hashNonDefaultOptions(hasher, context.getOptions());
+
+    Optional.ofNullable(context.getGroupResourceInformation())
+      .ifPresent(v -> {
+        hasher.putInt(v.getExecutorNodeCount());
+        hasher.putLong(v.getAverageExecutorCores(context.getOptions()));
+      });
+
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Adds the session options which differ from their defaults to a cache key.
+   */
+  static void hashNonDefaultOptions(Hasher hasher, OptionManager options) {
+    options.getNonDefaultOptions()
         .stream()
         // A sanity filter in case an option with default value is put into non-default options
-        .filter(optionValue -> !context.getOptions().getDefaultOptions().contains(optionValue))
+        .filter(optionValue -> !options.getDefaultOptions().contains(optionValue))
         .sorted()
         .forEach((v) -> {
           switch(v.getKind()) {
@@ -128,14 +154,6 @@ public class PlanCache {
               throw new AssertionError("Unsupported OptionValue kind: " + v.getKind());
           }
         });
-
-    Optional.ofNullable(context.getGroupResourceInformation())
-      .ifPresent(v -> {
-        hasher.putInt(v.getExecutorNodeCount());
-        hasher.putLong(v.getAverageExecutorCores(context.getOptions()));
-      });
-
-    return hasher.hash().toString();
   }
 
   public CachedPlan getIfPresentAndValid(Catalog catalog, CatalogService catalogService, String cacheId) {
@@ -185,6 +203,9 @@ public class PlanCache {
     for(String cacheId: affectedCaches) {
       cachePlans.invalidate(cacheId);
     }
+    if (resultCache != null) {
+      resultCache.invalidateCacheOnDataset(datasetId);
+    }
   }
 
   public static void clearDatasetMapOnCacheGC(String cacheId) {
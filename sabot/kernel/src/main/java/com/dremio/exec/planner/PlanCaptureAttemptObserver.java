@@ -56,6 +56,7 @@ import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
 import com.dremio.exec.proto.UserBitShared.LayoutMaterializedViewProfile;
 import com.dremio.exec.proto.UserBitShared.PlanPhaseProfile;
+import com.dremio.exec.proto.UserBitShared.ResultCacheProfile;
 import com.dremio.exec.proto.UserBitShared.SubstitutionProfile;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.sys.accel.AccelerationDetailsPopulator;
@@ -93,6 +94,9 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
   private long normalizationMillis = 0;
   private long substitutionMillis = 0;
   private int numSubstitutions = 0;
+  private int numUnificationsAttempted = 0;
+  private int numUnificationsMatched = 0;
+  private int numUnificationsTimedOut = 0;
   private int numFragments;
   private List<String> normalizedQueryPlans;
 
@@ -100,6 +104,7 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
   private byte[] serializedPlan;
 
   private int numPlanCacheUses = 0;
+  private ResultCacheProfile resultCacheProfile;
 
   private final CachedAccelDetails accelDetails = new CachedAccelDetails();
 
@@ -120,7 +125,10 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
       .setNumSubstitutions(numSubstitutions)
       .setMillisTakenGettingMaterializations(findMaterializationMillis)
       .setMillisTakenNormalizing(normalizationMillis)
-      .setMillisTakenSubstituting(substitutionMillis);
+      .setMillisTakenSubstituting(substitutionMillis)
+      .setNumUnificationsAttempted(numUnificationsAttempted)
+      .setNumUnificationsMatched(numUnificationsMatched)
+      .setNumUnificationsTimedOut(numUnificationsTimedOut);
     if (normalizedQueryPlans != null) {
       builder.addAllNormalizedQueryPlans(normalizedQueryPlans);
     }
@@ -295,6 +303,13 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
     detailsPopulator.substitutionFailures(errors);
   }
 
+  @Override
+  public void substitutionStats(int numAttempted, int numMatched, int numTimedOut) {
+    numUnificationsAttempted = numAttempted;
+    numUnificationsMatched = numMatched;
+    numUnificationsTimedOut = numTimedOut;
+  }
+
   @Override
   public void planCompleted(ExecutionPlan plan) {
     if (plan != null) {
@@ -331,6 +346,21 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
     return numPlanCacheUses;
   }
 
+  @Override
+  public void setResultCacheProfile(ResultCacheProfile resultCacheProfile) {
+    if (resultCacheProfile.getHit()) {
+      planPhases.add(PlanPhaseProfile.newBuilder()
+        .setPhaseName(PlannerPhase.RESULT_CACHE_USED)
+        .setPlan(String.format("Results of query %s are used for the query", resultCacheProfile.getCachedQueryId()))
+        .build());
+    }
+    this.resultCacheProfile = resultCacheProfile;
+  }
+
+  public ResultCacheProfile getResultCacheProfile() {
+    return resultCacheProfile;
+  }
+
   // Serializes and stores plans
   private void serializeAndStoreRel(RelNode converted) throws Exception{
     PlannerSettings settings = PrelUtil.getSettings(converted.getCluster());
@@ -384,7 +414,8 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
   public void planRelTransform(final PlannerPhase phase, RelOptPlanner planner, final RelNode before, final RelNode after, final long millisTaken) {
     final boolean noTransform = before == after;
     final String planAsString = toStringOrEmpty(after, noTransform || phase.forceVerbose());
-    final long millisTakenFinalize = (phase.useMaterializations) ? millisTaken - (findMaterializationMillis + normalizationMillis + substitutionMillis) : millisTaken;
+    // concurrent substitutions may add up to more than the time taken by the phase
+    final long millisTakenFinalize = (phase.useMaterializations) ? Math.max(0, millisTaken - (findMaterializationMillis + normalizationMillis + substitutionMillis)) : millisTaken;
     if (phase.useMaterializations) {
       planPhases.add(PlanPhaseProfile.newBuilder()
         .setPhaseName(PlannerPhase.PLAN_REL_TRANSFORM)
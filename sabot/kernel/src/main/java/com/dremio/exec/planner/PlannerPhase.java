@@ -1049,6 +1049,7 @@ public enum PlannerPhase {
   public static final String PLAN_CONVERTED_SCAN = "Convert Scan";
   public static final String PLAN_VALIDATED = "Validation";
   public static final String PLAN_CACHE_USED = "Plan Cache Used";
+  public static final String RESULT_CACHE_USED = "Result Cache Used";
   public static final String PLAN_CONVERTED_TO_REL = "Convert To Rel";
   public static final String PLAN_FIND_MATERIALIZATIONS = "Find Materializations";
   public static final String PLAN_NORMALIZED = "Normalization";
@@ -0,0 +1,447 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.sql.SqlExplainLevel;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.commons.lang3.StringUtils;
+
+import com.dremio.common.utils.PathUtils;
+import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.physical.base.WriterOptions;
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.planner.logical.CreateTableEntry;
+import com.dremio.exec.planner.physical.ExchangePrel;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.PlannerSettings.StoreQueryResultsPolicy;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.ScreenPrel;
+import com.dremio.exec.planner.physical.TableFunctionPrel;
+import com.dremio.exec.planner.physical.ValuesPrel;
+import com.dremio.exec.planner.physical.WriterCommitterPrel;
+import com.dremio.exec.planner.physical.WriterPrel;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.store.TableMetadata;
+import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.exec.store.iceberg.IcebergManifestListPrel;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionValue;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
+import com.dremio.service.namespace.dataset.proto.ReadDefinition;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Coordinator side cache of query results.
+ *
+ * Queries whose results are stored in the job results store leave their output as Arrow files. Those files are
+ * registered here under the hash of the physical plan of the query, combined with the version of every dataset it
+ * scans (dataset tag, metadata refresh time and read signature, Iceberg snapshot id, and for reflections the
+ * materialization id which is part of their path). A later query with the same key reads the stored files instead
+ * of executing the plan again.
+ *
+ * Entries are staged when a query is planned, become visible once it completes successfully, are weighed by the
+ * size of their files for LRU eviction, and are invalidated together with the plan cache when a dataset they read
+ * is refreshed or altered.
+ */
+public class ResultCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ResultCache.class);
+
+  private static final String ACCELERATOR_STORAGEPLUGIN_NAME = "__accelerator";
+
+  private final long maxSizeBytes;
+  private final Cache<String, CachedResult> cachedResults;
+  private final Multimap<String, String> datasetMap = Multimaps.synchronizedSetMultimap(HashMultimap.create());
+  private final Map<String, PendingResult> pendingResults = new ConcurrentHashMap<>();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  public ResultCache(long maxSizeBytes, long timeoutMinutes) {
+    this.maxSizeBytes = maxSizeBytes;
+    this.cachedResults = CacheBuilder.newBuilder()
+      // a single segment keeps the size bound and the LRU order global, entries being large compared to the bound
+      .concurrencyLevel(1)
+      .maximumWeight(maxSizeBytes)
+      .weigher((Weigher<String, CachedResult>) (key, result) -> (int) Math.min(Integer.MAX_VALUE, result.getSize()))
+      .removalListener((RemovalListener<String, CachedResult>) notification -> {
+        if (notification.getCause() != RemovalCause.REPLACED) {
+          clearDatasetMap(notification.getKey());
+        }
+      })
+      .expireAfterAccess(timeoutMinutes, TimeUnit.MINUTES)
+      .build();
+  }
+
+  public static boolean supportResultCache(ResultCache resultCache, SqlHandlerConfig config, SqlNode sqlNode) {
+    if (resultCache == null || !config.getContext().getPlannerSettings().isResultCacheEnabled()) {
+      return false;
+    }
+    if (StringUtils.containsIgnoreCase(sqlNode.toString(), "external_query")) {
+      return false;
+    }
+    // Results are only kept around when every query writes them to its own table.
+    final OptionValue storeQueryResults = config.getContext().getOptions()
+      .getOption(PlannerSettings.STORE_QUERY_RESULTS.getOptionName());
+    if (storeQueryResults == null || StoreQueryResultsPolicy.PATH_AND_ATTEMPT_ID !=
+      StoreQueryResultsPolicy.valueOf(storeQueryResults.getStringVal().toUpperCase(Locale.ROOT))) {
+      return false;
+    }
+    // Queries using non deterministic or context dependent functions are not plan cacheable either.
+    return config.getConverter().getFunctionContext().getContextInformation().isPlanCacheable();
+  }
+
+  /**
+   * Computes the result cache key of a physical plan storing its results.
+   *
+   * Besides the plan and the versions of the datasets it reads, the key covers the query user, since sources with
+   * impersonation or user dependent permissions may return different data for the same plan, and the session
+   * options which differ from their defaults, as the plan cache does.
+   *
+   * @return the key, or null if the results of the plan cannot be cached: either they are not written to the
+   * results store, or the plan reads data whose version is not tracked by the dataset metadata (system tables,
+   * external queries, non file based sources...)
+   */
+  public static ResultKey generateCacheKey(Prel root, QueryContext context) {
+    RelNode node = root;
+    while (node instanceof ScreenPrel || node instanceof WriterCommitterPrel || node instanceof ExchangePrel) {
+      node = node.getInput(0);
+    }
+    if (!(node instanceof WriterPrel)) {
+      return null;
+    }
+    final WriterPrel writer = (WriterPrel) node;
+    final CreateTableEntry createTableEntry = writer.getCreateTableEntry();
+    if (!(createTableEntry.getPlugin() instanceof FileSystemPlugin) || createTableEntry.getDatasetPath() == null) {
+      return null;
+    }
+
+    final Hasher hasher = Hashing.sha256().newHasher();
+    final RelNode query = writer.getInput();
+    hasher.putString(RelOptUtil.toString(query, SqlExplainLevel.DIGEST_ATTRIBUTES), UTF_8);
+    final WriterOptions writerOptions = createTableEntry.getOptions();
+    hasher.putBoolean(writerOptions.isOutputLimitEnabled())
+      .putLong(writerOptions.getOutputLimitSize());
+    hasher.putString(context.getQueryUserName(), UTF_8);
+    PlanCache.hashNonDefaultOptions(hasher, context.getOptions());
+
+    // Sorted to keep the key independent of the order in which the tree is walked.
+    final Set<String> versions = new TreeSet<>();
+    final ImmutableSet.Builder<String> datasetIds = ImmutableSet.builder();
+    final Deque<RelNode> nodes = new ArrayDeque<>();
+    nodes.push(query);
+    while (!nodes.isEmpty()) {
+      final RelNode current = nodes.pop();
+      final TableMetadata tableMetadata;
+      if (current instanceof ScanRelBase) {
+        tableMetadata = ((ScanRelBase) current).getTableMetadata();
+      } else if (current instanceof TableFunctionPrel) {
+        tableMetadata = ((TableFunctionPrel) current).getTableMetadata();
+      } else if (current.getInputs().isEmpty()
+        && !(current instanceof ValuesPrel) && !(current instanceof IcebergManifestListPrel)) {
+        return null;
+      } else {
+        tableMetadata = null;
+      }
+      if (tableMetadata != null) {
+        final DatasetConfig datasetConfig = tableMetadata.getDatasetConfig();
+        final String version = getDatasetVersion(datasetConfig);
+        if (version == null) {
+          return null;
+        }
+        versions.add(version);
+        datasetIds.add(datasetConfig.getId().getId());
+      }
+      current.getInputs().forEach(nodes::push);
+    }
+    versions.forEach(v -> hasher.putString(v, UTF_8));
+
+    return new ResultKey(hasher.hash().toString(), datasetIds.build(),
+      createTableEntry.getDatasetPath().getPathComponents(),
+      ((FileSystemPlugin<?>) createTableEntry.getPlugin()).getSystemUserFS(),
+      Path.of(createTableEntry.getLocation()));
+  }
+
+  /**
+   * Returns a string identifying the version of the dataset, or null if changes to the dataset are not reflected
+   * in its metadata.
+   */
+  private static String getDatasetVersion(DatasetConfig datasetConfig) {
+    if (datasetConfig == null || datasetConfig.getId() == null || datasetConfig.getPhysicalDataset() == null) {
+      return null;
+    }
+    final List<String> path = datasetConfig.getFullPathList();
+    final IcebergMetadata icebergMetadata = datasetConfig.getPhysicalDataset().getIcebergMetadata();
+    final boolean versioned;
+    switch (datasetConfig.getType()) {
+      case PHYSICAL_DATASET_SOURCE_FILE:
+      case PHYSICAL_DATASET_SOURCE_FOLDER:
+      case PHYSICAL_DATASET_HOME_FILE:
+      case PHYSICAL_DATASET_HOME_FOLDER:
+        versioned = true;
+        break;
+      default:
+        versioned = icebergMetadata != null
+          || (path != null && !path.isEmpty() && ACCELERATOR_STORAGEPLUGIN_NAME.equals(path.get(0)));
+    }
+    if (!versioned) {
+      return null;
+    }
+
+    final StringBuilder version = new StringBuilder()
+      .append(PathUtils.constructFullPath(path != null ? path : Collections.emptyList()))
+      .append('|').append(datasetConfig.getId().getId())
+      .append('|').append(datasetConfig.getTag())
+      .append('|').append(datasetConfig.getLastModified());
+    final ReadDefinition readDefinition = datasetConfig.getReadDefinition();
+    if (readDefinition != null) {
+      version.append('|').append(readDefinition.getLastRefreshDate());
+      if (readDefinition.getReadSignature() != null) {
+        version.append('|').append(Hashing.sha256().hashBytes(readDefinition.getReadSignature().toByteArray()));
+      }
+    }
+    if (icebergMetadata != null) {
+      version.append('|').append(icebergMetadata.getSnapshotId())
+        .append('|').append(icebergMetadata.getMetadataFileLocation());
+    }
+    return version.toString();
+  }
+
+  /**
+   * Looks up the results of a previous query, making sure its files are still present.
+   */
+  public CachedResult getIfPresentAndValid(String key) {
+    final CachedResult cachedResult = cachedResults.getIfPresent(key);
+    if (cachedResult != null) {
+      try {
+        if (cachedResult.getFileSystem().exists(cachedResult.getLocation())) {
+          hitCount.incrementAndGet();
+          return cachedResult;
+        }
+        logger.debug("Results of query {} are no longer available.", cachedResult.getQueryId());
+      } catch (IOException e) {
+        logger.debug("Failed to check the results of query {}.", cachedResult.getQueryId(), e);
+      }
+      cachedResults.invalidate(key);
+    }
+    missCount.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Registers the results a query is going to store. They are added to the cache once the query completes.
+   */
+  public void stage(String queryId, ResultKey key) {
+    pendingResults.put(queryId, new PendingResult(key, System.currentTimeMillis()));
+  }
+
+  /**
+   * Publishes the staged results of a query once it completed, or drops them if the query did not succeed.
+   */
+  public void complete(String queryId, boolean succeeded) {
+    final PendingResult pending = pendingResults.remove(queryId);
+    if (pending == null || !succeeded) {
+      return;
+    }
+    final ResultKey key = pending.key;
+    final long size;
+    try {
+      size = getSize(key.getFileSystem(), key.getLocation());
+    } catch (IOException e) {
+      logger.debug("Failed to compute the size of the results of query {}.", queryId, e);
+      return;
+    }
+    if (size > maxSizeBytes) {
+      logger.debug("Results of query {} are too large to be cached: {} bytes.", queryId, size);
+      return;
+    }
+    for (String datasetId : key.getDatasetIds()) {
+      datasetMap.put(datasetId, key.getKey());
+    }
+    cachedResults.put(key.getKey(), new CachedResult(queryId, key, size, pending.creationTime));
+  }
+
+  private static long getSize(FileSystem fs, Path location) throws IOException {
+    long size = 0;
+    try (DirectoryStream<FileAttributes> files = fs.listFiles(location, true)) {
+      for (FileAttributes file : files) {
+        size += file.size();
+      }
+    }
+    return size;
+  }
+
+  public void invalidateCacheOnDataset(String datasetId) {
+    final List<String> affectedKeys;
+    synchronized (datasetMap) {
+      affectedKeys = ImmutableList.copyOf(datasetMap.get(datasetId));
+    }
+    cachedResults.invalidateAll(affectedKeys);
+  }
+
+  public void invalidate(String key) {
+    cachedResults.invalidate(key);
+  }
+
+  public void invalidateAll() {
+    cachedResults.invalidateAll();
+  }
+
+  private void clearDatasetMap(String key) {
+    synchronized (datasetMap) {
+      datasetMap.entries().removeIf(entry -> entry.getValue().equals(key));
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @VisibleForTesting
+  Cache<String, CachedResult> getCachedResults() {
+    return cachedResults;
+  }
+
+  /**
+   * Key of the results of a query, along with where the query stores them.
+   */
+  public static final class ResultKey {
+    private final String key;
+    private final Set<String> datasetIds;
+    private final List<String> resultsTable;
+    private final FileSystem fileSystem;
+    private final Path location;
+
+    @VisibleForTesting
+    ResultKey(String key, Set<String> datasetIds, List<String> resultsTable, FileSystem fileSystem, Path location) {
+      this.key = key;
+      this.datasetIds = datasetIds;
+      this.resultsTable = resultsTable;
+      this.fileSystem = fileSystem;
+      this.location = location;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public Set<String> getDatasetIds() {
+      return datasetIds;
+    }
+
+    public List<String> getResultsTable() {
+      return resultsTable;
+    }
+
+    public FileSystem getFileSystem() {
+      return fileSystem;
+    }
+
+    public Path getLocation() {
+      return location;
+    }
+  }
+
+  /**
+   * Results stored by a completed query.
+   */
+  public static final class CachedResult {
+    private final String queryId;
+    private final ResultKey key;
+    private final long size;
+    private final long creationTime;
+
+    private CachedResult(String queryId, ResultKey key, long size, long creationTime) {
+      this.queryId = queryId;
+      this.key = key;
+      this.size = size;
+      this.creationTime = creationTime;
+    }
+
+    public String getQueryId() {
+      return queryId;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getCreationTime() {
+      return creationTime;
+    }
+
+    FileSystem getFileSystem() {
+      return key.getFileSystem();
+    }
+
+    Path getLocation() {
+      return key.getLocation();
+    }
+
+    /**
+     * @return a query reading the stored results
+     */
+    public String getSql() {
+      return String.format("SELECT * FROM TABLE(%s(type => 'arrow'))",
+        PathUtils.constructFullPath(key.getResultsTable()));
+    }
+  }
+
+  private static final class PendingResult {
+    private final ResultKey key;
+    private final long creationTime;
+
+    private PendingResult(ResultKey key, long creationTime) {
+      this.key = key;
+      this.creationTime = creationTime;
+    }
+  }
+}
@@ -32,6 +32,8 @@ import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.store.CatalogService;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 
 /**
  * {@link MaterializationDescriptor} that caches the expanded {@link DremioMaterialization}
@@ -39,6 +41,7 @@ import com.google.common.base.Preconditions;
 public class CachedMaterializationDescriptor extends MaterializationDescriptor {
 
   private final DremioMaterialization materialization;
+  private final Supplier<SubstitutionUtils.DatasetsUsed> datasetsUsed;
 
   public CachedMaterializationDescriptor(MaterializationDescriptor descriptor, DremioMaterialization materialization, CatalogService catalogService) {
     super(descriptor.getLayoutInfo(),
@@ -56,6 +59,7 @@ public class CachedMaterializationDescriptor extends MaterializationDescriptor {
           materialization.getStripVersion(),
           catalogService);
     this.materialization = Preconditions.checkNotNull(materialization, "materialization is required");
+    this.datasetsUsed = Suppliers.memoize(() -> SubstitutionUtils.findDatasetsUsed(materialization.getQueryRel()));
   }
 
   @Override
@@ -98,6 +102,13 @@ public class CachedMaterializationDescriptor extends MaterializationDescriptor {
     return materialization;
   }
 
+  /**
+   * Returns the tables, views and external queries used by this materialization, computed once.
+   */
+  public SubstitutionUtils.DatasetsUsed getDatasetsUsed() {
+    return datasetsUsed.get();
+  }
+
   /**
    * Returns true only if there is overlap between this materialization and the input tables, views and external queries.
    * @param queryTablesUsed
@@ -91,7 +91,9 @@ public class MaterializationList implements MaterializationProvider {
     final Set<String> inclusions = Sets.newHashSet(session.getSubstitutionSettings().getInclusions());
     final boolean hasInclusions = !inclusions.isEmpty();
     final List<DremioMaterialization> materializations = Lists.newArrayList();
-    for (final MaterializationDescriptor descriptor : provider.get()) {
+    final List<MaterializationDescriptor> candidates = provider.getCandidates(queryTablesUsed, queryVdsUsed, externalQueries)
+      .orElseGet(provider::get);
+    for (final MaterializationDescriptor descriptor : candidates) {
 
       if(
           (hasInclusions && !inclusions.contains(descriptor.getLayoutId()))
@@ -77,6 +77,11 @@ public class AccelerationAwareSubstitutionProvider implements SubstitutionProvid
     delegate.setPostSubstitutionTransformers(transformers);
   }
 
+  @Override
+  public void addStats(SubstitutionInfo.Builder builder) {
+    delegate.addStats(builder);
+  }
+
   @Override
   public RelNode wrapExpansionNode(NamespaceKey path, final RelNode query, List<String> vdsFields, RelDataType rowType, boolean contextSensitive) {
     return delegate.wrapExpansionNode(path, query, vdsFields, rowType, contextSensitive);
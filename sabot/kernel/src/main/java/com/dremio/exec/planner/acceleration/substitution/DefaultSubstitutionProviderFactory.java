@@ -34,6 +34,6 @@ public class DefaultSubstitutionProviderFactory implements SubstitutionProviderF
       MaterializationProvider materializationProvider,
       OptionResolver options,
       OperatorTable operatorTable) {
-    return new UnifyingSubstitutionProvider(materializationProvider);
+    return new UnifyingSubstitutionProvider(materializationProvider, options);
   }
 }
@@ -32,10 +32,17 @@ public class SubstitutionInfo {
 
   private final double acceleratedCost;
   private final List<Substitution> substitutions;
+  private final int numAttempted;
+  private final int numMatched;
+  private final int numTimedOut;
 
-  private SubstitutionInfo(final double acceleratedCost, final List<Substitution> substitutions) {
+  private SubstitutionInfo(final double acceleratedCost, final List<Substitution> substitutions, final int numAttempted,
+                           final int numMatched, final int numTimedOut) {
     this.acceleratedCost = acceleratedCost;
     this.substitutions = Preconditions.checkNotNull(substitutions);
+    this.numAttempted = numAttempted;
+    this.numMatched = numMatched;
+    this.numTimedOut = numTimedOut;
   }
 
   public double getAcceleratedCost() {
@@ -46,6 +53,27 @@ public class SubstitutionInfo {
     return substitutions;
   }
 
+  /**
+   * @return number of unifications of a materialization with the query, or with a substitution of the query
+   */
+  public int getNumAttempted() {
+    return numAttempted;
+  }
+
+  /**
+   * @return number of unifications that found at least one substitution
+   */
+  public int getNumMatched() {
+    return numMatched;
+  }
+
+  /**
+   * @return number of unifications abandoned because the substitution time budget was exhausted
+   */
+  public int getNumTimedOut() {
+    return numTimedOut;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -53,6 +81,9 @@ public class SubstitutionInfo {
   public static class Builder {
     private double cost;
     private final List<Substitution> substitutions = Lists.newArrayList();
+    private int numAttempted;
+    private int numMatched;
+    private int numTimedOut;
 
     private Builder() { }
 
@@ -66,8 +97,23 @@ public class SubstitutionInfo {
       return this;
     }
 
+    public Builder addNumAttempted(final int numAttempted) {
+      this.numAttempted += numAttempted;
+      return this;
+    }
+
+    public Builder addNumMatched(final int numMatched) {
+      this.numMatched += numMatched;
+      return this;
+    }
+
+    public Builder addNumTimedOut(final int numTimedOut) {
+      this.numTimedOut += numTimedOut;
+      return this;
+    }
+
     public SubstitutionInfo build() {
-      return new SubstitutionInfo(cost, ImmutableList.copyOf(substitutions));
+      return new SubstitutionInfo(cost, ImmutableList.copyOf(substitutions), numAttempted, numMatched, numTimedOut);
     }
   }
 
@@ -103,6 +103,11 @@ public interface SubstitutionProvider {
 
   void setPostSubstitutionTransformers(List<RelTransformer> transformers);
 
+  /**
+   * Adds the number of unifications attempted, matched and timed out so far to the given builder.
+   */
+  default void addStats(SubstitutionInfo.Builder builder) {}
+
   /**
    * A class that represents a substitution. This indicates that the {@link RelNode} replacement is equivalent to equivalent
    * If equivalent is null, treat replacement as equivalent to the originalRoot
@@ -158,6 +158,33 @@ public final class SubstitutionUtils {
     return used.value;
   }
 
+  /**
+   * Collects every table, view and external query of the given plan that {@link #usesTableOrVds} could match.
+   */
+  public static DatasetsUsed findDatasetsUsed(final RelNode rel) {
+    final Set<List<String>> tables = new HashSet<>();
+    final Set<List<String>> vdsPaths = new HashSet<>();
+    final Set<ExternalQueryDescriptor> externalQueries = new HashSet<>();
+    rel.accept(new RoutingShuttle() {
+      @Override
+      public RelNode visit(TableScan scan) {
+        tables.add(scan.getTable().getQualifiedName());
+        return scan;
+      }
+      @Override
+      public RelNode visit(RelNode other) {
+        if (other instanceof ExternalQueryScanCrel) {
+          externalQueries.add(descriptor((ExternalQueryScanCrel) other));
+        }
+        if (other instanceof ExpansionNode) {
+          vdsPaths.add(((ExpansionNode) other).getPath().getPathComponents());
+        }
+        return super.visit(other);
+      }
+    });
+    return new DatasetsUsed(tables, vdsPaths, externalQueries);
+  }
+
   public static ExternalQueryDescriptor descriptor(ExternalQueryScanCrel eq) {
     return new ExternalQueryDescriptor(eq.getPluginId().getName(), eq.getSql());
   }
@@ -190,6 +217,33 @@ public final class SubstitutionUtils {
     }
   }
 
+  /**
+   * Tables, views and external queries used by a plan.
+   */
+  public static final class DatasetsUsed {
+    private final Set<List<String>> tables;
+    private final Set<List<String>> vdsPaths;
+    private final Set<ExternalQueryDescriptor> externalQueries;
+
+    private DatasetsUsed(Set<List<String>> tables, Set<List<String>> vdsPaths, Set<ExternalQueryDescriptor> externalQueries) {
+      this.tables = tables;
+      this.vdsPaths = vdsPaths;
+      this.externalQueries = externalQueries;
+    }
+
+    public Set<List<String>> getTables() {
+      return tables;
+    }
+
+    public Set<List<String>> getVdsPaths() {
+      return vdsPaths;
+    }
+
+    public Set<ExternalQueryDescriptor> getExternalQueries() {
+      return externalQueries;
+    }
+  }
+
   public static Set<ExternalQueryDescriptor> findExternalQueries(RelNode query) {
     Set<ExternalQueryDescriptor> externalQueries = new HashSet<>();
     query.accept(new RoutingShuttle() {
@@ -15,54 +15,264 @@
  */
 package com.dremio.exec.planner.acceleration.substitution;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.apache.calcite.plan.CopyWithCluster;
 import org.apache.calcite.plan.MaterializedViewSubstitutionVisitor;
+import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.hep.HepPlanner;
 import org.apache.calcite.plan.hep.HepProgram;
 import org.apache.calcite.plan.hep.HepProgramBuilder;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.rules.CoreRules;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.ExpansionNode;
 import com.dremio.exec.planner.logical.PushFilterPastProjectRule;
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.options.OptionResolver;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 /**
  * A {@link SubstitutionProvider} that employs unification rules to find
  * substitutes.
  */
-public class UnifyingSubstitutionProvider extends AbstractSubstitutionProvider {
+public class UnifyingSubstitutionProvider extends AbstractSubstitutionProvider implements Observable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(UnifyingSubstitutionProvider.class);
 
+  // shared by all the queries, so that the unifications running concurrently are bounded on each node
+  private static final ExecutorService SUBSTITUTION_POOL = Executors.newFixedThreadPool(
+    Math.max(1, Runtime.getRuntime().availableProcessors() / 2), new NamedThreadFactory("reflection-substitution-"));
+
+  private final OptionResolver options;
+  private AttemptObserver observer = AbstractAttemptObserver.NOOP;
+  private long substitutionMillis;
+  private int numAttempted;
+  private int numMatched;
+  private int numTimedOut;
+
   public UnifyingSubstitutionProvider(
     final MaterializationProvider provider) {
+    this(provider, null);
+  }
+
+  public UnifyingSubstitutionProvider(
+    final MaterializationProvider provider, final OptionResolver options) {
     super(provider);
+    this.options = options;
+  }
+
+  @Override
+  public void setObserver(AttemptObserver observer) {
+    this.observer = observer;
+  }
+
+  @Override
+  public void addStats(SubstitutionInfo.Builder builder) {
+    builder.addNumAttempted(numAttempted)
+      .addNumMatched(numMatched)
+      .addNumTimedOut(numTimedOut);
   }
 
   @Override
   public SubstitutionStream findSubstitutions(final RelNode query) {
+    final Stopwatch stopwatch = Stopwatch.createStarted();
     final List<DremioMaterialization> materializations = buildApplicableMaterializations(query);
+    observer.planFindMaterializations(stopwatch.elapsed(MILLISECONDS));
 
+    final List<Substitution> substitutions;
+    if (options != null && options.getOption(PlannerSettings.PARALLEL_SUBSTITUTION_ENABLED)) {
+      substitutions = findSubstitutionsInParallel(query, materializations);
+    } else {
+      substitutions = findSubstitutions(query, materializations);
+    }
+    observer.substitutionStats(numAttempted, numMatched, numTimedOut);
+    return new SubstitutionStream(substitutions.stream(), () -> { }, t ->  { });
+  }
+
+  /**
+   * Applies each materialization, in order, to the query and to the substitutions found with the previous
+   * materializations.
+   */
+  private List<Substitution> findSubstitutions(final RelNode query, final List<DremioMaterialization> materializations) {
     final List<Substitution> substitutions = Lists.newArrayList(Substitution.createRootEquivalent(query));
     for (final DremioMaterialization materialization : materializations) {
+      final Stopwatch stopwatch = Stopwatch.createStarted();
       final int count = substitutions.size();
       for (int i = 0; i < count; i++) {
+        numAttempted++;
         try {
-          substitutions.addAll(substitute(substitutions.get(i).getReplacement(), materialization));
+          final List<Substitution> found = substitute(substitutions.get(i).getReplacement(), materialization);
+          if (!found.isEmpty()) {
+            numMatched++;
+          }
+          substitutions.addAll(found);
         } catch (final Throwable ex) {
           LOGGER.warn("unable to apply materialization: {}", materialization, ex);
         }
       }
+      final List<RelNode> replacements = substitutions.subList(count, substitutions.size()).stream()
+        .map(Substitution::getReplacement)
+        .collect(Collectors.toList());
+      observer.planSubstituted(materialization, replacements, materialization.getQueryRel(),
+        stopwatch.elapsed(MILLISECONDS), false);
     }
 
     // discard the original query
-    return new SubstitutionStream(substitutions.subList(1, substitutions.size()).stream(), () -> { }, t ->  { });
+    return substitutions.subList(1, substitutions.size());
+  }
+
+  /**
+   * Finds the same substitutions as {@link #findSubstitutions(RelNode, List)}, in rounds: each round unifies the
+   * substitutions found in the previous round with the materializations that come after the last one applied to them,
+   * concurrently. Each unification works on a copy of its inputs in its own cluster, as the planner cluster and its
+   * metadata are not thread safe. Once the substitutions of the query have used up the time budget, the remaining
+   * unifications are abandoned and the substitutions found so far are returned.
+   */
+  private List<Substitution> findSubstitutionsInParallel(final RelNode query, final List<DremioMaterialization> materializations) {
+    final long budgetMillis = options.getOption(PlannerSettings.SUBSTITUTION_TIME_BUDGET_MILLIS);
+    final Stopwatch stopwatch = Stopwatch.createStarted();
+    final RelOptCluster cluster = query.getCluster();
+    final List<Substitution> substitutions = new ArrayList<>();
+    final List<List<RelNode>> replacementsByMaterialization = new ArrayList<>();
+    materializations.forEach(m -> replacementsByMaterialization.add(new ArrayList<>()));
+    final long[] millisByMaterialization = new long[materializations.size()];
+
+    // the replacements to unify in this round, with the index of the last materialization applied to them
+    List<Pair<RelNode, Integer>> round = ImmutableList.of(Pair.of(query, -1));
+    boolean timedOut = false;
+    while (!round.isEmpty() && !timedOut) {
+      final List<Pair<RelNode, Integer>> candidates = new ArrayList<>();
+      for (Pair<RelNode, Integer> replacement : round) {
+        for (int i = replacement.getRight() + 1; i < materializations.size(); i++) {
+          candidates.add(Pair.of(replacement.getLeft(), i));
+        }
+      }
+      numAttempted += candidates.size();
+      if (getRemainingMillis(budgetMillis, stopwatch) == 0) {
+        // previous substitutions of the query already used up the budget
+        numTimedOut += candidates.size();
+        timedOut = true;
+        break;
+      }
+
+      final List<Pair<Future<Pair<List<RelNode>, Long>>, Integer>> unifications = new ArrayList<>();
+      for (Pair<RelNode, Integer> candidate : candidates) {
+        final DremioMaterialization materialization = materializations.get(candidate.getRight());
+        unifications.add(Pair.of(SUBSTITUTION_POOL.submit(() -> unify(candidate.getLeft(), materialization)),
+          candidate.getRight()));
+      }
+
+      final List<Pair<RelNode, Integer>> nextRound = new ArrayList<>();
+      for (Pair<Future<Pair<List<RelNode>, Long>>, Integer> unification : unifications) {
+        final DremioMaterialization materialization = materializations.get(unification.getRight());
+        final List<RelNode> found;
+        try {
+          final Pair<List<RelNode>, Long> result =
+            unification.getLeft().get(getRemainingMillis(budgetMillis, stopwatch), MILLISECONDS);
+          found = result.getLeft();
+          millisByMaterialization[unification.getRight()] += result.getRight();
+        } catch (TimeoutException e) {
+          // interrupts the unification, which stops at its next step
+          unification.getLeft().cancel(true);
+          numTimedOut++;
+          timedOut = true;
+          continue;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          unifications.forEach(u -> u.getLeft().cancel(true));
+          break;
+        } catch (ExecutionException e) {
+          LOGGER.warn("unable to apply materialization: {}", materialization, e.getCause());
+          continue;
+        }
+
+        if (!found.isEmpty()) {
+          numMatched++;
+        }
+        for (RelNode replacement : found) {
+          // bring the substitution back to the planner cluster
+          final CopyWithCluster copier = new CopyWithCluster(cluster);
+          final RelNode copied = replacement.accept(copier);
+          try {
+            copier.validate();
+          } catch (Throwable ex) {
+            LOGGER.warn("unable to copy substitution of materialization: {}", materialization, ex);
+            continue;
+          }
+          substitutions.add(Substitution.createRootEquivalent(copied));
+          replacementsByMaterialization.get(unification.getRight()).add(copied);
+          nextRound.add(Pair.of(replacement, unification.getRight()));
+        }
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        break;
+      }
+      round = nextRound;
+    }
+    substitutionMillis += stopwatch.elapsed(MILLISECONDS);
+
+    if (timedOut) {
+      LOGGER.debug("substitution time budget of {} ms exhausted, using the {} substitutions found so far",
+        budgetMillis, substitutions.size());
+    }
+    for (int i = 0; i < materializations.size(); i++) {
+      // the unifications of different materializations overlap, so their times add up to more than the elapsed time
+      observer.planSubstituted(materializations.get(i), replacementsByMaterialization.get(i),
+        materializations.get(i).getQueryRel(), millisByMaterialization[i], false);
+    }
+    return substitutions;
+  }
+
+  private long getRemainingMillis(final long budgetMillis, final Stopwatch stopwatch) {
+    return Math.max(0, budgetMillis - substitutionMillis - stopwatch.elapsed(MILLISECONDS));
+  }
+
+  /**
+   * Unifies a copy of the query with a copy of the materialization, in a new cluster.
+   *
+   * @return the replacements found, and the time taken in milliseconds
+   */
+  private Pair<List<RelNode>, Long> unify(final RelNode query, final DremioMaterialization materialization) {
+    final Stopwatch stopwatch = Stopwatch.createStarted();
+    final RelOptCluster cluster = RelOptCluster.create(query.getCluster().getPlanner(), query.getCluster().getRexBuilder());
+    final CopyWithCluster copier = new CopyWithCluster(cluster);
+    final RelNode queryCopy = query.accept(copier);
+    final DremioMaterialization materializationCopy = materialization.accept(copier);
+    copier.validate();
+    final List<RelNode> replacements = substitute(queryCopy, materializationCopy,
+      UnifyingSubstitutionProvider::checkInterrupted).stream()
+      .map(Substitution::getReplacement)
+      .collect(Collectors.toList());
+    return Pair.of(replacements, stopwatch.elapsed(MILLISECONDS));
+  }
+
+  /**
+   * Calcite does not check for interrupts, so cancelled unifications check between their steps.
+   */
+  private static void checkInterrupted() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Substitution was cancelled.");
+    }
   }
 
   protected HepProgramBuilder getProgramBuilder() {
@@ -83,17 +293,27 @@ public class UnifyingSubstitutionProvider extends AbstractSubstitutionProvider {
   protected List<Substitution> substitute(
       final RelNode query,
       final DremioMaterialization materialization) {
+    return substitute(query, materialization, () -> { });
+  }
+
+  private List<Substitution> substitute(
+      final RelNode query,
+      final DremioMaterialization materialization,
+      final Runnable checkpoint) {
 
     // Push filters to the bottom, and combine projects on top.
     final HepProgram program = getProgramBuilder().build();
     final HepPlanner hepPlanner = new HepPlanner(program);
 
+    checkpoint.run();
     hepPlanner.setRoot(materialization.getQueryRel());
     final RelNode canonicalTarget = hepPlanner.findBestExp();
 
+    checkpoint.run();
     hepPlanner.setRoot(query);
     final RelNode canonicalQuery = hepPlanner.findBestExp();
 
+    checkpoint.run();
     return substitute(canonicalQuery, canonicalTarget, materialization.getTableRel());
   }
 
@@ -37,6 +37,7 @@ import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
 import com.dremio.exec.proto.UserBitShared.AttemptEvent;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
 import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.ResultCacheProfile;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.work.QueryWorkUnit;
 import com.dremio.exec.work.foreman.ExecutionPlan;
@@ -102,6 +103,11 @@ public interface AttemptObserver {
    */
   default void setCacheKey(String cacheKey) {};
 
+  /**
+   * Records whether the query was served from the result cache.
+   */
+  default void setResultCacheProfile(ResultCacheProfile resultCacheProfile) {};
+
   /**
    * Plan that is serializable, just before convertible scans are converted
    * @param serializable
@@ -207,6 +213,15 @@ public interface AttemptObserver {
    */
   void substitutionFailures(Iterable<String> errors);
 
+  /**
+   * Report the number of unifications of materializations with the query so far.
+   *
+   * @param numAttempted number of unifications attempted
+   * @param numMatched number of unifications which found at least one substitution
+   * @param numTimedOut number of unifications abandoned once the substitution time budget was used up
+   */
+  default void substitutionStats(int numAttempted, int numMatched, int numTimedOut) {}
+
   /**
    * Report materializations used to accelerate incoming query only if query is accelerated.
    *
@@ -38,6 +38,7 @@ import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
 import com.dremio.exec.proto.UserBitShared.AttemptEvent;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
 import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.ResultCacheProfile;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.work.QueryWorkUnit;
 import com.dremio.exec.work.foreman.ExecutionPlan;
@@ -127,6 +128,13 @@ public class AttemptObservers implements AttemptObserver {
     }
   }
 
+  @Override
+  public void setResultCacheProfile(ResultCacheProfile resultCacheProfile) {
+    for (final AttemptObserver observer : observers) {
+      observer.setResultCacheProfile(resultCacheProfile);
+    }
+  }
+
   @Override
   public void planSerializable(RelNode serializable) {
     for (final AttemptObserver observer : observers) {
@@ -226,6 +234,13 @@ public class AttemptObservers implements AttemptObserver {
     }
   }
 
+  @Override
+  public void substitutionStats(int numAttempted, int numMatched, int numTimedOut) {
+    for (final AttemptObserver observer : observers) {
+      observer.substitutionStats(numAttempted, numMatched, numTimedOut);
+    }
+  }
+
   @Override
   public void planAccelerated(SubstitutionInfo info) {
     for (final AttemptObserver observer : observers) {
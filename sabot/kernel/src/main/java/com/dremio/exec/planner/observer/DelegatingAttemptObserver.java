@@ -148,6 +148,11 @@ public class DelegatingAttemptObserver implements AttemptObserver {
     observer.substitutionFailures(errors);
   }
 
+  @Override
+  public void substitutionStats(int numAttempted, int numMatched, int numTimedOut) {
+    observer.substitutionStats(numAttempted, numMatched, numTimedOut);
+  }
+
   @Override
   public void applyAccelDetails(final CachedAccelDetails accelDetails) {
     observer.applyAccelDetails(accelDetails);
@@ -38,6 +38,7 @@ import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.proto.UserBitShared.AttemptEvent;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
 import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.ResultCacheProfile;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.work.QueryWorkUnit;
 import com.dremio.exec.work.foreman.ExecutionPlan;
@@ -133,6 +134,11 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
     execute(() -> innerObserver.substitutionFailures(errors));
   }
 
+  @Override
+  public void substitutionStats(int numAttempted, int numMatched, int numTimedOut) {
+    execute(() -> innerObserver.substitutionStats(numAttempted, numMatched, numTimedOut));
+  }
+
   @Override
   public void planAccelerated(final SubstitutionInfo info) {
     execute(() -> innerObserver.planAccelerated(info));
@@ -178,6 +184,11 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
     execute(() -> innerObserver.planCacheUsed(count));
   }
 
+  @Override
+  public void setResultCacheProfile(final ResultCacheProfile resultCacheProfile) {
+    execute(() -> innerObserver.setResultCacheProfile(resultCacheProfile));
+  }
+
   @Override
   public void planSerializable(final RelNode serializable) {
     execute(() -> innerObserver.planSerializable(serializable));
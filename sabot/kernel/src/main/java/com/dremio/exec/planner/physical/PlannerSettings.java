@@ -403,8 +403,19 @@ public class PlannerSettings implements Context{
    */
   public static final BooleanValidator QUERY_PLAN_CACHE_ENABLED = new BooleanValidator("planner.query_plan_cache_enabled", true);
 
+  /**
+   * Option to serve queries whose results are stored from the results of an identical earlier query
+   */
+  public static final BooleanValidator QUERY_RESULT_CACHE_ENABLED = new BooleanValidator("planner.query_result_cache_enabled", false);
+
   public static final BooleanValidator REFLECTION_ROUTING_INHERITANCE_ENABLED = new BooleanValidator("planner.reflection_routing_inheritance_enabled", false);
 
+  /**
+   * Options to unify the candidate reflections concurrently, and to stop waiting for them after the given time per query
+   */
+  public static final BooleanValidator PARALLEL_SUBSTITUTION_ENABLED = new BooleanValidator("planner.reflection.parallel_substitution_enabled", false);
+  public static final PositiveLongValidator SUBSTITUTION_TIME_BUDGET_MILLIS = new PositiveLongValidator("planner.reflection.substitution_time_budget_ms", Long.MAX_VALUE, 10_000);
+
   private final SabotConfig sabotConfig;
   private final ExecutionControls executionControls;
   private final StatisticsService statisticsService;
@@ -636,6 +647,10 @@ public class PlannerSettings implements Context{
     return options.getOption(QUERY_PLAN_CACHE_ENABLED);
   }
 
+  public boolean isResultCacheEnabled() {
+    return options.getOption(QUERY_RESULT_CACHE_ENABLED);
+  }
+
   public boolean isReflectionRoutingInheritanceEnabled() {
     return options.getOption(REFLECTION_ROUTING_INHERITANCE_ENABLED);
   }
@@ -425,6 +425,7 @@ public class PrelTransformer {
     }
 
     final SubstitutionInfo.Builder builder = SubstitutionInfo.builder();
+    config.getConverter().getSubstitutionProvider().addStats(builder);
 
     final MaterializationList table = config.getMaterializations().get();
     root.accept(new StatelessRelShuttleImpl() {
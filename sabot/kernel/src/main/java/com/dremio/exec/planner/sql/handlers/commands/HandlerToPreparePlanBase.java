@@ -173,6 +173,11 @@ public abstract class HandlerToPreparePlanBase<T> implements CommandRunner<T> {
       calls.add(observer -> observer.substitutionFailures(errors));
     }
 
+    @Override
+    public void substitutionStats(int numAttempted, int numMatched, int numTimedOut) {
+      calls.add(observer -> observer.substitutionStats(numAttempted, numMatched, numTimedOut));
+    }
+
     @Override
     public void planText(final String text, final long millisTaken) {
       calls.add(observer -> observer.planText(text, millisTaken));
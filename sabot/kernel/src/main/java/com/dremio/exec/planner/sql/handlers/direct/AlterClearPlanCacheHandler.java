@@ -68,6 +68,9 @@ public class AlterClearPlanCacheHandler extends SimpleDirectHandler {
       }
     }
     context.getPlanCache().getCachePlans().invalidateAll();
+    if (context.getPlanCache().getResultCache() != null) {
+      context.getPlanCache().getResultCache().invalidateAll();
+    }
     return Collections.singletonList(SimpleCommandResult.successful("Plan cache cleared."));
   }
 
@@ -28,6 +28,7 @@ import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.dialect.CalciteSqlDialect;
 import org.apache.calcite.util.Pair;
 
+import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.catalog.Catalog;
 import com.dremio.exec.catalog.CatalogOptions;
 import com.dremio.exec.physical.PhysicalPlan;
@@ -36,6 +37,7 @@ import com.dremio.exec.planner.CachedAccelDetails;
 import com.dremio.exec.planner.CachedPlan;
 import com.dremio.exec.planner.DremioVolcanoPlanner;
 import com.dremio.exec.planner.PlanCache;
+import com.dremio.exec.planner.ResultCache;
 import com.dremio.exec.planner.logical.Rel;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.physical.Prel;
@@ -46,6 +48,7 @@ import com.dremio.exec.planner.sql.handlers.ConvertedRelNode;
 import com.dremio.exec.planner.sql.handlers.PrelTransformer;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.planner.sql.handlers.ViewAccessEvaluator;
+import com.dremio.exec.proto.UserBitShared.ResultCacheProfile;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.options.OptionManager;
 
@@ -125,6 +128,44 @@ public class NormalHandler implements SqlToPlanHandler {
           textPlan = "";
         }
       }
+
+      final ResultCache resultCache = (planCache != null) ? planCache.getResultCache() : null;
+      if (ResultCache.supportResultCache(resultCache, config, sqlNode)) {
+        final ResultCache.ResultKey resultKey = ResultCache.generateCacheKey(prel, config.getContext());
+        if (resultKey != null) {
+          final ResultCache.CachedResult cachedResult = resultCache.getIfPresentAndValid(resultKey.getKey());
+          final ResultCacheProfile.Builder resultCacheProfile = ResultCacheProfile.newBuilder()
+            .setHit(cachedResult != null);
+          boolean usedCachedResult = false;
+          if (cachedResult != null) {
+            // read the results stored by the previous query instead of executing the plan again
+            try {
+              final SqlNode cachedResultNode = config.getConverter().parse(cachedResult.getSql());
+              final ConvertedRelNode convertedCachedResult = PrelTransformer.validateAndConvert(config, cachedResultNode);
+              final Rel drel = PrelTransformer.convertToDrel(config, convertedCachedResult.getConvertedNode(),
+                convertedCachedResult.getValidatedRowType());
+              final Pair<Prel, String> convertToPrel = PrelTransformer.convertToPrel(config, drel);
+              prel = convertToPrel.getKey();
+              textPlan = convertToPrel.getValue();
+              resultCacheProfile.setCachedQueryId(cachedResult.getQueryId());
+              usedCachedResult = true;
+            } catch (Exception e) {
+              // the stored results may have been removed or be unreadable, execute the original plan instead
+              logger.debug("Failed to plan a read of the results of query {}.", cachedResult.getQueryId(), e);
+              resultCache.invalidate(resultKey.getKey());
+              resultCacheProfile.setHit(false);
+            }
+          }
+          if (!usedCachedResult) {
+            resultCache.stage(QueryIdHelper.getQueryId(config.getContext().getQueryId()), resultKey);
+          }
+          config.getObserver().setResultCacheProfile(resultCacheProfile
+            .setCacheHits(resultCache.getHitCount())
+            .setCacheMisses(resultCache.getMissCount())
+            .build());
+        }
+      }
+
       final PhysicalOperator pop = PrelTransformer.convertToPop(config, prel);
       PhysicalPlan plan = PrelTransformer.convertToPlan(config, pop);
       logger.debug("Final Physical Plan {}", textPlan);
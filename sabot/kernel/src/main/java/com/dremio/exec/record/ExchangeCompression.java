@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.record;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.LargeMemoryUtil;
+import org.apache.arrow.vector.compression.AbstractCompressionCodec;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+
+import com.github.luben.zstd.Zstd;
+import com.google.common.io.ByteStreams;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+/**
+ * Codecs available for compressing the buffers of the batches sent over exchanges. The codec is recorded in the
+ * arrow record batch header, so receivers decompress whatever their senders picked.
+ */
+public enum ExchangeCompression {
+  /** Raw arrow buffers, no compression. */
+  NONE(CompressionUtil.CodecType.NO_COMPRESSION),
+
+  /** LZ4 frame compression, cheap on cpu with a moderate ratio. */
+  LZ4_FRAME(CompressionUtil.CodecType.LZ4_FRAME),
+
+  /** Zstandard at a low level, better ratio than LZ4 for more cpu. */
+  ZSTD(CompressionUtil.CodecType.ZSTD);
+
+  /**
+   * Creates the codecs of the compression types found in batch headers.
+   */
+  public static final CompressionCodec.Factory CODEC_FACTORY = codecType -> {
+    for (ExchangeCompression compression : values()) {
+      if (compression.codecType == codecType) {
+        return compression.newCodec();
+      }
+    }
+    throw new IllegalArgumentException("Unsupported exchange compression codec " + codecType);
+  };
+
+  private final CompressionUtil.CodecType codecType;
+
+  ExchangeCompression(CompressionUtil.CodecType codecType) {
+    this.codecType = codecType;
+  }
+
+  public boolean isCompressed() {
+    return this != NONE;
+  }
+
+  public CompressionCodec newCodec() {
+    switch (this) {
+      case LZ4_FRAME:
+        return new Lz4FrameCodec();
+      case ZSTD:
+        return new ZstdCodec();
+      default:
+        return NoCompressionCodec.INSTANCE;
+    }
+  }
+
+  /**
+   * LZ4 frame format, as expected by arrow IPC readers for {@code LZ4_FRAME}.
+   */
+  private static final class Lz4FrameCodec extends AbstractCompressionCodec {
+    @Override
+    protected ArrowBuf doCompress(BufferAllocator allocator, ArrowBuf uncompressedBuffer) {
+      final byte[] in = new byte[LargeMemoryUtil.checkedCastToInt(uncompressedBuffer.writerIndex())];
+      uncompressedBuffer.getBytes(0, in);
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream(in.length / 2);
+      try (OutputStream out = new LZ4FrameOutputStream(bytes)) {
+        out.write(in);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return prefixed(allocator, bytes.toByteArray());
+    }
+
+    @Override
+    protected ArrowBuf doDecompress(BufferAllocator allocator, ArrowBuf compressedBuffer) {
+      final byte[] in = new byte[LargeMemoryUtil.checkedCastToInt(
+        compressedBuffer.writerIndex() - CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH)];
+      compressedBuffer.getBytes(CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH, in);
+      final byte[] out = new byte[LargeMemoryUtil.checkedCastToInt(readUncompressedLength(compressedBuffer))];
+      try (InputStream stream = new LZ4FrameInputStream(new ByteArrayInputStream(in))) {
+        ByteStreams.readFully(stream, out);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      final ArrowBuf decompressedBuffer = allocator.buffer(out.length);
+      decompressedBuffer.setBytes(0, out);
+      decompressedBuffer.writerIndex(out.length);
+      return decompressedBuffer;
+    }
+
+    @Override
+    public CompressionUtil.CodecType getCodecType() {
+      return CompressionUtil.CodecType.LZ4_FRAME;
+    }
+
+    private static ArrowBuf prefixed(BufferAllocator allocator, byte[] compressed) {
+      final long length = CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH + compressed.length;
+      final ArrowBuf compressedBuffer = allocator.buffer(length);
+      compressedBuffer.setBytes(CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH, compressed);
+      compressedBuffer.writerIndex(length);
+      return compressedBuffer;
+    }
+  }
+
+  /**
+   * Zstandard, compressing directly between the off heap buffers.
+   */
+  private static final class ZstdCodec extends AbstractCompressionCodec {
+    private static final int LEVEL = 1;
+
+    @Override
+    protected ArrowBuf doCompress(BufferAllocator allocator, ArrowBuf uncompressedBuffer) {
+      final long maxSize = Zstd.compressBound(uncompressedBuffer.writerIndex());
+      final ArrowBuf compressedBuffer = allocator.buffer(CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH + maxSize);
+      final long bytes = Zstd.compressUnsafe(
+        compressedBuffer.memoryAddress() + CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH, maxSize,
+        uncompressedBuffer.memoryAddress(), uncompressedBuffer.writerIndex(), LEVEL);
+      if (Zstd.isError(bytes)) {
+        compressedBuffer.close();
+        throw new IllegalStateException("Error compressing exchange buffer: " + Zstd.getErrorName(bytes));
+      }
+      compressedBuffer.writerIndex(CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH + bytes);
+      return compressedBuffer;
+    }
+
+    @Override
+    protected ArrowBuf doDecompress(BufferAllocator allocator, ArrowBuf compressedBuffer) {
+      final long decompressedLength = readUncompressedLength(compressedBuffer);
+      final ArrowBuf decompressedBuffer = allocator.buffer(decompressedLength);
+      final long bytes = Zstd.decompressUnsafe(decompressedBuffer.memoryAddress(), decompressedLength,
+        compressedBuffer.memoryAddress() + CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH,
+        compressedBuffer.writerIndex() - CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH);
+      if (Zstd.isError(bytes) || bytes != decompressedLength) {
+        decompressedBuffer.close();
+        throw new IllegalStateException("Error decompressing exchange buffer: "
+          + (Zstd.isError(bytes) ? Zstd.getErrorName(bytes) : "expected " + decompressedLength + " bytes, got " + bytes));
+      }
+      decompressedBuffer.writerIndex(decompressedLength);
+      return decompressedBuffer;
+    }
+
+    @Override
+    public CompressionUtil.CodecType getCodecType() {
+      return CompressionUtil.CodecType.ZSTD;
+    }
+  }
+}
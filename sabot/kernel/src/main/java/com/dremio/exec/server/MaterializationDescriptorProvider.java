@@ -17,8 +17,10 @@ package com.dremio.exec.server;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
 import com.dremio.service.namespace.NamespaceKey;
 import com.google.common.collect.ImmutableList;
 
@@ -33,6 +35,17 @@ public interface MaterializationDescriptorProvider {
    */
   List<MaterializationDescriptor> get();
 
+  /**
+   * Provides the materializations that may use any of the given tables, views or external queries, looked up in an
+   * index instead of going through all of them.
+   *
+   * @return the candidate materializations, or empty if the provider has no index and {@link #get()} should be used
+   */
+  default Optional<List<MaterializationDescriptor>> getCandidates(Set<List<String>> queryTablesUsed,
+      Set<List<String>> queryVdsUsed, Set<SubstitutionUtils.ExternalQueryDescriptor> externalQueries) {
+    return Optional.empty();
+  }
+
   /**
    * Returns the default raw materialization that provider considers for substitution
    * for the VDS with the given path
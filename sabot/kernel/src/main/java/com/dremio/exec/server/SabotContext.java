@@ -17,6 +17,7 @@ package com.dremio.exec.server;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +51,7 @@ import com.dremio.exec.planner.observer.QueryObserverFactory;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.options.SystemOptionManager;
 import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.cache.BlockCacheFileSystemWrapper;
 import com.dremio.exec.store.dfs.FileSystemWrapper;
 import com.dremio.exec.store.sys.accel.AccelerationListManager;
 import com.dremio.exec.store.sys.accel.AccelerationManager;
@@ -210,7 +212,8 @@ public class SabotContext implements AutoCloseable {
     this.systemOptionManager = systemOptionManager;
     this.functionRegistry = FunctionImplementationRegistry.create(config, classpathScan, this.optionManager, false);
     this.decimalFunctionImplementationRegistry = FunctionImplementationRegistry.create(config, classpathScan, this.optionManager, true);
-    this.compiler = new CodeCompiler(config, this.optionManager);
+    this.compiler = new CodeCompiler(config, this.optionManager,
+      dremioConfig == null ? null : Paths.get(dremioConfig.getString(DremioConfig.LOCAL_WRITE_PATH_STRING), "code_cache"));
     this.kvStoreProvider = kvStoreProvider;
     this.namespaceServiceFactory = namespaceServiceFactory;
     this.orphanageFactory = orphanageFactory;
@@ -227,7 +230,7 @@ public class SabotContext implements AutoCloseable {
     this.fileSystemWrapper = config.getInstance(
       FileSystemWrapper.FILE_SYSTEM_WRAPPER_CLASS,
       FileSystemWrapper.class,
-      (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs,
+      newDefaultFileSystemWrapper(dremioConfig, this.optionManager, endpoint),
       dremioConfig,
       this.optionManager,
       allocator,
@@ -612,6 +615,18 @@ public class SabotContext implements AutoCloseable {
     return roles.contains(Role.COORDINATOR);
   }
 
+  /**
+   * The block cache is used on executors when no other wrapper is configured, it only wraps the file systems of the
+   * sources that request caching once {@link com.dremio.exec.ExecConstants#BLOCK_CACHE_ENABLED} is set.
+   */
+  private FileSystemWrapper newDefaultFileSystemWrapper(DremioConfig dremioConfig, OptionManager optionManager,
+                                                        NodeEndpoint endpoint) {
+    if (isExecutor() && dremioConfig.getBoolean(DremioConfig.CACHE_ENABLED)) {
+      return new BlockCacheFileSystemWrapper(dremioConfig, optionManager, endpoint);
+    }
+    return (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs;
+  }
+
   public boolean isExecutor() {
     return roles.contains(Role.EXECUTOR);
   }
@@ -0,0 +1,735 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.common.concurrent.CloseableSchedulerThreadPool;
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.work.CacheManagerDatasetInfo;
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.options.OptionManager;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Caches fixed size pages of remote files on local disks.<br>
+ * <br>
+ * Pages are identified by the plugin, path, version and index of the page in the file, so a new version of a file
+ * never hits stale pages. Reads are served synchronously from the local files while the pages fetched from the
+ * source are written by a background pool, bounded by {@link ExecConstants#BLOCK_CACHE_MAX_PENDING_WRITE_BYTES}:
+ * when too many writes are pending, fetched pages are simply not cached.<br>
+ * <br>
+ * Space is bounded per mount point (quota and free space to keep) and per plugin, the pages to evict are chosen
+ * by the configured {@link EvictionPolicy}. The list of pages is persisted in a RocksDB index so the cache survives
+ * restarts.
+ */
+public class BlockCache implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(BlockCache.class);
+
+  static final String CACHE_DIR_NAME = "block-cache";
+  static final String INDEX_DIR_NAME = "block-cache-index";
+  private static final int STATS_BATCH_SIZE = 1000;
+  private static final int LFU_SAMPLE_SIZE = 8;
+  private static final int MAX_CACHED_FILE_LENGTHS = 100_000;
+  private static final char SEPARATOR = '\0';
+
+  /**
+   * How pages are chosen for eviction.
+   */
+  public enum EvictionPolicy {
+    /** evict the least recently read page */
+    LRU,
+    /** evict the least read page among a sample of the least recently read ones */
+    LFU
+  }
+
+  /**
+   * A version of a remote file.
+   */
+  static final class CachedFile {
+    private final String plugin;
+    private final String dataset;
+    private final String path;
+    private final String version;
+
+    CachedFile(String plugin, String dataset, String path, String version) {
+      this.plugin = plugin;
+      this.dataset = dataset;
+      this.path = path;
+      this.version = version;
+    }
+
+    String getPlugin() {
+      return plugin;
+    }
+
+    String getPath() {
+      return path;
+    }
+
+    private String id() {
+      return plugin + SEPARATOR + path + SEPARATOR + version;
+    }
+  }
+
+  /**
+   * Space used by the pages of a plugin.
+   */
+  private static final class PluginUsage {
+    private final String plugin;
+    private int maxSpacePct = 100;
+    private long usedBytes;
+    private long numPages;
+
+    private PluginUsage(String plugin) {
+      this.plugin = plugin;
+    }
+  }
+
+  private final String hostname;
+  private final long pageSize;
+  private final EvictionPolicy evictionPolicy;
+  private final long maxPendingWriteBytes;
+  private final List<CacheMountPoint> mountPoints;
+  private final BlockCacheIndex index;
+
+  private final Object lock = new Object();
+  // all pages, in access order, guarded by lock
+  private final LinkedHashMap<String, CachedPage> accessOrder = new LinkedHashMap<>(1024, 0.75f, true);
+  // guarded by lock
+  private final Map<String, PluginUsage> plugins = new HashMap<>();
+  // number of cached pages per plugin\0dataset, guarded by lock
+  private final Map<String, Long> datasetPages = new HashMap<>();
+  private final Map<String, CachedPage> pages = new ConcurrentHashMap<>();
+  // pages removed from the cache whose file and index entry are not deleted yet, guarded by lock
+  private final Set<String> deletingPages = new HashSet<>();
+
+  private final ThreadPoolExecutor writers;
+  private final Set<String> pendingWrites = ConcurrentHashMap.newKeySet();
+  private final AtomicLong pendingWriteBytes = new AtomicLong();
+  private final Cache<String, Long> fileLengths = CacheBuilder.newBuilder()
+    .maximumSize(MAX_CACHED_FILE_LENGTHS)
+    .build();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong skippedWrites = new AtomicLong();
+
+  private volatile Map<String, CacheManagerDatasetInfo> datasetSnapshot = Collections.emptyMap();
+
+  @VisibleForTesting
+  BlockCache(String hostname, List<CacheMountPoint> mountPoints, BlockCacheIndex index, long pageSize,
+             EvictionPolicy evictionPolicy, long maxPendingWriteBytes) {
+    Preconditions.checkArgument(!mountPoints.isEmpty(), "at least one mount point is required");
+    this.hostname = hostname;
+    this.mountPoints = mountPoints;
+    this.index = index;
+    this.pageSize = pageSize;
+    this.evictionPolicy = evictionPolicy;
+    this.maxPendingWriteBytes = maxPendingWriteBytes;
+    this.writers = new ThreadPoolExecutor(mountPoints.size(), mountPoints.size(), 60L, TimeUnit.SECONDS,
+      new LinkedBlockingQueue<>(), new NamedThreadFactory("block-cache-writer-"));
+    this.writers.allowCoreThreadTimeOut(true);
+    load();
+  }
+
+  /**
+   * Creates the cache using the mount points listed under {@link DremioConfig#CACHE_FS_PATH_LIST}, and an index
+   * stored under {@link DremioConfig#CACHE_DB_PATH}.
+   */
+  public static BlockCache newInstance(DremioConfig config, OptionManager options, NodeEndpoint endpoint)
+    throws IOException, RocksDBException {
+    final boolean isYarnDeployment = config.getBoolean(DremioConfig.YARN_ENABLED_BOOL);
+    final String instanceDir = Integer.toString(endpoint.getFabricPort());
+
+    final List<String> paths = config.getStringList(DremioConfig.CACHE_FS_PATH_LIST);
+    final List<Integer> quotas = config.getIntList(DremioConfig.CACHE_FS_QUOTA_LIST);
+    final List<Integer> ensureFree = config.getIntList(DremioConfig.CACHE_FS_ENSURE_FREE_SPACE_LIST);
+    final List<CacheMountPoint> mountPoints = new ArrayList<>(paths.size());
+    for (int i = 0; i < paths.size(); i++) {
+      Path dir = Paths.get(paths.get(i));
+      if (isYarnDeployment) {
+        dir = dir.resolve(instanceDir);
+      }
+      mountPoints.add(new CacheMountPoint(i, dir.resolve(CACHE_DIR_NAME), valueAt(quotas, i, 100),
+        valueAt(ensureFree, i, 0)));
+    }
+
+    Path dbDir = Paths.get(config.getString(DremioConfig.CACHE_DB_PATH));
+    if (isYarnDeployment) {
+      dbDir = dbDir.resolve(instanceDir);
+    }
+    dbDir = Files.createDirectories(dbDir.resolve(INDEX_DIR_NAME));
+    logger.info("Starting block cache with {} mount points, index at {}", mountPoints.size(), dbDir);
+
+    return new BlockCache(endpoint.getAddress(), mountPoints, new BlockCacheIndex(dbDir.toString()),
+      options.getOption(ExecConstants.BLOCK_CACHE_PAGE_SIZE_BYTES),
+      EvictionPolicy.valueOf(options.getOption(ExecConstants.BLOCK_CACHE_EVICTION_POLICY).toUpperCase(Locale.ROOT)),
+      options.getOption(ExecConstants.BLOCK_CACHE_MAX_PENDING_WRITE_BYTES));
+  }
+
+  private static int valueAt(List<Integer> values, int i, int defaultValue) {
+    if (values.isEmpty()) {
+      return defaultValue;
+    }
+    // the last value applies to all the remaining mount points
+    return values.get(Math.min(i, values.size() - 1));
+  }
+
+  /**
+   * Reloads the pages persisted in the index, dropping the ones that are missing on disk or were cached with a
+   * different page size.
+   */
+  private void load() {
+    final List<CachedPage> loaded = new ArrayList<>();
+    index.forEachPage(page -> {
+      final int mountId = page.getMountId();
+      if (page.getPageSize() == pageSize && mountId < mountPoints.size()
+        && mountPoints.get(mountId).exists(page.getPageId(), page.getLength())) {
+        loaded.add(page);
+        return;
+      }
+      index.deletePage(page.getPageId());
+      if (mountId < mountPoints.size()) {
+        deleteQuietly(mountPoints.get(mountId), page.getPageId());
+      }
+    });
+    loaded.sort((a, b) -> Long.compare(a.getAtime(), b.getAtime()));
+
+    synchronized (lock) {
+      for (CachedPage page : loaded) {
+        addPage(page);
+      }
+    }
+    logger.info("Loaded {} pages in the block cache", loaded.size());
+  }
+
+  long getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Sets the share of the cache the pages of the given plugin may use.
+   */
+  void registerPlugin(String plugin, int maxSpacePct) {
+    synchronized (lock) {
+      plugins.computeIfAbsent(plugin, PluginUsage::new).maxSpacePct = Math.max(0, Math.min(100, maxSpacePct));
+    }
+  }
+
+  /**
+   * @return the length of the file, loaded once per version of the file
+   */
+  long getFileLength(CachedFile file, Callable<Long> loader) throws ExecutionException {
+    return fileLengths.get(file.id(), loader);
+  }
+
+  @VisibleForTesting
+  String getPageId(CachedFile file, long pageIndex) {
+    return Hashing.murmur3_128().newHasher()
+      .putString(file.id(), UTF_8)
+      .putChar(SEPARATOR)
+      .putLong(pageIndex)
+      .putLong(pageSize)
+      .hash()
+      .toString();
+  }
+
+  /**
+   * @return the cached page, or null if the page is not in the cache
+   */
+  CachedPage lookup(CachedFile file, long pageIndex) {
+    final CachedPage page = pages.get(getPageId(file, pageIndex));
+    if (page == null) {
+      misses.incrementAndGet();
+      return null;
+    }
+    synchronized (lock) {
+      // moves the page to the end of the access order
+      accessOrder.get(page.getPageId());
+    }
+    page.touch(System.currentTimeMillis());
+    hits.incrementAndGet();
+    return page;
+  }
+
+  /**
+   * Reads from a page returned by {@link #lookup}.
+   * @return false if the page could not be read, it is then removed from the cache
+   */
+  boolean read(CachedPage page, long position, ByteBuf dst, int dstOffset, int len) {
+    final CacheMountPoint mountPoint = mountPoints.get(page.getMountId());
+    try {
+      mountPoint.read(page.getPageId(), position, dst, dstOffset, len);
+      return true;
+    } catch (IOException e) {
+      logger.debug("Unable to read {} from the block cache", page, e);
+      invalidate(page);
+      return false;
+    }
+  }
+
+  /**
+   * Caches a page fetched from the source, asynchronously. Takes ownership of the data.
+   * @return completes once the data is released
+   */
+  CompletableFuture<Void> offer(CachedFile file, long pageIndex, ByteBuf data) {
+    final String pageId = getPageId(file, pageIndex);
+    if (pages.containsKey(pageId) || !pendingWrites.add(pageId)) {
+      data.release();
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final PageWrite write = new PageWrite(file, pageIndex, pageId, data);
+    if (pendingWriteBytes.addAndGet(write.length) > maxPendingWriteBytes) {
+      skippedWrites.incrementAndGet();
+      write.done();
+      return write.released;
+    }
+    try {
+      writers.execute(write);
+    } catch (RejectedExecutionException e) {
+      // closing
+      write.done();
+    }
+    return write.released;
+  }
+
+  /**
+   * Writes a page offered to the cache, the data is released once done.
+   */
+  private final class PageWrite implements Runnable {
+    private final CachedFile file;
+    private final long pageIndex;
+    private final String pageId;
+    private final ByteBuf data;
+    private final int length;
+    private final CompletableFuture<Void> released = new CompletableFuture<>();
+
+    private PageWrite(CachedFile file, long pageIndex, String pageId, ByteBuf data) {
+      this.file = file;
+      this.pageIndex = pageIndex;
+      this.pageId = pageId;
+      this.data = data;
+      this.length = data.readableBytes();
+    }
+
+    @Override
+    public void run() {
+      try {
+        store(file, pageIndex, pageId, data);
+      } catch (Exception e) {
+        logger.debug("Unable to cache page {} of {}", pageIndex, file.getPath(), e);
+      } finally {
+        done();
+      }
+    }
+
+    private void done() {
+      try {
+        data.release();
+        pendingWriteBytes.addAndGet(-length);
+        pendingWrites.remove(pageId);
+      } finally {
+        released.complete(null);
+      }
+    }
+  }
+
+  /**
+   * Only the thread holding the page in {@link #pendingWrites} may add it, so once the page is checked under the lock
+   * it can neither be cached nor evicted by another thread until it is added.
+   */
+  private void store(CachedFile file, long pageIndex, String pageId, ByteBuf data) throws IOException {
+    final int length = data.readableBytes();
+    final List<CachedPage> evicted = new ArrayList<>();
+    final List<String> emptyDatasets = new ArrayList<>();
+    final CacheMountPoint mountPoint;
+    synchronized (lock) {
+      if (pages.containsKey(pageId) || deletingPages.contains(pageId)) {
+        // cached since it was offered, or the file of its previous eviction is still being deleted
+        return;
+      }
+      mountPoint = reserve(file.plugin, length, evicted, emptyDatasets);
+    }
+    deleteEvicted(evicted, emptyDatasets);
+    if (mountPoint == null) {
+      return;
+    }
+
+    CachedPage page = null;
+    try {
+      mountPoint.write(pageId, data);
+      page = new CachedPage(pageId, file.plugin, file.dataset, file.path, file.version, pageIndex * pageSize,
+        length, pageSize, mountPoint.getId(), System.currentTimeMillis());
+      // indexed before it is visible, so that an eviction can't delete the entry before it is put
+      index.putPage(page);
+    } finally {
+      synchronized (lock) {
+        mountPoint.unreserve(length);
+        if (page != null && addPage(page)) {
+          index.putDataset(file.plugin, file.dataset);
+        }
+      }
+    }
+  }
+
+  /**
+   * Picks the mount point with the most available space and evicts pages until the page fits in both the mount
+   * point and the plugin quota. Must be called under the lock.
+   * @return the mount point to write to, or null if the page cannot be cached
+   */
+  private CacheMountPoint reserve(String plugin, long length, List<CachedPage> evicted, List<String> emptyDatasets) {
+    CacheMountPoint mountPoint = null;
+    long maxAvailable = Long.MIN_VALUE;
+    for (CacheMountPoint candidate : mountPoints) {
+      final long available = candidate.getCapacity() - candidate.getUsedBytes() - candidate.getReservedBytes();
+      if (available > maxAvailable) {
+        maxAvailable = available;
+        mountPoint = candidate;
+      }
+    }
+
+    final CacheMountPoint target = mountPoint;
+    while (target.getUsedBytes() + target.getReservedBytes() + length > target.getCapacity()) {
+      if (!evictOne(p -> p.getMountId() == target.getId(), evicted, emptyDatasets)) {
+        return null;
+      }
+    }
+
+    final PluginUsage usage = plugins.computeIfAbsent(plugin, PluginUsage::new);
+    final long pluginQuota = getMaxSpace() * usage.maxSpacePct / 100;
+    while (usage.usedBytes + length > pluginQuota) {
+      if (!evictOne(p -> p.getPlugin().equals(plugin), evicted, emptyDatasets)) {
+        return null;
+      }
+    }
+
+    target.reserve(length);
+    return target;
+  }
+
+  /**
+   * Evicts one of the pages matching the filter. Must be called under the lock.
+   * @return false if no page matches
+   */
+  private boolean evictOne(Predicate<CachedPage> filter, List<CachedPage> evicted, List<String> emptyDatasets) {
+    CachedPage victim = null;
+    int sampled = 0;
+    final Iterator<CachedPage> iterator = accessOrder.values().iterator();
+    while (iterator.hasNext() && sampled < LFU_SAMPLE_SIZE) {
+      final CachedPage candidate = iterator.next();
+      if (!filter.test(candidate)) {
+        continue;
+      }
+      if (victim == null || candidate.getHits() < victim.getHits()) {
+        victim = candidate;
+      }
+      if (evictionPolicy == EvictionPolicy.LRU) {
+        break;
+      }
+      sampled++;
+    }
+    if (victim == null) {
+      return false;
+    }
+
+    final String emptyDataset = removePage(victim);
+    if (emptyDataset != null) {
+      emptyDatasets.add(emptyDataset);
+    }
+    mountPoints.get(victim.getMountId()).pageEvicted(victim.getLength(), System.currentTimeMillis());
+    evictions.incrementAndGet();
+    evicted.add(victim);
+    return true;
+  }
+
+  private void invalidate(CachedPage page) {
+    String emptyDataset;
+    synchronized (lock) {
+      if (pages.get(page.getPageId()) != page) {
+        return;
+      }
+      emptyDataset = removePage(page);
+    }
+    deleteEvicted(Collections.singletonList(page),
+      emptyDataset == null ? Collections.emptyList() : Collections.singletonList(emptyDataset));
+  }
+
+  /**
+   * Must be called under the lock.
+   * @return true if this is the first page of its dataset
+   */
+  private boolean addPage(CachedPage page) {
+    pages.put(page.getPageId(), page);
+    accessOrder.put(page.getPageId(), page);
+    mountPoints.get(page.getMountId()).pageAdded(page.getLength());
+    final PluginUsage usage = plugins.computeIfAbsent(page.getPlugin(), PluginUsage::new);
+    usage.usedBytes += page.getLength();
+    usage.numPages++;
+    return datasetPages.merge(page.getPlugin() + SEPARATOR + page.getDataset(), 1L, Long::sum) == 1L;
+  }
+
+  /**
+   * Must be called under the lock. The page can't be cached again until {@link #deleteEvicted} deleted it.
+   * @return the plugin\0dataset key if this was the last page of its dataset, null otherwise
+   */
+  private String removePage(CachedPage page) {
+    pages.remove(page.getPageId());
+    deletingPages.add(page.getPageId());
+    accessOrder.remove(page.getPageId());
+    mountPoints.get(page.getMountId()).pageRemoved(page.getLength());
+    final PluginUsage usage = plugins.get(page.getPlugin());
+    usage.usedBytes -= page.getLength();
+    usage.numPages--;
+    final String datasetKey = page.getPlugin() + SEPARATOR + page.getDataset();
+    if (datasetPages.merge(datasetKey, -1L, Long::sum) == 0L) {
+      datasetPages.remove(datasetKey);
+      return datasetKey;
+    }
+    return null;
+  }
+
+  /**
+   * Deletes the files and index entries of the pages removed by {@link #removePage}, outside of the lock.
+   */
+  private void deleteEvicted(List<CachedPage> evicted, List<String> emptyDatasets) {
+    for (CachedPage page : evicted) {
+      try {
+        deleteQuietly(mountPoints.get(page.getMountId()), page.getPageId());
+        index.deletePage(page.getPageId());
+      } finally {
+        synchronized (lock) {
+          deletingPages.remove(page.getPageId());
+        }
+      }
+    }
+    for (String datasetKey : emptyDatasets) {
+      final int separator = datasetKey.indexOf(SEPARATOR);
+      synchronized (lock) {
+        // a page of the dataset may have been cached since
+        if (datasetPages.containsKey(datasetKey)) {
+          continue;
+        }
+        index.deleteDataset(datasetKey.substring(0, separator), datasetKey.substring(separator + 1));
+      }
+    }
+  }
+
+  private static void deleteQuietly(CacheMountPoint mountPoint, String pageId) {
+    try {
+      mountPoint.delete(pageId);
+    } catch (IOException e) {
+      logger.debug("Unable to delete cached page {} from {}", pageId, mountPoint, e);
+    }
+  }
+
+  private long getMaxSpace() {
+    long maxSpace = 0;
+    for (CacheMountPoint mountPoint : mountPoints) {
+      maxSpace += mountPoint.getMaxSpace();
+    }
+    return maxSpace;
+  }
+
+  @VisibleForTesting
+  boolean isCached(CachedFile file, long pageIndex) {
+    return pages.containsKey(getPageId(file, pageIndex));
+  }
+
+  @VisibleForTesting
+  long getPendingWriteBytes() {
+    return pendingWriteBytes.get();
+  }
+
+  long getHits() {
+    return hits.get();
+  }
+
+  long getMisses() {
+    return misses.get();
+  }
+
+  long getEvictions() {
+    return evictions.get();
+  }
+
+  // sys.cache_* support
+
+  List<CacheManagerMountPointInfo> getMountPointStats() {
+    final List<CacheManagerMountPointInfo> stats = new ArrayList<>(mountPoints.size());
+    synchronized (lock) {
+      for (CacheMountPoint mountPoint : mountPoints) {
+        final long capacity = mountPoint.getCapacity();
+        final long used = mountPoint.getUsedBytes();
+        stats.add(new CacheManagerMountPointInfo(hostname, mountPoint.getDirectory().toString(), mountPoint.getId(),
+          mountPoint.getSubDirCount(), mountPoint.getNumPages(), mountPoint.getMaxSpace(), used,
+          mountPoint.getAvgReadTimeNanos(), mountPoint.getAvgWriteTimeNanos(), "ACTIVE",
+          used >= capacity ? "FULL" : "AVAILABLE", mountPoint.getTotalSpace(), mountPoint.getFreeSpace(),
+          mountPoint.getLatestEvictionTimestamp(), mountPoint.getLatestEvictedBytes()));
+      }
+    }
+    return stats;
+  }
+
+  List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    final List<CacheManagerStoragePluginInfo> stats = new ArrayList<>();
+    synchronized (lock) {
+      final long maxSpace = getMaxSpace();
+      for (PluginUsage usage : plugins.values()) {
+        stats.add(new CacheManagerStoragePluginInfo(hostname, usage.plugin, usage.numPages, usage.usedBytes,
+          maxSpace * usage.maxSpacePct / 100));
+      }
+    }
+    return stats;
+  }
+
+  RocksIterator getDatasetIterator() {
+    datasetSnapshot = computeDatasetStats();
+    return index.newIterator(BlockCacheIndex.DATASET_PREFIX);
+  }
+
+  /**
+   * The stats are taken from the snapshot computed by {@link #getDatasetIterator}, the iterator drives the batching.
+   */
+  List<CacheManagerDatasetInfo> getDatasetStats(RocksIterator iterator) {
+    final Map<String, CacheManagerDatasetInfo> snapshot = datasetSnapshot;
+    final List<CacheManagerDatasetInfo> batch = new ArrayList<>();
+    for (; BlockCacheIndex.hasPrefix(iterator, BlockCacheIndex.DATASET_PREFIX) && batch.size() < STATS_BATCH_SIZE;
+         iterator.next()) {
+      final CacheManagerDatasetInfo info = snapshot.get(BlockCacheIndex.suffix(iterator.key()));
+      if (info != null) {
+        batch.add(info);
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Computes for each dataset the access time after which 25, 50, 75 and 100 percent of its cached bytes were read.
+   */
+  private Map<String, CacheManagerDatasetInfo> computeDatasetStats() {
+    final Map<String, List<CachedPage>> byDataset = new HashMap<>();
+    synchronized (lock) {
+      for (CachedPage page : accessOrder.values()) {
+        byDataset.computeIfAbsent(page.getPlugin() + SEPARATOR + page.getDataset(), k -> new ArrayList<>()).add(page);
+      }
+    }
+
+    final Map<String, CacheManagerDatasetInfo> stats = new HashMap<>();
+    for (Map.Entry<String, List<CachedPage>> entry : byDataset.entrySet()) {
+      final List<CachedPage> datasetPages = entry.getValue();
+      datasetPages.sort((a, b) -> Long.compare(b.getAtime(), a.getAtime()));
+      long totalBytes = 0;
+      for (CachedPage page : datasetPages) {
+        totalBytes += page.getLength();
+      }
+
+      final Timestamp[] percentiles = new Timestamp[4];
+      long cumulativeBytes = 0;
+      int next = 0;
+      for (CachedPage page : datasetPages) {
+        cumulativeBytes += page.getLength();
+        while (next < percentiles.length && cumulativeBytes * percentiles.length >= totalBytes * (next + 1)) {
+          percentiles[next++] = new Timestamp(page.getAtime());
+        }
+      }
+
+      final CachedPage first = datasetPages.get(0);
+      final Set<String> files = new HashSet<>();
+      for (CachedPage page : datasetPages) {
+        files.add(page.getPath());
+      }
+      stats.put(entry.getKey(), new CacheManagerDatasetInfo(hostname, first.getDataset(), first.getPlugin(),
+        files.size(), percentiles[0], percentiles[1], percentiles[2], percentiles[3]));
+    }
+    return stats;
+  }
+
+  RocksIterator getCachedFilesIterator() {
+    return index.newIterator(BlockCacheIndex.PAGE_PREFIX);
+  }
+
+  List<CacheManagerFilesInfo> getCachedFilesStats(RocksIterator iterator) {
+    final List<CacheManagerFilesInfo> batch = new ArrayList<>();
+    for (; BlockCacheIndex.hasPrefix(iterator, BlockCacheIndex.PAGE_PREFIX) && batch.size() < STATS_BATCH_SIZE;
+         iterator.next()) {
+      // the in-memory page has the latest access time
+      final CachedPage page = pages.get(BlockCacheIndex.suffix(iterator.key()));
+      if (page != null) {
+        batch.add(new CacheManagerFilesInfo(hostname, page.getPlugin(), page.getDataset(), page.getPath(),
+          page.getVersion(), page.getOffset(), new Timestamp(page.getAtime())));
+      }
+    }
+    return batch;
+  }
+
+  @Override
+  public void close() throws Exception {
+    writers.shutdown();
+    // the queued pages are not cached, their data is released
+    final List<Runnable> queued = new ArrayList<>();
+    writers.getQueue().drainTo(queued);
+    for (Runnable write : queued) {
+      ((PageWrite) write).done();
+    }
+    CloseableSchedulerThreadPool.close(writers, logger);
+    index.close();
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.rocksdb.RocksIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.store.dfs.AsyncStreamConf;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.sys.CacheManagerStatsProvider;
+import com.dremio.exec.work.CacheManagerDatasetInfo;
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.io.file.FileSystem;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+
+/**
+ * Wraps the file systems of the sources that request caching so that their async reads go through the
+ * {@link BlockCache}. The cache is created on first use, and only if {@link ExecConstants#BLOCK_CACHE_ENABLED} is set.
+ */
+public class BlockCacheFileSystemWrapper implements FileSystemWrapper, CacheManagerStatsProvider {
+  private static final Logger logger = LoggerFactory.getLogger(BlockCacheFileSystemWrapper.class);
+
+  private final DremioConfig config;
+  private final OptionManager options;
+  private final NodeEndpoint endpoint;
+
+  private volatile BlockCache cache;
+  private volatile boolean failed;
+
+  public BlockCacheFileSystemWrapper(DremioConfig config, OptionManager options, NodeEndpoint endpoint) {
+    this.config = config;
+    this.options = options;
+    this.endpoint = endpoint;
+  }
+
+  @Override
+  public FileSystem wrap(FileSystem fs, String storageId, AsyncStreamConf conf, OperatorContext context,
+                         boolean enableAsync, boolean isMetadataRefresh) throws IOException {
+    if (!enableAsync || isMetadataRefresh || conf == null || !conf.isAsyncEnabled()
+      || !options.getOption(ExecConstants.BLOCK_CACHE_ENABLED)
+      || !conf.getCacheProperties().isCachingEnabled(options)) {
+      return fs;
+    }
+
+    final BlockCache blockCache = getCache();
+    if (blockCache == null) {
+      return fs;
+    }
+    blockCache.registerPlugin(storageId, conf.getCacheProperties().cacheMaxSpaceLimitPct());
+    return new CachingFileSystem(fs, blockCache, storageId, context);
+  }
+
+  private BlockCache getCache() {
+    if (cache != null || failed) {
+      return cache;
+    }
+    synchronized (this) {
+      if (cache == null && !failed) {
+        try {
+          cache = BlockCache.newInstance(config, options, endpoint);
+        } catch (Exception e) {
+          // don't fail the queries, read from the source instead
+          logger.warn("Unable to start the block cache, reads will not be cached", e);
+          failed = true;
+        }
+      }
+      return cache;
+    }
+  }
+
+  @Override
+  public List<CacheManagerMountPointInfo> getMountPointStats() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? Collections.emptyList() : blockCache.getMountPointStats();
+  }
+
+  @Override
+  public List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? Collections.emptyList() : blockCache.getStoragePluginStats();
+  }
+
+  @Override
+  public RocksIterator getDatasetIterator() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? null : blockCache.getDatasetIterator();
+  }
+
+  @Override
+  public List<CacheManagerDatasetInfo> getDatasetStats(RocksIterator dsIterator) {
+    final BlockCache blockCache = cache;
+    return blockCache == null || dsIterator == null ? Collections.emptyList() : blockCache.getDatasetStats(dsIterator);
+  }
+
+  @Override
+  public RocksIterator getCachedFilesIterator() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? null : blockCache.getCachedFilesIterator();
+  }
+
+  @Override
+  public List<CacheManagerFilesInfo> getCachedFilesStats(RocksIterator fileIterator) {
+    final BlockCache blockCache = cache;
+    return blockCache == null || fileIterator == null ? Collections.emptyList()
+      : blockCache.getCachedFilesStats(fileIterator);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (cache == null) {
+      return;
+    }
+    try {
+      cache.close();
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    } finally {
+      cache = null;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists the pages held by the {@link BlockCache} so that the cache survives restarts, and backs the iterators
+ * of the sys.cache_* tables.<br>
+ * <br>
+ * Keys are prefixed by their type: {@link #PAGE_PREFIX} followed by the page id for pages, and
+ * {@link #DATASET_PREFIX} followed by {@code plugin\0dataset} for the datasets with at least one cached page.
+ * Failures are logged and otherwise ignored, losing an entry only means losing a cached page.
+ */
+class BlockCacheIndex implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(BlockCacheIndex.class);
+
+  static final byte PAGE_PREFIX = 'p';
+  static final byte DATASET_PREFIX = 'd';
+  private static final char SEPARATOR = '\0';
+
+  private final Options options;
+  private final RocksDB db;
+
+  BlockCacheIndex(String dbDirectory) throws RocksDBException {
+    RocksDB.loadLibrary();
+    this.options = new Options().setCreateIfMissing(true);
+    this.db = RocksDB.open(options, dbDirectory);
+  }
+
+  void putPage(CachedPage page) {
+    put(key(PAGE_PREFIX, page.getPageId()), page.serialize());
+  }
+
+  void deletePage(String pageId) {
+    delete(key(PAGE_PREFIX, pageId));
+  }
+
+  void putDataset(String plugin, String dataset) {
+    put(key(DATASET_PREFIX, plugin + SEPARATOR + dataset), new byte[0]);
+  }
+
+  void deleteDataset(String plugin, String dataset) {
+    delete(key(DATASET_PREFIX, plugin + SEPARATOR + dataset));
+  }
+
+  /**
+   * Visits all the persisted pages, entries that cannot be read are removed.
+   */
+  void forEachPage(Consumer<CachedPage> consumer) {
+    try (RocksIterator iterator = newIterator(PAGE_PREFIX)) {
+      for (; hasPrefix(iterator, PAGE_PREFIX); iterator.next()) {
+        final String pageId = suffix(iterator.key());
+        CachedPage page = null;
+        try {
+          page = CachedPage.deserialize(pageId, iterator.value());
+        } catch (IOException e) {
+          logger.debug("Unable to read cached page {}", pageId, e);
+        }
+        if (page == null) {
+          deletePage(pageId);
+        } else {
+          consumer.accept(page);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return an iterator positioned on the first entry of the given type, the caller has to close it
+   */
+  RocksIterator newIterator(byte prefix) {
+    final RocksIterator iterator = db.newIterator();
+    iterator.seek(new byte[] {prefix});
+    return iterator;
+  }
+
+  static boolean hasPrefix(RocksIterator iterator, byte prefix) {
+    if (!iterator.isValid()) {
+      return false;
+    }
+    final byte[] key = iterator.key();
+    return key.length > 0 && key[0] == prefix;
+  }
+
+  static String suffix(byte[] key) {
+    return new String(key, 1, key.length - 1, UTF_8);
+  }
+
+  /**
+   * @return plugin and dataset of a dataset entry
+   */
+  static String[] splitDatasetKey(byte[] key) {
+    final String suffix = suffix(key);
+    final int separator = suffix.indexOf(SEPARATOR);
+    if (separator < 0) {
+      return new String[] {suffix, ""};
+    }
+    return new String[] {suffix.substring(0, separator), suffix.substring(separator + 1)};
+  }
+
+  private static byte[] key(byte prefix, String suffix) {
+    final byte[] bytes = suffix.getBytes(UTF_8);
+    final byte[] key = Arrays.copyOf(new byte[] {prefix}, bytes.length + 1);
+    System.arraycopy(bytes, 0, key, 1, bytes.length);
+    return key;
+  }
+
+  private void put(byte[] key, byte[] value) {
+    try {
+      db.put(key, value);
+    } catch (RocksDBException e) {
+      logger.debug("RocksDb::put failed", e);
+    }
+  }
+
+  private void delete(byte[] key) {
+    try {
+      db.delete(key);
+    } catch (RocksDBException e) {
+      logger.debug("RocksDb::delete failed", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    db.close();
+    options.close();
+  }
+}
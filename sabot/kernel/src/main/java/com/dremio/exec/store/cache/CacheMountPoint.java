@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * A local directory (usually on a dedicated NVMe drive) holding pages of the {@link BlockCache}.<br>
+ * <br>
+ * Each page is stored in its own file, spread over 256 sub directories by the first two characters of the page id.
+ * Space accounting ({@code usedBytes}, {@code reservedBytes}) is guarded by the cache lock.
+ */
+class CacheMountPoint {
+  private final int id;
+  private final Path directory;
+  private final int maxSpacePct;
+  private final int ensureFreeSpacePct;
+  private final FileStore fileStore;
+
+  // guarded by the BlockCache lock
+  private long usedBytes;
+  private long reservedBytes;
+  private long numPages;
+
+  private final AtomicLong numReads = new AtomicLong();
+  private final AtomicLong readNanos = new AtomicLong();
+  private final AtomicLong numWrites = new AtomicLong();
+  private final AtomicLong writeNanos = new AtomicLong();
+  private volatile long latestEvictionTimestamp;
+  private volatile long latestEvictedBytes;
+
+  CacheMountPoint(int id, Path directory, int maxSpacePct, int ensureFreeSpacePct) throws IOException {
+    this.id = id;
+    this.directory = Files.createDirectories(directory);
+    this.maxSpacePct = maxSpacePct;
+    this.ensureFreeSpacePct = ensureFreeSpacePct;
+    this.fileStore = Files.getFileStore(this.directory);
+  }
+
+  int getId() {
+    return id;
+  }
+
+  Path getDirectory() {
+    return directory;
+  }
+
+  Path getPageFile(String pageId) {
+    return directory.resolve(pageId.substring(0, 2)).resolve(pageId);
+  }
+
+  void write(String pageId, ByteBuf data) throws IOException {
+    final long start = System.nanoTime();
+    final Path file = getPageFile(pageId);
+    Files.createDirectories(file.getParent());
+    // write to a temporary file first so that a crash never leaves a partial page behind
+    final Path tmp = file.resolveSibling(pageId + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer buffer = data.nioBuffer(data.readerIndex(), data.readableBytes());
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    numWrites.incrementAndGet();
+    writeNanos.addAndGet(System.nanoTime() - start);
+  }
+
+  void read(String pageId, long position, ByteBuf dst, int dstOffset, int len) throws IOException {
+    final long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(getPageFile(pageId), StandardOpenOption.READ)) {
+      final ByteBuffer buffer = dst.nioBuffer(dstOffset, len);
+      long pos = position;
+      while (buffer.hasRemaining()) {
+        final int read = channel.read(buffer, pos);
+        if (read < 0) {
+          throw new EOFException("Unexpected end of cached page " + pageId);
+        }
+        pos += read;
+      }
+    }
+    numReads.incrementAndGet();
+    readNanos.addAndGet(System.nanoTime() - start);
+  }
+
+  boolean exists(String pageId, int length) {
+    final Path file = getPageFile(pageId);
+    try {
+      return Files.isRegularFile(file) && Files.size(file) == length;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  void delete(String pageId) throws IOException {
+    Files.deleteIfExists(getPageFile(pageId));
+  }
+
+  long getTotalSpace() {
+    try {
+      return fileStore.getTotalSpace();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  long getFreeSpace() {
+    try {
+      return fileStore.getUsableSpace();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * @return the max space the cache may use on this mount point
+   */
+  long getMaxSpace() {
+    return getTotalSpace() * maxSpacePct / 100;
+  }
+
+  /**
+   * @return the space the cache may use right now, taking into account the free space to keep for other users
+   * of the disk.
+   */
+  long getCapacity() {
+    final long mustStayFree = getTotalSpace() * ensureFreeSpacePct / 100;
+    return Math.min(getMaxSpace(), usedBytes + reservedBytes + Math.max(0, getFreeSpace() - mustStayFree));
+  }
+
+  long getUsedBytes() {
+    return usedBytes;
+  }
+
+  long getReservedBytes() {
+    return reservedBytes;
+  }
+
+  long getNumPages() {
+    return numPages;
+  }
+
+  void reserve(long bytes) {
+    reservedBytes += bytes;
+  }
+
+  void unreserve(long bytes) {
+    reservedBytes -= bytes;
+  }
+
+  void pageAdded(long bytes) {
+    usedBytes += bytes;
+    numPages++;
+  }
+
+  void pageRemoved(long bytes) {
+    usedBytes -= bytes;
+    numPages--;
+  }
+
+  void pageEvicted(long bytes, long now) {
+    latestEvictionTimestamp = now;
+    latestEvictedBytes = bytes;
+  }
+
+  long getSubDirCount() {
+    long count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+      for (Path ignored : stream) {
+        count++;
+      }
+    } catch (IOException e) {
+      // ignore, only used for stats
+    }
+    return count;
+  }
+
+  long getAvgReadTimeNanos() {
+    final long reads = numReads.get();
+    return reads == 0 ? 0 : readNanos.get() / reads;
+  }
+
+  long getAvgWriteTimeNanos() {
+    final long writes = numWrites.get();
+    return writes == 0 ? 0 : writeNanos.get() / writes;
+  }
+
+  long getLatestEvictionTimestamp() {
+    return latestEvictionTimestamp;
+  }
+
+  long getLatestEvictedBytes() {
+    return latestEvictedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("mount point %d (%s)", id, directory);
+  }
+}
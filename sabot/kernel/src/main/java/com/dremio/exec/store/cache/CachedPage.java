@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A page of a remote file stored in the {@link BlockCache}.
+ */
+final class CachedPage {
+  private static final byte SERIALIZATION_VERSION = 1;
+
+  private final String pageId;
+  private final String plugin;
+  private final String dataset;
+  private final String path;
+  private final String version;
+  private final long offset;
+  private final int length;
+  private final long pageSize;
+  private final int mountId;
+
+  private volatile long atime;
+  private final AtomicLong hits = new AtomicLong();
+
+  CachedPage(String pageId, String plugin, String dataset, String path, String version, long offset, int length,
+             long pageSize, int mountId, long atime) {
+    this.pageId = pageId;
+    this.plugin = plugin;
+    this.dataset = dataset;
+    this.path = path;
+    this.version = version;
+    this.offset = offset;
+    this.length = length;
+    this.pageSize = pageSize;
+    this.mountId = mountId;
+    this.atime = atime;
+  }
+
+  String getPageId() {
+    return pageId;
+  }
+
+  String getPlugin() {
+    return plugin;
+  }
+
+  String getDataset() {
+    return dataset;
+  }
+
+  String getPath() {
+    return path;
+  }
+
+  String getVersion() {
+    return version;
+  }
+
+  long getOffset() {
+    return offset;
+  }
+
+  int getLength() {
+    return length;
+  }
+
+  long getPageSize() {
+    return pageSize;
+  }
+
+  int getMountId() {
+    return mountId;
+  }
+
+  long getAtime() {
+    return atime;
+  }
+
+  long getHits() {
+    return hits.get();
+  }
+
+  void touch(long now) {
+    atime = now;
+    hits.incrementAndGet();
+  }
+
+  byte[] serialize() {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + path.length());
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(SERIALIZATION_VERSION);
+      out.writeUTF(plugin);
+      out.writeUTF(dataset);
+      out.writeUTF(path);
+      out.writeUTF(version);
+      out.writeLong(offset);
+      out.writeInt(length);
+      out.writeLong(pageSize);
+      out.writeInt(mountId);
+      out.writeLong(atime);
+    } catch (IOException e) {
+      // not expected when writing to memory
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @return the deserialized page, or null if the value was written by an incompatible version
+   */
+  static CachedPage deserialize(String pageId, byte[] value) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+      if (in.readByte() != SERIALIZATION_VERSION) {
+        return null;
+      }
+      return new CachedPage(pageId, in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readLong(),
+        in.readInt(), in.readLong(), in.readInt(), in.readLong());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s@%d+%d (%s)", path, offset, length, pageId);
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
+
+/**
+ * Serves reads from the {@link BlockCache}, fetching the missing pages from the wrapped reader.<br>
+ * <br>
+ * Consecutive missing pages are fetched with a single read from the source, whole pages are read so that they can
+ * be cached. The fetched pages are allocated by the operator, so closing the reader waits for the cache to release
+ * the ones it is still writing.
+ */
+class CachingAsyncByteReader implements AsyncByteReader {
+  private static final Logger logger = LoggerFactory.getLogger(CachingAsyncByteReader.class);
+
+  private final AsyncByteReader delegate;
+  private final BlockCache cache;
+  private final BlockCache.CachedFile file;
+  private final Callable<Long> fileLength;
+  private final BufferAllocator allocator;
+  private final OperatorContext context;
+  // pages offered to the cache and not released yet
+  private final Set<CompletableFuture<Void>> pendingOffers = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  CachingAsyncByteReader(AsyncByteReader delegate, BlockCache cache, BlockCache.CachedFile file,
+                         Callable<Long> fileLength, BufferAllocator allocator, OperatorContext context) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.file = file;
+    this.fileLength = fileLength;
+    this.allocator = allocator;
+    this.context = context;
+  }
+
+  @Override
+  public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+    if (len == 0) {
+      return completedFuture;
+    }
+
+    final long length;
+    try {
+      length = cache.getFileLength(file, fileLength);
+    } catch (Exception e) {
+      logger.debug("Unable to get the length of {}, bypassing the block cache", file.getPath(), e);
+      return delegate.readFully(offset, dst, dstOffset, len);
+    }
+    final long end = offset + len;
+    if (end > length) {
+      // let the source report the error
+      return delegate.readFully(offset, dst, dstOffset, len);
+    }
+
+    final long pageSize = cache.getPageSize();
+    final long lastPage = (end - 1) / pageSize;
+    final List<CompletableFuture<Void>> fetches = new ArrayList<>();
+    long firstMissing = -1;
+    for (long page = offset / pageSize; page <= lastPage; page++) {
+      if (readCached(page, offset, end, dst, dstOffset)) {
+        hits.incrementAndGet();
+        if (firstMissing >= 0) {
+          fetches.add(fetch(firstMissing, page, length, offset, end, dst, dstOffset));
+          firstMissing = -1;
+        }
+      } else {
+        misses.incrementAndGet();
+        if (firstMissing < 0) {
+          firstMissing = page;
+        }
+      }
+    }
+    if (firstMissing >= 0) {
+      fetches.add(fetch(firstMissing, lastPage + 1, length, offset, end, dst, dstOffset));
+    }
+
+    switch (fetches.size()) {
+      case 0:
+        return completedFuture;
+      case 1:
+        return fetches.get(0);
+      default:
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]));
+    }
+  }
+
+  /**
+   * Copies the part of the page within [offset, end) to dst.
+   * @return false if the page is not cached
+   */
+  private boolean readCached(long page, long offset, long end, ByteBuf dst, int dstOffset) {
+    final CachedPage cached = cache.lookup(file, page);
+    if (cached == null) {
+      return false;
+    }
+    final long from = Math.max(offset, cached.getOffset());
+    final long to = Math.min(end, cached.getOffset() + cached.getLength());
+    if (to < from) {
+      return false;
+    }
+    return cache.read(cached, from - cached.getOffset(), dst, dstOffset + (int) (from - offset), (int) (to - from));
+  }
+
+  /**
+   * Reads the pages [firstPage, endPage) from the source, copies the part within [offset, end) to dst and offers
+   * the pages to the cache.
+   */
+  private CompletableFuture<Void> fetch(long firstPage, long endPage, long length, long offset, long end,
+                                        ByteBuf dst, int dstOffset) {
+    final long pageSize = cache.getPageSize();
+    final long fetchStart = firstPage * pageSize;
+    final long fetchEnd = Math.min(endPage * pageSize, length);
+    if (fetchEnd - fetchStart > Integer.MAX_VALUE) {
+      final long from = Math.max(offset, fetchStart);
+      final long to = Math.min(end, fetchEnd);
+      return delegate.readFully(from, dst, dstOffset + (int) (from - offset), (int) (to - from));
+    }
+
+    final int fetchLength = (int) (fetchEnd - fetchStart);
+    final ByteBuf buffer = NettyArrowBuf.unwrapBuffer(allocator.buffer(fetchLength));
+    final CompletableFuture<Void> read;
+    try {
+      read = delegate.readFully(fetchStart, buffer, 0, fetchLength);
+    } catch (RuntimeException e) {
+      buffer.release();
+      throw e;
+    }
+    return read
+      .whenComplete((v, t) -> {
+        try {
+          if (t != null) {
+            return;
+          }
+          final long from = Math.max(offset, fetchStart);
+          final long to = Math.min(end, fetchEnd);
+          dst.setBytes(dstOffset + (int) (from - offset), buffer, (int) (from - fetchStart), (int) (to - from));
+
+          for (long page = firstPage; page < endPage; page++) {
+            final int pageStart = (int) (page * pageSize - fetchStart);
+            final int pageLength = (int) Math.min(pageSize, fetchLength - pageStart);
+            offer(page, buffer.retainedSlice(pageStart, pageLength));
+          }
+        } finally {
+          buffer.release();
+        }
+      });
+  }
+
+  private void offer(long page, ByteBuf data) {
+    final CompletableFuture<Void> released = cache.offer(file, page, data);
+    if (!released.isDone()) {
+      pendingOffers.add(released);
+      released.whenComplete((v, t) -> pendingOffers.remove(released));
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> checkVersion(String version) {
+    return delegate.checkVersion(version);
+  }
+
+  @Override
+  public List<ReaderStat> getStats() {
+    return delegate.getStats();
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      if (context != null && context.getStats() != null) {
+        context.getStats().addLongStat(ScanOperator.Metric.NUM_CACHE_HITS, hits.get());
+        context.getStats().addLongStat(ScanOperator.Metric.NUM_CACHE_MISSES, misses.get());
+      }
+    } finally {
+      try {
+        // the allocator of the operator is closed next
+        CompletableFuture.allOf(pendingOffers.toArray(new CompletableFuture[0])).get();
+      } finally {
+        delegate.close();
+      }
+    }
+  }
+}
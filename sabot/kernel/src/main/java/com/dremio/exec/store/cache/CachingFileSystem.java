@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.sabot.exec.context.OperatorContext;
+
+/**
+ * Routes the async reads of a plugin file system through the {@link BlockCache}.
+ */
+class CachingFileSystem extends FilterFileSystem {
+  private final FileSystem fs;
+  private final BlockCache cache;
+  private final String plugin;
+  private final OperatorContext context;
+
+  CachingFileSystem(FileSystem fs, BlockCache cache, String plugin, OperatorContext context) {
+    super(fs);
+    this.fs = fs;
+    this.cache = cache;
+    this.plugin = plugin;
+    this.context = context;
+  }
+
+  @Override
+  public AsyncByteReader getAsyncByteReader(AsyncByteReader.FileKey fileKey, Map<String, String> options)
+    throws IOException {
+    final AsyncByteReader reader = super.getAsyncByteReader(fileKey, options);
+    final String version = fileKey.getVersion();
+    if (version == null || version.isEmpty()) {
+      // without a version, a modified file could be served stale pages
+      return reader;
+    }
+    if (context == null) {
+      // the missing pages are fetched in the memory of the operator
+      return reader;
+    }
+
+    final List<String> datasetKey = fileKey.getDatasetKey();
+    final BlockCache.CachedFile file = new BlockCache.CachedFile(plugin,
+      datasetKey == null ? "" : String.join(".", datasetKey), fileKey.getPath().toString(), version);
+    return new CachingAsyncByteReader(reader, cache, file, () -> fs.getFileAttributes(fileKey.getPath()).size(),
+      context.getAllocator(), context);
+  }
+}
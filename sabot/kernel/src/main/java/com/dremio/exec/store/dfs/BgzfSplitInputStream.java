@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.dremio.io.CompressedFSInputStream;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+
+/**
+ * Decompressing stream over the blocks of a BGZF (blocked gzip, as produced by bgzip) file which belong to a split.
+ *
+ * A BGZF file is a series of independent gzip members of at most 64KB each, whose header records the compressed
+ * size of the member. This allows a split of the compressed file to be decoded on its own: the stream starts at the
+ * first block beginning at or after the split start, and a block belongs to the split if it begins before the split
+ * end. Readers still need to finish the last record of the split, so the stream keeps decoding past the split end
+ * and reports through {@link #getSplitEndPosition()} where, in the decompressed data, the split ends.
+ *
+ * Positions reported by {@link #getPosition()} are offsets in the decompressed data of the split.
+ */
+public final class BgzfSplitInputStream extends CompressedFSInputStream {
+  private static final int MAX_BLOCK_SIZE = 65536;
+  /** Size of the gzip header up to and including XLEN. */
+  private static final int FIXED_HEADER_SIZE = 12;
+  /** Size of the CRC32 and ISIZE trailer. */
+  private static final int TRAILER_SIZE = 8;
+  /** Smallest possible header: fixed header plus the BC subfield. */
+  private static final int MIN_HEADER_SIZE = FIXED_HEADER_SIZE + 6;
+
+  private final FSInputStream input;
+  private final long splitEnd;
+  private final Inflater inflater = new Inflater(true);
+  private final CRC32 crc = new CRC32();
+  private final byte[] compressed = new byte[MAX_BLOCK_SIZE];
+  private final byte[] block = new byte[MAX_BLOCK_SIZE];
+
+  private int blockLength;
+  private int blockPos;
+  private long nextBlockOffset;
+  private long position;
+  private long splitEndPosition = Long.MAX_VALUE;
+  private boolean eof;
+
+  private BgzfSplitInputStream(FSInputStream input, long splitEnd) {
+    this.input = input;
+    this.splitEnd = splitEnd;
+  }
+
+  /**
+   * Opens a stream over the BGZF blocks starting in {@code [start, end)} of the compressed file.
+   *
+   * @param input the stream over the compressed file, owned by the returned stream
+   * @param start the split start, in bytes of the compressed file
+   * @param end the split end, in bytes of the compressed file
+   */
+  public static BgzfSplitInputStream open(FSInputStream input, long start, long end) throws IOException {
+    final BgzfSplitInputStream stream = new BgzfSplitInputStream(input, end);
+    final long firstBlock = start == 0 ? 0 : stream.findBlockStart(start);
+    if (firstBlock < 0) {
+      stream.eof = true;
+      stream.splitEndPosition = 0;
+    } else {
+      stream.nextBlockOffset = firstBlock;
+      input.setPosition(firstBlock);
+    }
+    return stream;
+  }
+
+  /**
+   * Checks whether the file is BGZF compressed, by looking at the header of its first block.
+   */
+  public static boolean isBgzf(FileSystem fs, Path path) throws IOException {
+    try (FSInputStream input = fs.open(path)) {
+      final byte[] header = new byte[MIN_HEADER_SIZE];
+      final int read = readFully(input, header, 0, header.length);
+      return read == header.length && getBlockSize(header, 0, read) > 0;
+    }
+  }
+
+  /**
+   * Returns the position in the decompressed data at which the split ends, that is the start of the first block
+   * which does not belong to the split, or {@code Long.MAX_VALUE} if that block has not been reached yet.
+   */
+  public long getSplitEndPosition() {
+    return splitEndPosition;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    int total = 0;
+    while (dst.hasRemaining() && !eof) {
+      if (blockPos == blockLength && !loadBlock()) {
+        eof = true;
+        break;
+      }
+      final int n = Math.min(dst.remaining(), blockLength - blockPos);
+      dst.put(block, blockPos, n);
+      blockPos += n;
+      position += n;
+      total += n;
+    }
+    return total == 0 && eof ? -1 : total;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (blockPos == blockLength && (eof || !loadBlock())) {
+      eof = true;
+      return -1;
+    }
+    position++;
+    return block[blockPos++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    return read(ByteBuffer.wrap(b, off, len));
+  }
+
+  @Override
+  public int read(long position, ByteBuffer dst) throws IOException {
+    throw new UnsupportedOperationException("Positional reads are not supported on BGZF split streams.");
+  }
+
+  @Override
+  public long getPosition() {
+    return position;
+  }
+
+  @Override
+  public void setPosition(long position) {
+    if (position != this.position) {
+      throw new UnsupportedOperationException("Seeking is not supported on BGZF split streams.");
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    inflater.end();
+    input.close();
+  }
+
+  /**
+   * Decodes the next non empty block.
+   *
+   * @return false if the end of the file has been reached.
+   */
+  private boolean loadBlock() throws IOException {
+    while (true) {
+      if (nextBlockOffset >= splitEnd && splitEndPosition == Long.MAX_VALUE) {
+        splitEndPosition = position;
+      }
+
+      final int headerRead = readFully(input, compressed, 0, FIXED_HEADER_SIZE);
+      if (headerRead == 0) {
+        return false;
+      }
+      if (headerRead < FIXED_HEADER_SIZE) {
+        throw corrupted("truncated block header");
+      }
+      final int extraLength = readShort(compressed, 10);
+      if (readFully(input, compressed, FIXED_HEADER_SIZE, extraLength) < extraLength) {
+        throw corrupted("truncated block header");
+      }
+      final int blockSize = getBlockSize(compressed, 0, FIXED_HEADER_SIZE + extraLength);
+      final int headerSize = FIXED_HEADER_SIZE + extraLength;
+      if (blockSize < headerSize + TRAILER_SIZE) {
+        throw corrupted("invalid block header");
+      }
+      if (readFully(input, compressed, headerSize, blockSize - headerSize) < blockSize - headerSize) {
+        throw corrupted("truncated block");
+      }
+
+      final int expectedLength = readInt(compressed, blockSize - 4);
+      inflater.reset();
+      inflater.setInput(compressed, headerSize, blockSize - headerSize - TRAILER_SIZE);
+      try {
+        blockLength = 0;
+        while (!inflater.finished() && blockLength < block.length) {
+          final int n = inflater.inflate(block, blockLength, block.length - blockLength);
+          if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+            break;
+          }
+          blockLength += n;
+        }
+      } catch (DataFormatException e) {
+        throw new IOException(String.format("Corrupted BGZF block at offset %d.", nextBlockOffset), e);
+      }
+      if (blockLength != expectedLength) {
+        throw corrupted("unexpected decompressed size");
+      }
+      crc.reset();
+      crc.update(block, 0, blockLength);
+      if ((int) crc.getValue() != readInt(compressed, blockSize - TRAILER_SIZE)) {
+        throw corrupted("checksum mismatch");
+      }
+
+      nextBlockOffset += blockSize;
+      blockPos = 0;
+      if (blockLength > 0) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Finds the offset of the first block starting at or after {@code start}, or -1 if there is none. Since blocks are
+   * at most 64KB, a block necessarily starts within the first 64KB following any offset.
+   */
+  private long findBlockStart(long start) throws IOException {
+    final byte[] window = new byte[MAX_BLOCK_SIZE + MIN_HEADER_SIZE];
+    final int read = readFully(input, start, window);
+    for (int i = 0; i + MIN_HEADER_SIZE <= read; i++) {
+      final int blockSize = getBlockSize(window, i, read - i);
+      if (blockSize > 0 && isBlockBoundary(start + i + blockSize)) {
+        return start + i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Validates a candidate block by checking that it is followed by another block or by the end of the file.
+   */
+  private boolean isBlockBoundary(long offset) throws IOException {
+    final byte[] magic = new byte[2];
+    final int read = readFully(input, offset, magic);
+    return read == 0 || (read == 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B);
+  }
+
+  /**
+   * Returns the total size of the BGZF block whose header starts at {@code offset}, or -1 if the bytes are not a
+   * BGZF block header.
+   */
+  private static int getBlockSize(byte[] bytes, int offset, int available) {
+    if (available < FIXED_HEADER_SIZE
+      || (bytes[offset] & 0xFF) != 0x1F || (bytes[offset + 1] & 0xFF) != 0x8B
+      || bytes[offset + 2] != 8 || (bytes[offset + 3] & 0x04) == 0) {
+      return -1;
+    }
+    final int extraLength = readShort(bytes, offset + 10);
+    if (available < FIXED_HEADER_SIZE + extraLength) {
+      return -1;
+    }
+    // Look for the BC subfield holding the block size.
+    int pos = offset + FIXED_HEADER_SIZE;
+    final int end = pos + extraLength;
+    while (pos + 4 <= end) {
+      final int subfieldLength = readShort(bytes, pos + 2);
+      if (bytes[pos] == 'B' && bytes[pos + 1] == 'C' && subfieldLength == 2 && pos + 6 <= end) {
+        return readShort(bytes, pos + 4) + 1;
+      }
+      pos += 4 + subfieldLength;
+    }
+    return -1;
+  }
+
+  private IOException corrupted(String reason) {
+    return new IOException(String.format("Corrupted BGZF block at offset %d: %s.", nextBlockOffset, reason));
+  }
+
+  private static int readShort(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return readShort(bytes, offset) | readShort(bytes, offset + 2) << 16;
+  }
+
+  private static int readFully(FSInputStream input, byte[] bytes, int offset, int length) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+    while (buffer.hasRemaining()) {
+      if (input.read(buffer) < 0) {
+        break;
+      }
+    }
+    return buffer.position() - offset;
+  }
+
+  private static int readFully(FSInputStream input, long position, byte[] bytes) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    while (buffer.hasRemaining()) {
+      if (input.read(position + buffer.position(), buffer) < 0) {
+        break;
+      }
+    }
+    return buffer.position();
+  }
+}
@@ -66,10 +66,19 @@ public class BlockMapBuilder {
   }
 
   public List<CompleteFileWork> generateFileWork(List<FileAttributes> files, boolean blockify) throws IOException {
+    return generateFileWork(files, blockify, false);
+  }
+
+  /**
+   * @param splitBlockCompressed whether block compressed (BGZF) files may be split like uncompressed files when
+   *                             {@code blockify} is set.
+   */
+  public List<CompleteFileWork> generateFileWork(List<FileAttributes> files, boolean blockify,
+                                                 boolean splitBlockCompressed) throws IOException {
 
     List<TimedRunnable<List<CompleteFileWork>>> readers = Lists.newArrayList();
     for(FileAttributes status : files){
-      readers.add(new BlockMapReader(status, blockify));
+      readers.add(new BlockMapReader(status, blockify, splitBlockCompressed));
     }
     List<List<CompleteFileWork>> work = TimedRunnable.run("Get block maps", logger, readers, 16);
     List<CompleteFileWork> singleList = Lists.newArrayList();
@@ -90,11 +99,28 @@ public class BlockMapBuilder {
     // for json, it is set as false
     // because each row in a json file cannot be determined as a record or not simply by that row alone
     private final boolean blockify;
+    private final boolean splitBlockCompressed;
 
-    private BlockMapReader(FileAttributes attributes, boolean blockify) {
+    private BlockMapReader(FileAttributes attributes, boolean blockify, boolean splitBlockCompressed) {
       super();
       this.attributes = attributes;
       this.blockify = blockify;
+      this.splitBlockCompressed = splitBlockCompressed;
+    }
+
+    /**
+     * Compressed files can only be split when each block of the file can be decompressed on its own.
+     */
+    private boolean splittable() {
+      if (!compressed(attributes)) {
+        return true;
+      }
+      try {
+        return splitBlockCompressed && BgzfSplitInputStream.isBgzf(fs, attributes.getPath());
+      } catch (IOException e) {
+        logger.warn("failure while checking the compression of {}.", attributes.getPath(), e);
+        return false;
+      }
     }
 
 
@@ -102,7 +128,8 @@ public class BlockMapBuilder {
     protected List<CompleteFileWork> runInner() throws Exception {
       final List<CompleteFileWork> work = Lists.newArrayList();
       boolean error = false;
-      if (blockify && !compressed(attributes)) {
+      final boolean splittable = blockify && splittable();
+      if (splittable) {
         try {
           ImmutableRangeMap<Long, FileBlockLocation> rangeMap = getBlockMap(attributes);
           for (Entry<Range<Long>, FileBlockLocation> l : rangeMap.asMapOfRanges().entrySet()) {
@@ -116,7 +143,7 @@ public class BlockMapBuilder {
       }
 
 
-      if (!blockify || error || compressed(attributes)) {
+      if (!splittable || error) {
         work.add(new CompleteFileWork(getEndpointByteMap(new FileAttributesWork(attributes)), 0, attributes.size(), attributes));
       }
 
@@ -24,6 +24,7 @@ import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.types.TypeProtos.MajorType;
 import com.dremio.common.types.TypeProtos.MinorType;
 import com.dremio.common.types.Types;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.base.GroupScan;
 import com.dremio.exec.physical.base.ScanStats;
 import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils;
@@ -72,7 +73,9 @@ public class EasyGroupScanUtils {
     final FileSystem dfs = plugin.createFS(userName);
     this.selection = selection;
     BlockMapBuilder b = new BlockMapBuilder(plugin.getCompressionCodecFactory(), dfs, plugin.getContext().getExecutors());
-    this.chunks = b.generateFileWork(selection.getFileAttributesList(), formatPlugin.isBlockSplittable());
+    final boolean splitBlockCompressed =
+      plugin.getContext().getOptionManager().getOption(ExecConstants.TEXT_SPLIT_BLOCK_COMPRESSED);
+    this.chunks = b.generateFileWork(selection.getFileAttributesList(), formatPlugin.isBlockSplittable(), splitBlockCompressed);
   }
 
   public FileSelection getSelection() {
@@ -31,6 +31,7 @@ import com.dremio.exec.physical.config.ExtendedFormatOptions;
 import com.dremio.exec.store.AbstractRecordReader;
 import com.dremio.exec.store.easy.json.JsonProcessor.ReadState;
 import com.dremio.exec.store.easy.json.reader.CountingJsonReader;
+import com.dremio.exec.store.easy.json.reader.StructuralJsonReader;
 import com.dremio.exec.vector.complex.fn.JsonReader;
 import com.dremio.exec.vector.complex.fn.TransformationException;
 import com.dremio.io.CompressionCodecFactory;
@@ -177,9 +178,15 @@ public class JSONRecordReader extends AbstractRecordReader {
       } else {
         final int sizeLimit = Math.toIntExact(this.context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
         final int maxLeafLimit = Math.toIntExact(this.context.getOptions().getOption(CatalogOptions.METADATA_LEAF_COLUMN_MAX));
-        this.jsonReader = new JsonReader(
+        final JsonReader reader = new JsonReader(
           context.getManagedBuffer(), ImmutableList.copyOf(getColumns()), sizeLimit, maxLeafLimit, enableAllTextMode, true, readNumbersAsDouble,
                 schemaImposedMode, extendedFormatOptions, context, output.getContainer() != null && output.getContainer().hasSchema()? output.getContainer().getSchema() : null);
+        if (useStructuralReader()) {
+          this.jsonReader = new StructuralJsonReader(context.getManagedBuffer(), reader, ImmutableList.copyOf(getColumns()),
+            sizeLimit, maxLeafLimit, readNumbersAsDouble);
+        } else {
+          this.jsonReader = reader;
+        }
       }
       setupParser();
     } catch(final Exception e) {
@@ -191,6 +198,18 @@ public class JSONRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * The structural reader only handles files read with the default type inference, other modes always go through
+   * {@link JsonReader}.
+   */
+  private boolean useStructuralReader() {
+    return fsPath != null
+      && !enableAllTextMode
+      && !schemaImposedMode
+      && extendedFormatOptions == null
+      && context.getOptions().getOption(ExecConstants.JSON_STRUCTURAL_READER);
+  }
+
   private void setupParser() throws IOException {
     if(fsPath != null){
       jsonReader.setSource(stream);
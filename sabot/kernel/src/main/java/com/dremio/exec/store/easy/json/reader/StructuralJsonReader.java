@@ -0,0 +1,932 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json.reader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.complex.writer.BaseWriter;
+import org.apache.arrow.vector.complex.writer.BaseWriter.ComplexWriter;
+import org.apache.calcite.util.Pair;
+
+import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.store.easy.json.JsonProcessor;
+import com.dremio.exec.vector.complex.fn.FieldSelection;
+import com.dremio.exec.vector.complex.fn.JsonReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * JSON reader for newline (or white space) delimited documents made of flat records, which parses the raw bytes
+ * in two stages instead of going through the Jackson token stream.
+ *
+ * The first stage reads a large chunk of the input and indexes the positions of the structural characters
+ * ({@code { } [ ] : ,} and string quotes) of all the complete records it holds, in a single tight pass over the
+ * bytes which skips the content of strings eight bytes at a time. The second stage walks the index record by
+ * record, decodes scalar values straight from the buffer and writes them to the output vectors. Field names are
+ * matched against the columns learned from the previous records without materializing them as strings.
+ *
+ * Only records whose values are all scalars are handled this way. Starting with the first record which is nested,
+ * changes the type of a learned column, or is anything else than plain JSON (comments, unquoted names, top level
+ * arrays...), the rest of the input is handed over to the regular {@link JsonReader}, which produces the same
+ * output and reports errors the usual way.
+ */
+public class StructuralJsonReader implements JsonProcessor {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StructuralJsonReader.class);
+
+  private static final int INITIAL_BUFFER_SIZE = 1024 * 1024;
+  /** Records larger than this are left to the regular reader rather than growing the buffer further. */
+  private static final int MAX_BUFFER_SIZE = 16 * 1024 * 1024;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long QUOTES = ONES * '"';
+  private static final long BACKSLASHES = ONES * '\\';
+
+  /** Types of the values of a record, matching the vectors the regular reader creates for them. */
+  private enum Kind {
+    NULL, BIT, BIGINT, FLOAT8, VARCHAR
+  }
+
+  /** A top level field seen in the input so far. */
+  private static final class Column {
+    private final String name;
+    private final byte[] nameBytes;
+    private final boolean projected;
+    private Kind kind;
+
+    private Column(String name, byte[] nameBytes, boolean projected) {
+      this.name = name;
+      this.nameBytes = nameBytes;
+      this.projected = projected;
+    }
+  }
+
+  private final JsonReader fallback;
+  private final FieldSelection selection;
+  private final int maxFieldSize;
+  private final int maxLeafLimit;
+  private final boolean readNumbersAsDouble;
+  private ArrowBuf workBuf;
+
+  private InputStream input;
+  private boolean endOfInput;
+  private boolean delegating;
+
+  // raw input, valid in [0, limit)
+  private byte[] buffer;
+  private ByteBuffer words;
+  private int limit;
+  // end of the indexed records, where the next chunk starts
+  private int indexedEnd;
+  // position at which the regular reader takes over once the indexed records are consumed, or -1
+  private int fallbackStart = -1;
+
+  // first stage output: positions of structural characters, and index ranges of the complete records
+  private int[] index;
+  private int indexCount;
+  private int[] recordFirst = new int[1024];
+  private int[] recordLast = new int[1024];
+  private int recordCount;
+  private int nextRecord;
+
+  // second stage output for the current record
+  private Column[] fieldColumns = new Column[64];
+  private Kind[] fieldKinds = new Kind[64];
+  private int[] fieldStarts = new int[64];
+  private int[] fieldEnds = new int[64];
+  private boolean[] fieldEscaped = new boolean[64];
+  private long[] fieldLongs = new long[64];
+  private double[] fieldDoubles = new double[64];
+  private int fieldCount;
+
+  private final List<Column> columns = new ArrayList<>();
+  private final Map<String, Column> columnsByName = new HashMap<>();
+  private byte[] scratch = new byte[256];
+
+  public StructuralJsonReader(ArrowBuf managedBuf, JsonReader fallback, List<SchemaPath> columns, int maxFieldSize,
+                              int maxLeafLimit, boolean readNumbersAsDouble) {
+    this(managedBuf, fallback, columns, maxFieldSize, maxLeafLimit, readNumbersAsDouble, INITIAL_BUFFER_SIZE);
+  }
+
+  /**
+   * @param bufferSize initial size of the chunks of input, small sizes let tests cover records spanning chunks
+   */
+  @VisibleForTesting
+  StructuralJsonReader(ArrowBuf managedBuf, JsonReader fallback, List<SchemaPath> columns, int maxFieldSize,
+                       int maxLeafLimit, boolean readNumbersAsDouble, int bufferSize) {
+    this.workBuf = managedBuf;
+    this.fallback = fallback;
+    this.selection = FieldSelection.getFieldSelection(columns);
+    this.maxFieldSize = maxFieldSize;
+    this.maxLeafLimit = maxLeafLimit;
+    this.readNumbersAsDouble = readNumbersAsDouble;
+    this.buffer = new byte[bufferSize];
+    this.words = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    this.index = new int[Math.max(bufferSize / 8, 16)];
+  }
+
+  @Override
+  public void setSource(InputStream is) {
+    this.input = is;
+  }
+
+  @Override
+  public void setSource(JsonNode node) {
+    delegating = true;
+    fallback.setSource(node);
+  }
+
+  /**
+   * @return whether the rest of the input is being read by the regular reader.
+   */
+  public boolean isDelegating() {
+    return delegating;
+  }
+
+  @Override
+  public ReadState write(ComplexWriter writer) throws IOException {
+    while (!delegating) {
+      if (nextRecord < recordCount) {
+        if (decodeRecord(recordFirst[nextRecord], recordLast[nextRecord])) {
+          nextRecord++;
+          writeRecord(writer.rootAsStruct());
+          return ReadState.WRITE_SUCCEED;
+        }
+        delegate(index[recordFirst[nextRecord]]);
+      } else if (fallbackStart >= 0) {
+        delegate(fallbackStart);
+      } else if (!readChunk()) {
+        return ReadState.END_OF_STREAM;
+      }
+    }
+    return fallback.write(writer);
+  }
+
+  @Override
+  public void ensureAtLeastOneField(ComplexWriter writer) {
+    fallback.ensureAtLeastOneField(writer);
+  }
+
+  @Override
+  public UserException.Builder getExceptionWithContext(UserException.Builder exceptionBuilder, String field) {
+    if (delegating) {
+      return fallback.getExceptionWithContext(exceptionBuilder, field);
+    }
+    if (field != null) {
+      exceptionBuilder.pushContext("Field ", field);
+    }
+    return exceptionBuilder;
+  }
+
+  @Override
+  public UserException.Builder getExceptionWithContext(Throwable exception, String field) {
+    return getExceptionWithContext(UserException.dataReadError(exception), field);
+  }
+
+  @Override
+  public void resetDataSizeCounter() {
+    fallback.resetDataSizeCounter();
+  }
+
+  @Override
+  public long getDataSizeCounter() {
+    return fallback.getDataSizeCounter();
+  }
+
+  @Override
+  public Pair<String, Long> getScrollAndTotalSizeThenSeekToHits() throws IOException {
+    return fallback.getScrollAndTotalSizeThenSeekToHits();
+  }
+
+  /**
+   * Hands the input over to the regular reader, starting at the given position of the buffer.
+   */
+  private void delegate(int position) throws IOException {
+    logger.debug("Switching to the regular JSON reader after {} records of the current chunk.", nextRecord);
+    delegating = true;
+    final InputStream remaining = new ByteArrayInputStream(buffer, position, limit - position);
+    fallback.setSource(endOfInput ? remaining : new SequenceInputStream(remaining, input));
+    buffer = null;
+    words = null;
+    index = null;
+  }
+
+  /**
+   * Reads the next chunk of input and indexes the complete records it contains.
+   *
+   * @return false if the end of the input has been reached and there is nothing left to read.
+   */
+  private boolean readChunk() throws IOException {
+    // keep the incomplete record at the end of the previous chunk
+    final int remaining = limit - indexedEnd;
+    if (indexedEnd == 0 && limit == buffer.length) {
+      if (buffer.length >= MAX_BUFFER_SIZE) {
+        fallbackStart = 0;
+        return true;
+      }
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      words = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    } else {
+      System.arraycopy(buffer, indexedEnd, buffer, 0, remaining);
+    }
+    limit = remaining;
+    indexedEnd = 0;
+
+    while (!endOfInput && limit < buffer.length) {
+      final int read = input.read(buffer, limit, buffer.length - limit);
+      if (read < 0) {
+        endOfInput = true;
+      } else {
+        limit += read;
+      }
+    }
+
+    indexRecords();
+    if (recordCount > 0 || fallbackStart >= 0) {
+      return true;
+    }
+    if (!endOfInput) {
+      // a single record spans the whole buffer
+      return true;
+    }
+    for (int i = indexedEnd; i < limit; i++) {
+      if (!isWhitespace(buffer[i])) {
+        // truncated record, let the regular reader report it
+        fallbackStart = indexedEnd;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * First stage: indexes the structural characters of the complete flat records in the buffer.
+   */
+  private void indexRecords() {
+    final byte[] buf = buffer;
+    indexCount = 0;
+    recordCount = 0;
+    nextRecord = 0;
+
+    int depth = 0;
+    int recordStart = 0;
+    int recordIndexStart = 0;
+    int pos = 0;
+    scan:
+    while (pos < limit) {
+      final byte b = buf[pos];
+      switch (b) {
+        case '"': {
+          final int end = findStringEnd(pos + 1);
+          if (end < 0) {
+            break scan;
+          }
+          if (depth == 0) {
+            fallbackStart = pos;
+            break scan;
+          }
+          addIndex(pos);
+          addIndex(end);
+          pos = end + 1;
+          continue;
+        }
+        case '{':
+          if (depth > 0) {
+            // nested record
+            fallbackStart = recordStart;
+            break scan;
+          }
+          depth = 1;
+          recordStart = pos;
+          recordIndexStart = indexCount;
+          addIndex(pos);
+          break;
+        case '}':
+          if (depth == 0) {
+            fallbackStart = pos;
+            break scan;
+          }
+          depth = 0;
+          addIndex(pos);
+          addRecord(recordIndexStart);
+          indexedEnd = pos + 1;
+          break;
+        case ':':
+        case ',':
+          if (depth == 0) {
+            fallbackStart = pos;
+            break scan;
+          }
+          addIndex(pos);
+          break;
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          break;
+        default:
+          // arrays and comments are left to the regular reader, as is anything at the top level but records
+          if (depth == 0 || b == '[' || b == ']' || b == '/') {
+            fallbackStart = depth == 0 ? pos : recordStart;
+            break scan;
+          }
+          break;
+      }
+      pos++;
+    }
+
+    if (fallbackStart < 0 && depth == 0 && pos == limit) {
+      // only white space after the last record
+      indexedEnd = limit;
+    }
+  }
+
+  /**
+   * Finds the closing quote of the string starting at {@code pos}, or -1 if it is not in the buffer. Words without
+   * any quote or backslash are skipped eight bytes at a time.
+   */
+  private int findStringEnd(int pos) {
+    final byte[] buf = buffer;
+    while (true) {
+      while (pos + 8 <= limit) {
+        final long word = words.getLong(pos);
+        if (hasZeroByte(word ^ QUOTES) || hasZeroByte(word ^ BACKSLASHES)) {
+          break;
+        }
+        pos += 8;
+      }
+      if (pos >= limit) {
+        return -1;
+      }
+      final byte b = buf[pos];
+      if (b == '"') {
+        return pos;
+      }
+      pos += b == '\\' ? 2 : 1;
+    }
+  }
+
+  private static boolean hasZeroByte(long word) {
+    return ((word - ONES) & ~word & HIGH_BITS) != 0;
+  }
+
+  private void addIndex(int position) {
+    if (indexCount == index.length) {
+      index = Arrays.copyOf(index, index.length * 2);
+    }
+    index[indexCount++] = position;
+  }
+
+  private void addRecord(int first) {
+    if (recordCount == recordFirst.length) {
+      recordFirst = Arrays.copyOf(recordFirst, recordCount * 2);
+      recordLast = Arrays.copyOf(recordLast, recordCount * 2);
+    }
+    recordFirst[recordCount] = first;
+    recordLast[recordCount] = indexCount - 1;
+    recordCount++;
+  }
+
+  /**
+   * Second stage: validates the record between the given index entries and decodes its values.
+   *
+   * @return false if the record cannot be written by this reader.
+   */
+  private boolean decodeRecord(int first, int last) {
+    final byte[] buf = buffer;
+    fieldCount = 0;
+    int ordinal = 0;
+    int leafCount = 0;
+    int i = first + 1;
+    int previousEnd = index[first] + 1;
+
+    if (i == last) {
+      return isBlank(previousEnd, index[last]);
+    }
+
+    while (true) {
+      // field name
+      int pos = index[i];
+      if (i + 2 > last || buf[pos] != '"' || !isBlank(previousEnd, pos)) {
+        return false;
+      }
+      final int nameStart = pos + 1;
+      final int nameEnd = index[i + 1];
+      i += 2;
+
+      pos = index[i];
+      if (i >= last || buf[pos] != ':' || !isBlank(nameEnd + 1, pos)) {
+        return false;
+      }
+      final int colon = pos;
+      i++;
+
+      final Column column = findColumn(nameStart, nameEnd, ordinal++);
+      if (column == null) {
+        return false;
+      }
+
+      // value
+      pos = index[i];
+      final Kind kind;
+      final int valueStart;
+      final int valueEnd;
+      final int afterValue;
+      if (buf[pos] == '"') {
+        if (i + 2 > last || !isBlank(colon + 1, pos)) {
+          return false;
+        }
+        kind = Kind.VARCHAR;
+        valueStart = pos + 1;
+        valueEnd = index[i + 1];
+        afterValue = valueEnd + 1;
+        i += 2;
+      } else {
+        int start = colon + 1;
+        int end = pos;
+        while (start < end && isWhitespace(buf[start])) {
+          start++;
+        }
+        while (end > start && isWhitespace(buf[end - 1])) {
+          end--;
+        }
+        valueStart = start;
+        valueEnd = end;
+        afterValue = pos;
+        kind = decodeScalar(start, end, fieldCount);
+        if (kind == null) {
+          return false;
+        }
+      }
+
+      if (column.projected && kind != Kind.NULL) {
+        if (column.kind != null && column.kind != kind) {
+          // schema change
+          return false;
+        }
+        if (++leafCount > maxLeafLimit) {
+          return false;
+        }
+        if (kind == Kind.VARCHAR) {
+          final int flags = checkString(valueStart, valueEnd);
+          if (flags < 0) {
+            return false;
+          }
+          fieldEscaped[fieldCount] = flags > 0;
+        }
+        addField(column, kind, valueStart, valueEnd);
+      }
+
+      pos = index[i];
+      if (!isBlank(afterValue, pos)) {
+        return false;
+      }
+      if (buf[pos] == '}') {
+        return i == last;
+      }
+      if (buf[pos] != ',' || i >= last) {
+        return false;
+      }
+      previousEnd = pos + 1;
+      i++;
+    }
+  }
+
+  /**
+   * Parses a literal or number, storing numbers in the slot of the given field.
+   *
+   * @return the kind of the value, or null if it is not valid JSON.
+   */
+  private Kind decodeScalar(int start, int end, int field) {
+    final byte[] buf = buffer;
+    final int length = end - start;
+    if (length == 0) {
+      return null;
+    }
+    switch (buf[start]) {
+      case 'n':
+        return matches(start, end, "null") ? Kind.NULL : null;
+      case 't':
+        return matches(start, end, "true") ? Kind.BIT : null;
+      case 'f':
+        return matches(start, end, "false") ? Kind.BIT : null;
+      default:
+        break;
+    }
+
+    ensureFieldCapacity(field);
+    int pos = start;
+    final boolean negative = buf[pos] == '-';
+    if (negative) {
+      pos++;
+    }
+    final int intStart = pos;
+    long value = 0;
+    while (pos < end && isDigit(buf[pos])) {
+      value = value * 10 + (buf[pos] - '0');
+      pos++;
+    }
+    final int intDigits = pos - intStart;
+    if (intDigits == 0 || (intDigits > 1 && buf[intStart] == '0')) {
+      return null;
+    }
+    boolean floating = false;
+    if (pos < end && buf[pos] == '.') {
+      floating = true;
+      final int fractionStart = ++pos;
+      while (pos < end && isDigit(buf[pos])) {
+        pos++;
+      }
+      if (pos == fractionStart) {
+        return null;
+      }
+    }
+    if (pos < end && (buf[pos] == 'e' || buf[pos] == 'E')) {
+      floating = true;
+      pos++;
+      if (pos < end && (buf[pos] == '+' || buf[pos] == '-')) {
+        pos++;
+      }
+      final int exponentStart = pos;
+      while (pos < end && isDigit(buf[pos])) {
+        pos++;
+      }
+      if (pos == exponentStart) {
+        return null;
+      }
+    }
+    if (pos != end) {
+      return null;
+    }
+
+    if (floating) {
+      fieldDoubles[field] = Double.parseDouble(new String(buf, start, length, UTF_8));
+      return Kind.FLOAT8;
+    }
+    if (intDigits > 18) {
+      // may not fit in a long, let the regular reader decide
+      return null;
+    }
+    value = negative ? -value : value;
+    if (readNumbersAsDouble) {
+      fieldDoubles[field] = value;
+      return Kind.FLOAT8;
+    }
+    fieldLongs[field] = value;
+    return Kind.BIGINT;
+  }
+
+  /**
+   * Checks the content of a string: no control characters, valid escapes and valid UTF-8.
+   *
+   * @return -1 if the string is invalid, 1 if it contains escapes, 0 otherwise.
+   */
+  private int checkString(int start, int end) {
+    final byte[] buf = buffer;
+    int flags = 0;
+    int pos = start;
+    while (pos < end) {
+      final int b = buf[pos] & 0xFF;
+      if (b == '\\') {
+        final int length = escapeLength(pos, end);
+        if (length < 0) {
+          return -1;
+        }
+        flags = 1;
+        pos += length;
+      } else if (b < 0x20) {
+        return -1;
+      } else if (b < 0x80) {
+        pos++;
+      } else {
+        final int length = utf8Length(pos, end);
+        if (length < 0) {
+          return -1;
+        }
+        pos += length;
+      }
+    }
+    return flags;
+  }
+
+  /**
+   * @return the length of the valid escape sequence starting at {@code pos}, or -1.
+   */
+  private int escapeLength(int pos, int end) {
+    switch (buffer[pos + 1]) {
+      case '"':
+      case '\\':
+      case '/':
+      case 'b':
+      case 'f':
+      case 'n':
+      case 'r':
+      case 't':
+        return 2;
+      case 'u': {
+        final int value = pos + 6 <= end ? parseHex(pos + 2) : -1;
+        if (value < 0 || Character.isLowSurrogate((char) value)) {
+          return -1;
+        }
+        if (!Character.isHighSurrogate((char) value)) {
+          return 6;
+        }
+        // surrogate pairs must be complete
+        if (pos + 12 > end || buffer[pos + 6] != '\\' || buffer[pos + 7] != 'u') {
+          return -1;
+        }
+        final int low = parseHex(pos + 8);
+        return low >= 0 && Character.isLowSurrogate((char) low) ? 12 : -1;
+      }
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * @return the length of the valid UTF-8 sequence starting at {@code pos}, or -1.
+   */
+  private int utf8Length(int pos, int end) {
+    final byte[] buf = buffer;
+    final int b = buf[pos] & 0xFF;
+    final int length;
+    int min = 0x80;
+    int max = 0xBF;
+    if (b >= 0xC2 && b <= 0xDF) {
+      length = 2;
+    } else if (b >= 0xE0 && b <= 0xEF) {
+      length = 3;
+      if (b == 0xE0) {
+        min = 0xA0;
+      } else if (b == 0xED) {
+        max = 0x9F;
+      }
+    } else if (b >= 0xF0 && b <= 0xF4) {
+      length = 4;
+      if (b == 0xF0) {
+        min = 0x90;
+      } else if (b == 0xF4) {
+        max = 0x8F;
+      }
+    } else {
+      return -1;
+    }
+    if (pos + length > end) {
+      return -1;
+    }
+    final int second = buf[pos + 1] & 0xFF;
+    if (second < min || second > max) {
+      return -1;
+    }
+    for (int i = 2; i < length; i++) {
+      if ((buf[pos + i] & 0xC0) != 0x80) {
+        return -1;
+      }
+    }
+    return length;
+  }
+
+  private void writeRecord(BaseWriter.StructWriter map) {
+    map.start();
+    try {
+      for (int i = 0; i < fieldCount; i++) {
+        final Column column = fieldColumns[i];
+        final String name = column.name;
+        column.kind = fieldKinds[i];
+        switch (fieldKinds[i]) {
+          case BIT:
+            map.bit(name).writeBit(buffer[fieldStarts[i]] == 't' ? 1 : 0);
+            break;
+          case BIGINT:
+            map.bigInt(name).writeBigInt(fieldLongs[i]);
+            break;
+          case FLOAT8:
+            map.float8(name).writeFloat8(fieldDoubles[i]);
+            break;
+          case VARCHAR: {
+            final int size = fieldEscaped[i]
+              ? prepareEscaped(fieldStarts[i], fieldEnds[i])
+              : prepare(buffer, fieldStarts[i], fieldEnds[i] - fieldStarts[i]);
+            FieldSizeLimitExceptionHelper.checkSizeLimit(size, maxFieldSize, name, logger);
+            map.varChar(name).writeVarChar(0, size, workBuf);
+            break;
+          }
+          default:
+            throw new IllegalStateException("Unexpected value kind " + fieldKinds[i]);
+        }
+      }
+    } finally {
+      map.end();
+    }
+  }
+
+  private int prepare(byte[] bytes, int start, int length) {
+    workBuf = workBuf.reallocIfNeeded(length);
+    workBuf.setBytes(0, bytes, start, length);
+    return length;
+  }
+
+  /**
+   * Decodes the escape sequences of a string, which has been validated by {@link #checkString(int, int)}.
+   */
+  private int prepareEscaped(int start, int end) {
+    final byte[] buf = buffer;
+    if (scratch.length < end - start) {
+      scratch = new byte[end - start];
+    }
+    int length = 0;
+    int pos = start;
+    while (pos < end) {
+      final byte b = buf[pos];
+      if (b != '\\') {
+        scratch[length++] = b;
+        pos++;
+        continue;
+      }
+      final byte escaped = buf[pos + 1];
+      pos += 2;
+      switch (escaped) {
+        case 'b':
+          scratch[length++] = '\b';
+          break;
+        case 'f':
+          scratch[length++] = '\f';
+          break;
+        case 'n':
+          scratch[length++] = '\n';
+          break;
+        case 'r':
+          scratch[length++] = '\r';
+          break;
+        case 't':
+          scratch[length++] = '\t';
+          break;
+        case 'u': {
+          int codePoint = parseHex(pos);
+          pos += 4;
+          if (Character.isHighSurrogate((char) codePoint)) {
+            codePoint = Character.toCodePoint((char) codePoint, (char) parseHex(pos + 2));
+            pos += 6;
+          }
+          length = appendUtf8(codePoint, length);
+          break;
+        }
+        default:
+          // quote, backslash and slash
+          scratch[length++] = escaped;
+          break;
+      }
+    }
+    return prepare(scratch, 0, length);
+  }
+
+  private int appendUtf8(int codePoint, int length) {
+    if (codePoint < 0x80) {
+      scratch[length++] = (byte) codePoint;
+    } else if (codePoint < 0x800) {
+      scratch[length++] = (byte) (0xC0 | codePoint >> 6);
+      scratch[length++] = (byte) (0x80 | codePoint & 0x3F);
+    } else if (codePoint < 0x10000) {
+      scratch[length++] = (byte) (0xE0 | codePoint >> 12);
+      scratch[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+      scratch[length++] = (byte) (0x80 | codePoint & 0x3F);
+    } else {
+      scratch[length++] = (byte) (0xF0 | codePoint >> 18);
+      scratch[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+      scratch[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+      scratch[length++] = (byte) (0x80 | codePoint & 0x3F);
+    }
+    return length;
+  }
+
+  /**
+   * @return the value of the four hexadecimal digits at {@code pos}, or -1 if they are not all hexadecimal.
+   */
+  private int parseHex(int pos) {
+    int value = 0;
+    for (int i = pos; i < pos + 4; i++) {
+      final int digit = Character.digit(buffer[i], 16);
+      if (digit < 0) {
+        return -1;
+      }
+      value = value << 4 | digit;
+    }
+    return value;
+  }
+
+  /**
+   * Looks up the column of a field name, trying first the column at the same position in the previous record since
+   * records usually list their fields in the same order.
+   *
+   * @return the column, or null if the name contains escapes.
+   */
+  private Column findColumn(int start, int end, int ordinal) {
+    final int length = end - start;
+    if (ordinal < columns.size()) {
+      final Column candidate = columns.get(ordinal);
+      if (candidate.nameBytes.length == length && regionEquals(candidate.nameBytes, start)) {
+        return candidate;
+      }
+    }
+    if (checkString(start, end) != 0) {
+      return null;
+    }
+    final String name = new String(buffer, start, length, UTF_8);
+    Column column = columnsByName.get(name);
+    if (column == null) {
+      column = new Column(name, Arrays.copyOfRange(buffer, start, end), !selection.getChild(name).isNeverValid());
+      columnsByName.put(name, column);
+      columns.add(column);
+    }
+    return column;
+  }
+
+  private boolean regionEquals(byte[] bytes, int start) {
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer[start + i] != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addField(Column column, Kind kind, int start, int end) {
+    ensureFieldCapacity(fieldCount);
+    fieldColumns[fieldCount] = column;
+    fieldKinds[fieldCount] = kind;
+    fieldStarts[fieldCount] = start;
+    fieldEnds[fieldCount] = end;
+    fieldCount++;
+  }
+
+  private void ensureFieldCapacity(int field) {
+    if (field < fieldColumns.length) {
+      return;
+    }
+    final int capacity = fieldColumns.length * 2;
+    fieldColumns = Arrays.copyOf(fieldColumns, capacity);
+    fieldKinds = Arrays.copyOf(fieldKinds, capacity);
+    fieldStarts = Arrays.copyOf(fieldStarts, capacity);
+    fieldEnds = Arrays.copyOf(fieldEnds, capacity);
+    fieldEscaped = Arrays.copyOf(fieldEscaped, capacity);
+    fieldLongs = Arrays.copyOf(fieldLongs, capacity);
+    fieldDoubles = Arrays.copyOf(fieldDoubles, capacity);
+  }
+
+  private boolean matches(int start, int end, String literal) {
+    if (end - start != literal.length()) {
+      return false;
+    }
+    for (int i = 0; i < literal.length(); i++) {
+      if (buffer[start + i] != literal.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isBlank(int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (!isWhitespace(buffer[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+}
@@ -41,6 +41,7 @@ import com.dremio.exec.store.dfs.easy.EasyWriter;
 import com.dremio.exec.store.dfs.easy.ExtendedEasyReaderProperties;
 import com.dremio.exec.store.easy.text.compliant.CompliantTextRecordReader;
 import com.dremio.exec.store.easy.text.compliant.TextParsingSettings;
+import com.dremio.exec.store.easy.text.compliant.TextParsingSettings.CompressedSplitStrategy;
 import com.dremio.exec.store.text.TextRecordWriter;
 import com.dremio.io.file.FileSystem;
 import com.dremio.sabot.exec.context.OperatorContext;
@@ -72,6 +73,7 @@ public class TextFormatPlugin extends EasyFormatPlugin<TextFormatPlugin.TextForm
     FileSplit split = new FileSplit(path, splitAttributes.getStart(), splitAttributes.getLength(), new String[]{""});
     TextParsingSettings settings = new TextParsingSettings();
     settings.set((TextFormatConfig)formatConfig);
+    settings.setCompressedSplitStrategy(getCompressedSplitStrategy(context));
     return new CompliantTextRecordReader(split, getFsPlugin().getCompressionCodecFactory(), dfs, context, settings, columns);
   }
 
@@ -81,6 +83,7 @@ public class TextFormatPlugin extends EasyFormatPlugin<TextFormatPlugin.TextForm
     FileSplit split = new FileSplit(path, splitAttributes.getStart(), splitAttributes.getLength(), new String[]{""});
     TextParsingSettings settings = new TextParsingSettings();
     settings.set((TextFormatConfig) formatConfig);
+    settings.setCompressedSplitStrategy(getCompressedSplitStrategy(context));
     if (properties.getExtendedFormatOptions() != null && properties.getExtendedFormatOptions().getTrimSpace() != null) {
       settings.setIgnoreTrailingWhitespaces(properties.getExtendedFormatOptions().getTrimSpace());
       settings.setIgnoreLeadingWhitespaces(properties.getExtendedFormatOptions().getTrimSpace());
@@ -88,6 +91,11 @@ public class TextFormatPlugin extends EasyFormatPlugin<TextFormatPlugin.TextForm
     return new CompliantTextRecordReader(split, getFsPlugin().getCompressionCodecFactory(), dfs, context, settings, columns, properties.isSchemaImposed(), properties.getExtendedFormatOptions());
   }
 
+  private static CompressedSplitStrategy getCompressedSplitStrategy(OperatorContext context) {
+    return context.getOptions().getOption(ExecConstants.TEXT_SPLIT_BLOCK_COMPRESSED)
+      ? CompressedSplitStrategy.BLOCKS : CompressedSplitStrategy.WHOLE_FILE;
+  }
+
   @Override
   protected ScanStats getScanStats(final EasyGroupScanUtils scan) {
     long data = 0;
@@ -38,6 +38,7 @@ import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.physical.config.ExtendedFormatOptions;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.AbstractRecordReader;
+import com.dremio.exec.store.dfs.BgzfSplitInputStream;
 import com.dremio.io.CompressionCodecFactory;
 import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileSystem;
@@ -89,6 +90,19 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
     this.extendedFormatOptions = extendedFormatOptions;
   }
 
+  /**
+   * Opens the stream over the data of the split. Splits of block compressed (BGZF) files are decoded starting from
+   * the first compressed block of the split, other compressed files are always read from their beginning.
+   */
+  private FSInputStream openSplitStream() throws IOException {
+    final Path path = Path.of(split.getPath().toUri());
+    if (settings.getCompressedSplitStrategy() == TextParsingSettings.CompressedSplitStrategy.BLOCKS
+        && codecFactory.getCodec(path) != null && BgzfSplitInputStream.isBgzf(dfs, path)) {
+      return BgzfSplitInputStream.open(dfs.open(path), split.getStart(), split.getStart() + split.getLength());
+    }
+    return FileSystemUtils.openPossiblyCompressedStream(codecFactory, dfs, path);
+  }
+
   // checks to see if we are querying all columns(star) or individual columns
   @Override
   public boolean isStarQuery() {
@@ -143,7 +157,7 @@ public class CompliantTextRecordReader extends AbstractRecordReader {
       whitespaceBuffer = this.context.getAllocator().buffer(WHITE_SPACE_BUFFER);
 
       // setup Input using InputStream
-      FSInputStream stream = FileSystemUtils.openPossiblyCompressedStream(codecFactory, dfs, Path.of(split.getPath().toUri()));
+      FSInputStream stream = openSplitStream();
       TextInput input = new TextInput(settings, stream, readBuffer, split.getStart(), split.getStart() + split.getLength());
 
       // setup Reader using Input and Output
@@ -41,6 +41,7 @@ import org.apache.arrow.memory.util.LargeMemoryUtil;
 import org.apache.commons.io.ByteOrderMark;
 
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.store.dfs.BgzfSplitInputStream;
 import com.dremio.io.CompressedFSInputStream;
 import com.dremio.io.FSInputStream;
 import com.google.common.base.Preconditions;
@@ -66,7 +67,13 @@ final class TextInput {
    * The starting position in the file.
    */
   private final long startPos;
-  private final long endPos;
+  private long endPos;
+
+  /**
+   * Whether the input is a split of a block compressed file, in which case the end of the split in the
+   * decompressed data is only known once the stream reaches it.
+   */
+  private final BgzfSplitInputStream blockCompressedInput;
 
   private long streamPos;
 
@@ -105,13 +112,18 @@ final class TextInput {
   public TextInput(TextParsingSettings settings, FSInputStream input, ArrowBuf readBuffer, long startPos, long endPos) {
     this.lineSeparator = settings.getNewLineDelimiter();
     byte normalizedLineSeparator = settings.getNormalizedNewLine();
-    boolean isCompressed = input instanceof CompressedFSInputStream ;
+    this.blockCompressedInput = input instanceof BgzfSplitInputStream ? (BgzfSplitInputStream) input : null;
+    boolean isCompressed = blockCompressedInput == null && input instanceof CompressedFSInputStream;
     Preconditions.checkArgument(!isCompressed || startPos == 0, "Cannot use split on compressed stream.");
 
     // splits aren't allowed with compressed data.  The split length will be the compressed size which means we'll normally end prematurely.
     if(isCompressed && endPos > 0){
       endPos = Long.MAX_VALUE;
     }
+    // block compressed splits are bounded by the stream, which reports the end once it gets there.
+    if (blockCompressedInput != null) {
+      endPos = blockCompressedInput.getSplitEndPosition();
+    }
 
     this.input = input;
     this.settings = settings;
@@ -134,7 +146,8 @@ final class TextInput {
    */
   final void start() throws IOException {
     lineCount = 0;
-    if(startPos > 0) {
+    // block compressed streams are already positioned at the first block of the split.
+    if(startPos > 0 && blockCompressedInput == null) {
       input.setPosition(startPos);
     }
 
@@ -201,6 +214,10 @@ final class TextInput {
 
     read();
 
+    if (blockCompressedInput != null) {
+      endPos = blockCompressedInput.getSplitEndPosition();
+    }
+
     // check our data read allowance.
     if(streamPos + length >= this.endPos){
       updateLengthBasedOnConstraint();
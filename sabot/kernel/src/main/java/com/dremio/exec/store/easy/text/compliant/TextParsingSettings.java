@@ -25,6 +25,16 @@ public class TextParsingSettings {
 
   public static final TextParsingSettings DEFAULT = new TextParsingSettings();
 
+  /**
+   * How splits of compressed files are read.
+   */
+  public enum CompressedSplitStrategy {
+    /** Compressed files are not split, and always read from their beginning. */
+    WHOLE_FILE,
+    /** Block compressed (BGZF) files are split on compressed block boundaries; other compressed files are not split. */
+    BLOCKS
+  }
+
   private String emptyValue = null;
   private boolean parseUnescapedQuotes = true;
   private byte quote = b('"');
@@ -45,6 +55,7 @@ public class TextParsingSettings {
   private boolean headerExtractionEnabled = false;
   private boolean useRepeatedVarChar = true;
   private int numberOfRecordsToRead = -1;
+  private CompressedSplitStrategy compressedSplitStrategy = CompressedSplitStrategy.BLOCKS;
 
   public void set(TextFormatConfig config){
     this.quote = bSafe(config.getQuote(), "quote");
@@ -87,6 +98,14 @@ public class TextParsingSettings {
     this.useRepeatedVarChar = useRepeatedVarChar;
   }
 
+  public CompressedSplitStrategy getCompressedSplitStrategy() {
+    return compressedSplitStrategy;
+  }
+
+  public void setCompressedSplitStrategy(CompressedSplitStrategy compressedSplitStrategy) {
+    this.compressedSplitStrategy = compressedSplitStrategy;
+  }
+
 
   private static byte bSafe(char c, String name){
     if(c > Byte.MAX_VALUE) {
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg;
+
+import java.util.Map;
+
+import org.apache.iceberg.DataOperations;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.SnapshotSummary;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableMetadataParser;
+
+import com.dremio.exec.catalog.MutablePlugin;
+
+/**
+ * Summary of the changes made to an Iceberg table between two of its snapshots, computed from the operation and
+ * summary of the snapshots committed in between without reading any manifest.
+ */
+public final class IcebergSnapshotDiff {
+
+  /**
+   * Kinds of changes, from the least to the most disruptive.
+   */
+  public enum ChangeType {
+    /** Both snapshots are the same. */
+    NONE,
+    /** Only new data files have been added. */
+    APPEND,
+    /** Data files have been rewritten without changing the rows of the table, for instance by a compaction. */
+    REWRITE,
+    /** Rows have been deleted or overwritten. */
+    DELETE,
+    /** The changes cannot be determined, as the older snapshot is not an ancestor of the newer one or has expired. */
+    UNKNOWN
+  }
+
+  private final ChangeType changeType;
+  private final int snapshotCount;
+  private final long addedDataFiles;
+  private final long deletedDataFiles;
+  private final long addedDeleteFiles;
+
+  private IcebergSnapshotDiff(ChangeType changeType, int snapshotCount, long addedDataFiles, long deletedDataFiles,
+                              long addedDeleteFiles) {
+    this.changeType = changeType;
+    this.snapshotCount = snapshotCount;
+    this.addedDataFiles = addedDataFiles;
+    this.deletedDataFiles = deletedDataFiles;
+    this.addedDeleteFiles = addedDeleteFiles;
+  }
+
+  /**
+   * Computes the changes between two snapshots of a table.
+   *
+   * @param metadata the metadata of the table, holding both snapshots
+   * @param fromSnapshotId the older snapshot
+   * @param toSnapshotId the newer snapshot
+   */
+  public static IcebergSnapshotDiff between(TableMetadata metadata, long fromSnapshotId, long toSnapshotId) {
+    if (fromSnapshotId == toSnapshotId) {
+      return new IcebergSnapshotDiff(ChangeType.NONE, 0, 0, 0, 0);
+    }
+
+    ChangeType changeType = ChangeType.NONE;
+    int snapshotCount = 0;
+    long addedDataFiles = 0;
+    long deletedDataFiles = 0;
+    long addedDeleteFiles = 0;
+    Snapshot snapshot = metadata.snapshot(toSnapshotId);
+    while (snapshot != null && snapshot.snapshotId() != fromSnapshotId) {
+      final Map<String, String> summary = snapshot.summary();
+      final long added = getCount(summary, SnapshotSummary.ADDED_FILES_PROP);
+      final long deleted = getCount(summary, SnapshotSummary.DELETED_FILES_PROP);
+      final long deletes = getCount(summary, SnapshotSummary.ADDED_DELETE_FILES_PROP);
+      final ChangeType snapshotChange = getChangeType(snapshot.operation(), deleted, deletes);
+      if (snapshotChange.compareTo(changeType) > 0) {
+        changeType = snapshotChange;
+      }
+      snapshotCount++;
+      addedDataFiles += Math.max(added, 0);
+      deletedDataFiles += Math.max(deleted, 0);
+      addedDeleteFiles += Math.max(deletes, 0);
+      snapshot = snapshot.parentId() != null ? metadata.snapshot(snapshot.parentId()) : null;
+    }
+    if (snapshot == null) {
+      changeType = ChangeType.UNKNOWN;
+    }
+    return new IcebergSnapshotDiff(changeType, snapshotCount, addedDataFiles, deletedDataFiles, addedDeleteFiles);
+  }
+
+  /**
+   * Reads the metadata of a table through its plugin and computes the changes between two of its snapshots.
+   *
+   * @param plugin the plugin storing the table metadata
+   * @param metadataLocation the location of the current metadata file of the table
+   */
+  public static IcebergSnapshotDiff load(SupportsIcebergRootPointer plugin, String metadataLocation,
+                                         long fromSnapshotId, long toSnapshotId) {
+    final DremioFileIO io = new DremioFileIO(plugin.getFsConfCopy(), (MutablePlugin) plugin);
+    return between(TableMetadataParser.read(io, metadataLocation), fromSnapshotId, toSnapshotId);
+  }
+
+  private static ChangeType getChangeType(String operation, long deletedDataFiles, long addedDeleteFiles) {
+    if (operation == null) {
+      return ChangeType.UNKNOWN;
+    }
+    switch (operation) {
+      case DataOperations.APPEND:
+        return ChangeType.APPEND;
+      case DataOperations.REPLACE:
+        return ChangeType.REWRITE;
+      case DataOperations.OVERWRITE:
+        // row level operations which ended up only inserting rows commit as overwrites too
+        return deletedDataFiles == 0 && addedDeleteFiles == 0 ? ChangeType.APPEND : ChangeType.DELETE;
+      case DataOperations.DELETE:
+        return ChangeType.DELETE;
+      default:
+        return ChangeType.UNKNOWN;
+    }
+  }
+
+  /**
+   * @return the count stored in the summary, or -1 if it is missing.
+   */
+  private static long getCount(Map<String, String> summary, String property) {
+    final String value = summary != null ? summary.get(property) : null;
+    if (value == null) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  public ChangeType getChangeType() {
+    return changeType;
+  }
+
+  /**
+   * @return the number of snapshots committed after the older snapshot, up to and including the newer one.
+   */
+  public int getSnapshotCount() {
+    return snapshotCount;
+  }
+
+  public long getAddedDataFiles() {
+    return addedDataFiles;
+  }
+
+  public long getDeletedDataFiles() {
+    return deletedDataFiles;
+  }
+
+  public long getAddedDeleteFiles() {
+    return addedDeleteFiles;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s over %d snapshots (%d data files added, %d data files deleted, %d delete files added)",
+      changeType, snapshotCount, addedDataFiles, deletedDataFiles, addedDeleteFiles);
+  }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.vector.ValueVector;
+import org.apache.parquet.VersionParser;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.ColumnChunkIncReadStore;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.store.parquet2.ParquetRowiseReader;
+import com.dremio.exec.util.ColumnUtils;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Reads a row group by decoding the pages of each projected field straight into its vector with a {@link
+ * ParquetColumnDecoder}. Fields the decoders don't support are read by an inner {@link ParquetRowiseReader}, which
+ * returns the same number of rows per batch.
+ *
+ * The reader does not filter rows, {@link UnifiedParquetReader} applies the pushdown filters on top of it. When all the
+ * columns of the exact pushdown filters are decoded, the reader decodes them first and evaluates the filters on them,
+ * then decodes the other columns only for the rows that pass. The rows that don't are left null in those columns and
+ * dropped by the filter applied on top, which sees the same values of the filter columns.
+ */
+public class ColumnarParquetReader extends AbstractParquetReader {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ColumnarParquetReader.class);
+
+  private final ParquetScanProjectedColumns projectedColumns;
+  private final String path;
+  private final CompressionCodecFactory codec;
+  private final MutableParquetMetadata footer;
+  private final int rowGroupIndex;
+  private final SchemaDerivationHelper schemaHelper;
+  private final InputStreamProvider inputStreamProvider;
+  private final BigIntAutoIncrementer rowIndexGenerator;
+  private final List<ParquetFilterCondition> filterConditions;
+  private final List<ParquetColumnDecoder> decoders = new ArrayList<>();
+  private final List<ParquetColumnDecoder> filterDecoders = new ArrayList<>();
+  private final ParquetReaderStats stats = new ParquetReaderStats();
+
+  private ColumnChunkIncReadStore pageReadStore;
+  private OffsetIndexProvider offsetIndexProvider;
+  private ParquetRowiseReader rowwiseReader;
+  private Filterer filter;
+  private SelectionVector2 selection;
+  private int[] positions;
+  private long recordCount;
+  private long totalRead;
+
+  /**
+   * @param filterConditions the exact pushdown filters applied on top of the reader, evaluated early to skip the
+   *                         other columns of the rows they rule out
+   */
+  public ColumnarParquetReader(OperatorContext context, ParquetScanProjectedColumns projectedColumns, String path,
+                               CompressionCodecFactory codec, MutableParquetMetadata footer, int rowGroupIndex,
+                               SchemaDerivationHelper schemaHelper, InputStreamProvider inputStreamProvider,
+                               BatchSchema tableSchema, List<ParquetFilterCondition> filterConditions) {
+    super(context, projectedColumns.getBatchSchemaProjectedColumns(), null);
+    this.projectedColumns = projectedColumns;
+    this.path = path;
+    this.codec = codec;
+    this.footer = footer;
+    this.rowGroupIndex = rowGroupIndex;
+    this.schemaHelper = schemaHelper;
+    this.inputStreamProvider = inputStreamProvider;
+    this.filterConditions = filterConditions;
+    this.rowIndexGenerator = tableSchema != null && tableSchema.findFieldIgnoreCase(ColumnUtils.ROW_INDEX_COLUMN_NAME).isPresent()
+      ? new BigIntAutoIncrementer(ColumnUtils.ROW_INDEX_COLUMN_NAME, context.getTargetBatchSize(), null)
+      : null;
+  }
+
+  @Override
+  public void setup(OutputMutator output) throws ExecutionSetupException {
+    final MessageType schema = footer.getFileMetaData().getSchema();
+    final ParquetColumnResolver columnResolver = projectedColumns.getColumnResolver(schema);
+    final BlockMetaData block = footer.getBlocks().get(rowGroupIndex);
+    Preconditions.checkArgument(block != null, "Parquet footer does not contain information about row group");
+    recordCount = block.getRowCount();
+
+    final Set<String> filterColumns = filterConditions.stream()
+      .map(c -> c.getPath().getRootSegment().getPath().toLowerCase())
+      .collect(Collectors.toSet());
+    final List<SchemaPath> rowwiseColumns = new ArrayList<>();
+    try {
+      pageReadStore = new ColumnChunkIncReadStore(recordCount, codec, context.getAllocator(), Path.of(path), inputStreamProvider);
+      if (!filterColumns.isEmpty() && context.getOptions().getOption(ExecConstants.READ_COLUMN_INDEXES)) {
+        inputStreamProvider.enableColumnIndices(block.getColumns());
+        offsetIndexProvider = inputStreamProvider.getOffsetIndexProvider(block.getColumns());
+      }
+      final ParquetColumnDecoder.PageReaderProvider pages = new ColumnChunkPages();
+      final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+      for (ColumnChunkMetaData md : block.getColumns()) {
+        chunks.put(md.getPath(), md);
+      }
+      final VersionParser.ParsedVersion writerVersion = ParquetColumnDecoder.parseWriterVersion(footer.getFileMetaData().getCreatedBy());
+      // nested fields are matched by name, which is only correct if the columns are not resolved by id
+      final boolean nestedFieldsByName = columnResolver instanceof ParquetColumnDefaultResolver;
+
+      final Set<String> decodedFields = new HashSet<>();
+      final Set<String> decodedFilterColumns = new HashSet<>();
+      for (SchemaPath column : projectedColumns.getBatchSchemaProjectedColumns()) {
+        final Type field = findField(schema, columnResolver.getParquetColumnName(column.getRootSegment().getNameSegment().getPath()));
+        if (field != null && decodedFields.contains(field.getName())) {
+          continue;
+        }
+
+        ParquetColumnDecoder decoder = null;
+        final String columnName = field != null ? columnResolver.getBatchSchemaColumnName(field.getName()) : null;
+        if (field != null && recordCount > 0 && (field.isPrimitive() || nestedFieldsByName)) {
+          decoder = ParquetColumnDecoder.create(schema, field, output.getVector(columnName),
+            pages, chunks, writerVersion, schemaHelper, varValueSizeLimit);
+        }
+        if (decoder != null) {
+          decodedFields.add(field.getName());
+          if (filterColumns.contains(columnName.toLowerCase())) {
+            filterDecoders.add(decoder);
+            decodedFilterColumns.add(columnName.toLowerCase());
+          } else {
+            decoders.add(decoder);
+          }
+        } else {
+          rowwiseColumns.add(column);
+        }
+      }
+
+      if (!filterDecoders.isEmpty() && (!decodedFilterColumns.equals(filterColumns) || decoders.isEmpty() ||
+          numRowsPerBatch > Character.MAX_VALUE)) {
+        // the filters can only be evaluated early if all their columns are decoded, and there must be others to skip
+        decoders.addAll(0, filterDecoders);
+        filterDecoders.clear();
+      }
+      if (!filterDecoders.isEmpty()) {
+        setupFilter(output, decodedFilterColumns);
+      }
+    } catch (Exception e) {
+      throw new ExecutionSetupException("Failure in setting up reader for " + path, e);
+    }
+
+    if (!rowwiseColumns.isEmpty()) {
+      logger.debug("Reading columns {} of {} with the rowwise reader", rowwiseColumns, path);
+      rowwiseReader = new ParquetRowiseReader(context, footer, rowGroupIndex, path,
+        projectedColumns.cloneForSchemaPaths(rowwiseColumns), null, schemaHelper, null, inputStreamProvider, codec,
+        false, null);
+      rowwiseReader.setup(output);
+    }
+
+    if (rowIndexGenerator != null) {
+      rowIndexGenerator.setRowIndexBase(footer.getAccumulatedRowCount(rowGroupIndex));
+      rowIndexGenerator.setup(output);
+    }
+  }
+
+  /**
+   * Generates the filterer of the exact pushdown filters over the vectors of their columns.
+   */
+  private void setupFilter(OutputMutator output, Set<String> filterColumns) throws Exception {
+    final VectorContainer filterInput = new VectorContainer(context.getAllocator());
+    for (ValueVector vector : output.getVectors()) {
+      if (filterColumns.contains(vector.getName().toLowerCase())) {
+        filterInput.add(vector);
+      }
+    }
+    filterInput.buildSchema();
+
+    final List<LogicalExpression> expressions = filterConditions.stream()
+      .map(ParquetFilterCondition::getExpr)
+      .collect(Collectors.toList());
+    final LogicalExpression filterExpr = expressions.size() == 1 ? expressions.get(0)
+      : FunctionCallFactory.createBooleanOperator("and", expressions);
+    final ClassGenerator<Filterer> cg = context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
+    cg.addExpr(new ReturnValueExpression(context.getClassProducer().materializeAndAllowComplex(filterExpr, filterInput)),
+      ClassGenerator.BlockCreateMode.MERGE);
+
+    selection = new SelectionVector2(context.getAllocator());
+    filter = cg.getCodeGenerator().getImplementationClass();
+    filter.setup(context.getClassProducer().getFunctionContext(), filterInput,
+      new VectorContainerWithSV(context.getAllocator(), selection));
+    positions = new int[numRowsPerBatch];
+  }
+
+  /**
+   * Opens the pages of the columns in the page read store, and skips them using the offset indexes of the row group.
+   */
+  private final class ColumnChunkPages implements ParquetColumnDecoder.PageReaderProvider {
+    @Override
+    public PageReader open(ColumnDescriptor descriptor, ColumnChunkMetaData chunk) throws IOException {
+      pageReadStore.addColumn(descriptor, chunk);
+      return pageReadStore.getPageReader(descriptor);
+    }
+
+    @Override
+    public OffsetIndex getOffsetIndex(ColumnChunkMetaData chunk) {
+      return offsetIndexProvider != null ? offsetIndexProvider.getOffsetIndex(chunk) : null;
+    }
+
+    @Override
+    public PageReader seek(ColumnDescriptor descriptor, OffsetIndex offsetIndex, int page) throws IOException {
+      return pageReadStore.seekToPage(descriptor, offsetIndex.getOffset(page), offsetIndex.getFirstRowIndex(page));
+    }
+  }
+
+  private static Type findField(MessageType schema, String name) {
+    if (name == null) {
+      return null;
+    }
+    for (Type field : schema.getFields()) {
+      if (field.getName().equalsIgnoreCase(name)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int next() {
+    final int count = (int) Math.min(numRowsPerBatch, recordCount - totalRead);
+    if (count <= 0) {
+      return 0;
+    }
+
+    try {
+      if (filter != null) {
+        decodeFilteredBatch(count);
+      } else {
+        for (ParquetColumnDecoder decoder : decoders) {
+          decoder.decode(count);
+        }
+      }
+      if (rowwiseReader != null) {
+        final int rowwiseCount = rowwiseReader.next();
+        Preconditions.checkState(rowwiseCount == count,
+          "Rowwise reader returned %s rows while the columnar decoders returned %s", rowwiseCount, count);
+      }
+      if (rowIndexGenerator != null) {
+        rowIndexGenerator.populate(count);
+      }
+      totalRead += count;
+      return count;
+    } catch (Throwable t) {
+      throw UserException.dataReadError(t)
+        .message("Failed to read data from parquet file")
+        .addContext("File path", path)
+        .addContext("Rowgroup index", rowGroupIndex)
+        .addContext("No. of rows read so far in current rowgroup", totalRead)
+        .addContext("Max no. rows in current rowgroup", recordCount)
+        .build(logger);
+    }
+  }
+
+  /**
+   * Decodes the filter columns, then the rows of the other columns that pass the filters.
+   */
+  private void decodeFilteredBatch(int count) {
+    for (ParquetColumnDecoder decoder : filterDecoders) {
+      decoder.decode(count);
+    }
+
+    final Stopwatch filterWatch = Stopwatch.createStarted();
+    final int selected = filter.filterBatch(count);
+    filterWatch.stop();
+    context.getStats().addLongStat(Metric.FILTER_NS, filterWatch.elapsed(TimeUnit.NANOSECONDS));
+
+    if (selected == count) {
+      for (ParquetColumnDecoder decoder : decoders) {
+        decoder.decode(count);
+      }
+      return;
+    }
+    for (int i = 0; i < selected; i++) {
+      positions[i] = selection.getIndex(i);
+    }
+    for (ParquetColumnDecoder decoder : decoders) {
+      decoder.decode(count, positions, selected);
+    }
+    stats.numLateMaterializationRowsSkipped += count - selected;
+  }
+
+  @Override
+  public boolean supportsSkipAllQuery() {
+    return true;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (filter != null) {
+      for (ParquetColumnDecoder decoder : decoders) {
+        stats.numLateMaterializationPagesSkipped += decoder.getPagesSkipped();
+      }
+      context.getStats().addLongStat(Metric.NUM_ROWS_SKIPPED_BY_LATE_MATERIALIZATION, stats.numLateMaterializationRowsSkipped);
+      context.getStats().addLongStat(Metric.NUM_PAGES_SKIPPED_BY_LATE_MATERIALIZATION, stats.numLateMaterializationPagesSkipped);
+    }
+    try {
+      AutoCloseables.close(rowwiseReader, rowIndexGenerator, selection, offsetIndexProvider);
+    } finally {
+      rowwiseReader = null;
+      selection = null;
+      offsetIndexProvider = null;
+      if (pageReadStore != null) {
+        pageReadStore.close();
+        pageReadStore = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.schema.Type;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.iceberg.deletes.ParquetDeleteFileFilterCreator;
+import com.dremio.sabot.exec.context.OperatorContext;
+
+/**
+ * {@link ParquetReaderFactory} of {@link ColumnarParquetReader}s, enabled by setting {@code
+ * dremio.plugins.parquet.factory} to this class.
+ *
+ * The readers decode every encoding supported by parquet-mr, but don't filter rows themselves. They are given the exact
+ * pushdown filters to decode the other columns only for the rows that pass them.
+ */
+public class ColumnarParquetReaderFactory implements ParquetReaderFactory {
+
+  @Override
+  public boolean isSupported(ColumnChunkMetaData chunk) {
+    return true;
+  }
+
+  @Override
+  public boolean isSupported(Type field) {
+    return ParquetColumnDecoder.isSupported(field);
+  }
+
+  @Override
+  public boolean supportsFiltering() {
+    return false;
+  }
+
+  @Override
+  public RecordReader newReader(OperatorContext context,
+                                ParquetScanProjectedColumns projectedColumns,
+                                String path,
+                                CompressionCodecFactory codecFactory,
+                                ParquetFilters filters,
+                                ParquetFilterCreator filterCreator,
+                                ParquetDictionaryConvertor dictionaryConvertor,
+                                boolean enableDetailedTracing,
+                                MutableParquetMetadata footer,
+                                int rowGroupIndex,
+                                SimpleIntVector deltas,
+                                SchemaDerivationHelper schemaHelper,
+                                InputStreamProvider inputStreamProvider,
+                                List<RuntimeFilter> runtimeFilters,
+                                ArrowBuf validityBuf,
+                                BatchSchema tableSchema,
+                                boolean ignoreSchemaLearning) {
+    // the same filters UnifiedParquetReader applies on top of the reader
+    final List<ParquetFilterCondition> filterConditions =
+      filters.hasPushdownFilters() && !filterCreator.filterMayChange() &&
+        context.getOptions().getOption(ExecConstants.PARQUET_LATE_MATERIALIZATION)
+      ? filters.getPushdownFilters().stream().filter(c -> c.getFilter().exact()).collect(Collectors.toList())
+      : Collections.emptyList();
+    return new ColumnarParquetReader(context, projectedColumns, path, codecFactory, footer, rowGroupIndex, schemaHelper,
+      inputStreamProvider, tableSchema, filterConditions);
+  }
+
+  @Override
+  public ParquetFilterCreator newFilterCreator(OperatorContext operatorContext, ManagedSchemaType type, ManagedSchema schema, BufferAllocator allocator) {
+    return ParquetFilterCreator.DEFAULT;
+  }
+
+  @Override
+  public ParquetDeleteFileFilterCreator newDeleteFileFilterCreator() {
+    return ParquetDeleteFileFilterCreator.DEFAULT;
+  }
+
+  @Override
+  public ParquetDictionaryConvertor newDictionaryConvertor(ManagedSchemaType type, ManagedSchema schema) {
+    return ParquetDictionaryConvertor.DEFAULT;
+  }
+}
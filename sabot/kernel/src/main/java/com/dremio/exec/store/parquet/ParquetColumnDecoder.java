@@ -0,0 +1,795 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static com.dremio.common.exceptions.FieldSizeLimitExceptionHelper.createFieldSizeLimitException;
+import static org.apache.parquet.schema.Type.Repetition.REPEATED;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.parquet.VersionParser;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReaderImpl;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
+import org.joda.time.DateTimeConstants;
+
+import com.dremio.exec.store.parquet2.LogicalListL1Converter;
+
+/**
+ * Decodes the pages of a top level parquet field straight into its arrow vector, driven by the definition and
+ * repetition levels of the leaf columns instead of the record assembly of parquet-mr.
+ *
+ * Primitive fields, structs of primitives, three level lists of primitives and maps of primitives are supported.
+ * Deeper nesting, and the combinations of parquet and arrow types that need a conversion, are left to {@link
+ * com.dremio.exec.store.parquet2.ParquetRowiseReader}.
+ *
+ * Rows can also be decoded selectively, the others being skipped without materializing their values. Whole pages
+ * of the columns that are not repeated are skipped without being read when the chunk has an offset index.
+ */
+public abstract class ParquetColumnDecoder {
+
+  private static final PrimitiveConverter NO_OP_CONVERTER = new PrimitiveConverter() {};
+
+  /**
+   * Decodes the next {@code rows} rows of the field into the first {@code rows} positions of the vector, and sets
+   * its value count.
+   */
+  public abstract void decode(int rows);
+
+  /**
+   * Decodes the rows at the given positions, in increasing order, of the next {@code rows} rows of the field. The
+   * other rows are skipped and left null in the vector, whose value count is set to {@code rows}.
+   */
+  public void decode(int rows, int[] positions, int count) {
+    int row = 0;
+    for (int i = 0; i < count; i++) {
+      final int position = positions[i];
+      if (position > row) {
+        skip(position - row);
+      }
+      decodeRow(position);
+      row = position + 1;
+    }
+    if (rows > row) {
+      skip(rows - row);
+    }
+    setValueCount(rows);
+  }
+
+  /**
+   * @return the number of data pages skipped without being read
+   */
+  public abstract long getPagesSkipped();
+
+  abstract void decodeRow(int index);
+
+  abstract void skip(int rows);
+
+  abstract void setValueCount(int rows);
+
+  /**
+   * Opens the pages of a column chunk of the row group.
+   */
+  @FunctionalInterface
+  public interface PageReaderProvider {
+    PageReader open(ColumnDescriptor descriptor, ColumnChunkMetaData chunk) throws IOException;
+
+    /**
+     * @return the offset index of the chunk, or null if its pages can't be skipped
+     */
+    default OffsetIndex getOffsetIndex(ColumnChunkMetaData chunk) {
+      return null;
+    }
+
+    /**
+     * Moves the opened pages of the chunk to a data page of its offset index, without reading the pages before it.
+     *
+     * @return the pages from that page on, with the count of the remaining values as total
+     */
+    default PageReader seek(ColumnDescriptor descriptor, OffsetIndex offsetIndex, int page) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * @return true if fields of this shape can be decoded, regardless of the vector they are read into
+   */
+  public static boolean isSupported(Type field) {
+    if (field.isRepetition(REPEATED)) {
+      return false;
+    }
+    if (field.isPrimitive()) {
+      return isSupportedPrimitive(field);
+    }
+
+    final GroupType group = field.asGroupType();
+    if (group.getOriginalType() == OriginalType.LIST) {
+      if (!LogicalListL1Converter.isSupportedSchema(group)) {
+        return false;
+      }
+      final Type element = group.getType(0).asGroupType().getType(0);
+      return element.isPrimitive() && !element.isRepetition(REPEATED) && isSupportedPrimitive(element);
+    }
+    if (group.getOriginalType() == OriginalType.MAP) {
+      if (group.getFieldCount() != 1 || group.getType(0).isPrimitive() || !group.getType(0).isRepetition(REPEATED)) {
+        return false;
+      }
+      final GroupType entry = group.getType(0).asGroupType();
+      if (entry.getFieldCount() != 2 || !entry.getType(0).isRepetition(Type.Repetition.REQUIRED)) {
+        return false;
+      }
+      for (Type child : entry.getFields()) {
+        if (!child.isPrimitive() || child.isRepetition(REPEATED) || !isSupportedPrimitive(child)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (group.getOriginalType() != null || group.getFieldCount() == 0) {
+      return false;
+    }
+    for (Type child : group.getFields()) {
+      if (!child.isPrimitive() || child.isRepetition(REPEATED) || !isSupportedPrimitive(child)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupportedPrimitive(Type field) {
+    final PrimitiveType type = field.asPrimitiveType();
+    return type.getPrimitiveTypeName() != PrimitiveType.PrimitiveTypeName.INT96 &&
+      type.getOriginalType() != OriginalType.DECIMAL;
+  }
+
+  /**
+   * Creates the decoder of a top level field, opening the pages of its columns.
+   *
+   * @return the decoder, or null if the field or its vector is not supported, in which case no pages are opened
+   */
+  public static ParquetColumnDecoder create(MessageType schema, Type field, ValueVector vector,
+                                            PageReaderProvider pages,
+                                            Map<ColumnPath, ColumnChunkMetaData> chunks,
+                                            VersionParser.ParsedVersion writerVersion,
+                                            SchemaDerivationHelper schemaHelper,
+                                            int varValueSizeLimit) throws IOException {
+    if (vector == null || !isSupported(field)) {
+      return null;
+    }
+
+    final Context context = new Context(schema, pages, chunks, writerVersion, schemaHelper, varValueSizeLimit);
+    final String[] path = {field.getName()};
+    if (field.isPrimitive()) {
+      final ValueWriter writer = context.writer(field.asPrimitiveType(), vector);
+      if (writer == null || chunks.get(ColumnPath.get(path)) == null) {
+        return null;
+      }
+      return new PrimitiveDecoder(vector, context.leaf(path, writer));
+    }
+
+    final GroupType group = field.asGroupType();
+    if (group.getOriginalType() == OriginalType.LIST) {
+      if (!(vector instanceof ListVector)) {
+        return null;
+      }
+      final ListVector listVector = (ListVector) vector;
+      final GroupType repeated = group.getType(0).asGroupType();
+      final Type element = repeated.getType(0);
+      final String[] elementPath = {field.getName(), repeated.getName(), element.getName()};
+      final ValueWriter writer = context.writer(element.asPrimitiveType(), listVector.getDataVector());
+      if (writer == null || chunks.get(ColumnPath.get(elementPath)) == null) {
+        return null;
+      }
+      return new ListDecoder(listVector, schema.getMaxDefinitionLevel(path), context.leaf(elementPath, writer));
+    }
+
+    if (group.getOriginalType() == OriginalType.MAP) {
+      // without the map type, maps are read as lists of structs by the rowwise reader
+      if (!(vector instanceof MapVector)) {
+        return null;
+      }
+      final MapVector mapVector = (MapVector) vector;
+      final StructVector entries = (StructVector) mapVector.getDataVector();
+      final GroupType entry = group.getType(0).asGroupType();
+      final Type key = entry.getType(0);
+      final Type value = entry.getType(1);
+      final ValueVector keyVector = findChild(entries, key.getName());
+      final ValueVector valueVector = findChild(entries, value.getName());
+      if (keyVector == null || valueVector == null) {
+        return null;
+      }
+      final String[] keyPath = {field.getName(), entry.getName(), key.getName()};
+      final String[] valuePath = {field.getName(), entry.getName(), value.getName()};
+      final ValueWriter keyWriter = context.writer(key.asPrimitiveType(), keyVector);
+      final ValueWriter valueWriter = context.writer(value.asPrimitiveType(), valueVector);
+      if (keyWriter == null || valueWriter == null ||
+        chunks.get(ColumnPath.get(keyPath)) == null || chunks.get(ColumnPath.get(valuePath)) == null) {
+        return null;
+      }
+      return new MapDecoder(mapVector, schema.getMaxDefinitionLevel(path), context.leaf(keyPath, keyWriter),
+        context.leaf(valuePath, valueWriter));
+    }
+
+    if (!(vector instanceof StructVector)) {
+      return null;
+    }
+    final StructVector structVector = (StructVector) vector;
+    final List<String[]> childPaths = new ArrayList<>();
+    final List<ValueWriter> childWriters = new ArrayList<>();
+    for (ValueVector child : structVector.getChildrenFromFields()) {
+      final Type childField = findField(group, child.getName());
+      if (childField == null) {
+        // not in this file, the vector stays null
+        continue;
+      }
+      final String[] childPath = {field.getName(), childField.getName()};
+      final ValueWriter writer = context.writer(childField.asPrimitiveType(), child);
+      if (writer == null || chunks.get(ColumnPath.get(childPath)) == null) {
+        return null;
+      }
+      childPaths.add(childPath);
+      childWriters.add(writer);
+    }
+    if (childPaths.isEmpty()) {
+      return null;
+    }
+
+    final LeafColumn[] children = new LeafColumn[childPaths.size()];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = context.leaf(childPaths.get(i), childWriters.get(i));
+    }
+    return new StructDecoder(structVector, schema.getMaxDefinitionLevel(path), children);
+  }
+
+  private static Type findField(GroupType group, String name) {
+    for (Type field : group.getFields()) {
+      if (field.getName().equalsIgnoreCase(name)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  private static ValueVector findChild(StructVector struct, String name) {
+    for (ValueVector child : struct.getChildrenFromFields()) {
+      if (child.getName().equalsIgnoreCase(name)) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Parses the writer version used by parquet-mr to work around the bugs of older writers.
+   */
+  public static VersionParser.ParsedVersion parseWriterVersion(String createdBy) {
+    try {
+      return createdBy == null ? null : VersionParser.parse(createdBy);
+    } catch (VersionParser.VersionParseException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes the current value of a column reader at the given position of a vector.
+   */
+  private interface ValueWriter {
+    void write(ColumnReader reader, int index);
+  }
+
+  /**
+   * State shared by the leaf columns of a field.
+   */
+  private static final class Context {
+    private final MessageType schema;
+    private final PageReaderProvider pages;
+    private final Map<ColumnPath, ColumnChunkMetaData> chunks;
+    private final VersionParser.ParsedVersion writerVersion;
+    private final SchemaDerivationHelper schemaHelper;
+    private final int varValueSizeLimit;
+
+    private Context(MessageType schema, PageReaderProvider pages, Map<ColumnPath, ColumnChunkMetaData> chunks,
+                    VersionParser.ParsedVersion writerVersion, SchemaDerivationHelper schemaHelper, int varValueSizeLimit) {
+      this.schema = schema;
+      this.pages = pages;
+      this.chunks = chunks;
+      this.writerVersion = writerVersion;
+      this.schemaHelper = schemaHelper;
+      this.varValueSizeLimit = varValueSizeLimit;
+    }
+
+    private LeafColumn leaf(String[] path, ValueWriter writer) throws IOException {
+      final ColumnDescriptor descriptor = schema.getColumnDescription(path);
+      final ColumnChunkMetaData chunk = chunks.get(ColumnPath.get(path));
+      final PageReader pageReader = pages.open(descriptor, chunk);
+      // the rows of the offset index are only the values of the column if it is not repeated
+      final OffsetIndex offsetIndex = descriptor.getMaxRepetitionLevel() == 0 ? pages.getOffsetIndex(chunk) : null;
+      return new LeafColumn(this, descriptor, pageReader, offsetIndex, writer);
+    }
+
+    private ColumnReaderImpl reader(ColumnDescriptor descriptor, PageReader pageReader) {
+      return new ColumnReaderImpl(descriptor, pageReader, NO_OP_CONVERTER, writerVersion);
+    }
+
+    /**
+     * @return the writer of the parquet type into the vector, or null if the combination needs a conversion that is
+     * only done by the rowwise reader
+     */
+    private ValueWriter writer(PrimitiveType type, ValueVector vector) {
+      final OriginalType originalType = type.getOriginalType();
+      switch (type.getPrimitiveTypeName()) {
+        case INT32:
+          if (originalType == OriginalType.DATE) {
+            if (vector instanceof DateMilliVector &&
+              schemaHelper.getDateCorruptionStatus() == ParquetReaderUtility.DateCorruptionStatus.META_SHOWS_NO_CORRUPTION) {
+              final DateMilliVector dates = (DateMilliVector) vector;
+              return (r, i) -> dates.setSafe(i, r.getInteger() * (long) DateTimeConstants.MILLIS_PER_DAY);
+            }
+            return null;
+          }
+          if (originalType == OriginalType.TIME_MILLIS) {
+            if (vector instanceof TimeMilliVector) {
+              final TimeMilliVector times = (TimeMilliVector) vector;
+              return (r, i) -> times.setSafe(i, r.getInteger());
+            }
+            return null;
+          }
+          // unsigned ints above Integer.MAX_VALUE don't fit in an int
+          if (vector instanceof IntVector && originalType != OriginalType.UINT_32) {
+            final IntVector ints = (IntVector) vector;
+            return (r, i) -> ints.setSafe(i, r.getInteger());
+          }
+          if (vector instanceof BigIntVector) {
+            final BigIntVector longs = (BigIntVector) vector;
+            if (originalType == OriginalType.UINT_32) {
+              return (r, i) -> longs.setSafe(i, Integer.toUnsignedLong(r.getInteger()));
+            }
+            return (r, i) -> longs.setSafe(i, r.getInteger());
+          }
+          return null;
+        case INT64:
+          if (originalType == OriginalType.TIMESTAMP_MILLIS) {
+            if (vector instanceof TimeStampMilliVector) {
+              final TimeStampMilliVector timestamps = (TimeStampMilliVector) vector;
+              return (r, i) -> timestamps.setSafe(i, r.getLong());
+            }
+            return null;
+          }
+          if (vector instanceof BigIntVector) {
+            final BigIntVector longs = (BigIntVector) vector;
+            return (r, i) -> longs.setSafe(i, r.getLong());
+          }
+          return null;
+        case FLOAT:
+          if (vector instanceof Float4Vector) {
+            final Float4Vector floats = (Float4Vector) vector;
+            return (r, i) -> floats.setSafe(i, r.getFloat());
+          }
+          if (vector instanceof Float8Vector) {
+            final Float8Vector doubles = (Float8Vector) vector;
+            return (r, i) -> doubles.setSafe(i, r.getFloat());
+          }
+          return null;
+        case DOUBLE:
+          if (vector instanceof Float8Vector) {
+            final Float8Vector doubles = (Float8Vector) vector;
+            return (r, i) -> doubles.setSafe(i, r.getDouble());
+          }
+          return null;
+        case BOOLEAN:
+          if (vector instanceof BitVector) {
+            final BitVector bits = (BitVector) vector;
+            return (r, i) -> bits.setSafe(i, r.getBoolean() ? 1 : 0);
+          }
+          return null;
+        case BINARY:
+        case FIXED_LEN_BYTE_ARRAY:
+          if (vector instanceof VarCharVector || vector instanceof VarBinaryVector) {
+            final BaseVariableWidthVector bytes = (BaseVariableWidthVector) vector;
+            final int limit = varValueSizeLimit;
+            return (r, i) -> {
+              final Binary value = r.getBinary();
+              if (value.length() > limit) {
+                throw createFieldSizeLimitException(value.length(), limit);
+              }
+              final ByteBuffer buffer = value.toByteBuffer();
+              bytes.setSafe(i, buffer, buffer.position(), buffer.remaining());
+            };
+          }
+          return null;
+        default:
+          return null;
+      }
+    }
+  }
+
+  /**
+   * A leaf column of the field, positioned on the levels of its next value.
+   */
+  private static final class LeafColumn {
+    private final Context context;
+    private final ColumnDescriptor descriptor;
+    private final OffsetIndex offsetIndex;
+    private final int maxDefinitionLevel;
+    private final ValueWriter writer;
+    private final long totalValueCount;
+    private ColumnReader reader;
+    private long valuesRead;
+    private long pagesSkipped;
+
+    private LeafColumn(Context context, ColumnDescriptor descriptor, PageReader pageReader, OffsetIndex offsetIndex,
+                       ValueWriter writer) {
+      this.context = context;
+      this.descriptor = descriptor;
+      this.offsetIndex = offsetIndex;
+      this.maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+      this.writer = writer;
+      this.reader = context.reader(descriptor, pageReader);
+      this.totalValueCount = reader.getTotalValueCount();
+    }
+
+    private boolean hasNext() {
+      return valuesRead < totalValueCount;
+    }
+
+    private int definitionLevel() {
+      return reader.getCurrentDefinitionLevel();
+    }
+
+    private int repetitionLevel() {
+      return reader.getCurrentRepetitionLevel();
+    }
+
+    /**
+     * Writes the current value at the index if it is not null, and moves to the next one.
+     *
+     * @return the definition level of the value
+     */
+    private int writeAndConsume(int index) {
+      final int definitionLevel = reader.getCurrentDefinitionLevel();
+      if (definitionLevel == maxDefinitionLevel) {
+        writer.write(reader, index);
+      }
+      consume();
+      return definitionLevel;
+    }
+
+    private void consume() {
+      reader.consume();
+      valuesRead++;
+    }
+
+    /**
+     * Moves to the next value without materializing the current one.
+     */
+    private void skipValue() {
+      if (reader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+        reader.skip();
+      }
+      consume();
+    }
+
+    /**
+     * Moves past the next values of a column that is not repeated. The pages in between are skipped without being
+     * read if the column has an offset index, as its values are then its rows.
+     */
+    private void skip(long values) {
+      final long target = Math.min(valuesRead + values, totalValueCount);
+      if (offsetIndex != null) {
+        final int current = pageOf(valuesRead);
+        if (target == totalValueCount) {
+          // nothing is read after the last page
+          pagesSkipped += offsetIndex.getPageCount() - current - 1;
+          valuesRead = target;
+          return;
+        }
+        final int page = pageOf(target);
+        if (page > current + 1) {
+          try {
+            reader = context.reader(descriptor, context.pages.seek(descriptor, offsetIndex, page));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          pagesSkipped += page - current - 1;
+          valuesRead = offsetIndex.getFirstRowIndex(page);
+        }
+      }
+      while (valuesRead < target) {
+        skipValue();
+      }
+    }
+
+    /**
+     * @return the data page of the value, by binary search on the first row of the pages
+     */
+    private int pageOf(long value) {
+      int low = 0;
+      int high = offsetIndex.getPageCount() - 1;
+      while (low < high) {
+        final int middle = (low + high + 1) >>> 1;
+        if (offsetIndex.getFirstRowIndex(middle) <= value) {
+          low = middle;
+        } else {
+          high = middle - 1;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * Decodes a primitive field. Null values are skipped as the vectors are allocated with all values unset.
+   */
+  private static final class PrimitiveDecoder extends ParquetColumnDecoder {
+    private final ValueVector vector;
+    private final LeafColumn column;
+
+    private PrimitiveDecoder(ValueVector vector, LeafColumn column) {
+      this.vector = vector;
+      this.column = column;
+    }
+
+    @Override
+    public void decode(int rows) {
+      for (int i = 0; i < rows; i++) {
+        column.writeAndConsume(i);
+      }
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    void decodeRow(int index) {
+      column.writeAndConsume(index);
+    }
+
+    @Override
+    void skip(int rows) {
+      column.skip(rows);
+    }
+
+    @Override
+    void setValueCount(int rows) {
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    public long getPagesSkipped() {
+      return column.pagesSkipped;
+    }
+  }
+
+  /**
+   * Decodes a struct of primitives, each child consuming exactly one value per row. The struct is null when the
+   * definition level of its first child is below the level of the struct itself.
+   */
+  private static final class StructDecoder extends ParquetColumnDecoder {
+    private final StructVector vector;
+    private final int definitionLevel;
+    private final LeafColumn[] children;
+
+    private StructDecoder(StructVector vector, int definitionLevel, LeafColumn[] children) {
+      this.vector = vector;
+      this.definitionLevel = definitionLevel;
+      this.children = children;
+    }
+
+    @Override
+    public void decode(int rows) {
+      for (int i = 0; i < rows; i++) {
+        decodeRow(i);
+      }
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    void decodeRow(int index) {
+      if (children[0].writeAndConsume(index) >= definitionLevel) {
+        vector.setIndexDefined(index);
+      }
+      for (int c = 1; c < children.length; c++) {
+        children[c].writeAndConsume(index);
+      }
+    }
+
+    @Override
+    void skip(int rows) {
+      for (LeafColumn child : children) {
+        child.skip(rows);
+      }
+    }
+
+    @Override
+    void setValueCount(int rows) {
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    public long getPagesSkipped() {
+      long pagesSkipped = 0;
+      for (LeafColumn child : children) {
+        pagesSkipped += child.pagesSkipped;
+      }
+      return pagesSkipped;
+    }
+  }
+
+  /**
+   * Decodes a three level list of primitives. A row starts at each value with a repetition level of 0; the list
+   * is null below the definition level of the list group, empty at that level, and has an element above it.
+   */
+  private static final class ListDecoder extends ParquetColumnDecoder {
+    private final ListVector vector;
+    private final int definitionLevel;
+    private final LeafColumn element;
+
+    private ListDecoder(ListVector vector, int definitionLevel, LeafColumn element) {
+      this.vector = vector;
+      this.definitionLevel = definitionLevel;
+      this.element = element;
+    }
+
+    @Override
+    public void decode(int rows) {
+      for (int i = 0; i < rows; i++) {
+        decodeRow(i);
+      }
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    void decodeRow(int index) {
+      if (element.definitionLevel() < definitionLevel) {
+        element.consume();
+        return;
+      }
+
+      final int offset = vector.startNewValue(index);
+      int size = 0;
+      do {
+        if (element.definitionLevel() > definitionLevel) {
+          element.writeAndConsume(offset + size);
+          size++;
+        } else {
+          element.consume();
+        }
+      } while (element.hasNext() && element.repetitionLevel() > 0);
+      vector.endValue(index, size);
+    }
+
+    @Override
+    void skip(int rows) {
+      for (int i = 0; i < rows; i++) {
+        do {
+          element.skipValue();
+        } while (element.hasNext() && element.repetitionLevel() > 0);
+      }
+    }
+
+    @Override
+    void setValueCount(int rows) {
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    public long getPagesSkipped() {
+      return 0;
+    }
+  }
+
+  /**
+   * Decodes a map of primitives, whose key and value columns consume one value per entry. As for lists, a row starts
+   * at each value with a repetition level of 0; the map is null below the definition level of the map group, empty
+   * at that level, and has an entry above it. Keys are required, so an entry is never null.
+   */
+  private static final class MapDecoder extends ParquetColumnDecoder {
+    private final MapVector vector;
+    private final StructVector entries;
+    private final int definitionLevel;
+    private final LeafColumn key;
+    private final LeafColumn value;
+
+    private MapDecoder(MapVector vector, int definitionLevel, LeafColumn key, LeafColumn value) {
+      this.vector = vector;
+      this.entries = (StructVector) vector.getDataVector();
+      this.definitionLevel = definitionLevel;
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public void decode(int rows) {
+      for (int i = 0; i < rows; i++) {
+        decodeRow(i);
+      }
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    void decodeRow(int index) {
+      if (key.definitionLevel() < definitionLevel) {
+        key.consume();
+        value.consume();
+        return;
+      }
+
+      final int offset = vector.startNewValue(index);
+      int size = 0;
+      do {
+        if (key.definitionLevel() > definitionLevel) {
+          entries.setIndexDefined(offset + size);
+          key.writeAndConsume(offset + size);
+          value.writeAndConsume(offset + size);
+          size++;
+        } else {
+          key.consume();
+          value.consume();
+        }
+      } while (key.hasNext() && key.repetitionLevel() > 0);
+      vector.endValue(index, size);
+    }
+
+    @Override
+    void skip(int rows) {
+      for (int i = 0; i < rows; i++) {
+        do {
+          key.skipValue();
+          value.skipValue();
+        } while (key.hasNext() && key.repetitionLevel() > 0);
+      }
+    }
+
+    @Override
+    void setValueCount(int rows) {
+      vector.setValueCount(rows);
+    }
+
+    @Override
+    public long getPagesSkipped() {
+      return 0;
+    }
+  }
+}
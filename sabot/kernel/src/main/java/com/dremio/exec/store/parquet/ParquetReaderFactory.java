@@ -22,6 +22,7 @@ import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.SimpleIntVector;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.schema.Type;
 
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.RecordReader;
@@ -37,6 +38,22 @@ public interface ParquetReaderFactory {
 
   boolean isSupported(ColumnChunkMetaData chunk);
 
+  /**
+   * @return true if the readers of this factory can read the given top level field of the file
+   */
+  default boolean isSupported(Type field) {
+    return true;
+  }
+
+  /**
+   * @return true if the readers of this factory apply the pushdown filters, runtime filters and positional deletes
+   * they are given. Otherwise the filters are applied on top of the reader, and row groups with positional deletes
+   * are read by the rowwise reader.
+   */
+  default boolean supportsFiltering() {
+    return true;
+  }
+
   RecordReader newReader(OperatorContext context,
                          ParquetScanProjectedColumns projectedColumns,
                          String path,
@@ -38,6 +38,13 @@ public class ParquetReaderStats {
   public long timeDictPagesDecompressed;
   public long timePagesDecompressed;
 
+  public long numRuntimeFilterRowGroupsSkipped;
+  public long numRuntimeFilterPagesSkipped;
+  public long totalRuntimeFilterSkippedBytes;
+
+  public long numLateMaterializationRowsSkipped;
+  public long numLateMaterializationPagesSkipped;
+
   public ParquetReaderStats() {
   }
 
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.Types;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.format.BloomFilterHeader;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.exec.store.CompositeColumnFilter;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.util.ValueListFilter;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+
+/**
+ * Evaluates the non partition column runtime filters of a join against the metadata of a single parquet row group,
+ * before any of its pages are read. A row group can be skipped if, for any one of the filter columns, none of the
+ * values in the filter can be present in the column chunk. This is decided, from the cheapest to the most expensive
+ * check, using
+ * <ul>
+ *   <li>the min/max statistics of the column chunk in the footer,</li>
+ *   <li>the column index of the chunk, which has the min/max of every page,</li>
+ *   <li>the native parquet bloom filter of the chunk, if the file has one.</li>
+ * </ul>
+ *
+ * Only filters on integer columns that are stored as signed INT32/INT64 in parquet are evaluated, as the value
+ * lists keep these in their native little endian form and sorted. Other filters are left to the readers.
+ */
+public class ParquetRuntimeFilterEvaluator implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(ParquetRuntimeFilterEvaluator.class);
+
+  private final FileSystem fs;
+  private final Path path;
+  private final BufferAllocator allocator;
+  private final BlockMetaData block;
+  private final Function<String, String> columnNameResolver;
+  private final boolean useColumnIndexes;
+  private final boolean useBloomFilters;
+  private final int maxBloomFilterProbes;
+  private final ParquetReaderStats stats;
+
+  private SeekableInputStream inputStream;
+  private BulkInputStream bulkInputStream;
+
+  public ParquetRuntimeFilterEvaluator(FileSystem fs, Path path, BufferAllocator allocator, BlockMetaData block,
+                                       Function<String, String> columnNameResolver, boolean useColumnIndexes,
+                                       boolean useBloomFilters, int maxBloomFilterProbes, ParquetReaderStats stats) {
+    this.fs = fs;
+    this.path = path;
+    this.allocator = allocator;
+    this.block = block;
+    this.columnNameResolver = columnNameResolver;
+    this.useColumnIndexes = useColumnIndexes;
+    this.useBloomFilters = useBloomFilters;
+    this.maxBloomFilterProbes = maxBloomFilterProbes;
+    this.stats = stats;
+  }
+
+  /**
+   * @return true if none of the rows of the row group can pass any one of the given runtime filters
+   */
+  public boolean canSkipRowGroup(List<RuntimeFilter> runtimeFilters) {
+    for (RuntimeFilter runtimeFilter : runtimeFilters) {
+      if (canSkipRowGroup(runtimeFilter)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if none of the rows of the row group can pass the given runtime filter
+   */
+  public boolean canSkipRowGroup(RuntimeFilter runtimeFilter) {
+    for (CompositeColumnFilter columnFilter : runtimeFilter.getNonPartitionColumnFilters()) {
+      final ValueListFilter valueList = columnFilter.getValueList();
+      if (valueList == null || columnFilter.getColumnsList().size() != 1 || !isSupported(valueList)) {
+        continue;
+      }
+      final ColumnChunkMetaData column = findColumn(columnFilter.getColumnsList().get(0));
+      if (column == null || !isSupported(column.getPrimitiveType(), valueList)) {
+        continue;
+      }
+
+      try {
+        if (canSkipColumnChunk(column, valueList)) {
+          stats.numRuntimeFilterRowGroupsSkipped++;
+          stats.totalRuntimeFilterSkippedBytes += block.getCompressedSize();
+          return true;
+        }
+      } catch (IOException | RuntimeException e) {
+        // The metadata is only used to skip data, never fail the read because of it
+        logger.debug("Unable to evaluate runtime filter on column {} of {}", column.getPath(), path, e);
+      }
+    }
+    return false;
+  }
+
+  private boolean canSkipColumnChunk(ColumnChunkMetaData column, ValueListFilter valueList) throws IOException {
+    final Statistics<?> statistics = column.getStatistics();
+    if (statistics != null && !statistics.isEmpty()) {
+      if (!statistics.hasNonNullValue()) {
+        // all the values in the chunk are nulls
+        return !valueList.isContainsNull();
+      }
+      if (valueList.isContainsNull() && (!statistics.isNumNullsSet() || statistics.getNumNulls() > 0)) {
+        return false;
+      }
+      if (!anyValueInRange(valueList, ((Number) statistics.genericGetMin()).longValue(),
+        ((Number) statistics.genericGetMax()).longValue())) {
+        return true;
+      }
+    } else if (valueList.isContainsNull()) {
+      return false;
+    }
+
+    if (useColumnIndexes && canSkipAllPages(column, valueList)) {
+      return true;
+    }
+    return useBloomFilters && valueList.getValueCount() <= maxBloomFilterProbes && canSkipUsingBloomFilter(column, valueList);
+  }
+
+  /**
+   * Checks the min/max of each page in the column index of the chunk. The chunk can be skipped if no page can
+   * contain any of the values, which is possible even if the chunk level min/max could not rule them out.
+   */
+  private boolean canSkipAllPages(ColumnChunkMetaData column, ValueListFilter valueList) throws IOException {
+    if (column.getColumnIndexReference() == null || column.getOffsetIndexReference() == null) {
+      return false;
+    }
+    final List<ColumnChunkMetaData> columns = Collections.singletonList(column);
+    final ColumnIndex columnIndex;
+    final OffsetIndex offsetIndex;
+    try (ColumnIndexProvider columnIndexProvider = new ColumnIndexProvider(getBulkInputStream(), allocator, columns);
+         OffsetIndexProvider offsetIndexProvider = new OffsetIndexProvider(getBulkInputStream(), allocator, columns)) {
+      columnIndex = columnIndexProvider.getColumnIndex(column);
+      offsetIndex = offsetIndexProvider.getOffsetIndex(column);
+    }
+    if (columnIndex == null || offsetIndex == null || columnIndex.getNullPages().size() != offsetIndex.getPageCount()) {
+      return false;
+    }
+
+    final boolean isInt32 = column.getPrimitiveType().getPrimitiveTypeName() == PrimitiveTypeName.INT32;
+    final List<Boolean> nullPages = columnIndex.getNullPages();
+    final List<ByteBuffer> minValues = columnIndex.getMinValues();
+    final List<ByteBuffer> maxValues = columnIndex.getMaxValues();
+    for (int page = 0; page < offsetIndex.getPageCount(); page++) {
+      if (nullPages.get(page)) {
+        if (valueList.isContainsNull()) {
+          return false;
+        }
+        continue;
+      }
+      if (anyValueInRange(valueList, decode(minValues.get(page), isInt32), decode(maxValues.get(page), isInt32))) {
+        return false;
+      }
+    }
+
+    stats.numRuntimeFilterPagesSkipped += offsetIndex.getPageCount();
+    return true;
+  }
+
+  private boolean canSkipUsingBloomFilter(ColumnChunkMetaData column, ValueListFilter valueList) throws IOException {
+    final long bloomFilterOffset = column.getBloomFilterOffset();
+    if (bloomFilterOffset < 0) {
+      return false;
+    }
+
+    final SeekableInputStream is = getInputStream();
+    is.seek(bloomFilterOffset);
+    final BloomFilterHeader header = Util.readBloomFilterHeader(is);
+    if (!header.getAlgorithm().isSetBLOCK() || !header.getHash().isSetXXHASH()
+      || !header.getCompression().isSetUNCOMPRESSED()
+      || header.getNumBytes() <= 0 || header.getNumBytes() > BlockSplitBloomFilter.UPPER_BOUND_BYTES) {
+      return false;
+    }
+    final byte[] bitset = new byte[header.getNumBytes()];
+    is.readFully(bitset);
+    final BlockSplitBloomFilter bloomFilter = new BlockSplitBloomFilter(bitset);
+
+    final boolean isInt32 = column.getPrimitiveType().getPrimitiveTypeName() == PrimitiveTypeName.INT32;
+    final ArrowBuf values = valueList.valOnlyBuf();
+    for (int i = 0; i < valueList.getValueCount(); i++) {
+      final long hash = isInt32 ? bloomFilter.hash(values.getInt(i * 4L)) : bloomFilter.hash(values.getLong(i * 8L));
+      if (bloomFilter.findHash(hash)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The values in the list are distinct and sorted, so a binary search for the first value >= min is enough.
+   */
+  static boolean anyValueInRange(ValueListFilter valueList, long min, long max) {
+    final ArrowBuf values = valueList.valOnlyBuf();
+    final boolean isInt = valueList.getBlockSize() == 4;
+    int low = 0;
+    int high = valueList.getValueCount() - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final long value = isInt ? values.getInt(mid * 4L) : values.getLong(mid * 8L);
+      if (value < min) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    if (low >= valueList.getValueCount()) {
+      return false;
+    }
+    final long ceiling = isInt ? values.getInt(low * 4L) : values.getLong(low * 8L);
+    return ceiling <= max;
+  }
+
+  private static long decode(ByteBuffer buffer, boolean isInt32) {
+    final ByteBuffer le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    return isInt32 ? le.getInt(le.position()) : le.getLong(le.position());
+  }
+
+  private static boolean isSupported(ValueListFilter valueList) {
+    if (!valueList.isFixedWidth() || valueList.isBoolField()) {
+      return false;
+    }
+    return (valueList.getFieldType() == Types.MinorType.INT && valueList.getBlockSize() == 4)
+      || (valueList.getFieldType() == Types.MinorType.BIGINT && valueList.getBlockSize() == 8);
+  }
+
+  private static boolean isSupported(PrimitiveType type, ValueListFilter valueList) {
+    final PrimitiveTypeName expected = valueList.getFieldType() == Types.MinorType.INT ? PrimitiveTypeName.INT32 : PrimitiveTypeName.INT64;
+    if (type.getPrimitiveTypeName() != expected) {
+      return false;
+    }
+    final LogicalTypeAnnotation logicalType = type.getLogicalTypeAnnotation();
+    return logicalType == null
+      || (logicalType instanceof LogicalTypeAnnotation.IntLogicalTypeAnnotation
+      && ((LogicalTypeAnnotation.IntLogicalTypeAnnotation) logicalType).isSigned());
+  }
+
+  private ColumnChunkMetaData findColumn(String filterColumn) {
+    final String resolved = columnNameResolver.apply(filterColumn);
+    final String name = resolved != null ? resolved : filterColumn;
+    for (ColumnChunkMetaData column : block.getColumns()) {
+      if (column.getPath().size() == 1 && column.getPath().toDotString().equalsIgnoreCase(name)) {
+        return column;
+      }
+    }
+    return null;
+  }
+
+  private SeekableInputStream getInputStream() throws IOException {
+    if (inputStream == null) {
+      inputStream = Streams.wrap(fs.open(path));
+      bulkInputStream = BulkInputStream.wrap(inputStream);
+    }
+    return inputStream;
+  }
+
+  private BulkInputStream getBulkInputStream() throws IOException {
+    getInputStream();
+    return bulkInputStream;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (bulkInputStream != null) {
+      bulkInputStream.close();
+      bulkInputStream = null;
+      inputStream = null;
+    }
+  }
+}
@@ -101,6 +101,10 @@ public class ParquetScanProjectedColumns {
             isConvertedIcebergDataset, fallBackOnNameBasedRead, shouldUseBatchSchemaForResolvingProjectedColumn, batchSchema);
   }
 
+  ParquetScanProjectedColumns cloneForSchemaPaths(List<SchemaPath> projectedColumns) {
+    return cloneForSchemaPaths(projectedColumns, this.isConvertedIcebergDataset);
+  }
+
   ParquetScanProjectedColumns cloneForSchemaPaths(List<SchemaPath> projectedColumns, boolean isConvertedIcebergDataset) {
     return new ParquetScanProjectedColumns(projectedColumns, this.icebergColumnIDs, isConvertedIcebergDataset, this.fallBackOnNameBasedRead, false, null);
   }
@@ -126,6 +126,8 @@ public class UnifiedParquetReader implements RecordReader {
   private final int maxValidityBufSize;
   private List<FieldBufferCopier> copiers;
   private ArrowBuf sv2;
+  private final ParquetReaderStats runtimeFilterStats = new ParquetReaderStats();
+  private boolean skippedByRuntimeFilter;
 
   public UnifiedParquetReader(
     OperatorContext context,
@@ -228,6 +230,7 @@ public class UnifiedParquetReader implements RecordReader {
     this.columnResolver = this.projectedColumns.getColumnResolver(
       footer.getFileMetaData().getSchema());
     splitColumns(footer, vectorizableReaderColumns, nonVectorizableReaderColumns);
+    skippedByRuntimeFilter = canSkipRowGroupUsingRuntimeFilters(runtimeFilters);
 
     Set<String> filterColumns = runtimeFilters.stream()
       .flatMap(rf -> rf.getNonPartitionColumnFilters().stream())
@@ -326,6 +329,33 @@ public class UnifiedParquetReader implements RecordReader {
     }
   }
 
+  /**
+   * Checks if the row group can be skipped without reading any of its pages, because its metadata proves that
+   * none of its rows can pass the given runtime filters.
+   */
+  private boolean canSkipRowGroupUsingRuntimeFilters(List<RuntimeFilter> filters) {
+    if (filters.isEmpty() || !context.getOptions().getOption(ExecConstants.ENABLE_ROWGROUP_RUNTIME_FILTERING)) {
+      return false;
+    }
+    final List<BlockMetaData> blocks = footer.getBlocks();
+    final BlockMetaData block = readEntry.getRowGroupIndex() < blocks.size() ? blocks.get(readEntry.getRowGroupIndex()) : null;
+    if (block == null) {
+      return false;
+    }
+
+    try (ParquetRuntimeFilterEvaluator evaluator = new ParquetRuntimeFilterEvaluator(fs, Path.of(readEntry.getPath()),
+      context.getAllocator(), block, columnResolver::getParquetColumnName,
+      context.getOptions().getOption(ExecConstants.READ_COLUMN_INDEXES),
+      context.getOptions().getOption(ExecConstants.ENABLE_ROWGROUP_RUNTIME_FILTERING_BLOOM_FILTERS),
+      (int) context.getOptions().getOption(ExecConstants.ROWGROUP_RUNTIME_FILTERING_MAX_BLOOM_FILTER_PROBES),
+      runtimeFilterStats)) {
+      return evaluator.canSkipRowGroup(filters);
+    } catch (Exception e) {
+      logger.debug("Failed to evaluate runtime filters on row group {} of {}", readEntry.getRowGroupIndex(), readEntry.getPath(), e);
+      return false;
+    }
+  }
+
   private RecordReader addFilterIfNecessary(RecordReader delegate) {
     if (!filters.hasPushdownFilters()) {
       return delegate;
@@ -361,6 +391,10 @@ public class UnifiedParquetReader implements RecordReader {
 
   @Override
   public int next() {
+    if (skippedByRuntimeFilter) {
+      return 0;
+    }
+
     // at most one filter
     if (validityBuf == null) {
       return readEnsuringReadersReturnSameNumberOfRecords();
@@ -529,6 +563,11 @@ public class UnifiedParquetReader implements RecordReader {
       footer.removeRowGroupInformation(readEntry.getRowGroupIndex());
       context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_TRIMMED, 1);
     }
+    if (runtimeFilterStats.numRuntimeFilterRowGroupsSkipped > 0) {
+      context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_PRUNED_BY_RUNTIME_FILTER, runtimeFilterStats.numRuntimeFilterRowGroupsSkipped);
+      context.getStats().addLongStat(Metric.NUM_PAGES_PRUNED_BY_RUNTIME_FILTER, runtimeFilterStats.numRuntimeFilterPagesSkipped);
+      context.getStats().addLongStat(Metric.RUNTIME_FILTER_SKIPPED_BYTES, runtimeFilterStats.totalRuntimeFilterSkippedBytes);
+    }
     try {
       List<AutoCloseable> closeables = new ArrayList<>();
       closeables.addAll(delegates);
@@ -586,6 +625,7 @@ public class UnifiedParquetReader implements RecordReader {
         }
       }
       if (fieldsWithEncodingsSupportedByVectorizedReader.containsKey(parquetField.getName()) &&
+          readerFactory.isSupported(parquetField) &&
           isParquetFieldVectorizable(fieldsWithEncodingsSupportedByVectorizedReader, parquetField, isArrowSchemaPresent)) {
         vectorizableTypes.add(parquetField);
       } else {
@@ -803,9 +843,11 @@ public class UnifiedParquetReader implements RecordReader {
       @Override
       public List<RecordReader> getReaders(UnifiedParquetReader unifiedReader) {
         boolean isVectorizableFilterOn = unifiedReader.isConditionSet(unifiedReader.nonVectorizableReaderColumns);
+        // readers that don't filter are only given the pushdown filters when they read every column
+        final boolean readerFilters = unifiedReader.readerFactory.supportsFiltering();
         final SimpleIntVector deltas;
-        if (isVectorizableFilterOn || unifiedReader.isVectorizableNonPartitionColFilterPresent() ||
-            unifiedReader.filters.hasPositionalDeleteFilter()) {
+        if (readerFilters && (isVectorizableFilterOn || unifiedReader.isVectorizableNonPartitionColFilterPresent() ||
+            unifiedReader.filters.hasPositionalDeleteFilter())) {
           deltas = new SimpleIntVector("deltas", unifiedReader.context.getAllocator());
         } else {
           deltas = null;
@@ -835,7 +877,9 @@ public class UnifiedParquetReader implements RecordReader {
             unifiedReader.tableSchema,
             unifiedReader.ignoreSchemaLearning);
 
-          returnList.add(getWrappedReader(reader, unifiedReader));
+          returnList.add(readerFilters
+            ? getWrappedReader(reader, unifiedReader)
+            : unifiedReader.addFilterIfNecessary(getWrappedReader(reader, unifiedReader)));
         }
         if (!unifiedReader.nonVectorizableReaderColumns.isEmpty()) {
           RecordReader reader = new ParquetRowiseReader(
@@ -972,12 +1016,19 @@ public class UnifiedParquetReader implements RecordReader {
   }
 
   private ExecutionPath getExecutionPath() {
+    if (skippedByRuntimeFilter) {
+      return ExecutionPath.SKIP_ALL;
+    }
     if ((globalDictionaryFieldInfoMap != null && !globalDictionaryFieldInfoMap.isEmpty())) {
       return ExecutionPath.DEPRECATED_VECTORIZED;
     }
     if (!vectorize || !determineFilterConditions(nonVectorizableReaderColumns)) {
       return ExecutionPath.ROWWISE;
     }
+    if (!readerFactory.supportsFiltering() && (filters.hasPositionalDeleteFilter() ||
+        (filters.hasPushdownFilters() && !nonVectorizableReaderColumns.isEmpty()))) {
+      return ExecutionPath.ROWWISE;
+    }
 
     if (vectorizableReaderColumns.isEmpty() && nonVectorizableReaderColumns.isEmpty() &&
         !filters.hasPositionalDeleteFilter()) {
@@ -1007,6 +1058,10 @@ public class UnifiedParquetReader implements RecordReader {
       RuntimeFilter filterWithNewNonPartColFilterList = RuntimeFilter.getInstanceWithNewNonPartitionColFiltersList(runtimeFilter);
       this.runtimeFilters.add(filterWithNewNonPartColFilterList);
       this.delegates.forEach(d -> d.addRuntimeFilter(filterWithNewNonPartColFilterList));
+      // a filter that arrives after setup can still save the reads of the remaining pages of the row group
+      if (columnResolver != null && !skippedByRuntimeFilter) {
+        skippedByRuntimeFilter = canSkipRowGroupUsingRuntimeFilters(Collections.singletonList(filterWithNewNonPartColFilterList));
+      }
     }
   }
 
@@ -26,6 +26,7 @@ import com.dremio.common.VM;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.memory.MemoryArbiter;
 
 public class MemoryIterator implements Iterator<Object> {
 
@@ -66,6 +67,14 @@ public class MemoryIterator implements Iterator<Object> {
     memoryInfo.direct_current = dbContext.getAllocator().getAllocatedMemory();
     memoryInfo.direct_max = VM.getMaxDirectMemory();
     memoryInfo.node_id = endpoint.getAddress() + ":" + endpoint.getFabricPort();
+
+    final MemoryArbiter memoryArbiter = dbContext.getWorkStatsProvider().get().getMemoryArbiter();
+    if (memoryArbiter != null) {
+      memoryInfo.memory_granted = memoryArbiter.getGrantedMemory();
+      memoryInfo.fragments_blocked_on_memory = memoryArbiter.getNumBlockedTasks();
+      memoryInfo.memory_grants_denied = memoryArbiter.getNumGrantsDenied();
+      memoryInfo.shrink_memory_requests = memoryArbiter.getNumShrinkRequests();
+    }
     return memoryInfo;
   }
 
@@ -96,5 +105,9 @@ public class MemoryIterator implements Iterator<Object> {
     public long direct_current;
     public long jvm_direct_current;
     public long direct_max;
+    public long memory_granted;
+    public long fragments_blocked_on_memory;
+    public long memory_grants_denied;
+    public long shrink_memory_requests;
   }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.util;
+
+import java.nio.ByteOrder;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BitVectorHelper;
+
+/**
+ * Copies java primitive arrays, as produced by readers that decode into on-heap column vectors, into fixed width
+ * arrow vectors. Values are written straight into the data buffer, in bulk when the types match, and the validity
+ * bits are set a byte at a time where possible, instead of going through the per value setters of the vectors.
+ *
+ * The vectors must already have the capacity for the copied range.
+ */
+public final class PrimitiveArrayCopier {
+
+  private PrimitiveArrayCopier() {
+  }
+
+  /**
+   * Copies longs into an 8 byte wide vector.
+   */
+  public static void copy(long[] input, int inputIdx, BaseFixedWidthVector output, int outputIdx, int count) {
+    output.getDataBuffer().nioBuffer((long) outputIdx * Long.BYTES, count * Long.BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN)
+      .asLongBuffer()
+      .put(input, inputIdx, count);
+  }
+
+  /**
+   * Copies doubles into an 8 byte wide vector.
+   */
+  public static void copy(double[] input, int inputIdx, BaseFixedWidthVector output, int outputIdx, int count) {
+    output.getDataBuffer().nioBuffer((long) outputIdx * Double.BYTES, count * Double.BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN)
+      .asDoubleBuffer()
+      .put(input, inputIdx, count);
+  }
+
+  /**
+   * Copies longs into a 4 byte wide int vector, truncating each value.
+   */
+  public static void copyToInt(long[] input, int inputIdx, BaseFixedWidthVector output, int outputIdx, int count) {
+    final ArrowBuf data = output.getDataBuffer();
+    for (int i = 0; i < count; i++) {
+      data.setInt((long) (outputIdx + i) * Integer.BYTES, (int) input[inputIdx + i]);
+    }
+  }
+
+  /**
+   * Copies longs into a 4 byte wide float vector.
+   */
+  public static void copyToFloat(long[] input, int inputIdx, BaseFixedWidthVector output, int outputIdx, int count) {
+    final ArrowBuf data = output.getDataBuffer();
+    for (int i = 0; i < count; i++) {
+      data.setFloat((long) (outputIdx + i) * Float.BYTES, (float) input[inputIdx + i]);
+    }
+  }
+
+  /**
+   * Copies doubles into a 4 byte wide float vector.
+   */
+  public static void copyToFloat(double[] input, int inputIdx, BaseFixedWidthVector output, int outputIdx, int count) {
+    final ArrowBuf data = output.getDataBuffer();
+    for (int i = 0; i < count; i++) {
+      data.setFloat((long) (outputIdx + i) * Float.BYTES, (float) input[inputIdx + i]);
+    }
+  }
+
+  /**
+   * Copies longs into an 8 byte wide double vector.
+   */
+  public static void copyToDouble(long[] input, int inputIdx, BaseFixedWidthVector output, int outputIdx, int count) {
+    final ArrowBuf data = output.getDataBuffer();
+    for (int i = 0; i < count; i++) {
+      data.setDouble((long) (outputIdx + i) * Double.BYTES, (double) input[inputIdx + i]);
+    }
+  }
+
+  /**
+   * Marks the given range of the vector as not null.
+   */
+  public static void setValid(BaseFixedWidthVector output, int outputIdx, int count) {
+    final ArrowBuf validity = output.getValidityBuffer();
+    final int end = outputIdx + count;
+    int index = outputIdx;
+    for (; index < end && (index & 7) != 0; index++) {
+      BitVectorHelper.setBit(validity, index);
+    }
+    final int fullBytesEnd = end & ~7;
+    if (index < fullBytesEnd) {
+      validity.setOne(index >>> 3, (fullBytesEnd - index) >>> 3);
+      index = fullBytesEnd;
+    }
+    for (; index < end; index++) {
+      BitVectorHelper.setBit(validity, index);
+    }
+  }
+
+  /**
+   * Marks the values of the given range of the vector whose input is not null as not null.
+   */
+  public static void setValid(boolean[] isNull, int inputIdx, BaseFixedWidthVector output, int outputIdx, int count) {
+    final ArrowBuf validity = output.getValidityBuffer();
+    for (int i = 0; i < count; i++) {
+      if (!isNull[inputIdx + i]) {
+        BitVectorHelper.setBit(validity, outputIdx + i);
+      }
+    }
+  }
+}
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.Iterator;
 
 import com.dremio.resource.GroupResourceInformation;
+import com.dremio.sabot.memory.MemoryArbiter;
 import com.dremio.sabot.task.TaskDescriptor;
 import com.dremio.sabot.task.TaskPool;
 
@@ -31,6 +32,13 @@ public interface WorkStats {
     return Collections.emptyList();
   }
 
+  /**
+   * @return the memory arbiter of the executor, or null if there is none
+   */
+  default MemoryArbiter getMemoryArbiter() {
+    return null;
+  }
+
   /**
    * @return number of running fragments / max width per node
    */
@@ -32,6 +32,7 @@ import com.dremio.common.utils.protos.QueryWritableBatch;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.PlanCache;
 import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.planner.sql.handlers.commands.AsyncCommand;
 import com.dremio.exec.planner.sql.handlers.commands.CommandCreator;
@@ -716,6 +717,16 @@ public class AttemptManager implements Runnable {
         }
         observer.beginState(AttemptObserver.toEvent(convertTerminalToAttemptState(resultState)));
 
+        // publish the stored results of the query to the result cache, if they were staged during planning
+        final PlanCache planCache = queryContext.getPlanCache();
+        if (planCache != null && planCache.getResultCache() != null) {
+          try {
+            planCache.getResultCache().complete(queryIdString, resultState == QueryState.COMPLETED);
+          } catch (Exception e) {
+            logger.warn("Failed to update the result cache for query {}", queryIdString, e);
+          }
+        }
+
         UserException uex;
         if (resultException != null) {
           ResourceAllocationException ex = ErrorHelper.findWrappedCause(resultException, ResourceAllocationException.class);
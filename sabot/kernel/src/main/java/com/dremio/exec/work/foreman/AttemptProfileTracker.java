@@ -272,6 +272,9 @@ class AttemptProfileTracker {
       builder.setTotalFragments(capturer.getNumFragments());
       builder.addAllDatasetProfile(capturer.getDatasets());
       builder.setNumPlanCacheUsed(capturer.getNumPlanCacheUses());
+      if (capturer.getResultCacheProfile() != null) {
+        builder.setResultCacheProfile(capturer.getResultCacheProfile());
+      }
 
       final String planText = capturer.getText();
       if (planText != null) {
@@ -45,6 +45,7 @@ import com.dremio.exec.maestro.MaestroForwarder;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.planner.CachedPlan;
 import com.dremio.exec.planner.PlanCache;
+import com.dremio.exec.planner.ResultCache;
 import com.dremio.exec.planner.observer.OutOfBandQueryObserver;
 import com.dremio.exec.planner.observer.QueryObserver;
 import com.dremio.exec.planner.sql.handlers.commands.PreparedPlan;
@@ -240,7 +241,12 @@ public class ForemenWorkManager implements Service, SafeExit {
       .expireAfterAccess(dbContext.get().getDremioConfig().getLong(DremioConfig.PLAN_CACHE_TIMEOUT_MINUTES), TimeUnit.MINUTES)
       .build();
 
-    planCache = new PlanCache(cachedPlans, Multimaps.synchronizedListMultimap(ArrayListMultimap.create()));
+    // cache for query results, weighed by the size of the stored results.
+    final ResultCache resultCache = new ResultCache(
+      dbContext.get().getDremioConfig().getLong(DremioConfig.RESULT_CACHE_MAX_SIZE_BYTES),
+      dbContext.get().getDremioConfig().getLong(DremioConfig.RESULT_CACHE_TIMEOUT_MINUTES));
+
+    planCache = new PlanCache(cachedPlans, Multimaps.synchronizedListMultimap(ArrayListMultimap.create()), resultCache);
 
   }
 
@@ -172,6 +172,11 @@ public class FragmentWorkManager implements Service, SafeExit {
       return pool.get().getSlicingThreads();
     }
 
+    @Override
+    public MemoryArbiter getMemoryArbiter() {
+      return memoryArbiter;
+    }
+
     /**
      * @return number of running fragments / max width per node
      */
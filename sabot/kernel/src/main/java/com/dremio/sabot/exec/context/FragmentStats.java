@@ -51,6 +51,8 @@ public class FragmentStats {
   private long blockedOnUpstreamDuration;
   private long blockedOnDownstreamDuration;
   private long blockedOnMemoryDuration;
+  private long numMemoryGrantsDenied;
+  private long numShrinkMemoryRequests;
   private long blockedOnSharedResourceDuration;
 
   private long numRuns;
@@ -92,6 +94,8 @@ public class FragmentStats {
     prfB.setBlockedOnDownstreamDuration(blockedOnDownstreamDuration);
     prfB.setBlockedOnSharedResourceDuration(blockedOnSharedResourceDuration);
     prfB.setBlockedOnMemoryDuration(blockedOnMemoryDuration);
+    prfB.setNumMemoryGrantsDenied(numMemoryGrantsDenied);
+    prfB.setNumShrinkMemoryRequests(numShrinkMemoryRequests);
     for (Map.Entry<SharedResourceType, Long> entry : perResourceBlockedDurations.entrySet()) {
       BlockedResourceDuration duration = BlockedResourceDuration.newBuilder()
         .setResource(entry.getKey().name())
@@ -208,6 +212,14 @@ public class FragmentStats {
     this.blockedOnMemoryDuration = blockedDuration;
   }
 
+  public void memoryGrantDenied() {
+    numMemoryGrantsDenied++;
+  }
+
+  public void shrinkMemoryRequested() {
+    numShrinkMemoryRequests++;
+  }
+
   public void addBlockedOnSharedResourceDuration(SharedResourceType resource, long blockedDuration) {
     this.blockedOnSharedResourceDuration += blockedDuration;
 
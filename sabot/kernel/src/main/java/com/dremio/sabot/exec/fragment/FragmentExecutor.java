@@ -20,14 +20,12 @@ import static com.dremio.sabot.exec.fragment.FragmentExecutorBuilder.WORK_QUEUE_
 
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
@@ -91,6 +89,7 @@ import com.dremio.service.coordinator.NodeStatusListener;
 import com.dremio.service.spill.SpillService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.SettableFuture;
 
 /**
@@ -180,9 +179,10 @@ public class FragmentExecutor implements MemoryArbiterTask {
   private final MemoryArbiter memoryArbiter;
   private long memoryGrantInBytes = 0;
   private long maxMemoryUsedPerPump = 16 * MB;
-  private final List<MemoryTaskAndShrinkableOperator> shrinkableOperators = new ArrayList<>();
-  // This is the list of operators that have been asked to spill
-  private final Map<Integer, Long> spillingOperators = new HashMap<>();
+  // Published once the pipeline is set up. The arbiter reads it from other fragments' threads.
+  private volatile List<MemoryTaskAndShrinkableOperator> shrinkableOperators = ImmutableList.of();
+  // This is the list of operators that have been asked to spill. The arbiter reads it from other fragments' threads.
+  private final Map<Integer, Long> spillingOperators = new ConcurrentHashMap<>();
   // This is a queue of in-progress spilling operators
   private final Queue<Integer> spillingOperatorQueue = new ArrayDeque<>(10);
 
@@ -224,9 +224,6 @@ public class FragmentExecutor implements MemoryArbiterTask {
       1 : fragment.getMajor().getFragmentExecWeight();
     this.schedulingWeight = schedulingWeight;
     this.memoryArbiter = memoryArbiter;
-    if (memoryArbiter != null) {
-      memoryArbiter.startTask(this);
-    }
     this.leafFragment = fragment.getMajor().getLeafFragment();
     this.clusterCoordinator = clusterCoordinator;
     this.reader = reader;
@@ -266,6 +263,7 @@ public class FragmentExecutor implements MemoryArbiterTask {
   public void blockOnMemory() {
     Preconditions.checkArgument(this.taskState != State.BLOCKED_ON_MEMORY, "Unexpected state, the fragment is already blocked on memory");
     this.taskState = State.BLOCKED_ON_MEMORY;
+    stats.memoryGrantDenied();
     logger.debug("Fragment {}:{} blocked on memory", fragment.getHandle().getMajorFragmentId(), fragment.getHandle().getMinorFragmentId());
     this.memoryResource.markBlocked();
   }
@@ -361,10 +359,21 @@ public class FragmentExecutor implements MemoryArbiterTask {
       logger.debug("Memory arbiter state {}", memoryArbiter);
       spillingOperators.remove(operatorId);
     }
+    publishShrinkableMemory();
 
     return doneSpilling;
   }
 
+  /**
+   * Snapshots the shrinkable memory of the operators, which the arbiter reads instead of calling into the
+   * operators from other fragments' threads.
+   */
+  private void publishShrinkableMemory() {
+    for (MemoryTaskAndShrinkableOperator shrinkableOperator : shrinkableOperators) {
+      shrinkableOperator.updateShrinkableMemory();
+    }
+  }
+
   private void reduceMemoryUsage() throws Exception {
     if (spillingOperatorQueue.isEmpty()) {
       // Make a copy of the spilling operator ids
@@ -470,6 +479,7 @@ public class FragmentExecutor implements MemoryArbiterTask {
 
       // pump the pipeline
       taskState = pumper.run();
+      publishShrinkableMemory();
       long memoryUsedAfterPump = getUsedMemory();
       if (memoryUsedAfterPump > memoryUsedBeforePump) {
         long diff = memoryUsedAfterPump - memoryUsedBeforePump;
@@ -602,12 +612,15 @@ public class FragmentExecutor implements MemoryArbiterTask {
         );
 
     pipeline.setup();
-    shrinkableOperators.addAll(
-      pipeline.getShrinkableOperators()
-        .stream()
-        .map(shrinkableOperator -> { return new MemoryTaskAndShrinkableOperator(this, shrinkableOperator); })
-        .collect(Collectors.toList())
-    );
+    shrinkableOperators = pipeline.getShrinkableOperators()
+      .stream()
+      .map(shrinkableOperator -> new MemoryTaskAndShrinkableOperator(this, shrinkableOperator))
+      .collect(ImmutableList.toImmutableList());
+    publishShrinkableMemory();
+    // register with the arbiter only once the operators are known, so that it never sees a partial list
+    if (memoryArbiter != null) {
+      memoryArbiter.startTask(this);
+    }
     clusterCoordinator.getServiceSet(ClusterCoordinator.Role.COORDINATOR).addNodeStatusListener(crashListener);
 
     transitionToRunning();
@@ -664,6 +677,9 @@ public class FragmentExecutor implements MemoryArbiterTask {
       return;
     }
 
+    if (memoryArbiter != null) {
+      memoryArbiter.taskDone(this);
+    }
     deferredException.suppressingClose(pipeline);
     // make sure to close incoming buffers before we call flushMessages() otherwise we may block before
     // we sent ACKs to other fragments and force other fragments to wait on us
@@ -849,6 +865,7 @@ public class FragmentExecutor implements MemoryArbiterTask {
   // This fragment got a shrink memory request. Add this to the list of spilling operators
   private void handleShrinkMemoryRequest(OutOfBandMessage message) {
     unblockOnMemory();
+    stats.shrinkMemoryRequested();
     ExecProtos.ShrinkMemoryUsage shrinkMemoryUsage = message.getPayload(ExecProtos.ShrinkMemoryUsage.parser());
     Long prevValue = spillingOperators.put(message.getOperatorId(), shrinkMemoryUsage.getMemoryInBytes());
     if (prevValue != null) {
@@ -15,28 +15,262 @@
  */
 package com.dremio.sabot.memory;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import com.dremio.common.memory.DremioRootAllocator;
+import com.google.common.annotations.VisibleForTesting;
 
 /**
- * This class has a default implementation of the MemoryArbiter
+ * This class has a default implementation of the MemoryArbiter.
+ *
+ * Grants are tracked against the limit of the root allocator: a task gets its grant if the memory that is neither
+ * allocated nor granted to other tasks covers it, after setting aside the memory requested by the tasks that are
+ * already waiting. Otherwise the task is blocked, in the order of the requests, and the shrinkable operators with the
+ * most shrinkable memory are asked to spill until the missing memory is covered. Blocked tasks are unblocked as
+ * grants are released.
+ *
+ * Shrinkable operators are also asked to spill as soon as the allocated and granted memory goes over
+ * {@link #HIGH_WATERMARK} of the limit, before the tasks start blocking.
  */
 public class DefaultMemoryArbiter implements MemoryArbiter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(DefaultMemoryArbiter.class);
+
+  @VisibleForTesting
+  static final double HIGH_WATERMARK = 0.9;
+
+  private final DremioRootAllocator rootAllocator;
+  private final Set<MemoryArbiterTask> tasks = new HashSet<>();
+  // tasks waiting for a grant, in the order of their requests, with the memory they requested
+  private final LinkedHashMap<MemoryArbiterTask, Long> blockedTasks = new LinkedHashMap<>();
+  // tasks unblocked by the arbiter, which get their next grant ahead of the blocked tasks
+  private final Set<MemoryArbiterTask> unblockedTasks = new HashSet<>();
+  private long grantedMemory;
+  private long blockedMemory;
+  private long numGrantsDenied;
+  private long numShrinkRequests;
+
   public DefaultMemoryArbiter(DremioRootAllocator rootAllocator) {
+    this.rootAllocator = rootAllocator;
+  }
+
+  @Override
+  public synchronized void startTask(MemoryArbiterTask memoryArbiterTask) {
+    tasks.add(memoryArbiterTask);
   }
 
   @Override
   public void taskDone(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> tasksToUnblock;
+    synchronized (this) {
+      tasks.remove(memoryArbiterTask);
+      unblockedTasks.remove(memoryArbiterTask);
+      removeBlockedTask(memoryArbiterTask);
+      releaseGrant(memoryArbiterTask);
+      tasksToUnblock = pollTasksToUnblock();
+    }
+    tasksToUnblock.forEach(MemoryArbiterTask::unblockOnMemory);
   }
 
   /**
-   * The requested memory is always granted
+   * The requested memory is granted if it is available, otherwise the task is blocked and shrinkable operators are
+   * asked to spill. The memory is granted regardless when no other task holds a grant and no operator is spilling,
+   * as nothing would unblock the task.
    */
   @Override
   public boolean acquireMemoryGrant(MemoryArbiterTask memoryArbiterTask, long memoryGrantInBytes) {
-    return true;
+    final List<ShrinkCandidate> operatorsToShrink;
+    synchronized (this) {
+      if (memoryArbiterTask.getMemoryGrant() > 0) {
+        return true;
+      }
+
+      final boolean unblocked = unblockedTasks.remove(memoryArbiterTask);
+      removeBlockedTask(memoryArbiterTask);
+      final long available = getAvailableMemory() - (unblocked ? 0 : blockedMemory);
+      if (available >= memoryGrantInBytes || (grantedMemory == 0 && getShrinkingMemory() == 0)) {
+        memoryArbiterTask.setMemoryGrant(memoryGrantInBytes);
+        grantedMemory += memoryGrantInBytes;
+        final long overWatermark = rootAllocator.getAllocatedMemory() + grantedMemory - getHighWatermark();
+        operatorsToShrink = overWatermark > 0 ? selectOperatorsToShrink(overWatermark) : new ArrayList<>();
+      } else {
+        numGrantsDenied++;
+        blockedTasks.put(memoryArbiterTask, memoryGrantInBytes);
+        blockedMemory += memoryGrantInBytes;
+        memoryArbiterTask.blockOnMemory();
+        operatorsToShrink = selectOperatorsToShrink(memoryGrantInBytes - available);
+        logger.debug("Blocked task {} requesting {} bytes, {} bytes available, asking {} to shrink",
+          memoryArbiterTask.getTaskId(), memoryGrantInBytes, available, operatorsToShrink);
+      }
+    }
+
+    shrink(operatorsToShrink);
+    return memoryArbiterTask.getMemoryGrant() > 0;
   }
 
   @Override
   public void releaseMemoryGrant(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> tasksToUnblock;
+    synchronized (this) {
+      releaseGrant(memoryArbiterTask);
+      tasksToUnblock = pollTasksToUnblock();
+    }
+    tasksToUnblock.forEach(MemoryArbiterTask::unblockOnMemory);
+  }
+
+  @Override
+  public synchronized boolean removeFromBlocked(MemoryArbiterTask memoryArbiterTask) {
+    return removeBlockedTask(memoryArbiterTask);
+  }
+
+  @Override
+  public synchronized long getGrantedMemory() {
+    return grantedMemory;
+  }
+
+  @Override
+  public synchronized int getNumBlockedTasks() {
+    return blockedTasks.size();
+  }
+
+  @Override
+  public synchronized long getNumGrantsDenied() {
+    return numGrantsDenied;
+  }
+
+  @Override
+  public synchronized long getNumShrinkRequests() {
+    return numShrinkRequests;
+  }
+
+  private void releaseGrant(MemoryArbiterTask memoryArbiterTask) {
+    grantedMemory -= memoryArbiterTask.getMemoryGrant();
+    memoryArbiterTask.setMemoryGrant(0);
+  }
+
+  private boolean removeBlockedTask(MemoryArbiterTask memoryArbiterTask) {
+    final Long requested = blockedTasks.remove(memoryArbiterTask);
+    if (requested == null) {
+      return false;
+    }
+    blockedMemory -= requested;
+    return true;
+  }
+
+  /**
+   * Removes the blocked tasks whose requests now fit, in order. The first task is unblocked regardless if nothing
+   * else would unblock it.
+   */
+  private List<MemoryArbiterTask> pollTasksToUnblock() {
+    final List<MemoryArbiterTask> tasksToUnblock = new ArrayList<>();
+    long available = getAvailableMemory();
+    final Iterator<Map.Entry<MemoryArbiterTask, Long>> iterator = blockedTasks.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<MemoryArbiterTask, Long> entry = iterator.next();
+      final boolean noProgress = grantedMemory == 0 && unblockedTasks.isEmpty() && tasksToUnblock.isEmpty() &&
+        getShrinkingMemory() == 0;
+      if (entry.getValue() > available && !noProgress) {
+        break;
+      }
+      available -= entry.getValue();
+      blockedMemory -= entry.getValue();
+      iterator.remove();
+      unblockedTasks.add(entry.getKey());
+      tasksToUnblock.add(entry.getKey());
+    }
+    return tasksToUnblock;
+  }
+
+  private long getAvailableMemory() {
+    return rootAllocator.getLimit() - rootAllocator.getAllocatedMemory() - grantedMemory;
+  }
+
+  private long getHighWatermark() {
+    return (long) (rootAllocator.getLimit() * HIGH_WATERMARK);
+  }
+
+  private long getShrinkingMemory() {
+    long shrinkingMemory = 0;
+    for (MemoryArbiterTask task : tasks) {
+      for (MemoryTaskAndShrinkableOperator operator : task.getShrinkableOperators()) {
+        if (operator.isOperatorShrinkingMemory()) {
+          shrinkingMemory += Math.max(operator.getShrinkableMemory(), 1);
+        }
+      }
+    }
+    return shrinkingMemory;
+  }
+
+  /**
+   * Picks the operators with the most shrinkable memory until they cover the memory to free, counting the operators
+   * that are already shrinking.
+   */
+  private List<ShrinkCandidate> selectOperatorsToShrink(long memoryToFree) {
+    long shrinkingMemory = getShrinkingMemory();
+    final List<ShrinkCandidate> candidates = new ArrayList<>();
+    for (MemoryArbiterTask task : tasks) {
+      for (MemoryTaskAndShrinkableOperator operator : task.getShrinkableOperators()) {
+        // the shrinkable memory is a snapshot published by the fragment thread, operators are never called from here
+        final long shrinkableMemory = operator.getShrinkableMemory();
+        if (shrinkableMemory > 0 && !operator.isOperatorShrinkingMemory()) {
+          candidates.add(new ShrinkCandidate(operator, shrinkableMemory));
+        }
+      }
+    }
+    candidates.sort(Comparator.comparingLong((ShrinkCandidate candidate) -> candidate.shrinkableMemory).reversed());
+
+    final List<ShrinkCandidate> operatorsToShrink = new ArrayList<>();
+    for (ShrinkCandidate candidate : candidates) {
+      if (shrinkingMemory >= memoryToFree) {
+        break;
+      }
+      operatorsToShrink.add(candidate);
+      shrinkingMemory += candidate.shrinkableMemory;
+    }
+    numShrinkRequests += operatorsToShrink.size();
+    return operatorsToShrink;
+  }
+
+  private static void shrink(List<ShrinkCandidate> operatorsToShrink) {
+    for (ShrinkCandidate candidate : operatorsToShrink) {
+      try {
+        candidate.operator.shrinkMemory(candidate.shrinkableMemory);
+      } catch (Exception e) {
+        logger.warn("Failed to ask operator {} to shrink its memory usage", candidate.operator, e);
+      }
+    }
+  }
+
+  /**
+   * An operator to shrink, with the shrinkable memory it had when it was selected.
+   */
+  private static final class ShrinkCandidate {
+    private final MemoryTaskAndShrinkableOperator operator;
+    private final long shrinkableMemory;
+
+    private ShrinkCandidate(MemoryTaskAndShrinkableOperator operator, long shrinkableMemory) {
+      this.operator = operator;
+      this.shrinkableMemory = shrinkableMemory;
+    }
+
+    @Override
+    public String toString() {
+      return operator.toString();
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "DefaultMemoryArbiter{granted=" + grantedMemory +
+      ", blockedTasks=" + blockedTasks.size() +
+      ", blockedMemory=" + blockedMemory +
+      ", grantsDenied=" + numGrantsDenied +
+      ", shrinkRequests=" + numShrinkRequests + "}";
   }
 }
@@ -54,4 +54,32 @@ public interface MemoryArbiter {
   default boolean removeFromBlocked(MemoryArbiterTask memoryArbiterTask) {
     return false;
   }
+
+  /**
+   * @return the memory currently granted to the tasks, in bytes
+   */
+  default long getGrantedMemory() {
+    return 0;
+  }
+
+  /**
+   * @return the number of tasks blocked waiting for a grant
+   */
+  default int getNumBlockedTasks() {
+    return 0;
+  }
+
+  /**
+   * @return the number of grant requests that blocked the requesting task
+   */
+  default long getNumGrantsDenied() {
+    return 0;
+  }
+
+  /**
+   * @return the number of requests sent to shrinkable operators to shrink their memory usage
+   */
+  default long getNumShrinkRequests() {
+    return 0;
+  }
 }
@@ -51,7 +51,8 @@ public interface MemoryArbiterTask {
 
   /**
    * @return Return a non-empty list shrinkable operators associated with this task.
-   * If there are no shrinkable operators, return an empty list
+   * If there are no shrinkable operators, return an empty list. The arbiter reads the list from other
+   * tasks' threads, so it must not change once the task is started.
    */
   List<MemoryTaskAndShrinkableOperator> getShrinkableOperators();
 
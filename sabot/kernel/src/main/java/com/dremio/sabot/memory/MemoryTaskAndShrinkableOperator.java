@@ -26,7 +26,8 @@ public class MemoryTaskAndShrinkableOperator {
   private final MemoryArbiterTask memoryArbiterTask;
   private final Operator.ShrinkableOperator shrinkableOperator;
   private String stringToDisplay = null;
-  private long currentShrinkableMemory = 0L;
+  // published by the thread running the operator, read by the arbiter from other threads
+  private volatile long currentShrinkableMemory = 0L;
 
   public MemoryTaskAndShrinkableOperator(MemoryArbiterTask memoryArbiterTask, Operator.ShrinkableOperator shrinkableOperator) {
     this.memoryArbiterTask = memoryArbiterTask;
@@ -42,11 +43,18 @@ public class MemoryTaskAndShrinkableOperator {
     return (currentShrinkableMemory != newShrinkableMemory);
   }
 
+  /**
+   * Snapshots the shrinkable memory of the operator. Operators are not thread safe, so this must only be called
+   * from the thread running the operator.
+   */
   public long updateShrinkableMemory() {
     this.currentShrinkableMemory = this.shrinkableOperator.shrinkableMemory();
     return this.currentShrinkableMemory;
   }
 
+  /**
+   * Returns the last snapshot of the shrinkable memory of the operator. Safe to call from any thread.
+   */
   public long getShrinkableMemory() {
     return this.currentShrinkableMemory;
   }
@@ -90,6 +90,18 @@ public class HashAggStats {
     OOB_DROP_NO_VICTIM, // Number of times OOB dropped spilling notification as all allocations were minimal.
     OOB_SPILL, // Spill was done due to oob.
     OOB_DROP_ALREADY_SPILLING, // Number of times operator dropped spilling notification as it was already spilling
+
+    // spill compression related metrics
+    TOTAL_SPILLED_IO_BYTES,    /* total size (in bytes) of spilled data as written to disk, after compression */
+    SPILL_COMPRESSION_PERCENT, /* spilled bytes on disk as a percentage of the uncompressed size */
+    SPILL_COMPRESSION_NANOS,   /* time spent compressing spilled data */
+    SPILL_DECOMPRESSION_NANOS, /* time spent decompressing spilled data while reading it back */
+
+    // adaptive partial aggregation related metrics
+    PARTIAL_BYPASS,                 /* 1 if the partial aggregation switched to pass-through, 0 if it kept aggregating */
+    PARTIAL_GROUPS_PER_100_RECORDS, /* groups per 100 records consumed, observed over the sample batches */
+    PARTIAL_BYPASS_FLUSHES,         /* number of batches flushed while in pass-through */
+    PARTIAL_BYPASS_PASSED_RECORDS,  /* records written as their own group, without being inserted in the hash tables */
     ;
 
     private final DisplayType displayType;
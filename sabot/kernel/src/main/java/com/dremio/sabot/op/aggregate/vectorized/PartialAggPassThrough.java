@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.sabot.op.aggregate.vectorized.AccumulatorBuilder.AccumulatorType;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+
+/**
+ * Writes the incoming records of the first phase of a two phase aggregation straight into the outgoing vectors,
+ * each record being its own group, once {@link VectorizedHashAggOperator} decided that grouping them is not worth
+ * it. The partial result of a single record is only computed for the accumulators for which it is trivial: the keys
+ * and MIN/MAX are copied, SUM/$SUM0 are widened to the type of the sum, and COUNT is 0 or 1.
+ */
+final class PartialAggPassThrough {
+
+  /**
+   * Writes the partial results of the first records of the incoming batch into an outgoing vector.
+   */
+  @FunctionalInterface
+  private interface ColumnWriter {
+    void write(int records);
+  }
+
+  private final List<FieldVector> outputs;
+  private final List<ColumnWriter> writers;
+
+  private PartialAggPassThrough(List<FieldVector> outputs, List<ColumnWriter> writers) {
+    this.outputs = outputs;
+    this.writers = writers;
+  }
+
+  /**
+   * @param keys the incoming and outgoing vectors of the group by keys
+   * @param accumulatorTypes the {@link AccumulatorType} ordinal of each aggregate
+   * @param inputs the incoming vector of each aggregate, null for COUNT(1)
+   * @param outputs the outgoing vector of each aggregate
+   * @return the pass-through, or null if the partial result of a record can't be computed for all aggregates
+   */
+  static PartialAggPassThrough create(List<FieldVectorPair> keys, byte[] accumulatorTypes, List<FieldVector> inputs,
+                                      List<FieldVector> outputs) {
+    final List<FieldVector> outgoing = new ArrayList<>();
+    final List<ColumnWriter> writers = new ArrayList<>();
+    for (FieldVectorPair key : keys) {
+      outgoing.add(key.getOutgoing());
+      writers.add(copy(key.getIncoming(), key.getOutgoing()));
+    }
+    for (int i = 0; i < accumulatorTypes.length; i++) {
+      final ColumnWriter writer = writer(AccumulatorType.values()[accumulatorTypes[i]], inputs.get(i), outputs.get(i));
+      if (writer == null) {
+        return null;
+      }
+      outgoing.add(outputs.get(i));
+      writers.add(writer);
+    }
+    return new PartialAggPassThrough(outgoing, writers);
+  }
+
+  private static ColumnWriter writer(AccumulatorType type, FieldVector input, FieldVector output) {
+    switch (type) {
+      case COUNT1:
+        if (output instanceof BigIntVector) {
+          final BigIntVector counts = (BigIntVector) output;
+          return records -> {
+            for (int i = 0; i < records; i++) {
+              counts.set(i, 1);
+            }
+          };
+        }
+        return null;
+      case COUNT:
+        if (output instanceof BigIntVector) {
+          final BigIntVector counts = (BigIntVector) output;
+          return records -> {
+            for (int i = 0; i < records; i++) {
+              counts.set(i, input.isNull(i) ? 0 : 1);
+            }
+          };
+        }
+        return null;
+      case MIN:
+      case MAX:
+        return input.getField().getType().equals(output.getField().getType()) ? copy(input, output) : null;
+      case SUM:
+      case SUM0:
+        return sum(input, output, type == AccumulatorType.SUM0);
+      default:
+        return null;
+    }
+  }
+
+  private static ColumnWriter copy(FieldVector input, FieldVector output) {
+    final TransferPair transferPair = input.makeTransferPair(output);
+    return records -> {
+      for (int i = 0; i < records; i++) {
+        transferPair.copyValueSafe(i, i);
+      }
+    };
+  }
+
+  /**
+   * @param zeroIfNull true for $SUM0, whose sum of a null value is 0 rather than null
+   */
+  private static ColumnWriter sum(FieldVector input, FieldVector output, boolean zeroIfNull) {
+    if (output instanceof BigIntVector && (input instanceof IntVector || input instanceof BigIntVector)) {
+      final BigIntVector sums = (BigIntVector) output;
+      return records -> {
+        for (int i = 0; i < records; i++) {
+          if (!input.isNull(i)) {
+            sums.set(i, input instanceof IntVector ? ((IntVector) input).get(i) : ((BigIntVector) input).get(i));
+          } else if (zeroIfNull) {
+            sums.set(i, 0);
+          }
+        }
+      };
+    }
+    if (output instanceof Float8Vector && (input instanceof Float4Vector || input instanceof Float8Vector)) {
+      final Float8Vector sums = (Float8Vector) output;
+      return records -> {
+        for (int i = 0; i < records; i++) {
+          if (!input.isNull(i)) {
+            sums.set(i, input instanceof Float4Vector ? ((Float4Vector) input).get(i) : ((Float8Vector) input).get(i));
+          } else if (zeroIfNull) {
+            sums.set(i, 0);
+          }
+        }
+      };
+    }
+    // decimal sums are computed by the accumulators
+    return null;
+  }
+
+  /**
+   * Writes the partial results of the first records of the incoming batch into the outgoing vectors. The caller
+   * sets the record count of the outgoing container.
+   */
+  void write(int records) {
+    for (FieldVector output : outputs) {
+      AllocationHelper.allocateNew(output, records);
+    }
+    for (ColumnWriter writer : writers) {
+      writer.write(records);
+    }
+  }
+}
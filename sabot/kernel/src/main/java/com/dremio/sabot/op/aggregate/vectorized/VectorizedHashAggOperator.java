@@ -63,6 +63,7 @@ import com.dremio.options.OptionManager;
 import com.dremio.options.Options;
 import com.dremio.options.TypeValidators.BooleanValidator;
 import com.dremio.options.TypeValidators.DoubleValidator;
+import com.dremio.options.TypeValidators.EnumValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
 import com.dremio.options.TypeValidators.PowerOfTwoLongValidator;
 import com.dremio.options.TypeValidators.RangeDoubleValidator;
@@ -81,6 +82,7 @@ import com.dremio.sabot.op.common.ht2.PivotBuilder;
 import com.dremio.sabot.op.common.ht2.PivotBuilder.PivotInfo;
 import com.dremio.sabot.op.common.ht2.PivotDef;
 import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.spi.Operator.ShrinkableOperator;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.annotations.VisibleForTesting;
@@ -365,6 +367,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   public static final BooleanValidator VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR = new BooleanValidator("exec.operator.aggregate.vectorize.use_spilling_operator", true);
   public static final PowerOfTwoLongValidator VECTORIZED_HASHAGG_JOINT_ALLOCATION_MIN = new PowerOfTwoLongValidator("exec.operator.aggregate.vectorize.joint_allocation_min", 4*1024, 4*1024);
   public static final PowerOfTwoLongValidator VECTORIZED_HASHAGG_JOINT_ALLOCATION_MAX = new PowerOfTwoLongValidator("exec.operator.aggregate.vectorize.joint_allocation_max", 1024*1024, 64*1024);
+  public static final EnumValidator<SpillCompression> VECTORIZED_HASHAGG_SPILL_COMPRESSION = new EnumValidator<>("exec.operator.aggregate.vectorize.spill_compression", SpillCompression.class, SpillCompression.LZ4);
   public static final BooleanValidator VECTORIZED_HASHAGG_USE_MINIMUM_AS_LIMIT = new BooleanValidator("exec.operator.aggregate.vectorize.use_minimum_as_limit", false);
 
   // how close this allocation has to be to the spilling operator to trigger a spill.
@@ -381,6 +384,15 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   /* XXX: We may remove this option as it seems not needed anymore */
   public static final PositiveLongValidator VECTORIZED_HASHAGG_MAX_LISTAGG_SIZE =
     new PositiveLongValidator("exec.operator.aggregate.listagg.size", 32 * 1024, 32 * 1024);
+  /*
+   * The first phase of a two phase aggregation stops accumulating across batches if, after the sample batches,
+   * the number of groups is at least this ratio of the number of records it consumed.
+   */
+  public static final BooleanValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS = new BooleanValidator("exec.operator.aggregate.vectorize.partial_bypass", true);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES =
+    new PositiveLongValidator("exec.operator.aggregate.vectorize.partial_bypass.sample_batches", 1000, 16);
+  public static final DoubleValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_RATIO =
+    new RangeDoubleValidator("exec.operator.aggregate.vectorize.partial_bypass.min_ratio", 0.0d, 1.0d, .9d);
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedHashAggOperator.class);
 
@@ -482,6 +494,22 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private int chunkOffsetMask;
   private long reservedPreallocation;
 
+  /* adaptive bypass of the first phase of a two phase aggregation */
+  private final boolean partialBypassEnabled;
+  private final int partialBypassSampleBatches;
+  private final double partialBypassMinRatio;
+  private boolean partialBypassDecided;
+  private boolean partialBypass;
+  private int sampledBatches;
+  private long sampledRecords;
+  private long sampledRatioPercent;
+  private int partialBypassFlushes;
+  private boolean noMoreToConsume;
+  private List<FieldVectorPair> keyVectorPairs;
+  private PartialAggPassThrough partialPassThrough;
+  private int passThroughRecords;
+  private long partialPassedRecords;
+
   public static final String OUT_OF_MEMORY_MSG = "Vectorized Hash Agg ran out of memory";
 
   public static final String PREALLOC_FAILURE_PARTITIONS = "Error: Failed to preallocate minimum memory in vectorized hashagg for single batch in all partitions";
@@ -536,6 +564,9 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     this.resumableInsertState = null;
     this.operatorStateBeforeOOB = null;
     this.forceSpillState = null;
+    this.partialBypassEnabled = popConfig.isPartialAggregation() && options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS);
+    this.partialBypassSampleBatches = (int) options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES);
+    this.partialBypassMinRatio = options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_RATIO);
     logger.debug("partitions:{}, min-hashtable-size:{}, max-hashtable-batch-size:{} variable-width-key-size:{}",
       numPartitions, minHashTableSize, maxHashTableBatchSize, estimatedVariableWidthKeySize);
   }
@@ -646,11 +677,17 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
       }
     }
 
+    final List<FieldVector> accumulatorOutputVectors = new ArrayList<>(accumulatorTypes.length);
     for (int i = 0; i < accumulatorTypes.length; ++i) {
       final FieldVector outputVector = TypeHelper.getNewVector(outputVectorFields.get(i), outputAllocator);
       outgoing.add(outputVector);
+      accumulatorOutputVectors.add(outputVector);
     }
     outgoing.buildSchema();
+    if (partialBypassEnabled) {
+      partialPassThrough = PartialAggPassThrough.create(keyVectorPairs, accumulatorTypes,
+        materializeAggExpressionsResult.getInputVectors(), accumulatorOutputVectors);
+    }
 
     final HashAggMemoryEstimator estimator = HashAggMemoryEstimator.create(
       new PivotInfo(pivot.getBlockWidth(), pivot.getVariableCount()),
@@ -860,6 +897,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     }
 
     this.vectorsToValidate = validationVectors.build();
+    this.keyVectorPairs = fvps;
     return PivotBuilder.getBlockDefinition(fvps);
   }
 
@@ -954,11 +992,64 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     state.is(State.CAN_CONSUME);
     Preconditions.checkState(resumableInsertState == null, "Error: not expecting resumable insert state");
 
+    if (partialBypass && partialPassThrough != null) {
+      /* every record is its own group, see outputPassThrough() */
+      passThroughRecords = records;
+      state = State.CAN_PRODUCE;
+      internalStateMachine = InternalState.OUTPUT_PASS_THROUGH;
+      return;
+    }
+
     // ensure that none of the variable length vectors are corrupt so we can avoid doing bounds checking later.
     for(FieldVector v : vectorsToValidate){
       VariableLengthValidator.validateVariable(v, records);
     }
     consumeDataHelper(records);
+
+    if (partialBypassEnabled) {
+      checkPartialBypass(records);
+      if (partialBypass && state == State.CAN_CONSUME && getHashTableSize() > 0) {
+        /* flush the groups of this batch, see outputPartitions() */
+        partialBypassFlushes++;
+        moveToOutputState();
+      }
+    }
+  }
+
+  /**
+   * Decides, once the sample batches of a partial aggregation have been consumed, if aggregating
+   * across batches is worth it. With near-unique keys the partial phase ships as many records to
+   * the exchange as it consumed, after growing its hash tables and possibly spilling. In that case
+   * the operator flushes the groups it holds and switches to pass-through: each incoming record is
+   * written to the outgoing batch as its own group, without being inserted in the hash tables, see
+   * {@link PartialAggPassThrough}. If the partial results of some aggregate can't be computed that
+   * way, each batch is instead aggregated on its own and flushed right away, so that the hash tables
+   * stay at their minimum size.
+   *
+   * If the operator already spilled during the sample, the decision is to keep aggregating.
+   *
+   * @param records number of records in the batch just consumed
+   */
+  private void checkPartialBypass(final int records) {
+    if (partialBypassDecided) {
+      return;
+    }
+    sampledBatches++;
+    sampledRecords += records;
+    if (partitionSpillHandler.getNumberOfSpills() > 0 || internalStateMachine != InternalState.NONE) {
+      partialBypassDecided = true;
+      return;
+    }
+    if (sampledBatches < partialBypassSampleBatches) {
+      return;
+    }
+
+    partialBypassDecided = true;
+    final int groups = getHashTableSize();
+    sampledRatioPercent = sampledRecords == 0 ? 0 : (groups * 100L) / sampledRecords;
+    partialBypass = groups >= partialBypassMinRatio * sampledRecords;
+    logger.debug("partial aggregation: {} groups for {} records in {} batches, bypass: {}",
+      groups, sampledRecords, sampledBatches, partialBypass);
   }
 
   /**
@@ -2083,6 +2174,16 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     stats.setLongStat(Metric.OOB_DROP_NO_VICTIM, oobDropNoVictim);
     stats.setLongStat(Metric.OOB_SPILL, oobSpills);
     stats.setLongStat(Metric.OOB_DROP_ALREADY_SPILLING, oobDropSpill);
+    stats.setLongStat(Metric.TOTAL_SPILLED_IO_BYTES, partitionSpillHandler.getTotalSpilledIOBytes());
+    stats.setLongStat(Metric.SPILL_COMPRESSION_PERCENT, partitionSpillHandler.getSpillCompressionPercent());
+    stats.setLongStat(Metric.SPILL_COMPRESSION_NANOS, partitionSpillHandler.getSpillCompressionNanos());
+    stats.setLongStat(Metric.SPILL_DECOMPRESSION_NANOS, partitionSpillHandler.getSpillDecompressionNanos());
+    if (partialBypassDecided) {
+      stats.setLongStat(Metric.PARTIAL_BYPASS, partialBypass ? 1 : 0);
+      stats.setLongStat(Metric.PARTIAL_GROUPS_PER_100_RECORDS, sampledRatioPercent);
+      stats.setLongStat(Metric.PARTIAL_BYPASS_FLUSHES, partialBypassFlushes);
+      stats.setLongStat(Metric.PARTIAL_BYPASS_PASSED_RECORDS, partialPassedRecords);
+    }
 
     if (iterations == 1) {
       stats.setLongStat(Metric.ALLOCATED_FOR_FIXED_KEYS, statsHolder.allocatedForFixedBlocks);
@@ -2448,6 +2549,9 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
       case OUTPUT_INMEMORY_PARTITIONS:
         records = outputPartitions();
         break;
+      case OUTPUT_PASS_THROUGH:
+        records = outputPassThrough();
+        break;
       case TRANSITION_PARTITION_SPILL_STATE:
         transitionPartitionSpillState();
         consumeSpilledData();
@@ -2462,6 +2566,22 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     return records;
   }
 
+  /**
+   * Helper function for outputData(). Writes the records of the incoming batch
+   * as partial results once the partial aggregation is bypassed.
+   *
+   * @return number of records outputted
+   */
+  private int outputPassThrough() {
+    final int records = passThroughRecords;
+    passThroughRecords = 0;
+    partialPassThrough.write(records);
+    partialPassedRecords += records;
+    state = State.CAN_CONSUME;
+    internalStateMachine = InternalState.NONE;
+    return outgoing.setAllCount(records);
+  }
+
   /**
    * Before starting the next iteration of aggregation,
    * we transition the state of partitions to ensure
@@ -2486,9 +2606,15 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private int outputPartitions() throws Exception {
 
     if (outputPartitionIndex == numPartitions) {
-      postOutputProcessing();
       outputPartitionIndex = 0;
       outputBatchIndex = 0;
+      if (partialBypass && !noMoreToConsume) {
+        /* flushed the groups of the last batch, go back to consuming */
+        state = State.CAN_CONSUME;
+        internalStateMachine = InternalState.NONE;
+        return 0;
+      }
+      postOutputProcessing();
       return 0;
     }
 
@@ -2567,6 +2693,10 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
       spillStats.setOoms(ooms);
       spillStats.setIterations(iterations);
       spillStats.setRecursionDepth(computeRecursionDepth());
+      spillStats.setSpilledDataSize(partitionSpillHandler.getTotalSpilledDataSize());
+      spillStats.setSpilledIOBytes(partitionSpillHandler.getTotalSpilledIOBytes());
+      spillStats.setCompressionNanos(partitionSpillHandler.getSpillCompressionNanos());
+      spillStats.setDecompressionNanos(partitionSpillHandler.getSpillDecompressionNanos());
       popConfig.setSpillStats(spillStats);
     } else {
       internalStateMachine = InternalState.TRANSITION_PARTITION_SPILL_STATE;
@@ -2600,6 +2730,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   public void noMoreToConsume() throws Exception {
     state.is(State.CAN_CONSUME);
     assertInternalState(InternalState.NONE);
+    noMoreToConsume = true;
     if (getHashTableSize() == 0) {
       /* nothing to output */
       moveToFinalState();
@@ -2725,6 +2856,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private enum InternalState {
     NONE,
     OUTPUT_INMEMORY_PARTITIONS,
+    OUTPUT_PASS_THROUGH,
     PROCESS_SPILLED_PARTITION,
     TRANSITION_PARTITION_SPILL_STATE,
     SPILL_NEXT_BATCH,
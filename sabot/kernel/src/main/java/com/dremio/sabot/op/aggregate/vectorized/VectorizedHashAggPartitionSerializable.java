@@ -39,6 +39,7 @@ import com.dremio.sabot.op.common.ht2.LBlockHashTable;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
+import com.google.common.io.ByteStreams;
 
 import io.netty.util.internal.PlatformDependent;
 
@@ -153,9 +154,11 @@ public class VectorizedHashAggPartitionSerializable extends AbstractStreamSerial
     final int variableBufferLength = getLEIntFromByteArray(ioBuffer, HashAggPartitionWritableBatch.VARIABLE_BUFFER_LENGTH_OFFSET);
     final int numAccumulators = getLEIntFromByteArray(ioBuffer, HashAggPartitionWritableBatch.NUM_ACCUMULATORS_OFFSET);
 
-    /* STEP 3: read info on types of accumulators -- sum, min, max etc */
+    /* STEP 3: read info on types of accumulators -- sum, min, max etc.
+     * a compressed stream can return fewer bytes than asked for at a block boundary, so keep reading.
+     */
     final byte[] accumulatorTypes = partitionToLoadSpilledData.getAccumulatorTypes();
-    Preconditions.checkArgument(input.read(accumulatorTypes, 0, numAccumulators) == numAccumulators,
+    Preconditions.checkArgument(ByteStreams.read(input, accumulatorTypes, 0, numAccumulators) == numAccumulators,
       "ERROR: read incorrect length of accumulator types");
 
     /* STEP 4: read metadata for accumulator vectors */
@@ -21,11 +21,9 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Queue;
 
-import org.apache.hadoop.fs.FSDataInputStream;
-import org.apache.hadoop.fs.FSDataOutputStream;
-
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.exceptions.UserException;
@@ -34,8 +32,11 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
 import com.dremio.service.spill.SpillService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -99,6 +100,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
   /* partitions spilled in current iteration */
   private final List<VectorizedHashAggDiskPartition> activeSpilledPartitions;
   private final SpillManager spillManager;
+  private final SpillCompression spillCompression;
   private final PartitionToLoadSpilledData loadingPartition;
   private SpilledPartitionIterator spilledPartitionIterator;
   private long maxBatchesSpilled;
@@ -133,7 +135,12 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     final String id = String.format("aggspill-%s.%s.%s.%s", QueryIdHelper.getQueryId(fragmentHandle.getQueryId()),
       fragmentHandle.getMajorFragmentId(), fragmentHandle.getMinorFragmentId(), operatorId);
 
-    this.spillManager = new SpillManager(sabotConfig, optionManager, id, null, spillService, "agg spilling", stats);
+    /* io wait is already recorded around every read and write by VectorizedHashAggPartitionSerializable,
+     * so the spill manager is not given the operator stats to avoid counting it twice.
+     */
+    this.spillManager = new SpillManager(sabotConfig, optionManager, id, null, spillService, "agg spilling", null);
+    this.spillCompression = SpillCompression.valueOf(
+      optionManager.getOption(VectorizedHashAggOperator.VECTORIZED_HASHAGG_SPILL_COMPRESSION).toUpperCase(Locale.ROOT));
 
     Preconditions.checkArgument(loadingPartition != null, "Error: need a valid handle for loading partition");
     this.loadingPartition = loadingPartition;
@@ -413,7 +420,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     final boolean isPartitionSpilled = victimPartition.isSpilled();
     final SpillFileHandle spillFileHandle = getSpillFileHandle(victimPartition);
     final SpillFile partitionSpillFile = spillFileHandle.partitionSpillFile;
-    final FSDataOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
+    final SpillOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
 
     final VectorizedHashAggPartitionSerializable partitionSerializable = new VectorizedHashAggPartitionSerializable(victimPartition,
       this.operatorStats, this.warnMaxSpillTime);
@@ -456,7 +463,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
    */
   private void updatePartitionSpillState(final VectorizedHashAggPartition victimPartition,
                                          final SpillFile partitionSpillFile,
-                                         final FSDataOutputStream partitionSpillFileStream,
+                                         final SpillOutputStream partitionSpillFileStream,
                                          final long batchesSpilled) {
     final boolean isPartitionSpilled = victimPartition.isSpilled();
     VectorizedHashAggDiskPartition partitionSpillInfo = victimPartition.getSpillInfo();
@@ -483,8 +490,8 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
    */
   private static class SpillFileHandle {
     private final SpillFile partitionSpillFile;
-    private final FSDataOutputStream partitionSpillFileStream;
-    SpillFileHandle(final SpillFile partitionSpillFile, final FSDataOutputStream partitionSpillFileStream) {
+    private final SpillOutputStream partitionSpillFileStream;
+    SpillFileHandle(final SpillFile partitionSpillFile, final SpillOutputStream partitionSpillFileStream) {
       this.partitionSpillFile = partitionSpillFile;
       this.partitionSpillFileStream = partitionSpillFileStream;
     }
@@ -499,7 +506,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     final boolean isPartitionSpilled = victimPartition.isSpilled();
     VectorizedHashAggDiskPartition partitionSpillInfo = victimPartition.getSpillInfo();
     SpillFile partitionSpillFile;
-    FSDataOutputStream partitionSpillFileStream;
+    SpillOutputStream partitionSpillFileStream;
 
     Preconditions.checkState((isPartitionSpilled && partitionSpillInfo != null) ||
                                (!isPartitionSpilled && partitionSpillInfo == null), "Error: Detected invalid spill state of hash agg partition");
@@ -508,7 +515,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
       /* get a brand new spill file as the partition is being spilled for the first time */
       partitionSpillFile = spillManager.getSpillFile(victimPartition.getIdentifier());
       try {
-        partitionSpillFileStream = partitionSpillFile.create();
+        partitionSpillFileStream = partitionSpillFile.create(spillCompression);
       } catch (Exception e) {
         final UserException.Builder builder = UserException.resourceError(e)
           .addContext("Failed to create output stream for spill file")
@@ -536,7 +543,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
   boolean spillSingleBatchFromPartition(final VectorizedHashAggPartition victimPartition) throws Exception {
     final SpillFileHandle spillFileHandle = getSpillFileHandle(victimPartition);
     final SpillFile partitionSpillFile = spillFileHandle.partitionSpillFile;
-    final FSDataOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
+    final SpillOutputStream partitionSpillFileStream = spillFileHandle.partitionSpillFileStream;
 
     if (inProgressSpill == null) {
       inProgressSpill = new VectorizedHashAggPartitionSerializable(victimPartition, this.operatorStats,
@@ -664,6 +671,32 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
     return totalSpilledDataSize;
   }
 
+  /**
+   * Get size (in bytes) of spilled data as written to disk, after compression.
+   * Only includes spill files whose stream has been closed.
+   * @return bytes written to disk
+   */
+  long getTotalSpilledIOBytes() {
+    return spillManager.getIOWriteBytes();
+  }
+
+  /**
+   * Get bytes written to disk as a percentage of the uncompressed size of the same data.
+   * @return compressed size percentage, 100 if nothing has been written yet
+   */
+  long getSpillCompressionPercent() {
+    final long uncompressed = spillManager.getAppWriteBytes();
+    return uncompressed == 0 ? 100 : (spillManager.getIOWriteBytes() * 100) / uncompressed;
+  }
+
+  long getSpillCompressionNanos() {
+    return spillManager.getCompressionNanos();
+  }
+
+  long getSpillDecompressionNanos() {
+    return spillManager.getDecompressionNanos();
+  }
+
   /**
    * Get the number of spilled partitions in the current iteration
    * of aggregation algorithm -- active and spilled
@@ -814,7 +847,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
       final SpillFile partitionSpillFile = partitionToSpill.getSpillFile();
       final VectorizedHashAggPartitionSerializable partitionSerializable = new VectorizedHashAggPartitionSerializable(inmemoryPartition,
         this.operatorStats, this.warnMaxSpillTime);
-      FSDataOutputStream outputStream = partitionToSpill.getSpillStream();
+      SpillOutputStream outputStream = partitionToSpill.getSpillStream();
       /* write the partition to disk */
       partitionSerializable.writeToStream(outputStream);
       /* track number of spills */
@@ -846,7 +879,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
    */
   public class SpilledPartitionIterator implements AutoCloseable {
     private final long batchCount;
-    private final FSDataInputStream inputStream;
+    private final SpillInputStream inputStream;
     private final VectorizedHashAggDiskPartition diskPartition;
     private int currentBatchIndex;
     private final OperatorStats operatorStats;
@@ -857,7 +890,7 @@ public class VectorizedHashAggPartitionSpillHandler implements AutoCloseable {
         "Error: Partition does not have any batches spilled to disk. Not allowed to create a disk iterator");
       this.batchCount = spilledPartition.getNumberOfBatches();
       final SpillFile partitionSpillFile = spilledPartition.getSpillFile();
-      this.inputStream = partitionSpillFile.open();
+      this.inputStream = partitionSpillFile.open(spillCompression);
       this.diskPartition = spilledPartition;
       this.currentBatchIndex = 0;
       this.operatorStats = stats;
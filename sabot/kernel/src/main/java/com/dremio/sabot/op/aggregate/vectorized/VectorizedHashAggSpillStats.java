@@ -24,6 +24,10 @@ public class VectorizedHashAggSpillStats {
   private int ooms;
   private int iterations;
   private int recursionDepth;
+  private long spilledDataSize;
+  private long spilledIOBytes;
+  private long compressionNanos;
+  private long decompressionNanos;
 
   public void setSpills(final int spills) {
     this.spills = spills;
@@ -56,4 +60,43 @@ public class VectorizedHashAggSpillStats {
   public int getRecursionDepth() {
     return recursionDepth;
   }
+
+  public void setSpilledDataSize(final long spilledDataSize) {
+    this.spilledDataSize = spilledDataSize;
+  }
+
+  public long getSpilledDataSize() {
+    return spilledDataSize;
+  }
+
+  public void setSpilledIOBytes(final long spilledIOBytes) {
+    this.spilledIOBytes = spilledIOBytes;
+  }
+
+  public long getSpilledIOBytes() {
+    return spilledIOBytes;
+  }
+
+  /**
+   * @return bytes written to disk as a percentage of the uncompressed spilled data size
+   */
+  public long getCompressionPercent() {
+    return spilledDataSize == 0 ? 100 : (spilledIOBytes * 100) / spilledDataSize;
+  }
+
+  public void setCompressionNanos(final long compressionNanos) {
+    this.compressionNanos = compressionNanos;
+  }
+
+  public long getCompressionNanos() {
+    return compressionNanos;
+  }
+
+  public void setDecompressionNanos(final long decompressionNanos) {
+    this.decompressionNanos = decompressionNanos;
+  }
+
+  public long getDecompressionNanos() {
+    return decompressionNanos;
+  }
 }
@@ -50,6 +50,7 @@ import com.dremio.exec.record.VectorContainer;
 import com.dremio.options.Options;
 import com.dremio.options.TypeValidators;
 import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.EnumValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
 import com.dremio.options.TypeValidators.PowerOfTwoLongValidator;
 import com.dremio.options.TypeValidators.StringValidator;
@@ -65,6 +66,7 @@ import com.dremio.sabot.op.join.JoinUtils;
 import com.dremio.sabot.op.join.vhash.HashJoinStats;
 import com.dremio.sabot.op.join.vhash.VectorizedHashJoinOperator;
 import com.dremio.sabot.op.join.vhash.spill.VectorizedSpillingHashJoinOperator;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.spi.DualInputOperator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -83,6 +85,9 @@ public class HashJoinOperator implements DualInputOperator {
   // heap footprint (ArrowBuf/ValueVector).
   public static final PositiveLongValidator PAGE_SIZE =
     new TypeValidators.PositiveLongValidator("exec.op.join.spill.page_size", 1 * 1024 * 1024, 256 * 1024);
+  // Codec for the build and probe spill files.
+  public static final EnumValidator<SpillCompression> SPILL_COMPRESSION =
+    new EnumValidator<>("exec.op.join.spill.compression", SpillCompression.class, SpillCompression.LZ4);
 
   // For unit tests, always use with DEBUG flag only.
   public static final StringValidator TEST_SPILL_MODE = new StringValidator("exec.op.join.spill.test_spill_mode", "none");
@@ -74,11 +74,13 @@ public class BlockJoinTable implements JoinTable {
    * @param keyFixed dst for fixed portion of keys
    * @param keyVar dst for variable portion of keys
    */
+  @Override
   public void copyKeysToBuffer(ArrowBuf ordinals, int count, ArrowBuf keyFixed, ArrowBuf keyVar) {
     table.copyKeysToBuffer(ordinals, count, keyFixed, keyVar);
   }
 
   // Get the total length of the variable keys for all the specified ordinals, from hash table
+  @Override
   public int getCumulativeVarKeyLength(ArrowBuf ordinals, int numRecords) {
     return table.getCumulativeVarKeyLength(ordinals, numRecords);
   }
@@ -341,6 +341,17 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
     map.close();
   }
 
+  @Override
+  public void copyKeysToBuffer(ArrowBuf ordinals, int count, ArrowBuf keyFixed, ArrowBuf keyVar) {
+    map.copyKeysToBuffer(ordinals, count, keyFixed);
+  }
+
+  @Override
+  public int getCumulativeVarKeyLength(ArrowBuf ordinals, int count) {
+    // the single key is fixed width
+    return 0;
+  }
+
   @Override
   public AutoCloseable traceStart(int numRecords) {
     return AutoCloseables.noop();
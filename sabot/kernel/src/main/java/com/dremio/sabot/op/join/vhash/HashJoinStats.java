@@ -85,7 +85,15 @@ public class HashJoinStats {
     OOB_DROP_NO_VICTIM, /* number of oob messages dropped because a victim partition wasn't found */
     OOB_DROP_LOCAL, /* number of self sent oob messages ignored */
     OOB_DROP_WRONG_STATE, /* number of oob messages dropped because it was not in build phase */
-    OOB_SPILL; /* number of spills performed */
+    OOB_SPILL, /* number of spills performed */
+    SPILL_WR_IO_BYTES, /* total bytes written to spill files, after compression */
+    SPILL_RD_IO_BYTES, /* total bytes read from spill files, before decompression */
+    SPILL_COMPRESSION_PERCENT, /* spill bytes on disk as a percentage of the uncompressed size */
+    SPILL_COMPRESSION_NANOS, /* time spent compressing spilled data */
+    SPILL_DECOMPRESSION_NANOS, /* time spent decompressing replayed data */
+    RADIX_PARTITIONS, /* number of sub-tables of a radix partitioned build side */
+    RADIX_MAX_PARTITION_ENTRIES, /* entries in the largest sub-table of a radix partitioned build side */
+    RADIX_PROBE_FIND_NANOS_PER_RECORD; /* average time to find a probe record in the hash table */
 
     @Override
     public int metricId() {
@@ -66,4 +66,14 @@ public interface JoinTable extends AutoCloseable {
    * @param nonPartitionColFilters Previously created value list builders, one list per probe target.
    */
   void prepareValueListFilters(NonPartitionColFilters nonPartitionColFilters);
+
+  /**
+   * Copy the pivoted keys of the given hash table ordinals to keyFixed/keyVar.
+   */
+  void copyKeysToBuffer(ArrowBuf ordinals, int count, ArrowBuf keyFixed, ArrowBuf keyVar);
+
+  /**
+   * Get the total length of the variable keys of the given hash table ordinals.
+   */
+  int getCumulativeVarKeyLength(ArrowBuf ordinals, int count);
 }
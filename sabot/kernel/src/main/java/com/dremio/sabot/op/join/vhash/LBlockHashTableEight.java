@@ -57,6 +57,9 @@ public final class LBlockHashTableEight implements AutoCloseable {
   // The key value written in FixedBlockVector, this value can be any value, now it's set to 0.
   private static final int NULL_KEY_VALUE = 0;
   private static final long BLOOMFILTER_MAX_SIZE = 2 * 1024 * 1024;
+  // The layout of a pivoted block with a single eight byte key: a four byte validity word followed by the key.
+  private static final int PIVOTED_VALIDITY_WIDTH = 4;
+  public static final int PIVOTED_BLOCK_WIDTH = PIVOTED_VALIDITY_WIDTH + KEY_WIDTH;
 
   private final HashConfigWrapper config;
   private final BufferAllocator allocator;
@@ -81,6 +84,10 @@ public final class LBlockHashTableEight implements AutoCloseable {
   private FixedBlockVector[] fixedBlocks = new FixedBlockVector[0];
   private long[] tableFixedAddresses = new long[0];
 
+  // The keys indexed by ordinal, built on demand to copy the keys of given ordinals.
+  private ArrowBuf keysByOrdinal;
+  private int keysByOrdinalCount;
+
   private int rehashCount = 0;
   private final Stopwatch rehashTimer = Stopwatch.createUnstarted();
   private final Stopwatch initTimer = Stopwatch.createUnstarted();
@@ -367,9 +374,60 @@ public final class LBlockHashTableEight implements AutoCloseable {
     return capacity;
   }
 
+  /**
+   * Copies the keys of the given ordinals to keyFixed, in the layout of a pivoted block with a single eight byte key.
+   * @param ordinals four byte ordinals of the keys
+   * @param count number of ordinals
+   * @param keyFixed buffer of at least count * PIVOTED_BLOCK_WIDTH bytes
+   */
+  public void copyKeysToBuffer(final ArrowBuf ordinals, final int count, final ArrowBuf keyFixed) {
+    keyFixed.checkBytes(0, (long) count * PIVOTED_BLOCK_WIDTH);
+    final long keysAddr = getKeysByOrdinal();
+    long ordinalAddr = ordinals.memoryAddress();
+    long blockAddr = keyFixed.memoryAddress();
+    for (int i = 0; i < count; i++, ordinalAddr += ORDINAL_WIDTH, blockAddr += PIVOTED_BLOCK_WIDTH) {
+      final int ordinal = PlatformDependent.getInt(ordinalAddr);
+      if (ordinal == nullKeyOrdinal) {
+        PlatformDependent.putInt(blockAddr, 0);
+        PlatformDependent.putLong(blockAddr + PIVOTED_VALIDITY_WIDTH, NULL_KEY_VALUE);
+      } else {
+        PlatformDependent.putInt(blockAddr, 1);
+        PlatformDependent.putLong(blockAddr + PIVOTED_VALIDITY_WIDTH,
+          PlatformDependent.getLong(keysAddr + (long) ordinal * KEY_WIDTH));
+      }
+    }
+  }
+
+  /**
+   * Index the keys by ordinal, the index is rebuilt only if keys were inserted since it was built.
+   * @return address of the keys indexed by ordinal
+   */
+  private long getKeysByOrdinal() {
+    if (keysByOrdinal == null || keysByOrdinalCount != currentOrdinal) {
+      if (keysByOrdinal != null) {
+        keysByOrdinal.close();
+        keysByOrdinal = null;
+      }
+      keysByOrdinal = allocator.buffer((long) Math.max(currentOrdinal, 1) * KEY_WIDTH);
+      final long keysAddr = keysByOrdinal.memoryAddress();
+      for (int chunk = 0; chunk < tableFixedAddresses.length; chunk++) {
+        final long chunkAddr = tableFixedAddresses[chunk];
+        final long chunkEnd = chunkAddr + (MAX_VALUES_PER_BATCH * BLOCK_WIDTH);
+        for (long blockAddr = chunkAddr; blockAddr < chunkEnd; blockAddr += BLOCK_WIDTH) {
+          final int ordinal = PlatformDependent.getInt(blockAddr + KEY_WIDTH);
+          if (ordinal >= 0) {
+            PlatformDependent.putLong(keysAddr + (long) ordinal * KEY_WIDTH, PlatformDependent.getLong(blockAddr));
+          }
+        }
+      }
+      keysByOrdinalCount = currentOrdinal;
+    }
+    return keysByOrdinal.memoryAddress();
+  }
+
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(ImmutableList.copyOf(fixedBlocks));
+    AutoCloseables.close(keysByOrdinal, AutoCloseables.all(ImmutableList.copyOf(fixedBlocks)));
   }
 
   private boolean tryRehashForExpansion() {
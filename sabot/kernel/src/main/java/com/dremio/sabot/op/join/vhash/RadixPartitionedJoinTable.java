@@ -0,0 +1,463 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.AutoCloseables.RollbackCloseable;
+import com.dremio.common.config.SabotConfig;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.NullComparator;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Pivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.dremio.sabot.op.join.vhash.spill.SV2UnsignedUtil;
+import com.dremio.sabot.op.join.vhash.spill.partition.BlockJoinTable;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Join table that splits the build side into a power of two number of sub-tables, by the high bits of the key hash,
+ * so that each sub-table is small enough to stay in cache while it is probed.
+ *
+ * Both build and probe batches are pivoted and hashed once, then radix partitioned into a single selection vector
+ * (partition by partition), and each partition is inserted into (or looked up in) its sub-table. The ordinal of a
+ * key is {@code (ordinal in sub-table << partition bits) | partition}, which keeps the ordinals dense for the
+ * links and match bitsets of {@link VectorizedHashJoinOperator}. The sub-tables are the {@link BlockJoinTable}s of
+ * the spilling join, which insert and find records through a selection vector.
+ */
+public class RadixPartitionedJoinTable implements JoinTable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RadixPartitionedJoinTable.class);
+
+  private static final int FULL_HASH_SIZE = 8;
+  private static final int TABLE_HASH_SIZE = 4;
+  private static final int ORDINAL_SIZE = 4;
+  private static final int VAR_OFFSET_SIZE = 4;
+  // same seed for build and probe, so that a key lands in the same partition on both sides
+  private static final long SEED = 0;
+
+  private final int numPartitions;
+  private final int partitionBits;
+  private final int partitionMask;
+  private final int maxOrdinalInPartition;
+  private final BlockJoinTable[] tables;
+  private final PivotDef buildPivot;
+  private final PivotDef probePivot;
+  private final BufferAllocator allocator;
+  // number of records of each partition in the current batch, and where each partition starts in the sv2
+  private final int[] partitionCounts;
+  private final int[] partitionStarts;
+
+  private final Stopwatch probePivotWatch = Stopwatch.createUnstarted();
+  private final Stopwatch pivotBuildWatch = Stopwatch.createUnstarted();
+  private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
+  private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
+  private long probedRecords;
+
+  public RadixPartitionedJoinTable(PivotDef buildPivot, PivotDef probePivot, BufferAllocator allocator,
+                                   NullComparator nullMask, int numPartitions, int minSize, int varFieldAverageSize,
+                                   SabotConfig sabotConfig, OptionManager optionManager, boolean runtimeFilterEnabled) {
+    Preconditions.checkState(buildPivot.getBlockWidth() == probePivot.getBlockWidth());
+    Preconditions.checkState(buildPivot.getBlockWidth() != 0);
+    Preconditions.checkArgument(Integer.bitCount(numPartitions) == 1,
+      "Number of partitions must be a power of two, found %s", numPartitions);
+    this.numPartitions = numPartitions;
+    this.partitionBits = Integer.numberOfTrailingZeros(numPartitions);
+    this.partitionMask = numPartitions - 1;
+    this.maxOrdinalInPartition = Integer.MAX_VALUE >>> partitionBits;
+    this.buildPivot = buildPivot;
+    this.probePivot = probePivot;
+    this.partitionCounts = new int[numPartitions];
+    this.partitionStarts = new int[numPartitions];
+    this.tables = new BlockJoinTable[numPartitions];
+
+    try (RollbackCloseable rollback = new RollbackCloseable()) {
+      this.allocator = rollback.add(allocator.newChildAllocator("radix-join", 0, allocator.getLimit()));
+      final int minSizePerPartition = Math.max(minSize / numPartitions, 1);
+      for (int i = 0; i < numPartitions; i++) {
+        tables[i] = rollback.add(new BlockJoinTable(buildPivot,
+          this.allocator, nullMask, minSizePerPartition, varFieldAverageSize, sabotConfig, optionManager, runtimeFilterEnabled));
+      }
+      rollback.commit();
+    } catch (RuntimeException ex) {
+      throw ex;
+    } catch (Exception ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  @Override
+  public void insert(ArrowBuf out, int records) {
+    try (FixedBlockVector fbv = new FixedBlockVector(allocator, buildPivot.getBlockWidth());
+         VariableBlockVector var = new VariableBlockVector(allocator, buildPivot.getVariableCount());
+         ArrowBuf tableHash4B = allocator.buffer(records * TABLE_HASH_SIZE);
+         ArrowBuf sv2 = allocator.buffer(records * SelectionVector2.RECORD_SIZE);
+         ArrowBuf partitionOrdinals = allocator.buffer(records * ORDINAL_SIZE)) {
+      // STEP 1: first we pivot.
+      pivotBuildWatch.start();
+      Pivots.pivot(buildPivot, records, fbv, var);
+      pivotBuildWatch.stop();
+
+      // STEP 2: then we hash and partition the entire batch
+      buildHashComputationWatch.start();
+      hashAndPartition(records, fbv, var, tableHash4B, sv2);
+      buildHashComputationWatch.stop();
+
+      // STEP 3: then we insert each partition into its own table
+      for (int partition = 0; partition < numPartitions; partition++) {
+        final int count = partitionCounts[partition];
+        if (count == 0) {
+          continue;
+        }
+        final int start = partitionStarts[partition];
+        final int recordsAdded = tables[partition].insertPivoted(
+          sv2.slice(start * SelectionVector2.RECORD_SIZE, count * SelectionVector2.RECORD_SIZE), 0, count,
+          tableHash4B, fbv, var, partitionOrdinals.slice(start * ORDINAL_SIZE, count * ORDINAL_SIZE));
+        if (recordsAdded < count) {
+          throw new OutOfMemoryException(String.format("Only %d records out of %d were added to the HashTable",
+            recordsAdded, count));
+        }
+        if (tables[partition].getMaxOrdinal() > maxOrdinalInPartition) {
+          throw UserException.unsupportedError()
+            .message("Radix partitioned hash join supports at most %d keys per partition, disable %s or raise %s",
+              maxOrdinalInPartition, "exec.operator.join.radix_partitioned_build",
+              "exec.operator.join.radix_partitioned_build.num_partitions")
+            .build(logger);
+        }
+      }
+      scatterOrdinals(records, sv2, partitionOrdinals, out);
+    }
+  }
+
+  @Override
+  public void find(ArrowBuf out, int records) {
+    try (FixedBlockVector fbv = new FixedBlockVector(allocator, probePivot.getBlockWidth());
+         VariableBlockVector var = new VariableBlockVector(allocator, probePivot.getVariableCount());
+         ArrowBuf tableHash4B = allocator.buffer(records * TABLE_HASH_SIZE);
+         ArrowBuf sv2 = allocator.buffer(records * SelectionVector2.RECORD_SIZE);
+         ArrowBuf partitionOrdinals = allocator.buffer(records * ORDINAL_SIZE)) {
+      // STEP 1: first we pivot.
+      probePivotWatch.start();
+      Pivots.pivot(probePivot, records, fbv, var);
+      probePivotWatch.stop();
+
+      // STEP 2: then we hash and partition the entire batch, the same way as the build side
+      probeHashComputationWatch.start();
+      hashAndPartition(records, fbv, var, tableHash4B, sv2);
+      probeHashComputationWatch.stop();
+
+      // STEP 3: then we probe one sub-table at a time, so that it stays in cache.
+      for (int partition = 0; partition < numPartitions; partition++) {
+        final int count = partitionCounts[partition];
+        if (count == 0) {
+          continue;
+        }
+        final int start = partitionStarts[partition];
+        tables[partition].findPivoted(
+          sv2.slice(start * SelectionVector2.RECORD_SIZE, count * SelectionVector2.RECORD_SIZE), 0, count,
+          tableHash4B, fbv, var, partitionOrdinals.slice(start * ORDINAL_SIZE, count * ORDINAL_SIZE));
+      }
+
+      scatterOrdinals(records, sv2, partitionOrdinals, out);
+      probedRecords += records;
+    }
+  }
+
+  /**
+   * Computes the hash of each pivoted record and orders the records by partition in the sv2 (a counting sort on
+   * the partition bits).
+   */
+  private void hashAndPartition(int records, FixedBlockVector fbv, VariableBlockVector var,
+                                ArrowBuf tableHash4B, ArrowBuf sv2) {
+    try (ArrowBuf fullHash8B = allocator.buffer(records * FULL_HASH_SIZE)) {
+      tables[0].hashPivoted(records, fbv.getBuf(), var.getBuf(), SEED, fullHash8B);
+
+      final long fullHashAddr = fullHash8B.memoryAddress();
+      final long tableHashAddr = tableHash4B.memoryAddress();
+      final int[] counts = partitionCounts;
+      final int[] starts = partitionStarts;
+      Arrays.fill(counts, 0);
+
+      /*
+       * In the 64-bit hash,
+       * - the low 32 bits are used in the sub-tables,
+       * - the bits above them are used to determine the partition.
+       */
+      for (int i = 0; i < records; i++) {
+        final long fullHash = PlatformDependent.getLong(fullHashAddr + (long) i * FULL_HASH_SIZE);
+        PlatformDependent.putInt(tableHashAddr + (long) i * TABLE_HASH_SIZE, (int) fullHash);
+        counts[(int) (fullHash >>> 32) & partitionMask]++;
+      }
+
+      int start = 0;
+      for (int partition = 0; partition < numPartitions; partition++) {
+        starts[partition] = start;
+        start += counts[partition];
+      }
+
+      // scatter the record indices, reusing the counts as the write cursors
+      final long sv2Addr = sv2.memoryAddress();
+      Arrays.fill(counts, 0);
+      for (int i = 0; i < records; i++) {
+        final long fullHash = PlatformDependent.getLong(fullHashAddr + (long) i * FULL_HASH_SIZE);
+        final int partition = (int) (fullHash >>> 32) & partitionMask;
+        SV2UnsignedUtil.writeAtIndexUnsafe(sv2Addr, starts[partition] + counts[partition]++, i);
+      }
+    }
+  }
+
+  /**
+   * Writes the ordinals found for each partition back in the order of the incoming records, as global ordinals.
+   */
+  private void scatterOrdinals(int records, ArrowBuf sv2, ArrowBuf partitionOrdinals, ArrowBuf out) {
+    out.checkBytes(0, (long) records * ORDINAL_SIZE);
+    final long sv2Addr = sv2.memoryAddress();
+    final long partitionOrdinalsAddr = partitionOrdinals.memoryAddress();
+    final long outAddr = out.memoryAddress();
+    for (int partition = 0; partition < numPartitions; partition++) {
+      final int end = partitionStarts[partition] + partitionCounts[partition];
+      for (int i = partitionStarts[partition]; i < end; i++) {
+        final int record = SV2UnsignedUtil.readAtIndexUnsafe(sv2Addr, i);
+        final int ordinal = PlatformDependent.getInt(partitionOrdinalsAddr + (long) i * ORDINAL_SIZE);
+        // negative values mean no match, and are passed as is
+        PlatformDependent.putInt(outAddr + (long) record * ORDINAL_SIZE,
+          ordinal < 0 ? ordinal : (ordinal << partitionBits) | partition);
+      }
+    }
+  }
+
+  /**
+   * Copy the keys of the records specified in ordinals to keyFixed/keyVar.
+   * Consecutive ordinals of the same partition are copied together, the offsets of the variable part of the keys
+   * are then rebased from the start of the run to the start of keyVar.
+   */
+  @Override
+  public void copyKeysToBuffer(ArrowBuf ordinals, int count, ArrowBuf keyFixed, ArrowBuf keyVar) {
+    final int blockWidth = buildPivot.getBlockWidth();
+    final boolean hasVariable = buildPivot.getVariableCount() > 0;
+    try (ArrowBuf localOrdinals = allocator.buffer((long) count * ORDINAL_SIZE)) {
+      final int[] partitions = toLocalOrdinals(ordinals, count, localOrdinals);
+      int varOffset = 0;
+      int runStart = 0;
+      while (runStart < count) {
+        final int partition = partitions[runStart];
+        final int runEnd = getRunEnd(partitions, runStart, count);
+        final int runLength = runEnd - runStart;
+        final ArrowBuf runOrdinals = localOrdinals.slice(runStart * ORDINAL_SIZE, runLength * ORDINAL_SIZE);
+        final ArrowBuf runFixed = keyFixed.slice((long) runStart * blockWidth, (long) runLength * blockWidth);
+        if (hasVariable) {
+          final ArrowBuf runVar = keyVar.slice(varOffset, keyVar.capacity() - varOffset);
+          tables[partition].copyKeysToBuffer(runOrdinals, runLength, runFixed, runVar);
+          if (varOffset != 0) {
+            for (int i = 0; i < runLength; i++) {
+              final long offsetAddr = runFixed.memoryAddress() + (long) (i + 1) * blockWidth - VAR_OFFSET_SIZE;
+              PlatformDependent.putInt(offsetAddr, PlatformDependent.getInt(offsetAddr) + varOffset);
+            }
+          }
+          varOffset += tables[partition].getCumulativeVarKeyLength(runOrdinals, runLength);
+        } else {
+          tables[partition].copyKeysToBuffer(runOrdinals, runLength, runFixed, keyVar);
+        }
+        runStart = runEnd;
+      }
+    }
+  }
+
+  @Override
+  public int getCumulativeVarKeyLength(ArrowBuf ordinals, int count) {
+    if (buildPivot.getVariableCount() == 0) {
+      return 0;
+    }
+    int size = 0;
+    try (ArrowBuf localOrdinals = allocator.buffer((long) count * ORDINAL_SIZE)) {
+      final int[] partitions = toLocalOrdinals(ordinals, count, localOrdinals);
+      int runStart = 0;
+      while (runStart < count) {
+        final int runEnd = getRunEnd(partitions, runStart, count);
+        final int runLength = runEnd - runStart;
+        size += tables[partitions[runStart]].getCumulativeVarKeyLength(
+          localOrdinals.slice(runStart * ORDINAL_SIZE, runLength * ORDINAL_SIZE), runLength);
+        runStart = runEnd;
+      }
+    }
+    return size;
+  }
+
+  private static int getRunEnd(int[] partitions, int runStart, int count) {
+    int runEnd = runStart + 1;
+    while (runEnd < count && partitions[runEnd] == partitions[runStart]) {
+      runEnd++;
+    }
+    return runEnd;
+  }
+
+  private int[] toLocalOrdinals(ArrowBuf ordinals, int count, ArrowBuf localOrdinals) {
+    ordinals.checkBytes(0, (long) count * ORDINAL_SIZE);
+    final int[] partitions = new int[count];
+    final long ordinalsAddr = ordinals.memoryAddress();
+    final long localOrdinalsAddr = localOrdinals.memoryAddress();
+    for (int i = 0; i < count; i++) {
+      final int ordinal = PlatformDependent.getInt(ordinalsAddr + (long) i * ORDINAL_SIZE);
+      partitions[i] = ordinal & partitionMask;
+      PlatformDependent.putInt(localOrdinalsAddr + (long) i * ORDINAL_SIZE, ordinal >>> partitionBits);
+    }
+    return partitions;
+  }
+
+  public int getNumPartitions() {
+    return numPartitions;
+  }
+
+  /**
+   * @return number of entries in the largest sub-table, to compare with the cache-sized target
+   */
+  public int getMaxPartitionSize() {
+    int max = 0;
+    for (BlockJoinTable table : tables) {
+      max = Math.max(max, table.size());
+    }
+    return max;
+  }
+
+  /**
+   * @return average time to look up a probe record, which goes down as more of the sub-tables are found in cache
+   */
+  public long getProbeFindNanosPerRecord() {
+    return probedRecords == 0 ? 0 : getProbeFindTime(TimeUnit.NANOSECONDS) / probedRecords;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (BlockJoinTable table : tables) {
+      size += table.size();
+    }
+    return size;
+  }
+
+  @Override
+  public int capacity() {
+    int capacity = 0;
+    for (BlockJoinTable table : tables) {
+      capacity += table.capacity();
+    }
+    return capacity;
+  }
+
+  @Override
+  public int getRehashCount() {
+    int count = 0;
+    for (BlockJoinTable table : tables) {
+      count += table.getRehashCount();
+    }
+    return count;
+  }
+
+  @Override
+  public long getRehashTime(TimeUnit unit) {
+    long time = 0;
+    for (BlockJoinTable table : tables) {
+      time += table.getRehashTime(unit);
+    }
+    return time;
+  }
+
+  @Override
+  public long getProbePivotTime(TimeUnit unit) {
+    return probePivotWatch.elapsed(unit);
+  }
+
+  @Override
+  public long getProbeFindTime(TimeUnit unit) {
+    long time = 0;
+    for (BlockJoinTable table : tables) {
+      time += table.getProbeFindTime(unit);
+    }
+    return time;
+  }
+
+  @Override
+  public long getBuildPivotTime(TimeUnit unit) {
+    return pivotBuildWatch.elapsed(unit);
+  }
+
+  @Override
+  public long getInsertTime(TimeUnit unit) {
+    long time = 0;
+    for (BlockJoinTable table : tables) {
+      time += table.getInsertTime(unit);
+    }
+    return time;
+  }
+
+  @Override
+  public long getBuildHashComputationTime(TimeUnit unit) {
+    return buildHashComputationWatch.elapsed(unit);
+  }
+
+  @Override
+  public long getProbeHashComputationTime(TimeUnit unit) {
+    return probeHashComputationWatch.elapsed(unit);
+  }
+
+  @Override
+  public void prepareBloomFilters(PartitionColFilters partitionColFilters, boolean sizeDynamically) {
+    for (BlockJoinTable table : tables) {
+      table.prepareBloomFilters(partitionColFilters);
+    }
+  }
+
+  @Override
+  public void prepareValueListFilters(NonPartitionColFilters nonPartitionColFilters) {
+    for (BlockJoinTable table : tables) {
+      table.prepareValueListFilters(nonPartitionColFilters);
+    }
+  }
+
+  @Override
+  public AutoCloseable traceStart(int numRecords) {
+    final AutoCloseable[] traces = new AutoCloseable[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      traces[i] = tables[i].traceStart(numRecords);
+    }
+    return () -> AutoCloseables.close(traces);
+  }
+
+  @Override
+  public String traceReport() {
+    final StringBuilder report = new StringBuilder();
+    for (int i = 0; i < numPartitions; i++) {
+      report.append("partition ").append(i).append(": ").append(tables[i].traceReport()).append('\n');
+    }
+    return report.toString();
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(AutoCloseables.all(Arrays.asList(tables)), allocator);
+  }
+}
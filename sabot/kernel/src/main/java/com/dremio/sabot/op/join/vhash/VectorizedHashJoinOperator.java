@@ -335,10 +335,17 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
         this.buildUnpivot = PivotBuilder.getBlockDefinition(buildOutputFields);
         // Create the hyper container with isKeyBits that indicates which field is key and will not be added to hyper container
         hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema(), isKeyBits);
-        // Create generic hash table
-        this.table = new BlockJoinTable(buildPivot, probePivot, context.getAllocator(), comparator,
-          (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE,
-          context.getConfig(), context.getOptions(), runtimeFilterEnabled);
+        // Create generic hash table, split into cache-sized sub-tables if enabled
+        if (context.getOptions().getOption(ExecConstants.ENABLE_HASHJOIN_RADIX_PARTITIONED_BUILD)) {
+          this.table = new RadixPartitionedJoinTable(buildPivot, probePivot, context.getAllocator(), comparator,
+            (int) context.getOptions().getOption(ExecConstants.HASHJOIN_RADIX_PARTITIONS),
+            (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE,
+            context.getConfig(), context.getOptions(), runtimeFilterEnabled);
+        } else {
+          this.table = new BlockJoinTable(buildPivot, probePivot, context.getAllocator(), comparator,
+            (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE,
+            context.getConfig(), context.getOptions(), runtimeFilterEnabled);
+        }
         break;
       default:
         throw new UnsupportedOperationException();
@@ -503,6 +510,12 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
       stats.setLongStat(Metric.HASHCOMPUTATION_TIME_NANOS, table.getBuildHashComputationTime(ns));
       stats.setLongStat(Metric.RUNTIME_FILTER_DROP_COUNT, filterManager.getFilterDropCount());
       stats.setLongStat(Metric.RUNTIME_COL_FILTER_DROP_COUNT, filterManager.getSubFilterDropCount());
+      if (table instanceof RadixPartitionedJoinTable) {
+        final RadixPartitionedJoinTable radixTable = (RadixPartitionedJoinTable) table;
+        stats.setLongStat(Metric.RADIX_PARTITIONS, radixTable.getNumPartitions());
+        stats.setLongStat(Metric.RADIX_MAX_PARTITION_ENTRIES, radixTable.getMaxPartitionSize());
+        stats.setLongStat(Metric.RADIX_PROBE_FIND_NANOS_PER_RECORD, radixTable.getProbeFindNanosPerRecord());
+      }
     }
 
     stats.setLongStat(Metric.VECTORIZED, mode.ordinal());
@@ -419,7 +419,7 @@ public class VectorizedProbe implements AutoCloseable, ExtraConditionStats {
     final long projectBuildOffsetAddr = this.projectBuildOffsetAddr;
 
     final long projectBuildKeyOffsetAddr = projectBuildKeyOffsetBuf.memoryAddress();
-    BlockJoinTable table = (BlockJoinTable) this.table;
+    final JoinTable table = this.table;
 
     // determine the next set of unmatched bits.
     while (outputRecords < targetRecordsPerBatch) {
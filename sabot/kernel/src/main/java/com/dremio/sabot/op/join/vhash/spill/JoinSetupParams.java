@@ -18,6 +18,7 @@ package com.dremio.sabot.op.join.vhash.spill;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.arrow.memory.BufferAllocator;
@@ -37,12 +38,14 @@ import com.dremio.sabot.op.common.ht2.FixedBlockVector;
 import com.dremio.sabot.op.common.ht2.NullComparator;
 import com.dremio.sabot.op.common.ht2.PivotDef;
 import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.dremio.sabot.op.join.hash.HashJoinOperator;
 import com.dremio.sabot.op.join.vhash.spill.io.SpillSerializable;
 import com.dremio.sabot.op.join.vhash.spill.io.SpillSerializableImpl;
 import com.dremio.sabot.op.join.vhash.spill.io.SpillSerializableWithStats;
 import com.dremio.sabot.op.join.vhash.spill.list.ProbeBuffers;
 import com.dremio.sabot.op.join.vhash.spill.pool.PagePool;
 import com.dremio.sabot.op.join.vhash.spill.replay.JoinReplayEntry;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager;
 
 /**
@@ -99,6 +102,7 @@ public final class JoinSetupParams implements AutoCloseable {
   private final ProbeBuffers probeBuffers;
 
   private final SpillManager spillManager;
+  private final SpillCompression spillCompression;
   private final SpillStats spillStats = new SpillStats();
 
   // used for spilling (shared across all partitions)
@@ -168,6 +172,7 @@ public final class JoinSetupParams implements AutoCloseable {
     this.extraCondition = extraCondition;
     this.build2ProbeKeyMap = build2ProbeKeyMap;
     this.spillManager = spillManager;
+    this.spillCompression = SpillCompression.valueOf(options.getOption(HashJoinOperator.SPILL_COMPRESSION).toUpperCase(Locale.ROOT));
     this.spillPagePool = spillPagePool;
     this.oobInfo = oobInfo;
     this.operatorId = operatorId;
@@ -266,6 +271,10 @@ public final class JoinSetupParams implements AutoCloseable {
     return spillManager;
   }
 
+  public SpillCompression getSpillCompression() {
+    return spillCompression;
+  }
+
   public PagePool getSpillPagePool() {
     return spillPagePool;
   }
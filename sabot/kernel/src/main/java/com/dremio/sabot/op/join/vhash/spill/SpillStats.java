@@ -15,6 +15,8 @@
  */
 package com.dremio.sabot.op.join.vhash.spill;
 
+import com.dremio.sabot.op.sort.external.SpillManager;
+
 public class SpillStats {
   private long spillCount;
   private long heapSpillCount;
@@ -41,6 +43,13 @@ public class SpillStats {
   private long readNanos;
   private int oobSends;
 
+  // compression stats, across all spill files of the operator
+  private long writeUncompressedBytes;
+  private long writeIOBytes;
+  private long readIOBytes;
+  private long compressionNanos;
+  private long decompressionNanos;
+
   public long getSpillCount() {
     return spillCount;
   }
@@ -200,4 +209,38 @@ public class SpillStats {
   public void addReadNanos(long readNanos) {
     this.readNanos += readNanos;
   }
+
+  /**
+   * Refresh the compression stats from the totals of the closed spill streams.
+   */
+  public void updateCompressionStats(SpillManager spillManager) {
+    this.writeUncompressedBytes = spillManager.getAppWriteBytes();
+    this.writeIOBytes = spillManager.getIOWriteBytes();
+    this.readIOBytes = spillManager.getIOReadBytes();
+    this.compressionNanos = spillManager.getCompressionNanos();
+    this.decompressionNanos = spillManager.getDecompressionNanos();
+  }
+
+  public long getWriteIOBytes() {
+    return writeIOBytes;
+  }
+
+  public long getReadIOBytes() {
+    return readIOBytes;
+  }
+
+  /**
+   * @return bytes written to disk as a percentage of the uncompressed spill size
+   */
+  public long getCompressionPercent() {
+    return writeUncompressedBytes == 0 ? 100 : (writeIOBytes * 100) / writeUncompressedBytes;
+  }
+
+  public long getCompressionNanos() {
+    return compressionNanos;
+  }
+
+  public long getDecompressionNanos() {
+    return decompressionNanos;
+  }
 }
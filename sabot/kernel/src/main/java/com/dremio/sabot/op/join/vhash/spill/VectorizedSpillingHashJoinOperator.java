@@ -864,6 +864,13 @@ public class VectorizedSpillingHashJoinOperator implements DualInputOperator, Sh
       stats.setLongStat(Metric.OOB_DROP_LOCAL, oobDropLocal);
       stats.setLongStat(Metric.OOB_DROP_LOCAL, oobDropWrongState);
       stats.setLongStat(Metric.OOB_SPILL, oobSpills);
+
+      spillStats.updateCompressionStats(joinSetupParams.getSpillManager());
+      stats.setLongStat(Metric.SPILL_WR_IO_BYTES, spillStats.getWriteIOBytes());
+      stats.setLongStat(Metric.SPILL_RD_IO_BYTES, spillStats.getReadIOBytes());
+      stats.setLongStat(Metric.SPILL_COMPRESSION_PERCENT, spillStats.getCompressionPercent());
+      stats.setLongStat(Metric.SPILL_COMPRESSION_NANOS, spillStats.getCompressionNanos());
+      stats.setLongStat(Metric.SPILL_DECOMPRESSION_NANOS, spillStats.getDecompressionNanos());
     }
   }
 
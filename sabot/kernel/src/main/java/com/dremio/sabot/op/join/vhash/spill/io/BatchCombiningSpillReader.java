@@ -33,6 +33,7 @@ import com.dremio.sabot.op.join.vhash.spill.pool.PagePool;
 import com.dremio.sabot.op.join.vhash.spill.pool.PageSupplier;
 import com.dremio.sabot.op.join.vhash.spill.pool.ReusingPageSupplier;
 import com.dremio.sabot.op.join.vhash.spill.slicer.PageBatchMerger;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -50,13 +51,14 @@ public class BatchCombiningSpillReader implements CloseableIterator<SpillChunk>
   private PageBatchMerger merger;
 
   public BatchCombiningSpillReader(SpillManager.SpillFile spillFile,
+                                   SpillCompression compression,
                                    SpillSerializable serializable,
                                    PagePool pagePool,
                                    PivotDef pivotDef,
                                    BatchSchema unpivotedColumnsSchema,
                                    int maxInputBatchSize) {
     this.pageSupplier = new ReusingPageSupplier(pagePool);
-    this.reader = new SpillReader(spillFile, serializable, pageSupplier, unpivotedColumnsSchema);
+    this.reader = new SpillReader(spillFile, compression, serializable, pageSupplier, unpivotedColumnsSchema);
     this.pagePool = pagePool;
     this.pivotDef = pivotDef;
     this.maxInputBatchSize = maxInputBatchSize;
@@ -21,6 +21,7 @@ import com.dremio.common.AutoCloseables;
 import com.dremio.common.util.CloseableIterator;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.sabot.op.join.vhash.spill.pool.PageSupplier;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
 import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
 import com.google.common.base.Preconditions;
@@ -31,6 +32,7 @@ import com.google.common.base.Preconditions;
  */
 public class SpillReader implements CloseableIterator<SpillChunk> {
   private final SpillFile spillFile;
+  private final SpillCompression compression;
   private final PageSupplier pageSupplier;
   private final BatchSchema unpivotedColumnsSchema;
   private final SpillSerializable serializable;
@@ -38,10 +40,12 @@ public class SpillReader implements CloseableIterator<SpillChunk> {
   private SpillInputStream inputStream;
 
   public SpillReader(SpillFile spillFile,
+                     SpillCompression compression,
                      SpillSerializable serializable,
                      PageSupplier pageSupplier,
                      BatchSchema unpivotedColumnsSchema) {
     this.spillFile = spillFile;
+    this.compression = compression;
     this.serializable = serializable;
     this.pageSupplier = pageSupplier;
     this.unpivotedColumnsSchema = unpivotedColumnsSchema;
@@ -72,7 +76,7 @@ public class SpillReader implements CloseableIterator<SpillChunk> {
   private void prefetch() {
     try {
       if (inputStream == null) {
-        inputStream = spillFile.open(true);
+        inputStream = spillFile.open(compression);
       }
       prefetchedChunk = serializable.readChunkFromStream(pageSupplier, unpivotedColumnsSchema, inputStream);
     } catch (IOException ex) {
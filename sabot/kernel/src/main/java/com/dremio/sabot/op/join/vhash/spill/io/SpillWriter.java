@@ -30,6 +30,7 @@ import com.dremio.sabot.op.join.vhash.spill.SV2UnsignedUtil;
 import com.dremio.sabot.op.join.vhash.spill.pool.Page;
 import com.dremio.sabot.op.join.vhash.spill.pool.PagePool;
 import com.dremio.sabot.op.join.vhash.spill.slicer.PageBatchSlicer;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
@@ -42,6 +43,7 @@ import com.google.common.collect.ImmutableList;
 public class SpillWriter implements AutoCloseable {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillWriter.class);
   private final SpillManager spillManager;
+  private final SpillCompression compression;
   private final SpillSerializable serializable;
   private final String fileName;
   private final PagePool pagePool;
@@ -56,11 +58,12 @@ public class SpillWriter implements AutoCloseable {
   private long numRecordsWritten = 0;
   private long numBatchesWritten = 0;
 
-  public SpillWriter(SpillManager spillManager, SpillSerializable serializable,
+  public SpillWriter(SpillManager spillManager, SpillCompression compression, SpillSerializable serializable,
                      String fileName, PagePool pagePool,
                      ArrowBuf sv2, VectorAccessible input, ImmutableBitSet unpivotedColumns,
                      FixedBlockVector fixed, VariableBlockVector var) {
     this.spillManager = spillManager;
+    this.compression = compression;
     this.serializable = serializable;
     this.fileName = fileName;
     this.pagePool = pagePool;
@@ -74,7 +77,7 @@ public class SpillWriter implements AutoCloseable {
     if (outputStream == null) {
       spillFile = spillManager.getSpillFile(fileName);
       spillFileDescriptor = new SpillFileDescriptor(spillFile);
-      outputStream = spillFile.create(true);
+      outputStream = spillFile.create(compression);
     }
 
     int recordsDone = 0;
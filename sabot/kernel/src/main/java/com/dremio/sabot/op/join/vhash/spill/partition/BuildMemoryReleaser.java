@@ -40,6 +40,7 @@ import com.dremio.sabot.op.join.vhash.spill.pool.Page;
 import com.dremio.sabot.op.join.vhash.spill.pool.PagePool;
 import com.dremio.sabot.op.join.vhash.spill.slicer.PageBatchSlicer;
 import com.dremio.sabot.op.join.vhash.spill.slicer.RecordBatchPage;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
@@ -68,6 +69,7 @@ public class BuildMemoryReleaser implements MemoryReleaser {
   private final BufferAllocator allocatorToRelease; // do not allocate from this allocator
   private final PagePool spillPagePool;
   private final SpillSerializable serializable;
+  private final SpillCompression compression;
   private SpillManager.SpillOutputStream outputStream;
   private int cursor;
   private long recordsWritten;
@@ -94,6 +96,7 @@ public class BuildMemoryReleaser implements MemoryReleaser {
     this.cursor = allEntries.getFirstValidIndex();
     this.spillPagePool = setupParams.getSpillPagePool();
     this.serializable = setupParams.getSpillSerializable(true /*isBuild*/);
+    this.compression = setupParams.getSpillCompression();
   }
 
   @Override
@@ -109,7 +112,7 @@ public class BuildMemoryReleaser implements MemoryReleaser {
 
   private int writeOneChunk() throws Exception {
     if (outputStream == null) {
-      outputStream = spillFile.getFile().create(true);
+      outputStream = spillFile.getFile().create(compression);
     }
     if (isFinished()) {
       return 0;
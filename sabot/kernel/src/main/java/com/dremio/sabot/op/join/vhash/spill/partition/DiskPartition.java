@@ -59,14 +59,14 @@ public class DiskPartition implements Partition {
     this.recordedStats = recordedStats;
 
     final PagePool pool = setupParams.getSpillPagePool();
-    this.buildWriter = new SpillWriter(setupParams.getSpillManager(), setupParams.getSpillSerializable(true), getBuildFileName(),
+    this.buildWriter = new SpillWriter(setupParams.getSpillManager(), setupParams.getSpillCompression(), setupParams.getSpillSerializable(true), getBuildFileName(),
       pool, sv2, setupParams.getRight(), setupParams.getBuildNonKeyFieldsBitset(),
       setupParams.getPivotedFixedBlock(), setupParams.getPivotedVariableBlock());
 
     // For the probe side, we spill the key columns in both pivoted & unpivoted format.
     // - The pivoted format is useful for hash-table lookup
     // - The unpivoted format is useful for copying to outgoing vectors.
-    this.probeWriter = new SpillWriter(setupParams.getSpillManager(), setupParams.getSpillSerializable(false), getProbeFileName(),
+    this.probeWriter = new SpillWriter(setupParams.getSpillManager(), setupParams.getSpillCompression(), setupParams.getSpillSerializable(false), getProbeFileName(),
       pool, sv2, setupParams.getLeft(), null /*all columns are pivoted*/,
       setupParams.getPivotedFixedBlock(), setupParams.getPivotedVariableBlock());
   }
@@ -39,6 +39,7 @@ import com.dremio.sabot.op.join.vhash.spill.io.SpillChunk;
 import com.dremio.sabot.op.join.vhash.spill.io.SpillSerializable;
 import com.dremio.sabot.op.join.vhash.spill.partition.Partition;
 import com.dremio.sabot.op.join.vhash.spill.pool.PagePool;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
 import com.google.common.base.Preconditions;
 
@@ -102,7 +103,7 @@ public class JoinReplayer implements YieldingRunnable {
       }
       ++index;
     }
-    this.buildChunkIterator = new SpillChunkIterator(setupParams.getSpillSerializable(true), setupParams.getSpillPagePool(),
+    this.buildChunkIterator = new SpillChunkIterator(setupParams.getSpillCompression(), setupParams.getSpillSerializable(true), setupParams.getSpillPagePool(),
       replayEntry.getBuildFiles(), setupParams.getBuildKeyPivot(), new BatchSchema(unpivotedBuildFields), setupParams.getMaxInputBatchSize());
 
     // for probe side, the spill has
@@ -111,7 +112,7 @@ public class JoinReplayer implements YieldingRunnable {
     for (VectorWrapper<?> vector : setupParams.getLeft()) {
       unpivotedProbeVectorsMap.put(vector.getField().getName(), vector);
     }
-    this.probeChunkIterator = new SpillChunkIterator(setupParams.getSpillSerializable(false), setupParams.getSpillPagePool(),
+    this.probeChunkIterator = new SpillChunkIterator(setupParams.getSpillCompression(), setupParams.getSpillSerializable(false), setupParams.getSpillPagePool(),
       replayEntry.getProbeFiles(), setupParams.getBuildKeyPivot(), setupParams.getLeft().getSchema(), setupParams.getMaxInputBatchSize());
   }
 
@@ -299,6 +300,7 @@ public class JoinReplayer implements YieldingRunnable {
 
   // An iterator that can span multiple spill files (schema needs to be same).
   private static class SpillChunkIterator implements CloseableIterator<SpillChunk> {
+    private final SpillCompression compression;
     private final SpillSerializable serializable;
     private final PagePool pool;
     private final LinkedList<SpillFile> spillFiles;
@@ -311,8 +313,9 @@ public class JoinReplayer implements YieldingRunnable {
     private SpillChunk nextChunk;
     private boolean isFinished;
 
-    SpillChunkIterator(SpillSerializable serializable, PagePool pool, List<SpillFile> spillFiles,
+    SpillChunkIterator(SpillCompression compression, SpillSerializable serializable, PagePool pool, List<SpillFile> spillFiles,
                        PivotDef pivotDef, BatchSchema schema, int maxInputBatchSize) {
+      this.compression = compression;
       this.serializable = serializable;
       this.pool = pool;
       this.spillFiles = new LinkedList<>(spillFiles);
@@ -359,7 +362,7 @@ public class JoinReplayer implements YieldingRunnable {
           return;
         }
         currentFile = spillFiles.getFirst();
-        currentReader = new BatchCombiningSpillReader(currentFile, serializable, pool, pivotDef, schema,
+        currentReader = new BatchCombiningSpillReader(currentFile, compression, serializable, pool, pivotDef, schema,
           maxInputBatchSize);
       }
 
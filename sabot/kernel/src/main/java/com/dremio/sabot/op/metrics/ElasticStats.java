@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.metrics;
+
+import com.dremio.sabot.exec.context.MetricDef;
+import com.dremio.sabot.op.scan.ScanOperator;
+
+/**
+ * Metrics of the elasticsearch scans, reported along the {@link ScanOperator.Metric} of the scan operator.
+ */
+public class ElasticStats {
+  public enum Metric implements MetricDef {
+    NUM_SLICES_READ,              // Number of slices read
+    NUM_PAGES_READ,               // Number of search and scroll responses received from elasticsearch
+    BYTES_READ,                   // Total size of the responses received from elasticsearch
+    MIN_SLICE_RECORDS_PER_SEC,    // Records per second of the slowest slice
+    MAX_SLICE_RECORDS_PER_SEC;    // Records per second of the fastest slice
+
+    @Override
+    public int metricId() {
+      return ScanOperator.Metric.values().length + ordinal();
+    }
+  }
+}
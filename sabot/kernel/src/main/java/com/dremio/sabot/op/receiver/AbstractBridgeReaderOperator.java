@@ -39,6 +39,7 @@ abstract class AbstractBridgeReaderOperator implements ProducerOperator {
   private final VectorContainer outgoing;
   private final BatchStreamProvider batchStreamProvider;
   private final RawFragmentBatchProvider batchProvider;
+  private final ExchangeDecompressor decompressor;
 
   private State state = State.NEEDS_SETUP;
 
@@ -55,6 +56,7 @@ abstract class AbstractBridgeReaderOperator implements ProducerOperator {
     this.stats = context.getStats();
     this.outgoing = context.createOutputVectorContainer(batchSchema);
     this.batchLoader = new ArrowRecordBatchLoader(outgoing);
+    this.decompressor = new ExchangeDecompressor(context.getAllocator());
     this.batchStreamProvider = streams;
     this.batchProvider = streams.getBuffersFromFiles(uniqueId, handle.getMajorFragmentId());
     logger.debug("uniqueId {}", uniqueId);
@@ -99,8 +101,8 @@ abstract class AbstractBridgeReaderOperator implements ProducerOperator {
         return 0;
       }
 
-      int size = batchLoader.load(batch);
-      updateMetrics(batch.getByteCount());
+      int size = decompressor.load(batchLoader, batch);
+      updateMetrics(batch.getByteCount(), decompressor);
 
       final int count = batchLoader.getRecordCount();
       //logger.debug("read batch {} records", count);
@@ -116,7 +118,7 @@ abstract class AbstractBridgeReaderOperator implements ProducerOperator {
     }
   }
 
-  abstract void updateMetrics(long bytesRead);
+  abstract void updateMetrics(long bytesRead, ExchangeDecompressor decompressor);
 
   @Override
   public void close() throws Exception {
@@ -28,7 +28,10 @@ import com.dremio.sabot.op.spi.ProducerOperator;
  */
 public class BridgeFileReaderReceiverOperator extends AbstractBridgeReaderOperator {
   public enum Metric implements MetricDef {
-    BYTES_RECEIVED;
+    BYTES_RECEIVED,
+    BYTES_BEFORE_DECOMPRESSION,
+    BYTES_AFTER_DECOMPRESSION,
+    DECOMPRESSION_NANOS;
 
     @Override
     public int metricId() {
@@ -46,8 +49,11 @@ public class BridgeFileReaderReceiverOperator extends AbstractBridgeReaderOperat
   }
 
   @Override
-  void updateMetrics(long bytesRead) {
+  void updateMetrics(long bytesRead, ExchangeDecompressor decompressor) {
     getStats().addLongStat(Metric.BYTES_RECEIVED, bytesRead);
+    getStats().setLongStat(Metric.BYTES_BEFORE_DECOMPRESSION, decompressor.getBytesBeforeDecompression());
+    getStats().setLongStat(Metric.BYTES_AFTER_DECOMPRESSION, decompressor.getBytesAfterDecompression());
+    getStats().setLongStat(Metric.DECOMPRESSION_NANOS, decompressor.getDecompressionNanos());
   }
 
   public static class Creator implements ReceiverCreator<BridgeFileReaderReceiver> {
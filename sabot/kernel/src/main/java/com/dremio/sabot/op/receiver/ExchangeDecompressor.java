@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.flatbuf.BodyCompression;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.LargeMemoryUtil;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.ExchangeCompression;
+
+/**
+ * Loads the batches received from an exchange, decompressing the buffers of the batches their sender compressed
+ * (see {@code ExchangeCompressor}). Batches stay compressed while they are queued or spooled, and are only
+ * decompressed once the receiver consumes them.
+ */
+public class ExchangeDecompressor {
+  private final BufferAllocator allocator;
+  private final Map<CompressionUtil.CodecType, CompressionCodec> codecs = new EnumMap<>(CompressionUtil.CodecType.class);
+
+  private long bytesBeforeDecompression;
+  private long bytesAfterDecompression;
+  private long decompressionNanos;
+
+  public ExchangeDecompressor(BufferAllocator allocator) {
+    this.allocator = allocator;
+  }
+
+  /**
+   * Loads the batch in the loader.
+   *
+   * @return the size of the batch as received
+   */
+  public int load(ArrowRecordBatchLoader loader, RawFragmentBatch batch) {
+    final ArrowBuf body = batch.getBody();
+    if (body == null) {
+      return loader.load(batch);
+    }
+    final RecordBatch recordBatch = RecordBatch.getRootAsRecordBatch(batch.getHeader().getArrowRecordBatch().asReadOnlyByteBuffer());
+    final BodyCompression compression = recordBatch.compression();
+    if (compression == null) {
+      return loader.load(batch);
+    }
+
+    final int size = LargeMemoryUtil.checkedCastToInt(body.readableBytes());
+    try (ArrowRecordBatch decompressed = decompress(recordBatch, body, compression)) {
+      loader.load(decompressed);
+    }
+    return size;
+  }
+
+  private ArrowRecordBatch decompress(RecordBatch recordBatch, ArrowBuf body, BodyCompression compression) {
+    final CompressionCodec codec = codecs.computeIfAbsent(
+      CompressionUtil.CodecType.fromCompressionType(compression.codec()), ExchangeCompression.CODEC_FACTORY::createCodec);
+
+    final long start = System.nanoTime();
+    final List<ArrowBuf> buffers = new ArrayList<>();
+    try {
+      final ArrowRecordBatch compressed = ArrowRecordBatchLoader.deserializeRecordBatch(recordBatch, body);
+      long decompressedBytes = 0;
+      for (ArrowBuf buf : compressed.getBuffers()) {
+        // the codec releases the buffer it decompresses
+        buf.getReferenceManager().retain();
+        final ArrowBuf decompressedBuf;
+        try {
+          decompressedBuf = codec.decompress(allocator, buf);
+        } catch (RuntimeException e) {
+          buf.close();
+          throw e;
+        }
+        buffers.add(decompressedBuf);
+        decompressedBytes += decompressedBuf.writerIndex();
+      }
+      decompressionNanos += System.nanoTime() - start;
+      bytesBeforeDecompression += body.readableBytes();
+      bytesAfterDecompression += decompressedBytes;
+      return new ArrowRecordBatch(compressed.getLength(), compressed.getNodes(), buffers,
+        NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false);
+    } catch (IOException e) {
+      throw new RuntimeException("could not deserialize compressed batch", e);
+    } finally {
+      AutoCloseables.closeNoChecked(AutoCloseables.all(buffers));
+    }
+  }
+
+  /**
+   * @return size of the compressed batches received
+   */
+  public long getBytesBeforeDecompression() {
+    return bytesBeforeDecompression;
+  }
+
+  /**
+   * @return size of the compressed batches received, after decompression
+   */
+  public long getBytesAfterDecompression() {
+    return bytesAfterDecompression;
+  }
+
+  public long getDecompressionNanos() {
+    return decompressionNanos;
+  }
+}
@@ -47,6 +47,7 @@ import com.dremio.exec.vector.CopyUtil;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.receiver.ExchangeDecompressor;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
 import com.dremio.sabot.op.receiver.ReceiverLatencyTracker;
@@ -68,6 +69,7 @@ public class MergingReceiverOperator implements ProducerOperator {
   private final BatchStreamProvider streamProvider;
   private final OperatorStats stats;
   private final ReceiverLatencyTracker latencyTracker = new ReceiverLatencyTracker();
+  private final ExchangeDecompressor decompressor;
 
   private static enum OutputState {INIT_ON_NEXT, ACTIVE_OUTPUT};
 
@@ -86,7 +88,10 @@ public class MergingReceiverOperator implements ProducerOperator {
     SUM_TX_MILLIS,
     MAX_TX_MILLIS,
     SUM_QUEUE_MILLIS,
-    MAX_QUEUE_MILLIS;
+    MAX_QUEUE_MILLIS,
+    BYTES_BEFORE_DECOMPRESSION,
+    BYTES_AFTER_DECOMPRESSION,
+    DECOMPRESSION_NANOS;
 
     @Override
     public int metricId() {
@@ -102,6 +107,7 @@ public class MergingReceiverOperator implements ProducerOperator {
     this.context = context;
     this.streamProvider = streamProvider;
     this.stats = context.getStats();
+    this.decompressor = new ExchangeDecompressor(context.getAllocator());
     this.config = config;
     this.outgoingContainer = context.createOutputVectorContainer(config.getSchema());
     this.stats.setLongStat(Metric.NUM_SENDERS, config.getNumSenders());
@@ -328,9 +334,12 @@ public class MergingReceiverOperator implements ProducerOperator {
           return provider.isStreamDone();
         } else {
           latencyTracker.updateLatencyFromBatch(currentBatch.getHeader());
-          size = loader.load(currentBatch);
+          size = decompressor.load(loader, currentBatch);
           stats.addLongStat(Metric.BYTES_RECEIVED, size);
           stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
+          stats.setLongStat(Metric.BYTES_BEFORE_DECOMPRESSION, decompressor.getBytesBeforeDecompression());
+          stats.setLongStat(Metric.BYTES_AFTER_DECOMPRESSION, decompressor.getBytesAfterDecompression());
+          stats.setLongStat(Metric.DECOMPRESSION_NANOS, decompressor.getDecompressionNanos());
           valueIndex = 0;
         }
 
@@ -24,6 +24,7 @@ import com.dremio.exec.record.VectorContainer;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.receiver.ExchangeDecompressor;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
 import com.dremio.sabot.op.receiver.ReceiverLatencyTracker;
@@ -43,6 +44,7 @@ public class UnorderedReceiverOperator implements ProducerOperator {
   private final VectorContainer outgoing;
   private final BatchStreamProvider streams;
   private final ReceiverLatencyTracker latencyTracker = new ReceiverLatencyTracker();
+  private final ExchangeDecompressor decompressor;
 
   public enum Metric implements MetricDef {
     BYTES_RECEIVED,
@@ -51,7 +53,10 @@ public class UnorderedReceiverOperator implements ProducerOperator {
     SUM_TX_MILLIS,
     MAX_TX_MILLIS,
     SUM_QUEUE_MILLIS,
-    MAX_QUEUE_MILLIS;
+    MAX_QUEUE_MILLIS,
+    BYTES_BEFORE_DECOMPRESSION,
+    BYTES_AFTER_DECOMPRESSION,
+    DECOMPRESSION_NANOS;
 
     @Override
     public int metricId() {
@@ -77,6 +82,7 @@ public class UnorderedReceiverOperator implements ProducerOperator {
     // In normal case, batchLoader does not require an allocator. However, in case of splitAndTransfer of a value vector,
     // we may need an allocator for the new offset vector. Therefore, here we pass the context's allocator to batchLoader.
     this.batchLoader = new ArrowRecordBatchLoader(outgoing);
+    this.decompressor = new ExchangeDecompressor(context.getAllocator());
   }
 
   @Override
@@ -114,9 +120,12 @@ public class UnorderedReceiverOperator implements ProducerOperator {
       }
       latencyTracker.updateLatencyFromBatch(batch.getHeader());
 
-      int size = batchLoader.load(batch);
+      int size = decompressor.load(batchLoader, batch);
       stats.addLongStat(Metric.BYTES_RECEIVED, size);
       stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
+      stats.setLongStat(Metric.BYTES_BEFORE_DECOMPRESSION, decompressor.getBytesBeforeDecompression());
+      stats.setLongStat(Metric.BYTES_AFTER_DECOMPRESSION, decompressor.getBytesAfterDecompression());
+      stats.setLongStat(Metric.DECOMPRESSION_NANOS, decompressor.getDecompressionNanos());
 
       final int count = batchLoader.getRecordCount();
       stats.batchReceived(0, count, size);
@@ -173,7 +173,12 @@ public class ScanOperator implements ProducerOperator {
     HIVE_FILE_FORMATS,// File Formats in hive sub scan represented as bitmap. Indices correspond to HiveFilFormat enum
     NUM_ZERO_SIZED_COLUMN, // Number of zero sized column
     NUM_EXTRA_FOOTER_READS, // Number of times footer is read for a split.
-    MAX_RECORD_READ_PER_READER // Maximum number of record read from Reader
+    MAX_RECORD_READ_PER_READER, // Maximum number of record read from Reader
+    NUM_ROW_GROUPS_PRUNED_BY_RUNTIME_FILTER(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of row groups pruned using runtime filter"), // Row groups skipped using footer stats, column indexes or bloom filters
+    NUM_PAGES_PRUNED_BY_RUNTIME_FILTER, // Pages ruled out by the column index of row groups skipped using runtime filter
+    RUNTIME_FILTER_SKIPPED_BYTES, // Compressed bytes of the row groups skipped using runtime filter
+    NUM_ROWS_SKIPPED_BY_LATE_MATERIALIZATION, // Rows ruled out by the pushdown filters, whose other columns were not decoded
+    NUM_PAGES_SKIPPED_BY_LATE_MATERIALIZATION // Pages of the other columns that were not read as none of their rows passed the filters
     ;
 
     private final DisplayType displayType;
@@ -20,7 +20,6 @@ import java.util.stream.Collectors;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
-import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +60,7 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
   private final OptionManager options;
   private final SpillService spillService;
   private final SabotConfig sabotConfig;
+  private final ExchangeCompressor compressor;
 
   private State state = State.NEEDS_SETUP;
   private SpillManager spillManager;
@@ -68,7 +68,11 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
   private VectorAccessible incoming;
 
   public enum Metric implements MetricDef {
-    BYTES_SENT;
+    BYTES_SENT,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION,
+    COMPRESSION_NANOS;
+
     @Override
     public int metricId() {
       return ordinal();
@@ -87,6 +91,7 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
     this.options = context.getOptions();
     this.spillService = context.getSpillService();
     this.sabotConfig = context.getConfig();
+    this.compressor = new ExchangeCompressor(allocator, options);
 
     logger.debug("uniqueId {}", uniqueId);
   }
@@ -132,8 +137,7 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
       handle.getMajorFragmentId(),
       handle.getMinorFragmentId(),
       config.getReceiverMajorFragmentId(),
-      new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers,
-        NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false)
+      compressor.newRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers)
     );
 
     // write batch to the file tunnel.
@@ -156,6 +160,9 @@ public class BridgeFileWriterSenderOperator extends BaseSender {
 
   private void updateStats(FragmentWritableBatch writableBatch) {
     stats.addLongStat(BridgeFileWriterSenderOperator.Metric.BYTES_SENT, writableBatch.getByteCount());
+    stats.setLongStat(BridgeFileWriterSenderOperator.Metric.BYTES_BEFORE_COMPRESSION, compressor.getBytesBeforeCompression());
+    stats.setLongStat(BridgeFileWriterSenderOperator.Metric.BYTES_AFTER_COMPRESSION, compressor.getBytesAfterCompression());
+    stats.setLongStat(BridgeFileWriterSenderOperator.Metric.COMPRESSION_NANOS, compressor.getCompressionNanos());
   }
 
   @Override
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.ExchangeCompression;
+import com.dremio.options.OptionManager;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.EnumValidator;
+import com.dremio.options.TypeValidators.PositiveLongValidator;
+import com.dremio.options.TypeValidators.RangeDoubleValidator;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Builds the arrow record batches sent by an exchange, compressing their buffers with the codec picked by {@link
+ * #COMPRESSION}.
+ *
+ * Compression is decided per batch: batches smaller than {@link #MIN_BATCH_BYTES} are sent raw, and a batch that
+ * doesn't compress below {@link #MAX_RATIO} of its size is sent raw along with the next batches, skipping twice as
+ * many batches every time the data keeps compressing poorly.
+ */
+@Options
+public class ExchangeCompressor {
+  public static final EnumValidator<ExchangeCompression> COMPRESSION =
+    new EnumValidator<>("exec.exchange.compression", ExchangeCompression.class, ExchangeCompression.NONE);
+  public static final PositiveLongValidator MIN_BATCH_BYTES =
+    new PositiveLongValidator("exec.exchange.compression.min_batch_bytes", Integer.MAX_VALUE, 16 * 1024);
+  public static final RangeDoubleValidator MAX_RATIO =
+    new RangeDoubleValidator("exec.exchange.compression.max_ratio", 0.0, 1.0, 0.9);
+
+  private static final int MAX_SKIPPED_BATCHES = 64;
+
+  private final BufferAllocator allocator;
+  private final CompressionCodec codec;
+  private final long minBatchBytes;
+  private final double maxRatio;
+
+  private int skipOnPoorRatio;
+  private int batchesToSkip;
+  private long bytesBeforeCompression;
+  private long bytesAfterCompression;
+  private long compressionNanos;
+
+  public ExchangeCompressor(BufferAllocator allocator, OptionManager options) {
+    this(allocator,
+      ExchangeCompression.valueOf(options.getOption(COMPRESSION).toUpperCase(Locale.ROOT)),
+      options.getOption(MIN_BATCH_BYTES),
+      options.getOption(MAX_RATIO));
+  }
+
+  @VisibleForTesting
+  ExchangeCompressor(BufferAllocator allocator, ExchangeCompression compression, long minBatchBytes, double maxRatio) {
+    this.allocator = allocator;
+    this.codec = compression.isCompressed() ? compression.newCodec() : null;
+    this.minBatchBytes = minBatchBytes;
+    this.maxRatio = maxRatio;
+  }
+
+  /**
+   * Creates the record batch to send for the given buffers. Like the {@link ArrowRecordBatch} constructor, the
+   * returned batch holds its own reference on each of its buffers, and the references of the caller are left as is.
+   */
+  public ArrowRecordBatch newRecordBatch(int length, List<ArrowFieldNode> nodes, List<ArrowBuf> buffers) {
+    if (codec == null) {
+      return newRawBatch(length, nodes, buffers);
+    }
+
+    long rawBytes = 0;
+    for (ArrowBuf buf : buffers) {
+      rawBytes += buf.writerIndex();
+    }
+    if (rawBytes < minBatchBytes) {
+      return newRawBatch(length, nodes, buffers);
+    }
+    if (batchesToSkip > 0) {
+      batchesToSkip--;
+      return newRawBatch(length, nodes, buffers);
+    }
+
+    final long start = System.nanoTime();
+    final List<ArrowBuf> compressed = new ArrayList<>(buffers.size());
+    try {
+      long compressedBytes = 0;
+      for (ArrowBuf buf : buffers) {
+        // the codec releases the buffer it compresses
+        buf.getReferenceManager().retain();
+        final ArrowBuf compressedBuf;
+        try {
+          compressedBuf = codec.compress(allocator, buf);
+        } catch (RuntimeException e) {
+          buf.close();
+          throw e;
+        }
+        compressed.add(compressedBuf);
+        compressedBytes += compressedBuf.writerIndex();
+      }
+      compressionNanos += System.nanoTime() - start;
+
+      if (compressedBytes > rawBytes * maxRatio) {
+        // not worth the decompression on the receiver
+        skipOnPoorRatio = Math.min(Math.max(1, skipOnPoorRatio * 2), MAX_SKIPPED_BATCHES);
+        batchesToSkip = skipOnPoorRatio;
+        return newRawBatch(length, nodes, buffers);
+      }
+      skipOnPoorRatio = 0;
+      bytesBeforeCompression += rawBytes;
+      bytesAfterCompression += compressedBytes;
+      return new ArrowRecordBatch(length, nodes, compressed, CompressionUtil.createBodyCompression(codec), false);
+    } finally {
+      AutoCloseables.closeNoChecked(AutoCloseables.all(compressed));
+    }
+  }
+
+  private static ArrowRecordBatch newRawBatch(int length, List<ArrowFieldNode> nodes, List<ArrowBuf> buffers) {
+    return new ArrowRecordBatch(length, nodes, buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false);
+  }
+
+  /**
+   * @return size of the batches sent compressed, before compression
+   */
+  public long getBytesBeforeCompression() {
+    return bytesBeforeCompression;
+  }
+
+  /**
+   * @return size of the batches sent compressed, after compression
+   */
+  public long getBytesAfterCompression() {
+    return bytesAfterCompression;
+  }
+
+  public long getCompressionNanos() {
+    return compressionNanos;
+  }
+}
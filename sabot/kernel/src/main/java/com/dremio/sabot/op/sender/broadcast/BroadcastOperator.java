@@ -21,7 +21,6 @@ import javax.annotation.Nullable;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.OutOfMemoryException;
-import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
@@ -39,6 +38,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Function;
@@ -63,6 +63,7 @@ public class BroadcastOperator extends BaseSender {
   private final OperatorStats stats;
   private final OperatorContext context;
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   private VectorAccessible incoming;
 
@@ -71,7 +72,10 @@ public class BroadcastOperator extends BaseSender {
     BYTES_SENT,
     BATCHES_SENT,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION,
+    COMPRESSION_NANOS;
 
     @Override
     public int metricId() {
@@ -85,6 +89,7 @@ public class BroadcastOperator extends BaseSender {
     this.context = context;
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.compressor = new ExchangeCompressor(context.getAllocator(), context.getOptions());
 
     final List<MinorFragmentEndpoint> destinations = config.getDestinations(context.getEndpointsIndex());
     final ArrayListMultimap<NodeEndpoint, Integer> dests = ArrayListMultimap.create();
@@ -123,6 +128,9 @@ public class BroadcastOperator extends BaseSender {
     stats.setLongStat(Metric.N_RECEIVERS, tunnels.length);
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
     stats.addLongStat(Metric.BATCHES_SENT, 1);
+    stats.setLongStat(Metric.BYTES_BEFORE_COMPRESSION, compressor.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, compressor.getBytesAfterCompression());
+    stats.setLongStat(Metric.COMPRESSION_NANOS, compressor.getCompressionNanos());
   }
 
   @Override
@@ -182,8 +190,14 @@ public class BroadcastOperator extends BaseSender {
         }
       }).toList();
 
+    // compress once for all the receivers, the batch holds one reference per buffer that is consumed by a send
+    final ArrowRecordBatch sentBatch = compressor.newRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers);
+    for (ArrowBuf buf : buffers) {
+      buf.close();
+    }
+
     if (tunnels.length > 1) {
-      for (ArrowBuf buf : buffers) {
+      for (ArrowBuf buf : sentBatch.getBuffers()) {
         buf.getReferenceManager().retain(tunnels.length - 1);
       }
     }
@@ -194,13 +208,10 @@ public class BroadcastOperator extends BaseSender {
           handle.getMajorFragmentId(),
           handle.getMinorFragmentId(),
           config.getReceiverMajorFragmentId(),
-          new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false),
+          sentBatch,
           receivingMinorFragments[i]);
       updateStats(batch);
       tunnels[i].sendRecordBatch(batch, latencyTracker.getLatencyObserver());
-      for (ArrowBuf buf : buffers) {
-        buf.close();
-      }
     }
   }
 
@@ -22,6 +22,7 @@ import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.VarBinaryVector;
 import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.physical.config.HashPartitionSender;
@@ -33,6 +34,7 @@ import com.dremio.exec.record.VectorWrapper;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.google.common.base.Preconditions;
@@ -66,11 +68,12 @@ public class OutgoingBatch extends VectorContainer {
   /** true if receiver finished */
   private volatile boolean dropAll;
   private final SenderLatencyTracker senderLatencyTracker;
+  private final ExchangeCompressor compressor;
 
   OutgoingBatch(int batchIdx, int nextBatchIdx, int maxRecords, final VectorAccessible incoming,
                 BufferAllocator allocator, AccountingExecTunnel tunnel, HashPartitionSender config,
                 OperatorContext context, int oppositeMinorFragmentId, OperatorStats stats,
-                SenderLatencyTracker senderLatencyTracker) {
+                SenderLatencyTracker senderLatencyTracker, ExchangeCompressor compressor) {
     Preconditions.checkArgument(maxRecords <= Character.MAX_VALUE, "maxRecords cannot exceed " + Character.MAX_VALUE);
     this.batchIdx = batchIdx;
     this.nextBatchIdx = nextBatchIdx;
@@ -83,6 +86,7 @@ public class OutgoingBatch extends VectorContainer {
 
     this.stats = stats;
     this.senderLatencyTracker = senderLatencyTracker;
+    this.compressor = compressor;
 
     for (VectorWrapper<?> v : incoming) {
       ValueVector outgoingVector = TypeHelper.getNewVector(v.getField(), allocator);
@@ -175,12 +179,19 @@ public class OutgoingBatch extends VectorContainer {
     }
 
     final ExecProtos.FragmentHandle handle = context.getFragmentHandle();
-    FragmentWritableBatch writableBatch = FragmentWritableBatch.create(
+    final ArrowRecordBatch recordBatch = FragmentWritableBatch.getArrowRecordBatch(this);
+    final ArrowRecordBatch sentBatch;
+    try {
+      sentBatch = compressor.newRecordBatch(recordBatch.getLength(), recordBatch.getNodes(), recordBatch.getBuffers());
+    } finally {
+      recordBatch.close();
+    }
+    FragmentWritableBatch writableBatch = new FragmentWritableBatch(
       handle.getQueryId(),
       handle.getMajorFragmentId(),
       handle.getMinorFragmentId(),
       config.getReceiverMajorFragmentId(),
-      this,
+      sentBatch,
       oppositeMinorFragmentId);
 
     updateStats(writableBatch);
@@ -196,5 +207,8 @@ public class OutgoingBatch extends VectorContainer {
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
     stats.addLongStat(Metric.BATCHES_SENT, 1);
     stats.addLongStat(Metric.RECORDS_SENT, writableBatch.getRecordCount());
+    stats.setLongStat(Metric.BYTES_BEFORE_COMPRESSION, compressor.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, compressor.getBytesAfterCompression());
+    stats.setLongStat(Metric.COMPRESSION_NANOS, compressor.getCompressionNanos());
   }
 }
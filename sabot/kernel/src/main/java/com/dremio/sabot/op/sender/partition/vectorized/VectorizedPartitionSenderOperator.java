@@ -47,6 +47,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.dremio.sabot.op.sender.partition.vectorized.MultiDestCopier.CopyWatches;
@@ -89,6 +90,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
   private final Stopwatch preCopyWatch = Stopwatch.createUnstarted();
   private final Stopwatch flushWatch = Stopwatch.createUnstarted();
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   /**
    * number of records before we flush any outgoing batch.<br>
@@ -150,6 +152,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     this.config = config;
     this.tunnelProvider = tunnelProvider;
     this.stats = context.getStats();
+    this.compressor = new ExchangeCompressor(context.getAllocator(), context.getOptions());
     this.numReceivers = config.getDestinations().size();
 
     remainingReceivers = new AtomicIntegerArray(numReceivers);
@@ -227,8 +230,8 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
       final MinorFragmentEndpoint destination = destinations.get(p);
       final AccountingExecTunnel tunnel = tunnelProvider.getExecTunnel(destination.getEndpoint());
 
-      batches[p] = new OutgoingBatch(p, batchB, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker);
-      batches[batchB] = new OutgoingBatch(batchB, p, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker);
+      batches[p] = new OutgoingBatch(p, batchB, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker, compressor);
+      batches[batchB] = new OutgoingBatch(batchB, p, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker, compressor);
 
       if (!delayAllocSendBatches) {
         // Only allocate the primary batch. Backup batch is allocated when it is needed.
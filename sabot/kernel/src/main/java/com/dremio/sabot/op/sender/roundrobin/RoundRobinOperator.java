@@ -24,7 +24,6 @@ import javax.annotation.Nullable;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
-import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
@@ -42,6 +41,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Function;
@@ -66,6 +66,7 @@ public class RoundRobinOperator extends BaseSender {
   private int currentTunnelsIndex;
   private int currentMinorFragmentsIndex;
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   private VectorAccessible incoming;
 
@@ -74,7 +75,10 @@ public class RoundRobinOperator extends BaseSender {
     BYTES_SENT,
     BATCHES_SENT,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION,
+    COMPRESSION_NANOS;
 
     @Override
     public int metricId() {
@@ -88,6 +92,7 @@ public class RoundRobinOperator extends BaseSender {
     this.allocator = context.getAllocator();
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.compressor = new ExchangeCompressor(allocator, context.getOptions());
 
     List<MinorFragmentEndpoint> destinations = config.getDestinations(context.getEndpointsIndex());
     final ArrayListMultimap<NodeEndpoint, Integer> dests = ArrayListMultimap.create();
@@ -120,6 +125,9 @@ public class RoundRobinOperator extends BaseSender {
     stats.setLongStat(Metric.N_RECEIVERS, tunnels.size());
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
     stats.addLongStat(Metric.BATCHES_SENT, 1);
+    stats.setLongStat(Metric.BYTES_BEFORE_COMPRESSION, compressor.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, compressor.getBytesAfterCompression());
+    stats.setLongStat(Metric.COMPRESSION_NANOS, compressor.getCompressionNanos());
   }
 
   @Override
@@ -182,7 +190,7 @@ public class RoundRobinOperator extends BaseSender {
       handle.getMajorFragmentId(),
       handle.getMinorFragmentId(),
       config.getReceiverMajorFragmentId(),
-      new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false),
+      compressor.newRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers),
       minorFragments.get(currentTunnelsIndex).get(currentMinorFragmentsIndex)
     );
     updateStats(batch);
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+
+import com.dremio.common.concurrent.NamedThreadFactory;
+
+/**
+ * Moves spill file I/O off the fragment thread.
+ *
+ * Streams wrapped by this class are double buffered: while the caller fills (or drains) one buffer, a background
+ * thread writes (or reads ahead) the other one. Each stream holds at most two buffers of {@link #getBufferSize()}
+ * bytes, charged to the allocator given when wrapping it, and has at most one pending I/O at any time, so the
+ * single background thread serves all the streams of an operator in order.
+ *
+ * If the buffers can't be allocated, the stream is returned unwrapped and I/O stays synchronous.
+ */
+public final class AsyncSpillIO implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AsyncSpillIO.class);
+
+  private final String name;
+  private final int bufferSize;
+  private ExecutorService executor;
+
+  public AsyncSpillIO(String name, int bufferSize) {
+    this.name = name;
+    this.bufferSize = bufferSize;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * @return memory to reserve for the given number of concurrently open streams
+   */
+  public long getReservation(int streams) {
+    return 2L * bufferSize * streams;
+  }
+
+  OutputStream wrap(OutputStream out, BufferAllocator allocator) {
+    try {
+      return new AsyncSpillOutputStream(out, getExecutor(), allocator, bufferSize);
+    } catch (OutOfMemoryException e) {
+      logger.debug("Unable to allocate write buffers for {}, writing synchronously", name, e);
+      return out;
+    }
+  }
+
+  InputStream wrap(InputStream in, BufferAllocator allocator) {
+    try {
+      return new ReadAheadSpillInputStream(in, getExecutor(), allocator, bufferSize);
+    } catch (OutOfMemoryException e) {
+      logger.debug("Unable to allocate read-ahead buffers for {}, reading synchronously", name, e);
+      return in;
+    }
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("spill-io-" + name + "-"));
+    }
+    return executor;
+  }
+
+  /**
+   * Stops the background thread. All the wrapped streams must have been closed already.
+   */
+  @Override
+  public synchronized void close() throws Exception {
+    if (executor != null) {
+      executor.shutdown();
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+        logger.warn("Spill I/O thread for {} did not terminate", name);
+        executor.shutdownNow();
+      }
+      executor = null;
+    }
+  }
+}
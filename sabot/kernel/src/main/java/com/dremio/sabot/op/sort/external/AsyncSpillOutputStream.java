@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.store.LocalSyncableFileSystem.WritesArrowBuf;
+
+/**
+ * Double buffered output stream: the caller fills one buffer while the other one is written to the underlying
+ * stream on a background thread. The caller only blocks when both buffers are full.
+ */
+final class AsyncSpillOutputStream extends OutputStream implements WritesArrowBuf {
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private final OutputStream out;
+  private final ExecutorService executor;
+  private final int bufferSize;
+  private ArrowBuf current;
+  private ArrowBuf inFlight;
+  private Future<?> pending;
+  private byte[] copyBuffer;
+  private boolean closed;
+
+  AsyncSpillOutputStream(OutputStream out, ExecutorService executor, BufferAllocator allocator, int bufferSize) {
+    this.out = out;
+    this.executor = executor;
+    this.bufferSize = bufferSize;
+    this.current = allocator.buffer(bufferSize);
+    try {
+      this.inFlight = allocator.buffer(bufferSize);
+    } catch (RuntimeException e) {
+      current.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (current.writerIndex() == bufferSize) {
+      swap();
+    }
+    current.writeByte(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (current.writerIndex() == bufferSize) {
+        swap();
+      }
+      final int n = Math.min(len, bufferSize - (int) current.writerIndex());
+      current.writeBytes(b, off, n);
+      off += n;
+      len -= n;
+    }
+  }
+
+  @Override
+  public int write(ArrowBuf buf) throws IOException {
+    final long length = buf.readableBytes();
+    long index = buf.readerIndex();
+    long remaining = length;
+    while (remaining > 0) {
+      if (current.writerIndex() == bufferSize) {
+        swap();
+      }
+      final long n = Math.min(remaining, bufferSize - current.writerIndex());
+      current.setBytes(current.writerIndex(), buf, index, n);
+      current.writerIndex(current.writerIndex() + n);
+      index += n;
+      remaining -= n;
+    }
+    return (int) length;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (current.writerIndex() > 0) {
+      swap();
+    }
+    awaitPending();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flush();
+    } finally {
+      try {
+        // the background write may still be running if flush failed, don't release its buffer under it
+        awaitPendingQuietly();
+      } finally {
+        try {
+          out.close();
+        } finally {
+          AutoCloseables.closeNoChecked(current);
+          AutoCloseables.closeNoChecked(inFlight);
+        }
+      }
+    }
+  }
+
+  /**
+   * Hands the current buffer over to the background thread, once the previous one has been written.
+   */
+  private void swap() throws IOException {
+    awaitPending();
+    final ArrowBuf toWrite = current;
+    current = inFlight;
+    current.clear();
+    inFlight = toWrite;
+    pending = executor.submit(() -> {
+      drain(toWrite);
+      return null;
+    });
+  }
+
+  private void drain(ArrowBuf buf) throws IOException {
+    final long length = buf.writerIndex();
+    if (out instanceof WritesArrowBuf) {
+      long written = 0;
+      while (written < length) {
+        written += ((WritesArrowBuf) out).write(buf.slice(written, length - written));
+      }
+      return;
+    }
+
+    if (copyBuffer == null) {
+      copyBuffer = new byte[COPY_BUFFER_SIZE];
+    }
+    for (long index = 0; index < length; ) {
+      final int n = (int) Math.min(copyBuffer.length, length - index);
+      buf.getBytes(index, copyBuffer, 0, n);
+      out.write(copyBuffer, 0, n);
+      index += n;
+    }
+  }
+
+  private void awaitPending() throws IOException {
+    if (pending == null) {
+      return;
+    }
+    try {
+      pending.get();
+      pending = null;
+    } catch (InterruptedException e) {
+      // keep the pending write around so that close() still waits for it
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for spill write");
+    } catch (ExecutionException e) {
+      pending = null;
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Failure while writing spill data", cause);
+    }
+  }
+
+  private void awaitPendingQuietly() {
+    if (pending == null) {
+      return;
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        pending.get();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      } catch (ExecutionException e) {
+        break;
+      }
+    }
+    pending = null;
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
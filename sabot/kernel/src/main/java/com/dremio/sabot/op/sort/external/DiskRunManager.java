@@ -89,6 +89,7 @@ public class DiskRunManager implements AutoCloseable {
   @VisibleForTesting
   public static final String INJECTOR_OOM_SPILL = "injectOOMOnSpill";
   private static final ControlsInjector injector = ControlsInjectorFactory.getInjector(DiskRunManager.class);
+  private static final int ASYNC_SPILL_IO_MEMORY_FRACTION = 8;
 
   private final List<Ordering> orderings;
   private final List<DiskRun> diskRuns = new CopyOnWriteArrayList<>();
@@ -125,6 +126,9 @@ public class DiskRunManager implements AutoCloseable {
   private final double allocationDensity;
   private long compressionNanos;
   private long uncompressionNanos;
+  private final AsyncSpillIO asyncIO;
+  private BufferAllocator asyncWriteAllocator;
+  private BufferAllocator asyncReadAllocator;
 
   private final CopierFactory copierFactory;
   private final OperatorStats operatorStats;
@@ -191,6 +195,28 @@ public class DiskRunManager implements AutoCloseable {
       this.spillManager = new SpillManager(config, optionManager, id, conf, spillService, "sort spilling", stats);
       rollback.add(this.spillManager);
 
+      /* the I/O buffers may use at most this share of the sort memory, with small limits the memory is better
+       * spent on the sort itself and spill I/O stays synchronous.
+       */
+      final long asyncIOBudget = this.parentAllocator.getLimit() / ASYNC_SPILL_IO_MEMORY_FRACTION;
+      final int asyncBufferSize = (int) optionManager.getOption(ExecConstants.EXTERNAL_SORT_ASYNC_SPILL_IO_BUFFER_SIZE);
+      if (optionManager.getOption(ExecConstants.EXTERNAL_SORT_ASYNC_SPILL_IO) && asyncIOBudget >= 4L * asyncBufferSize) {
+        this.asyncIO = rollback.add(new AsyncSpillIO(id, asyncBufferSize));
+        /* the write buffers are reserved upfront, as spilling happens when memory is scarce. At most one spill
+         * file is written at a time. The read-ahead buffers use what is left of the budget when the runs are
+         * merged, runs for which there is no memory are read synchronously.
+         */
+        try {
+          final long reserve = asyncIO.getReservation(1);
+          asyncWriteAllocator = rollback.add(this.parentAllocator.newChildAllocator("spill_async_write", reserve, reserve));
+          asyncReadAllocator = rollback.add(this.parentAllocator.newChildAllocator("spill_async_read", 0, asyncIOBudget - reserve));
+        } catch (OutOfMemoryException ex) {
+          logger.debug("DiskRunManager: unable to reserve memory for asynchronous spill I/O, using synchronous I/O");
+        }
+      } else {
+        this.asyncIO = null;
+      }
+
       rollback.commit();
     }
   }
@@ -393,7 +419,7 @@ public class DiskRunManager implements AutoCloseable {
       try (RollbackCloseable rollback = new RollbackCloseable()) {
         container = rollback.add(VectorContainer.create(copierAllocator, dataSchema));
         copier = rollback.add(createCopier(container, diskRuns));
-        out = spillFile.create(useArrowEncoding && compressSpilledBatch);
+        out = createSpillStream(spillFile);
         rollback.commit();
       }
     }
@@ -444,7 +470,7 @@ public class DiskRunManager implements AutoCloseable {
       final SpillFile spillFile = spillManager.getSpillFile(String.format("run%05d", run++));
       BatchSchema outgoingSchema = null;
 
-      try (SpillOutputStream out = spillFile.create(useArrowEncoding && compressSpilledBatch);
+      try (SpillOutputStream out = createSpillStream(spillFile);
            final VectorContainer outgoing = VectorContainer.create(copyTargetAllocator, hyperBatch.getSchema());
            VectorContainer hyperBatchToClose = hyperBatch) {
 
@@ -539,7 +565,7 @@ public class DiskRunManager implements AutoCloseable {
   public void startMicroSpilling(final VectorContainer container) throws IOException {
     Preconditions.checkState(this.microSpillState == null);
     final SpillFile spillFile = spillManager.getSpillFile(String.format("run%05d", run++));
-    final SpillOutputStream out = spillFile.create(useArrowEncoding && compressSpilledBatch);
+    final SpillOutputStream out = createSpillStream(spillFile);
     this.microSpillState = new MicroSpillState(spillFile, container, out);
   }
 
@@ -632,6 +658,18 @@ public class DiskRunManager implements AutoCloseable {
     return done;
   }
 
+  private SpillCompression getSpillCompression() {
+    return useArrowEncoding && compressSpilledBatch ? SpillCompression.LZ4 : SpillCompression.NONE;
+  }
+
+  private SpillOutputStream createSpillStream(SpillFile spillFile) throws IOException {
+    if (asyncWriteAllocator == null) {
+      return spillFile.create(getSpillCompression());
+    }
+    // falls back to a synchronous stream if the buffers are in use by another spill file
+    return spillFile.create(getSpillCompression(), asyncIO, asyncWriteAllocator);
+  }
+
   private int spillBatch(VectorContainer outgoing, int records, SpillOutputStream out) throws IOException {
 
     if(useArrowEncoding) {
@@ -772,7 +810,8 @@ public class DiskRunManager implements AutoCloseable {
   public void close() throws Exception {
     AutoCloseables.close(Iterables.concat(this.diskRuns, Collections.singleton(diskRunMerger),
       Collections.singleton(compressSpilledBatchAllocator), Collections.singleton(this.spillManager), Collections.singleton(copierAllocator),
-      Collections.singleton(this.microSpillState)));
+      Collections.singleton(this.microSpillState), Collections.singleton(asyncWriteAllocator),
+      Collections.singleton(asyncReadAllocator), Collections.singleton(asyncIO)));
   }
 
   private class MicroSpillState implements AutoCloseable {
@@ -877,7 +916,9 @@ public class DiskRunManager implements AutoCloseable {
       try (RollbackCloseable rollback = new RollbackCloseable()){
         this.allocator = rollback.add(parentAllocator.newChildAllocator("diskrun", 0, memCapacity));
         this.container = rollback.add(VectorContainer.create(allocator, dataSchema));
-        this.inputStream = rollback.add(spillFile.open(useArrowEncoding && compressSpilledBatch));
+        this.inputStream = rollback.add(asyncReadAllocator == null
+          ? spillFile.open(getSpillCompression())
+          : spillFile.open(getSpillCompression(), asyncIO, asyncReadAllocator));
         this.batchIndexMax = batchCount;
         loadNextBatch(true);
         hyperContainer.addBatch(this.container);
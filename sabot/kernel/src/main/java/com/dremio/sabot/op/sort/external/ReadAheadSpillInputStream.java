@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.fs.ByteBufferReadable;
+
+import com.dremio.common.AutoCloseables;
+
+/**
+ * Double buffered input stream: while the caller consumes one buffer, the next one is read from the underlying
+ * stream on a background thread. The caller only blocks when it catches up with the read-ahead.
+ */
+final class ReadAheadSpillInputStream extends InputStream {
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream in;
+  private final ExecutorService executor;
+  private final int bufferSize;
+  private ArrowBuf current;
+  private ArrowBuf next;
+  private Future<?> pending;
+  private boolean directRead;
+  private byte[] copyBuffer;
+  private boolean closed;
+
+  ReadAheadSpillInputStream(InputStream in, ExecutorService executor, BufferAllocator allocator, int bufferSize) {
+    this.in = in;
+    this.executor = executor;
+    this.bufferSize = bufferSize;
+    this.directRead = in instanceof ByteBufferReadable;
+    this.current = allocator.buffer(bufferSize);
+    try {
+      this.next = allocator.buffer(bufferSize);
+    } catch (RuntimeException e) {
+      current.close();
+      throw e;
+    }
+    current.clear();
+    readAhead();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureAvailable()) {
+      return -1;
+    }
+    return current.readByte() & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureAvailable()) {
+      return -1;
+    }
+    final int n = (int) Math.min(len, current.readableBytes());
+    current.readBytes(b, off, n);
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return (int) current.readableBytes();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      // the background read may still be running, don't release its buffer under it
+      awaitPendingQuietly();
+    } finally {
+      try {
+        in.close();
+      } finally {
+        AutoCloseables.closeNoChecked(current);
+        AutoCloseables.closeNoChecked(next);
+      }
+    }
+  }
+
+  /**
+   * Makes sure the current buffer has data, switching to the read-ahead buffer if needed.
+   *
+   * @return false at the end of the stream
+   */
+  private boolean ensureAvailable() throws IOException {
+    while (current.readableBytes() == 0) {
+      if (pending == null) {
+        // the last read-ahead hit the end of the stream
+        return false;
+      }
+      awaitPending();
+      final ArrowBuf filled = next;
+      next = current;
+      current = filled;
+      if (current.writerIndex() < bufferSize) {
+        // a short buffer means the end of the stream was reached, nothing left to read ahead
+        if (current.writerIndex() == 0) {
+          return false;
+        }
+      } else {
+        readAhead();
+      }
+    }
+    return true;
+  }
+
+  private void readAhead() {
+    final ArrowBuf toFill = next;
+    toFill.clear();
+    pending = executor.submit(() -> {
+      fill(toFill);
+      return null;
+    });
+  }
+
+  private void fill(ArrowBuf buf) throws IOException {
+    while (buf.writerIndex() < bufferSize) {
+      final int n = readInto(buf, buf.writerIndex(), (int) (bufferSize - buf.writerIndex()));
+      if (n < 0) {
+        return;
+      }
+      buf.writerIndex(buf.writerIndex() + n);
+    }
+  }
+
+  private int readInto(ArrowBuf buf, long index, int length) throws IOException {
+    if (directRead) {
+      try {
+        return ((ByteBufferReadable) in).read(buf.nioBuffer(index, length));
+      } catch (UnsupportedOperationException e) {
+        // the wrapped stream doesn't support reading into byte buffers
+        directRead = false;
+      }
+    }
+
+    if (copyBuffer == null) {
+      copyBuffer = new byte[COPY_BUFFER_SIZE];
+    }
+    final int n = in.read(copyBuffer, 0, Math.min(length, copyBuffer.length));
+    if (n > 0) {
+      buf.setBytes(index, copyBuffer, 0, n);
+    }
+    return n;
+  }
+
+  private void awaitPending() throws IOException {
+    try {
+      pending.get();
+      pending = null;
+    } catch (InterruptedException e) {
+      // keep the pending read around so that close() still waits for it
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for spill read");
+    } catch (ExecutionException e) {
+      pending = null;
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Failure while reading spill data", cause);
+    }
+  }
+
+  private void awaitPendingQuietly() {
+    if (pending == null) {
+      return;
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        pending.get();
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      } catch (ExecutionException e) {
+        break;
+      }
+    }
+    pending = null;
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+
+/**
+ * Codecs available for compressing spill files. The codec used to write a spill file must also be used to read it
+ * back, so operators pick one per query and keep it for all files they spill.
+ */
+public enum SpillCompression {
+  /** Raw arrow buffers, no compression. */
+  NONE {
+    @Override
+    OutputStream compress(OutputStream out) {
+      return out;
+    }
+
+    @Override
+    InputStream decompress(InputStream in) {
+      return in;
+    }
+  },
+
+  /** LZ4 block compression, cheap on cpu with a moderate ratio. */
+  LZ4 {
+    @Override
+    OutputStream compress(OutputStream out) {
+      return new LZ4BlockOutputStream(out);
+    }
+
+    @Override
+    InputStream decompress(InputStream in) {
+      return new LZ4BlockInputStream(in);
+    }
+  },
+
+  /** Zstandard at a low level, better ratio than LZ4 for more cpu. */
+  ZSTD {
+    private static final int LEVEL = 1;
+
+    @Override
+    OutputStream compress(OutputStream out) throws IOException {
+      return new ZstdOutputStream(out, LEVEL);
+    }
+
+    @Override
+    InputStream decompress(InputStream in) throws IOException {
+      return new ZstdInputStream(in);
+    }
+  };
+
+  abstract OutputStream compress(OutputStream out) throws IOException;
+
+  abstract InputStream decompress(InputStream in) throws IOException;
+
+  public boolean isCompressed() {
+    return this != NONE;
+  }
+}
@@ -47,9 +47,6 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.service.spill.SpillDirectory;
 import com.dremio.service.spill.SpillService;
 
-import net.jpountz.lz4.LZ4BlockInputStream;
-import net.jpountz.lz4.LZ4BlockOutputStream;
-
 /**
  * Distribute spills across given list of directories.
  * Monitor disk space left and stop using disks which are running low on free space.
@@ -136,11 +133,35 @@ public class SpillManager implements AutoCloseable {
     }
 
     public SpillOutputStream create(boolean compressed) throws IOException {
-      return createSpillOutputStream(this, compressed);
+      return create(compressed ? SpillCompression.LZ4 : SpillCompression.NONE);
+    }
+
+    public SpillOutputStream create(SpillCompression compression) throws IOException {
+      return createSpillOutputStream(this, compression, null, null);
+    }
+
+    /**
+     * Creates the file, writing it through a background thread if {@code asyncIO} is not null.
+     * The write buffers are allocated from the given allocator.
+     */
+    public SpillOutputStream create(SpillCompression compression, AsyncSpillIO asyncIO, BufferAllocator allocator) throws IOException {
+      return createSpillOutputStream(this, compression, asyncIO, allocator);
     }
 
     public SpillInputStream open(boolean compressed) throws IOException {
-      return createSpillInputStream(this, compressed);
+      return open(compressed ? SpillCompression.LZ4 : SpillCompression.NONE);
+    }
+
+    public SpillInputStream open(SpillCompression compression) throws IOException {
+      return createSpillInputStream(this, compression, null, null);
+    }
+
+    /**
+     * Opens the file, reading ahead on a background thread if {@code asyncIO} is not null.
+     * The read-ahead buffers are allocated from the given allocator.
+     */
+    public SpillInputStream open(SpillCompression compression, AsyncSpillIO asyncIO, BufferAllocator allocator) throws IOException {
+      return createSpillInputStream(this, compression, asyncIO, allocator);
     }
 
     public FSDataOutputStream create() throws IOException {
@@ -191,7 +212,8 @@ public class SpillManager implements AutoCloseable {
 
   }
 
-  private SpillOutputStream createSpillOutputStream(SpillFile file, boolean compressed) throws IOException {
+  private SpillOutputStream createSpillOutputStream(SpillFile file, SpillCompression compression,
+                                                    AsyncSpillIO asyncIO, BufferAllocator allocator) throws IOException {
     FSDataOutputStream output = file.fs.create(file.path);
     OutputStream actualOutput = output;
     try {
@@ -202,10 +224,14 @@ public class SpillManager implements AutoCloseable {
     } catch (Exception ex) {
       logger.debug("Failed to get inner wrapped stream, using fallback.", ex);
     }
+    if (asyncIO != null) {
+      // below the stats stream, so that the io time only counts what the caller actually waited for
+      actualOutput = asyncIO.wrap(actualOutput, allocator);
+    }
     ABOutputStreamWithStats base = new ABOutputStreamWithStats(actualOutput);
-    ABOutputStreamWithStats top = compressed ? new ABOutputStreamWithStats(new LZ4BlockOutputStream(base)) : base;
-    boolean useDirectWrite = useDirectWritePathIfPossible && !compressed && actualOutput instanceof WritesArrowBuf;
-    return new SpillOutputStream(top, base, file, compressed, useDirectWrite);
+    ABOutputStreamWithStats top = compression.isCompressed() ? new ABOutputStreamWithStats(compression.compress(base)) : base;
+    boolean useDirectWrite = useDirectWritePathIfPossible && !compression.isCompressed() && actualOutput instanceof WritesArrowBuf;
+    return new SpillOutputStream(top, base, file, compression, useDirectWrite);
   }
 
   public class SpillOutputStream extends FilterOutputStream {
@@ -213,25 +239,29 @@ public class SpillManager implements AutoCloseable {
     private final ABOutputStreamWithStats top;
     private final ABOutputStreamWithStats base;
     private final SpillFile file;
-    private final boolean compressed;
+    private final SpillCompression compression;
     private final boolean writeDirect;
 
     private SpillOutputStream(
         ABOutputStreamWithStats top,
         ABOutputStreamWithStats base,
         SpillFile file,
-        boolean compressed,
+        SpillCompression compression,
         boolean writeDirect) {
       super(top);
       this.top = top;
       this.base = base;
       this.file = file;
-      this.compressed = compressed;
+      this.compression = compression;
       this.writeDirect = writeDirect;
     }
 
     public boolean isCompressed() {
-      return compressed;
+      return compression.isCompressed();
+    }
+
+    public SpillCompression getCompression() {
+      return compression;
     }
 
     public Path getPath() {
@@ -251,7 +281,7 @@ public class SpillManager implements AutoCloseable {
     }
 
     public long getCompressionTime() {
-      if(!compressed) {
+      if(!isCompressed()) {
         return 0;
       }
 
@@ -288,11 +318,15 @@ public class SpillManager implements AutoCloseable {
 
   }
 
-  private SpillInputStream createSpillInputStream(SpillFile file, boolean compressed) throws IOException {
+  private SpillInputStream createSpillInputStream(SpillFile file, SpillCompression compression,
+                                                  AsyncSpillIO asyncIO, BufferAllocator allocator) throws IOException {
     InputStream output = file.fs.open(file.path);
+    if (asyncIO != null) {
+      output = asyncIO.wrap(output, allocator);
+    }
     InputStreamWithStats base = new InputStreamWithStats(output);
-    InputStreamWithStats top = compressed ? new InputStreamWithStats(new LZ4BlockInputStream(base)) : base;
-    return new SpillInputStream(top, base, file, compressed);
+    InputStreamWithStats top = compression.isCompressed() ? new InputStreamWithStats(compression.decompress(base)) : base;
+    return new SpillInputStream(top, base, file, compression);
   }
 
   public class SpillInputStream extends FilterInputStream {
@@ -300,22 +334,26 @@ public class SpillManager implements AutoCloseable {
     private final InputStreamWithStats top;
     private final InputStreamWithStats base;
     private final SpillFile file;
-    private boolean compressed;
+    private final SpillCompression compression;
 
     private SpillInputStream(
         InputStreamWithStats top,
         InputStreamWithStats base,
         SpillFile file,
-        boolean compressed) {
+        SpillCompression compression) {
       super(top);
       this.top = top;
       this.base = base;
       this.file = file;
-      this.compressed = compressed;
+      this.compression = compression;
     }
 
     public boolean isCompressed() {
-      return compressed;
+      return compression.isCompressed();
+    }
+
+    public SpillCompression getCompression() {
+      return compression;
     }
 
     public Path getPath() {
@@ -335,7 +373,7 @@ public class SpillManager implements AutoCloseable {
     }
 
     public long getDeompressionTime() {
-      if(!compressed) {
+      if(!isCompressed()) {
         return 0;
       }
 
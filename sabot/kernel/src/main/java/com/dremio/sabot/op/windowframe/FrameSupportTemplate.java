@@ -261,6 +261,8 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
     // a single frame can include rows from multiple batches
     // start processing first batch and, if necessary, move to next batches
+    // stop at the end of the frame, the next batches may have to be read back from disk
+    outer:
     for (VectorAccessible batch : batches) {
       setupEvaluatePeer(batch, container);
       final int recordCount = batch.getRecordCount();
@@ -269,11 +271,11 @@ public abstract class FrameSupportTemplate implements WindowFramer {
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (unboundedFollowing) {
           if (length >= remainingRows) {
-            break;
+            break outer;
           }
         } else {
           if (!isPeer(start, current, row, batch)) {
-            break;
+            break outer;
           }
         }
 
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.vector.ValueVector;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Batches buffered by the {@link WindowFrameOperator}. When the batches held in memory use more than
+ * {@link ExecConstants#WINDOW_SPILL_THRESHOLD_BYTES}, the ones in the middle of the buffer are spilled to disk and
+ * reloaded when the framers read them.<br>
+ * <br>
+ * The first batch (being processed) and the last one (used to detect the end of the current partition) always stay in
+ * memory. The framers keep references to the batches they read between calls (e.g. the batch holding the last row of
+ * the current frame), so the {@value #RECENT_BATCHES} batches most recently read past the first one stay in memory too.
+ */
+class SpillableBatchList extends AbstractList<VectorContainer> implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillableBatchList.class);
+
+  private static final int RECENT_BATCHES = 2;
+
+  private final OperatorContext context;
+  private final boolean spillEnabled;
+  private final long spillThreshold;
+  private final List<Batch> batches = new ArrayList<>();
+  private final ArrayDeque<Batch> recent = new ArrayDeque<>(RECENT_BATCHES + 1);
+
+  private SpillManager spillManager;
+  private int spillFileIndex;
+  private long inMemoryBytes;
+
+  private final Stopwatch spillWatch = Stopwatch.createUnstarted();
+  private final Stopwatch reloadWatch = Stopwatch.createUnstarted();
+  private long peakInMemoryBytes;
+  private int batchesSpilled;
+  private long bytesSpilled;
+  private int batchesReloaded;
+
+  /**
+   * A buffered batch, held in memory, on disk or both.
+   */
+  private final class Batch implements AutoCloseable {
+    private final BatchSchema schema;
+    private final long size;
+    private VectorContainer container;
+    private SpillFile spillFile;
+
+    private Batch(VectorContainer container) {
+      this.schema = container.getSchema();
+      this.size = getSize(container);
+      this.container = container;
+    }
+
+    private boolean isInMemory() {
+      return container != null;
+    }
+
+    private void spill() throws IOException {
+      if (spillFile == null) {
+        if (spillManager == null) {
+          spillManager = createSpillManager();
+        }
+        final SpillFile file = spillManager.getSpillFile(String.format("batch%05d", spillFileIndex++));
+        try (SpillOutputStream out = file.create(false)) {
+          bytesSpilled += out.writeBatch(container);
+        }
+        spillFile = file;
+        batchesSpilled++;
+      }
+      releaseMemory();
+    }
+
+    private void reload() throws IOException {
+      final VectorContainer reloaded = VectorContainer.create(context.getAllocator(), schema);
+      try (SpillInputStream in = spillFile.open(false)) {
+        in.load(reloaded, context.getAllocator());
+      } catch (IOException | RuntimeException e) {
+        reloaded.close();
+        throw e;
+      }
+      container = reloaded;
+      inMemoryBytes += size;
+      batchesReloaded++;
+    }
+
+    private void releaseMemory() {
+      container.close();
+      container = null;
+      inMemoryBytes -= size;
+    }
+
+    @Override
+    public void close() throws Exception {
+      if (container != null) {
+        releaseMemory();
+      }
+      AutoCloseables.close(spillFile);
+      spillFile = null;
+    }
+  }
+
+  SpillableBatchList(OperatorContext context) {
+    this.context = context;
+    this.spillEnabled = context.getOptions().getOption(ExecConstants.WINDOW_SPILL_ENABLED);
+    // leave room in the operator allocation to reload the spilled batches
+    this.spillThreshold = Math.min(context.getOptions().getOption(ExecConstants.WINDOW_SPILL_THRESHOLD_BYTES),
+      context.getAllocator().getLimit() / 2);
+  }
+
+  private static long getSize(VectorContainer container) {
+    long size = 0;
+    for (VectorWrapper<?> wrapper : container) {
+      final ValueVector vector = wrapper.getValueVector();
+      size += vector.getBufferSize();
+    }
+    return size;
+  }
+
+  private SpillManager createSpillManager() {
+    final FragmentHandle handle = context.getFragmentHandle();
+    final String id = String.format("windowspill-%s.%s.%s.%s", QueryIdHelper.getQueryId(handle.getQueryId()),
+      handle.getMajorFragmentId(), handle.getMinorFragmentId(), context.getStats().getOperatorId());
+    return new SpillManager(context.getConfig(), context.getOptions(), id, null, context.getSpillService(),
+      "window spilling", context.getStats());
+  }
+
+  /**
+   * Takes ownership of the batch, and spills the batches in the middle of the buffer if needed.
+   */
+  @Override
+  public boolean add(VectorContainer container) {
+    batches.add(new Batch(container));
+    inMemoryBytes += batches.get(batches.size() - 1).size;
+    peakInMemoryBytes = Math.max(peakInMemoryBytes, inMemoryBytes);
+    if (spillEnabled && inMemoryBytes > spillThreshold) {
+      spill();
+    }
+    return true;
+  }
+
+  private void spill() {
+    spillWatch.start();
+    try {
+      // the batches at the end of the buffer are the last ones the framers will need
+      for (int i = batches.size() - 2; i > 0 && inMemoryBytes > spillThreshold; i--) {
+        final Batch batch = batches.get(i);
+        if (batch.isInMemory() && !recent.contains(batch)) {
+          batch.spill();
+        }
+      }
+    } catch (IOException e) {
+      throw UserException.dataWriteError(e)
+        .message("Failed to spill window batches to disk")
+        .build(logger);
+    } finally {
+      spillWatch.stop();
+    }
+  }
+
+  /**
+   * @return the batch at the given index, reloading it from disk if it was spilled
+   */
+  @Override
+  public VectorContainer get(int index) {
+    final Batch batch = batches.get(index);
+    if (index > 0) {
+      touch(batch);
+    }
+    if (!batch.isInMemory()) {
+      reloadWatch.start();
+      try {
+        batch.reload();
+      } catch (IOException e) {
+        throw UserException.dataReadError(e)
+          .message("Failed to reload spilled window batch")
+          .build(logger);
+      } finally {
+        reloadWatch.stop();
+      }
+      peakInMemoryBytes = Math.max(peakInMemoryBytes, inMemoryBytes);
+    }
+    return batch.container;
+  }
+
+  private void touch(Batch batch) {
+    if (recent.peekLast() == batch) {
+      return;
+    }
+    recent.remove(batch);
+    recent.addLast(batch);
+    if (recent.size() > RECENT_BATCHES) {
+      final Batch old = recent.pollFirst();
+      // reloaded batches are released once the framers are done with them, unless it's the batch being processed
+      if (old.spillFile != null && old.isInMemory() && batches.get(0) != old) {
+        old.releaseMemory();
+      }
+    }
+  }
+
+  /**
+   * @return the last batch, always held in memory
+   */
+  VectorContainer getLast() {
+    return batches.get(batches.size() - 1).container;
+  }
+
+  /**
+   * Removes and releases the first batch, once it has been processed.
+   */
+  @Override
+  public VectorContainer remove(int index) {
+    Preconditions.checkArgument(index == 0, "only the first batch can be removed");
+    final Batch batch = batches.remove(0);
+    recent.remove(batch);
+    final VectorContainer container = batch.container;
+    try {
+      batch.close();
+    } catch (Exception e) {
+      throw UserException.dataWriteError(e)
+        .message("Failed to delete window spill file")
+        .build(logger);
+    }
+    return container;
+  }
+
+  @Override
+  public int size() {
+    return batches.size();
+  }
+
+  long getPeakInMemoryBytes() {
+    return peakInMemoryBytes;
+  }
+
+  int getBatchesSpilled() {
+    return batchesSpilled;
+  }
+
+  long getBytesSpilled() {
+    return bytesSpilled;
+  }
+
+  int getBatchesReloaded() {
+    return batchesReloaded;
+  }
+
+  long getSpillNanos() {
+    return spillWatch.elapsed(TimeUnit.NANOSECONDS);
+  }
+
+  long getReloadNanos() {
+    return reloadWatch.elapsed(TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>(batches);
+    closeables.add(spillManager);
+    batches.clear();
+    recent.clear();
+    AutoCloseables.close(closeables);
+  }
+}
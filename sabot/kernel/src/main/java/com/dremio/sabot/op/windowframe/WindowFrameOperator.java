@@ -18,7 +18,6 @@ package com.dremio.sabot.op.windowframe;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -39,10 +38,14 @@ import com.dremio.exec.expr.ClassGenerator;
 import com.dremio.exec.expr.ClassProducer;
 import com.dremio.exec.expr.fn.FunctionGenerationHelper;
 import com.dremio.exec.physical.config.WindowPOP;
+import com.dremio.exec.proto.UserBitShared.MetricDef.AggregationType;
+import com.dremio.exec.proto.UserBitShared.MetricDef.DisplayType;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -59,7 +62,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   private final OperatorContext context;
   private final List<WindowFunction> functions = Lists.newArrayList();
   private final WindowPOP config;
-  private final LinkedList<VectorContainer> batches = new LinkedList<>();
+  private final SpillableBatchList batches;
 
   private VectorAccessible incoming;
   private VectorContainer outgoing;
@@ -70,9 +73,57 @@ public class WindowFrameOperator implements SingleInputOperator {
 
   private boolean noMoreToConsume;
 
+  /**
+   * Window operator stats. Add new metrics at the end, old profiles rely on the ordinals.
+   */
+  public enum Metric implements MetricDef {
+    BATCHES_SPILLED(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of record batches spilled"),
+    SPILLED_DATA_SIZE(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of bytes spilled"),
+    BATCHES_RELOADED(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of spilled record batches read back"),
+    SPILL_TIME_NANOS,        // time spent writing batches to disk
+    RELOAD_TIME_NANOS,       // time spent reading spilled batches
+    PEAK_BUFFERED_BYTES,     // maximum size of the batches held in memory
+    ;
+
+    private final DisplayType displayType;
+    private final AggregationType aggregationType;
+    private final String displayCode;
+
+    Metric() {
+      this(DisplayType.DISPLAY_NEVER, AggregationType.SUM, "");
+    }
+
+    Metric(DisplayType displayType, AggregationType aggregationType, String displayCode) {
+      this.displayType = displayType;
+      this.aggregationType = aggregationType;
+      this.displayCode = displayCode;
+    }
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+
+    @Override
+    public DisplayType getDisplayType() {
+      return this.displayType;
+    }
+
+    @Override
+    public AggregationType getAggregationType() {
+      return this.aggregationType;
+    }
+
+    @Override
+    public String getDisplayCode() {
+      return this.displayCode;
+    }
+  }
+
   public WindowFrameOperator(OperatorContext context, WindowPOP config) throws OutOfMemoryException {
     this.context = context;
     this.config = config;
+    this.batches = new SpillableBatchList(context);
   }
 
   @Override
@@ -97,6 +148,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   public void consumeData(int records) throws Exception {
     state.is(State.CAN_CONSUME);
     batches.add(VectorContainer.getTransferClone(incoming, context.getAllocator()));
+    updateStats();
     if(canDoWork()){
       state = State.CAN_PRODUCE;
     }
@@ -117,6 +169,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
     doWork();
+    updateStats();
 
     if(batches.isEmpty()){
       state = State.DONE;
@@ -175,7 +228,7 @@ public class WindowFrameOperator implements SingleInputOperator {
       return false;
     }
 
-    final VectorAccessible current = batches.getFirst();
+    final VectorAccessible current = batches.get(0);
     final int currentSize = current.getRecordCount();
     final VectorAccessible last = batches.getLast();
     final int lastSize = last.getRecordCount();
@@ -193,6 +246,16 @@ public class WindowFrameOperator implements SingleInputOperator {
   }
 
 
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.BATCHES_SPILLED, batches.getBatchesSpilled());
+    stats.setLongStat(Metric.SPILLED_DATA_SIZE, batches.getBytesSpilled());
+    stats.setLongStat(Metric.BATCHES_RELOADED, batches.getBatchesReloaded());
+    stats.setLongStat(Metric.SPILL_TIME_NANOS, batches.getSpillNanos());
+    stats.setLongStat(Metric.RELOAD_TIME_NANOS, batches.getReloadNanos());
+    stats.setLongStat(Metric.PEAK_BUFFERED_BYTES, batches.getPeakInMemoryBytes());
+  }
+
   private void createFramers(VectorAccessible batch) throws SchemaChangeException, IOException, ClassTransformationException {
     assert framers == null : "createFramer should only be called once";
 
@@ -340,7 +403,7 @@ public class WindowFrameOperator implements SingleInputOperator {
     if (framers != null) {
       closeables.addAll(Arrays.asList(framers));
     }
-    closeables.addAll(batches);
+    closeables.add(batches);
     AutoCloseables.close(closeables);
   }
 
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.Arrays;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+
+/**
+ * {@link TaskHandle} of a task scheduled by the {@link SlicingTaskPool}.<br>
+ * <br>
+ * The handle holds the task's own virtual runtime and the key it was enqueued with: a snapshot of the virtual runtimes of
+ * the task's groups followed by its own. The key is only computed when the task is put in a run queue, so it never
+ * changes while the handle is in a queue.
+ */
+class SlicingTaskHandle implements TaskHandle<AsyncTaskWrapper> {
+
+  private final SlicingTaskPool pool;
+  private final WeightedSchedulingGroup group;
+  private final AsyncTaskWrapper task;
+  private final long weight;
+
+  private volatile long vRuntime;
+
+  // set when enqueued, only read by run queue comparators
+  private volatile long[] queueKey;
+  private volatile long queueSequence;
+
+  private volatile int thread = -1;
+
+  SlicingTaskHandle(SlicingTaskPool pool, WeightedSchedulingGroup group, AsyncTaskWrapper task, long weight,
+                    long initialVRuntime) {
+    this.pool = pool;
+    this.group = group;
+    this.task = task;
+    this.weight = Math.max(1, Math.min(weight, TaskManager.MAX_WEIGHT));
+    this.vRuntime = initialVRuntime;
+  }
+
+  @Override
+  public AsyncTaskWrapper getTask() {
+    return task;
+  }
+
+  @Override
+  public void reEnqueue() {
+    pool.enqueue(this);
+  }
+
+  @Override
+  public int getThread() {
+    return thread;
+  }
+
+  @Override
+  public int getCurrentTaskLoad() {
+    return pool.getCurrentTaskLoad(thread);
+  }
+
+  WeightedSchedulingGroup getGroup() {
+    return group;
+  }
+
+  void setThread(int thread) {
+    this.thread = thread;
+  }
+
+  /**
+   * Charges the task and its groups for a slice of execution
+   */
+  void charge(long runNanos) {
+    final long micros = Math.max(1, runNanos / 1_000);
+    vRuntime += micros * TaskManager.MAX_WEIGHT / weight;
+    group.charge(runNanos);
+    group.taskProgress(vRuntime);
+  }
+
+  /**
+   * Computes the run queue key of the task. Tasks with the smallest key run first.
+   *
+   * @param sequence a unique sequence number, used to break ties
+   * @param wakeUp true if the task is new or was blocked, false if it is coming back after a slice
+   */
+  void prepareForQueue(long sequence, boolean wakeUp) {
+    if (wakeUp) {
+      // a task that was blocked for a while should not get to monopolize the thread when it wakes up
+      vRuntime = Math.max(vRuntime, group.getProgress());
+    }
+    final long[] groupPath = group.getPathVRuntimes();
+    final long[] key = Arrays.copyOf(groupPath, groupPath.length + 1);
+    key[groupPath.length] = vRuntime;
+    queueKey = key;
+    queueSequence = sequence;
+  }
+
+  /**
+   * Orders the handles of a run queue: the key is compared level by level (top level group first, task last), ties
+   * are broken by the enqueue sequence.
+   */
+  static int compareQueueOrder(SlicingTaskHandle h1, SlicingTaskHandle h2) {
+    final long[] k1 = h1.queueKey;
+    final long[] k2 = h2.queueKey;
+    final int len = Math.min(k1.length, k2.length);
+    for (int i = 0; i < len; i++) {
+      final int cmp = Long.compare(k1[i], k2[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    if (k1.length != k2.length) {
+      return Integer.compare(k1.length, k2.length);
+    }
+    return Long.compare(h1.queueSequence, h2.queueSequence);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (%s, thread: %d)", task, task.getState(), thread);
+  }
+}
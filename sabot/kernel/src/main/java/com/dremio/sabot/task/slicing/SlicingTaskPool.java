@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.concurrent.CloseableSchedulerThreadPool;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.GroupManager;
+import com.dremio.sabot.task.SchedulerStats;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.task.TaskPoolFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * A task pool that runs all the tasks on a fixed number of slicing threads (by default one per core).<br>
+ * <br>
+ * Each slicing thread owns a run queue ordered by weighted virtual runtime: tasks are compared on the virtual runtime of
+ * their workload group, then of their query group, then on their own, so the CPU is shared according to the group
+ * weights first and the task weights last. Tasks run for at most one time slice before going back in the queue,
+ * blocked tasks are re-enqueued on the thread they last ran on through {@link com.dremio.sabot.task.BlockRun}, and idle
+ * threads steal from the busiest thread.<br>
+ * <br>
+ * To use it, set {@code dremio.task.pool.factory.class} to {@code com.dremio.sabot.task.slicing.SlicingTaskPool$Factory}
+ */
+public class SlicingTaskPool implements TaskPool, GroupManager<AsyncTaskWrapper> {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlicingTaskPool.class);
+
+  /**
+   * Factory for {@code SlicingTaskPool}
+   */
+  public static final class Factory implements TaskPoolFactory {
+    @Override
+    public TaskPool newInstance(OptionManager options, DremioConfig config) {
+      final int numThreads = (int) options.getOption(ExecConstants.SLICING_NUM_THREADS);
+      return new SlicingTaskPool(
+        numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors(),
+        TimeUnit.MILLISECONDS.toNanos(options.getOption(ExecConstants.SLICING_TIME_SLICE_MILLIS)),
+        options.getOption(ExecConstants.SLICING_STATS_LOG_INTERVAL_SECONDS));
+    }
+  }
+
+  private final SlicingThread[] threads;
+  private final WeightedSchedulingGroup rootGroup;
+  private final List<WeightedSchedulingGroup> groups = new CopyOnWriteArrayList<>();
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLong nextGroupId = new AtomicLong();
+  private final GroupSchedulerStats stats = new GroupSchedulerStats();
+  private final CloseableSchedulerThreadPool statsLogger;
+
+  @VisibleForTesting
+  SlicingTaskPool(int numThreads, long timeSliceNanos, long statsLogIntervalSeconds) {
+    Preconditions.checkArgument(numThreads > 0, "At least one slicing thread is required");
+    this.rootGroup = new WeightedSchedulingGroup(this, null, "root", TaskManager.MAX_WEIGHT, true);
+    this.threads = new SlicingThread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      threads[i] = new SlicingThread(this, i, timeSliceNanos);
+    }
+    // threads look at each other's queues, only start them once they all exist
+    for (SlicingThread thread : threads) {
+      thread.start();
+    }
+
+    if (statsLogIntervalSeconds > 0) {
+      statsLogger = new CloseableSchedulerThreadPool("slicing-stats-logger", 1);
+      statsLogger.scheduleAtFixedRate(this::logStats, statsLogIntervalSeconds, statsLogIntervalSeconds, TimeUnit.SECONDS);
+    } else {
+      statsLogger = null;
+    }
+    logger.info("Started {} slicing threads with a time slice of {}ms", numThreads,
+      TimeUnit.NANOSECONDS.toMillis(timeSliceNanos));
+  }
+
+  @Override
+  public void execute(AsyncTaskWrapper task) {
+    final SchedulingGroup<AsyncTaskWrapper> group = task.getSchedulingGroup();
+    if (group instanceof WeightedSchedulingGroup) {
+      group.addTask(task, task.getTaskWeight());
+    } else {
+      // task was created with a group from another group manager, schedule it as a top level task
+      rootGroup.addTask(task, task.getTaskWeight());
+    }
+  }
+
+  @Override
+  public SchedulingGroup<AsyncTaskWrapper> newGroup(long weight) {
+    final WeightedSchedulingGroup group = new WeightedSchedulingGroup(this, rootGroup,
+      "g" + nextGroupId.getAndIncrement(), weight, true);
+    groups.add(group);
+    return group;
+  }
+
+  @Override
+  public GroupManager<AsyncTaskWrapper> getGroupManager() {
+    return this;
+  }
+
+  /**
+   * Puts a new or previously blocked task in a run queue. The task goes back to the thread it last ran on, unless it
+   * never ran in which case it goes to the least loaded thread.
+   */
+  void enqueue(SlicingTaskHandle handle) {
+    final int lastThread = handle.getThread();
+    final SlicingThread target = lastThread >= 0 ? threads[lastThread] : leastLoadedThread();
+    handle.prepareForQueue(sequence.getAndIncrement(), true);
+    addAndWakeUp(target, handle);
+  }
+
+  /**
+   * Puts a task that used up its time slice back in the run queue of the thread that ran it.
+   */
+  void requeue(SlicingTaskHandle handle, int thread) {
+    handle.prepareForQueue(sequence.getAndIncrement(), false);
+    threads[thread].add(handle);
+  }
+
+  void taskDone(SlicingTaskHandle handle) {
+    try {
+      handle.getTask().getCleaner().close();
+    } catch (Exception e) {
+      logger.warn("Failure while cleaning up task {}", handle, e);
+    } finally {
+      handle.getGroup().taskDeactivated();
+    }
+  }
+
+  /**
+   * Steals the most eligible task of the busiest thread.
+   *
+   * @param thief thread requesting more work
+   * @return stolen task, or null if there is nothing to steal
+   */
+  SlicingTaskHandle steal(int thief) {
+    SlicingThread victim = null;
+    int maxQueued = 0;
+    for (int i = 1; i < threads.length; i++) {
+      final SlicingThread candidate = threads[(thief + i) % threads.length];
+      final int queued = candidate.getNumQueued();
+      if (queued > maxQueued) {
+        maxQueued = queued;
+        victim = candidate;
+      }
+    }
+    return victim != null ? victim.poll() : null;
+  }
+
+  int getCurrentTaskLoad(int thread) {
+    return thread >= 0 ? threads[thread].getLoad() : 0;
+  }
+
+  private SlicingThread leastLoadedThread() {
+    SlicingThread best = threads[0];
+    int bestLoad = Integer.MAX_VALUE;
+    for (SlicingThread thread : threads) {
+      final int load = thread.getLoad();
+      if (load < bestLoad) {
+        best = thread;
+        bestLoad = load;
+      }
+    }
+    return best;
+  }
+
+  private void addAndWakeUp(SlicingThread target, SlicingTaskHandle handle) {
+    target.add(handle);
+    if (target.isIdle()) {
+      target.wakeUpIfIdle();
+      return;
+    }
+    // target is busy, give an idle thread the chance to steal the task
+    for (SlicingThread thread : threads) {
+      if (thread.isIdle()) {
+        thread.wakeUpIfIdle();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public Iterable<ThreadInfo> getSlicingThreads() {
+    final List<ThreadInfo> infos = new ArrayList<>(threads.length);
+    for (SlicingThread thread : threads) {
+      infos.add(new ThreadInfo(thread.getName(), thread.getSlicingThreadId(), -1, -1, thread.getLoad(), 0,
+        thread.isIdle() ? 1 : 0, thread.getId()));
+    }
+    return infos;
+  }
+
+  @Override
+  public boolean areAllThreadsAlive() {
+    for (SlicingThread thread : threads) {
+      if (!thread.isAlive()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return per scheduling group stats of this pool
+   */
+  public SchedulerStats getSchedulerStats() {
+    return stats;
+  }
+
+  private void logStats() {
+    if (stats.hasStats()) {
+      logger.info(stats.getStats(false));
+      stats.clearStats();
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    for (SlicingThread thread : threads) {
+      thread.shutdown();
+    }
+    AutoCloseables.close(statsLogger);
+  }
+
+  /**
+   * Stats of the top level (workload) scheduling groups and of the slicing threads.
+   */
+  private final class GroupSchedulerStats implements SchedulerStats {
+
+    boolean hasStats() {
+      for (WeightedSchedulingGroup group : groups) {
+        if (group.getNumSlices() > 0) {
+          return true;
+        }
+      }
+      return rootGroup.getNumSlices() > 0;
+    }
+
+    @Override
+    public boolean currentlyIdleAndHasStats() {
+      for (SlicingThread thread : threads) {
+        if (!thread.isIdle()) {
+          return false;
+        }
+      }
+      return hasStats();
+    }
+
+    @Override
+    public String getStats(boolean force) {
+      if (!force && !hasStats()) {
+        return "";
+      }
+      final long totalRunTime = Math.max(1, rootGroup.getRunTimeNanos());
+      final StringBuilder sb = new StringBuilder("Slicing scheduler stats:\n");
+      final List<WeightedSchedulingGroup> allGroups = new ArrayList<>();
+      allGroups.add(rootGroup);
+      allGroups.addAll(groups);
+      for (WeightedSchedulingGroup group : allGroups) {
+        sb.append(String.format("  %s: weight %d, active tasks %d, new tasks %d, slices %d, run time %dms (%.1f%%)%n",
+          group.getName(), group.getWeight(), group.getNumActiveTasks(), group.getNumTasksAdded(), group.getNumSlices(),
+          TimeUnit.NANOSECONDS.toMillis(group.getRunTimeNanos()), 100.0 * group.getRunTimeNanos() / totalRunTime));
+      }
+      for (SlicingThread thread : threads) {
+        sb.append(String.format("  thread %d: queued %d, slices %d, steals %d, busy %dms%n",
+          thread.getSlicingThreadId(), thread.getNumQueued(), thread.getNumSlices(), thread.getNumSteals(),
+          TimeUnit.NANOSECONDS.toMillis(thread.getBusyNanos())));
+      }
+      return sb.toString();
+    }
+
+    @Override
+    public void clearStats() {
+      rootGroup.clearStats();
+      for (WeightedSchedulingGroup group : groups) {
+        group.clearStats();
+      }
+      for (SlicingThread thread : threads) {
+        thread.clearStats();
+      }
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.dremio.common.perf.StatsCollectionEligibilityRegistrar;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.BlockRun;
+import com.dremio.sabot.task.Task;
+
+/**
+ * A slicing thread: repeatedly picks the task with the smallest virtual runtime from its own run queue, or steals
+ * one from the busiest thread when its queue is empty, and runs it for at most one time slice.
+ */
+class SlicingThread extends Thread {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlicingThread.class);
+
+  // upper bound on how long an idle thread sleeps before looking for work again
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final SlicingTaskPool pool;
+  private final int slicingThreadId;
+  private final long timeSliceNanos;
+
+  private final ConcurrentSkipListSet<SlicingTaskHandle> runQueue = new ConcurrentSkipListSet<>(SlicingTaskHandle::compareQueueOrder);
+  // ConcurrentSkipListSet.size() is not constant time, keep our own count
+  private final AtomicInteger numQueued = new AtomicInteger();
+
+  private volatile boolean idle;
+  private volatile boolean running = true;
+  private volatile SlicingTaskHandle current;
+
+  // stats
+  private final AtomicLong numSlices = new AtomicLong();
+  private final AtomicLong numSteals = new AtomicLong();
+  private final AtomicLong busyNanos = new AtomicLong();
+
+  SlicingThread(SlicingTaskPool pool, int slicingThreadId, long timeSliceNanos) {
+    super("slicing-thread-" + slicingThreadId);
+    this.pool = pool;
+    this.slicingThreadId = slicingThreadId;
+    this.timeSliceNanos = timeSliceNanos;
+    setDaemon(true);
+  }
+
+  @Override
+  public void run() {
+    StatsCollectionEligibilityRegistrar.addSelf();
+    while (running) {
+      SlicingTaskHandle handle = nextTask();
+      if (handle == null) {
+        idle = true;
+        // check again once we are marked idle, any enqueue from now on will unpark us
+        handle = nextTask();
+        if (handle == null) {
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+          idle = false;
+          continue;
+        }
+        idle = false;
+      }
+
+      // put try inside the run loop so we don't lose threads with uncaught exceptions.
+      try {
+        runSlice(handle);
+      } catch (Throwable t) {
+        logger.error("Unhandled exception in slicing thread {} while running {}.", slicingThreadId, handle, t);
+        // the task won't run again, release it like a finished one so its fragment gets cleaned up
+        pool.taskDone(handle);
+      }
+    }
+  }
+
+  private SlicingTaskHandle nextTask() {
+    final SlicingTaskHandle handle = poll();
+    if (handle != null) {
+      return handle;
+    }
+    final SlicingTaskHandle stolen = pool.steal(slicingThreadId);
+    if (stolen != null) {
+      numSteals.incrementAndGet();
+    }
+    return stolen;
+  }
+
+  private void runSlice(SlicingTaskHandle handle) throws Exception {
+    final AsyncTaskWrapper task = handle.getTask();
+    handle.setThread(slicingThreadId);
+    current = handle;
+
+    final long sliceStart = System.nanoTime();
+    long now = sliceStart;
+    try {
+      // keep running the task until it blocks, finishes or uses up its time slice
+      do {
+        final String preRunName = task.getAsyncTask().preRunUpdate(getLoad());
+        final long runStart = now;
+        try {
+          task.run();
+        } finally {
+          now = System.nanoTime();
+          task.getAsyncTask().postRunUpdate(now - runStart, preRunName);
+        }
+      } while (task.getState() == Task.State.RUNNABLE && now - sliceStart < timeSliceNanos && running);
+    } finally {
+      current = null;
+      numSlices.incrementAndGet();
+      busyNanos.addAndGet(now - sliceStart);
+      handle.charge(now - sliceStart);
+    }
+
+    switch (task.getState()) {
+      case BLOCKED_ON_DOWNSTREAM:
+      case BLOCKED_ON_UPSTREAM:
+      case BLOCKED_ON_SHARED_RESOURCE:
+      case BLOCKED_ON_MEMORY:
+        // the callback may re-enqueue the task right away, the handle must not be touched after this point
+        task.setAvailabilityCallback(new BlockRun(handle));
+        break;
+      case DONE:
+        pool.taskDone(handle);
+        break;
+      case RUNNABLE:
+      default:
+        pool.requeue(handle, slicingThreadId);
+        break;
+    }
+  }
+
+  void add(SlicingTaskHandle handle) {
+    numQueued.incrementAndGet();
+    runQueue.add(handle);
+  }
+
+  SlicingTaskHandle poll() {
+    final SlicingTaskHandle handle = runQueue.pollFirst();
+    if (handle != null) {
+      numQueued.decrementAndGet();
+    }
+    return handle;
+  }
+
+  void wakeUpIfIdle() {
+    if (idle) {
+      LockSupport.unpark(this);
+    }
+  }
+
+  void shutdown() {
+    running = false;
+    LockSupport.unpark(this);
+  }
+
+  int getSlicingThreadId() {
+    return slicingThreadId;
+  }
+
+  boolean isIdle() {
+    return idle;
+  }
+
+  int getNumQueued() {
+    return numQueued.get();
+  }
+
+  /**
+   * @return number of tasks assigned to this thread, including the running one
+   */
+  int getLoad() {
+    return numQueued.get() + (current != null ? 1 : 0);
+  }
+
+  long getNumSlices() {
+    return numSlices.get();
+  }
+
+  long getNumSteals() {
+    return numSteals.get();
+  }
+
+  long getBusyNanos() {
+    return busyNanos.get();
+  }
+
+  void clearStats() {
+    numSlices.set(0);
+    numSteals.set(0);
+    busyNanos.set(0);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+import com.google.common.base.Preconditions;
+
+/**
+ * A {@link SchedulingGroup} that keeps track of the weighted virtual runtime consumed by its tasks.<br>
+ * <br>
+ * Every time a task of the group (or of one of its sub groups) runs, the group's virtual runtime is advanced by the
+ * elapsed time scaled by {@code MAX_WEIGHT / weight}. Heavier groups therefore accumulate virtual runtime more slowly
+ * than their siblings and their tasks are picked more often by the slicing threads.
+ */
+class WeightedSchedulingGroup implements SchedulingGroup<AsyncTaskWrapper> {
+
+  private static final long DEFAULT_WEIGHT = 1;
+
+  private final SlicingTaskPool pool;
+  private final WeightedSchedulingGroup parent;
+  private final String name;
+  private final long weight;
+  private final boolean weightBasedScheduler;
+  private final int depth;
+
+  private final AtomicLong vRuntime;
+  private final AtomicInteger numChildren = new AtomicInteger();
+  private final AtomicInteger numActiveTasks = new AtomicInteger();
+
+  // virtual runtime of the last child (task or group) that was charged. Used to position newly active children
+  // so they neither starve their siblings nor get starved.
+  private volatile long progress;
+
+  // stats, reset on demand
+  private final AtomicLong runTimeNanos = new AtomicLong();
+  private final AtomicLong numSlices = new AtomicLong();
+  private final AtomicLong numTasksAdded = new AtomicLong();
+
+  WeightedSchedulingGroup(SlicingTaskPool pool, WeightedSchedulingGroup parent, String name, long weight,
+                          boolean weightBasedScheduler) {
+    this.pool = pool;
+    this.parent = parent;
+    this.name = name;
+    this.weight = Math.max(1, Math.min(weight, TaskManager.MAX_WEIGHT));
+    this.weightBasedScheduler = weightBasedScheduler;
+    this.depth = parent != null ? parent.depth + 1 : 0;
+    this.vRuntime = new AtomicLong(parent != null ? parent.progress : 0);
+  }
+
+  @Override
+  public SchedulingGroup<AsyncTaskWrapper> addGroup(long weight, boolean weightBasedScheduler) {
+    // children only get their requested weight if this group schedules them by weight, otherwise they are equal peers
+    final long childWeight = this.weightBasedScheduler ? weight : DEFAULT_WEIGHT;
+    return new WeightedSchedulingGroup(pool, this, name + "." + numChildren.getAndIncrement(), childWeight,
+      weightBasedScheduler);
+  }
+
+  @Override
+  public TaskHandle<AsyncTaskWrapper> addTask(AsyncTaskWrapper task, long weight) {
+    Preconditions.checkNotNull(task);
+    numTasksAdded.incrementAndGet();
+    final SlicingTaskHandle handle = new SlicingTaskHandle(pool, this, task, weight, progress);
+    task.setTaskHandle(handle);
+    taskActivated();
+    pool.enqueue(handle);
+    return handle;
+  }
+
+  /**
+   * @return virtual runtimes of this group and its ancestors, from the top level group (excluding the root) down to
+   * this group. Tasks are ordered by comparing these level by level, as a hierarchical fair scheduler would.
+   */
+  long[] getPathVRuntimes() {
+    final long[] path = new long[depth];
+    for (WeightedSchedulingGroup g = this; g.parent != null; g = g.parent) {
+      path[g.depth - 1] = g.vRuntime.get();
+    }
+    return path;
+  }
+
+  /**
+   * Charges the group and all of its ancestors for a slice of execution.
+   *
+   * @param runNanos time spent running the slice
+   */
+  void charge(long runNanos) {
+    final long micros = Math.max(1, runNanos / 1_000);
+    for (WeightedSchedulingGroup g = this; g != null; g = g.parent) {
+      final long updated = g.vRuntime.addAndGet(micros * TaskManager.MAX_WEIGHT / g.weight);
+      g.runTimeNanos.addAndGet(runNanos);
+      g.numSlices.incrementAndGet();
+      if (g.parent != null) {
+        g.parent.progress = updated;
+      }
+    }
+  }
+
+  /**
+   * Records the progress made by one of the tasks of this group.
+   */
+  void taskProgress(long taskVRuntime) {
+    progress = taskVRuntime;
+  }
+
+  long getProgress() {
+    return progress;
+  }
+
+  void taskActivated() {
+    for (WeightedSchedulingGroup g = this; g != null; g = g.parent) {
+      if (g.numActiveTasks.getAndIncrement() == 0 && g.parent != null) {
+        // group is becoming active again: don't let it use the credit it accumulated while idle.
+        final long parentProgress = g.parent.progress;
+        g.vRuntime.accumulateAndGet(parentProgress, Math::max);
+      }
+    }
+  }
+
+  void taskDeactivated() {
+    for (WeightedSchedulingGroup g = this; g != null; g = g.parent) {
+      g.numActiveTasks.decrementAndGet();
+    }
+  }
+
+  String getName() {
+    return name;
+  }
+
+  long getWeight() {
+    return weight;
+  }
+
+  int getNumActiveTasks() {
+    return numActiveTasks.get();
+  }
+
+  long getNumTasksAdded() {
+    return numTasksAdded.get();
+  }
+
+  long getRunTimeNanos() {
+    return runTimeNanos.get();
+  }
+
+  long getNumSlices() {
+    return numSlices.get();
+  }
+
+  void clearStats() {
+    runTimeNanos.set(0);
+    numSlices.set(0);
+    numTasksAdded.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("group %s (weight: %d, active tasks: %d)", name, weight, numActiveTasks.get());
+  }
+}
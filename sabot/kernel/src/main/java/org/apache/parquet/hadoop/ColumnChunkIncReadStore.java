@@ -97,6 +97,12 @@ public class ColumnChunkIncReadStore implements PageReadStore {
         throw new RuntimeException(ioe);
       }
     }
+
+    @Override
+    void seekToPage(long offset, long valuesBefore) throws IOException {
+      super.seekToPage(offset, valuesBefore);
+      lastPosition = offset;
+    }
   }
 
   class ColumnChunkIncPageReader implements PageReader {
@@ -237,6 +243,16 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       }
     }
 
+    /**
+     * Moves to the data page at the offset, which follows the first {@code valuesBefore} values of the chunk, without
+     * reading the pages in between. The dictionary page must have been read already.
+     */
+    void seekToPage(long offset, long valuesBefore) throws IOException {
+      releasePrevDataPageBuffers();
+      in.seek(offset);
+      valueReadSoFar = valuesBefore;
+    }
+
     void close() {
       try {
         releasePrevDataPageBuffers();
@@ -329,6 +345,34 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       : new ColumnChunkIncPageReader(metaData, descriptor, in));
   }
 
+  /**
+   * Moves the pages of a column to the data page at the offset, skipping the pages before it without reading them.
+   *
+   * @param valuesBefore the number of values of the chunk before that page
+   * @return the pages of the column from that page on, with the count of the remaining values as total
+   */
+  public PageReader seekToPage(ColumnDescriptor descriptor, long offset, long valuesBefore) throws IOException {
+    final ColumnChunkIncPageReader reader = columns.get(descriptor);
+    reader.seekToPage(offset, valuesBefore);
+    final long remainingValues = reader.getTotalValueCount() - valuesBefore;
+    return new PageReader() {
+      @Override
+      public DictionaryPage readDictionaryPage() {
+        return reader.readDictionaryPage();
+      }
+
+      @Override
+      public long getTotalValueCount() {
+        return remainingValues;
+      }
+
+      @Override
+      public DataPage readPage() {
+        return reader.readPage();
+      }
+    };
+  }
+
   public void close() throws IOException {
     for (ColumnChunkIncPageReader reader : columns.values()) {
       reader.close();
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link PersistentCodeCache}
+ */
+public class TestPersistentCodeCache {
+  private static final String SETTINGS = "DEFAULT:262144:true:true:false";
+
+  @Rule
+  public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testRoundTripAcrossRestarts() throws Exception {
+    final Path root = tempFolder.getRoot().toPath();
+    final String key = PersistentCodeCache.key(new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class), SETTINGS, "class GenericGenerated {}");
+
+    PersistentCodeCache cache = PersistentCodeCache.open(root, "build-1", 10);
+    assertNotNull(cache);
+    assertNull(cache.get(key));
+    cache.put(key, newEntry());
+    assertEquals(1, cache.size());
+
+    // a restart of the same build sees the entry
+    cache = PersistentCodeCache.open(root, "build-1", 10);
+    assertEquals(1, cache.size());
+    final PersistentCodeCache.Entry entry = cache.get(key);
+    assertNotNull(entry);
+    assertEquals("com.dremio.s.ExampleInnerGen7", entry.getClassName());
+    assertEquals(2, entry.getClasses().length);
+    assertEquals("com.dremio.s.ExampleInnerGen7", entry.getClasses()[0].getName());
+    assertArrayEquals("outer".getBytes(StandardCharsets.UTF_8), entry.getClasses()[0].getBytes());
+    assertEquals("com.dremio.s.ExampleInnerGen7$Inner", entry.getClasses()[1].getName());
+    assertArrayEquals("inner".getBytes(StandardCharsets.UTF_8), entry.getClasses()[1].getBytes());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+  }
+
+  @Test
+  public void testOtherBuildsAreRemoved() throws Exception {
+    final Path root = tempFolder.getRoot().toPath();
+    final String key = PersistentCodeCache.key(new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class), SETTINGS, "class GenericGenerated {}");
+
+    PersistentCodeCache.open(root, "build-1", 10).put(key, newEntry());
+    // files of others under the same root are left alone
+    final Path otherFile = Files.write(root.resolve("other.txt"), new byte[] {1});
+    final Path otherDirectory = Files.createDirectory(root.resolve("other"));
+
+    final PersistentCodeCache cache = PersistentCodeCache.open(root, "build-2", 10);
+    assertEquals(0, cache.size());
+    assertNull(cache.get(key));
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, "build-*")) {
+      int directories = 0;
+      for (Path ignored : stream) {
+        directories++;
+      }
+      assertEquals(1, directories);
+    }
+    assertTrue(Files.exists(otherFile));
+    assertTrue(Files.exists(otherDirectory));
+  }
+
+  @Test
+  public void testStaleTemporaryFilesAreRemoved() throws Exception {
+    final Path root = tempFolder.getRoot().toPath();
+    PersistentCodeCache.open(root, "build-1", 10);
+    final Path build;
+    try (DirectoryStream<Path> builds = Files.newDirectoryStream(root, "build-*")) {
+      build = builds.iterator().next();
+    }
+    final Path tmp = Files.write(build.resolve("abc123.tmp"), new byte[] {1, 2, 3});
+
+    final PersistentCodeCache cache = PersistentCodeCache.open(root, "build-1", 10);
+    assertEquals(0, cache.size());
+    assertFalse(Files.exists(tmp));
+  }
+
+  @Test
+  public void testDirectoriesAreOwnerOnly() throws Exception {
+    final Path root = tempFolder.getRoot().toPath().resolve("cache");
+    Assume.assumeTrue(root.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+    assertNotNull(PersistentCodeCache.open(root, "build-1", 10));
+    final EnumSet<PosixFilePermission> ownerOnly =
+      EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+    assertEquals(ownerOnly, Files.getPosixFilePermissions(root));
+    try (DirectoryStream<Path> builds = Files.newDirectoryStream(root, "build-*")) {
+      assertEquals(ownerOnly, Files.getPosixFilePermissions(builds.iterator().next()));
+    }
+  }
+
+  @Test
+  public void testSharedRootIsNotUsed() throws Exception {
+    final Path root = tempFolder.getRoot().toPath().resolve("shared");
+    Assume.assumeTrue(root.getFileSystem().supportedFileAttributeViews().contains("posix"));
+
+    Files.createDirectory(root);
+    Files.setPosixFilePermissions(root, PosixFilePermissions.fromString("rwxrwxrwx"));
+    assertNull(PersistentCodeCache.open(root, "build-1", 10));
+  }
+
+  @Test
+  public void testKeyDependsOnSourceTemplateAndSettings() {
+    final TemplateClassDefinition<ExampleInner> definition = new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class);
+    assertEquals(PersistentCodeCache.key(definition, SETTINGS, "class GenericGenerated {}"),
+      PersistentCodeCache.key(new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class), SETTINGS, "class GenericGenerated {}"));
+    assertNotEquals(PersistentCodeCache.key(definition, SETTINGS, "class GenericGenerated {}"),
+      PersistentCodeCache.key(definition, SETTINGS, "class GenericGenerated { int x; }"));
+    assertNotEquals(PersistentCodeCache.key(definition, SETTINGS, "class GenericGenerated {}"),
+      PersistentCodeCache.key(new TemplateClassDefinition<>(ExampleExternalInterface.class, ExampleTemplate.class), SETTINGS, "class GenericGenerated {}"));
+    // compiled by janino instead of the jdk, or without debug information
+    assertNotEquals(PersistentCodeCache.key(definition, SETTINGS, "class GenericGenerated {}"),
+      PersistentCodeCache.key(definition, "JANINO:262144:true:true:false", "class GenericGenerated {}"));
+    assertNotEquals(PersistentCodeCache.key(definition, SETTINGS, "class GenericGenerated {}"),
+      PersistentCodeCache.key(definition, "DEFAULT:262144:false:true:false", "class GenericGenerated {}"));
+  }
+
+  @Test
+  public void testCorruptEntryIsAMiss() throws Exception {
+    final Path root = tempFolder.getRoot().toPath();
+    final String key = PersistentCodeCache.key(new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class), SETTINGS, "class GenericGenerated {}");
+
+    PersistentCodeCache.open(root, "build-1", 10).put(key, newEntry());
+    try (DirectoryStream<Path> builds = Files.newDirectoryStream(root)) {
+      for (Path build : builds) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(build)) {
+          for (Path entry : entries) {
+            Files.write(entry, new byte[] {1, 2, 3});
+          }
+        }
+      }
+    }
+
+    final PersistentCodeCache cache = PersistentCodeCache.open(root, "build-1", 10);
+    assertNull(cache.get(key));
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testMaxEntries() throws Exception {
+    final PersistentCodeCache cache = PersistentCodeCache.open(tempFolder.getRoot().toPath(), "build-1", 1);
+    final TemplateClassDefinition<ExampleInner> definition = new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class);
+    cache.put(PersistentCodeCache.key(definition, SETTINGS, "a"), newEntry());
+    cache.put(PersistentCodeCache.key(definition, SETTINGS, "b"), newEntry());
+    assertEquals(1, cache.size());
+    assertNull(cache.get(PersistentCodeCache.key(definition, SETTINGS, "b")));
+  }
+
+  private static PersistentCodeCache.Entry newEntry() {
+    return new PersistentCodeCache.Entry("com.dremio.s.ExampleInnerGen7", new ClassBytes[] {
+      new ClassBytes("com.dremio.s.ExampleInnerGen7", "outer".getBytes(StandardCharsets.UTF_8)),
+      new ClassBytes("com.dremio.s.ExampleInnerGen7$Inner", "inner".getBytes(StandardCharsets.UTF_8))
+    });
+  }
+}
@@ -27,6 +27,7 @@ import static com.dremio.sabot.Fixtures.t;
 import static java.util.Collections.singletonList;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -36,11 +37,14 @@ import org.junit.Test;
 
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.physical.config.WindowPOP.Bound;
+import com.dremio.exec.proto.UserBitShared.MetricValue;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 
 public class TestWindowOperator extends BaseTestOperator {
@@ -63,17 +67,27 @@ public class TestWindowOperator extends BaseTestOperator {
     return new WindowPOP(PROPS, null, withins, aggregations, orderings, false, new Bound(true, Long.MIN_VALUE), new Bound(false, 0));
   }
 
-  private void validateWindow(DataPar[] dataDef, boolean withPartitionBy, boolean withOrderBy) throws Exception {
+  private OperatorStats validateWindow(DataPar[] dataDef, boolean withPartitionBy, boolean withOrderBy) throws Exception {
     final WindowPOP window = createWindowPOP(withPartitionBy, withOrderBy);
     final Table input = t(WindowGenerator.header, generateInput(dataDef));
-    validateSingle(window, WindowFrameOperator.class, input, generateOutput(dataDef, withOrderBy), 20);
+    return validateSingle(window, WindowFrameOperator.class, input, generateOutput(dataDef, withOrderBy), 20);
   }
 
-  private void runTests(DataPar[] withPartitionDef, DataPar[] withoutPartitionDef) throws Exception {
-    validateWindow(withPartitionDef, true, true);
-    validateWindow(withPartitionDef, true, false);
-    validateWindow(withoutPartitionDef, false, true);
-    validateWindow(withoutPartitionDef, false, false);
+  /**
+   * @return the number of batches spilled by all the runs, as reported in the operator profiles
+   */
+  private long runTests(DataPar[] withPartitionDef, DataPar[] withoutPartitionDef) throws Exception {
+    return getBatchesSpilled(validateWindow(withPartitionDef, true, true))
+      + getBatchesSpilled(validateWindow(withPartitionDef, true, false))
+      + getBatchesSpilled(validateWindow(withoutPartitionDef, false, true))
+      + getBatchesSpilled(validateWindow(withoutPartitionDef, false, false));
+  }
+
+  private static long getBatchesSpilled(OperatorStats stats) {
+    return stats.getProfile().getMetricList().stream()
+      .filter(metric -> metric.getMetricId() == WindowFrameOperator.Metric.BATCHES_SPILLED.metricId())
+      .mapToLong(MetricValue::getLongValue)
+      .sum();
   }
 
   @Test
@@ -106,6 +120,15 @@ public class TestWindowOperator extends BaseTestOperator {
     runTests(dataB4P4(true), dataB4P4(false));
   }
 
+  @Test
+  public void testSpilling() throws Exception {
+    // spills all the batches that are not needed in memory
+    try (AutoCloseable ignored = with(ExecConstants.WINDOW_SPILL_THRESHOLD_BYTES, 1)) {
+      assertTrue(runTests(dataB3P2(true), dataB3P2(false)) > 0);
+      assertTrue(runTests(dataB4P4(true), dataB4P4(false)) > 0);
+    }
+  }
+
   @Test // DRILL-4657
   public void test4657() throws Exception {
     // SELECT row_number() OVER(ORDER BY position_id) rn, rank() OVER(ORDER BY position_id) rnk FROM dfs.\"%s/window/b3.p2\"
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link ResultCache}
+ */
+public class TestResultCache {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private FileSystem fs;
+
+  @Before
+  public void setup() throws IOException {
+    fs = HadoopFileSystem.getLocal(new Configuration());
+  }
+
+  @Test
+  public void testResultsVisibleOnceQueryCompletes() throws Exception {
+    final ResultCache cache = new ResultCache(1024 * 1024, 60);
+    final ResultCache.ResultKey key = newKey("key", "query1", 100, "dataset1");
+
+    cache.stage("query1", key);
+    assertNull(cache.getIfPresentAndValid("key"));
+
+    cache.complete("query1", true);
+    final ResultCache.CachedResult result = cache.getIfPresentAndValid("key");
+    assertNotNull(result);
+    assertEquals("query1", result.getQueryId());
+    assertEquals(100, result.getSize());
+    assertEquals("SELECT * FROM TABLE(\"__jobResultsStore\".query1(type => 'arrow'))", result.getSql());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testFailedQueryNotCached() throws Exception {
+    final ResultCache cache = new ResultCache(1024 * 1024, 60);
+    cache.stage("query1", newKey("key", "query1", 100, "dataset1"));
+    cache.complete("query1", false);
+    assertNull(cache.getIfPresentAndValid("key"));
+  }
+
+  @Test
+  public void testInvalidateOnDataset() throws Exception {
+    final ResultCache cache = new ResultCache(1024 * 1024, 60);
+    cache.stage("query1", newKey("key1", "query1", 100, "dataset1"));
+    cache.stage("query2", newKey("key2", "query2", 100, "dataset2"));
+    cache.complete("query1", true);
+    cache.complete("query2", true);
+
+    cache.invalidateCacheOnDataset("dataset1");
+    assertNull(cache.getIfPresentAndValid("key1"));
+    assertNotNull(cache.getIfPresentAndValid("key2"));
+  }
+
+  @Test
+  public void testDeletedResultsInvalidated() throws Exception {
+    final ResultCache cache = new ResultCache(1024 * 1024, 60);
+    final ResultCache.ResultKey key = newKey("key", "query1", 100, "dataset1");
+    cache.stage("query1", key);
+    cache.complete("query1", true);
+
+    fs.delete(key.getLocation(), true);
+    assertNull(cache.getIfPresentAndValid("key"));
+    assertEquals(0, cache.getCachedResults().size());
+  }
+
+  @Test
+  public void testSizeBound() throws Exception {
+    final ResultCache cache = new ResultCache(1000, 60);
+    cache.stage("query1", newKey("large", "query1", 2000, "dataset1"));
+    cache.complete("query1", true);
+    assertNull(cache.getIfPresentAndValid("large"));
+
+    for (int i = 0; i < 5; i++) {
+      cache.stage("query" + i, newKey("key" + i, "query" + i, 300, "dataset1"));
+      cache.complete("query" + i, true);
+    }
+    long size = 0;
+    for (ResultCache.CachedResult result : cache.getCachedResults().asMap().values()) {
+      size += result.getSize();
+    }
+    assertEquals(900, size);
+    assertNotNull(cache.getIfPresentAndValid("key4"));
+  }
+
+  private ResultCache.ResultKey newKey(String key, String queryId, int size, String datasetId) throws IOException {
+    final File directory = folder.newFolder(queryId + "_" + key);
+    Files.write(new File(directory, "0_0_0.dremarrow1").toPath(), new byte[size]);
+    return new ResultCache.ResultKey(key, ImmutableSet.of(datasetId), ImmutableList.of("__jobResultsStore", queryId),
+      fs, Path.of(directory.toURI()));
+  }
+}
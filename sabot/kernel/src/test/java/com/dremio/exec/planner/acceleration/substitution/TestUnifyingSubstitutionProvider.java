@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.acceleration.substitution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.hep.HepPlanner;
+import org.apache.calcite.plan.hep.HepProgramBuilder;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.logical.LogicalValues;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.junit.Test;
+
+import com.dremio.exec.planner.acceleration.DremioMaterialization;
+import com.dremio.exec.planner.acceleration.IncrementalUpdateSettings;
+import com.dremio.exec.planner.acceleration.MaterializationDescriptor.ReflectionInfo;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionProvider.Substitution;
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.types.JavaTypeFactoryImpl;
+import com.dremio.exec.proto.UserBitShared.ReflectionType;
+import com.dremio.options.OptionResolver;
+import com.dremio.test.specs.OptionResolverSpec;
+import com.dremio.test.specs.OptionResolverSpecBuilder;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link UnifyingSubstitutionProvider}
+ *
+ * Queries and materializations are empty values whose fields stand for the tables they read: a materialization
+ * reading table "tN" substitutes any plan reading "tN" with a plan reading its own table "rN".
+ */
+public class TestUnifyingSubstitutionProvider {
+  private static final RelDataTypeFactory TYPE_FACTORY = JavaTypeFactoryImpl.INSTANCE;
+
+  private final RelOptCluster cluster = RelOptCluster.create(new HepPlanner(new HepProgramBuilder().build()),
+    new RexBuilder(TYPE_FACTORY));
+
+  @Test
+  public void testParallelFindsSameSubstitutions() {
+    final RelNode query = values("t0", "t1", "t2", "t3");
+    final List<DremioMaterialization> materializations = ImmutableList.of(
+      materialization("t0", "r0"),
+      materialization("t1", "r1"),
+      materialization("x", "rx"),
+      materialization("t3", "r3"));
+
+    final StatsObserver sequentialObserver = new StatsObserver();
+    final List<String> sequential = findSubstitutions(
+      OptionResolverSpecBuilder.build(new OptionResolverSpec()
+        .addOption(PlannerSettings.PARALLEL_SUBSTITUTION_ENABLED, false)),
+      0, sequentialObserver, query, materializations);
+
+    final StatsObserver parallelObserver = new StatsObserver();
+    final List<String> parallel = findSubstitutions(
+      OptionResolverSpecBuilder.build(new OptionResolverSpec()
+        .addOption(PlannerSettings.PARALLEL_SUBSTITUTION_ENABLED, true)),
+      0, parallelObserver, query, materializations);
+
+    // every combination of the three matching materializations
+    assertEquals(7, sequential.size());
+    assertEquals(sequential.stream().sorted().collect(Collectors.toList()),
+      parallel.stream().sorted().collect(Collectors.toList()));
+
+    assertEquals(sequentialObserver.numAttempted, parallelObserver.numAttempted);
+    assertEquals(sequentialObserver.numMatched, parallelObserver.numMatched);
+    assertEquals(0, parallelObserver.numTimedOut);
+  }
+
+  @Test
+  public void testParallelStopsOnceBudgetIsUsedUp() {
+    final RelNode query = values("t0", "t1");
+    final List<DremioMaterialization> materializations = ImmutableList.of(
+      materialization("t0", "r0"),
+      materialization("t1", "r1"));
+
+    final StatsObserver observer = new StatsObserver();
+    final List<String> substitutions = findSubstitutions(
+      OptionResolverSpecBuilder.build(new OptionResolverSpec()
+        .addOption(PlannerSettings.PARALLEL_SUBSTITUTION_ENABLED, true)
+        .addOption(PlannerSettings.SUBSTITUTION_TIME_BUDGET_MILLIS, 1)),
+      60_000, observer, query, materializations);
+
+    // planning goes on without the substitutions which did not complete in time
+    assertTrue(substitutions.isEmpty());
+    assertEquals(2, observer.numAttempted);
+    assertEquals(0, observer.numMatched);
+    assertEquals(2, observer.numTimedOut);
+  }
+
+  private List<String> findSubstitutions(OptionResolver options, long unificationMillis, StatsObserver observer,
+                                         RelNode root, List<DremioMaterialization> materializations) {
+    final MaterializationProvider materializationProvider = mock(MaterializationProvider.class);
+    when(materializationProvider.buildApplicableMaterializations(any())).thenReturn(materializations);
+
+    final UnifyingSubstitutionProvider provider = new UnifyingSubstitutionProvider(materializationProvider, options) {
+      @Override
+      protected List<Substitution> substitute(RelNode query, RelNode target, RelNode replacement) {
+        if (unificationMillis > 0) {
+          try {
+            Thread.sleep(unificationMillis);
+          } catch (InterruptedException e) {
+            throw new CancellationException();
+          }
+        }
+        final String targetTable = target.getRowType().getFieldNames().get(0);
+        final List<String> tables = new ArrayList<>(query.getRowType().getFieldNames());
+        final int index = tables.indexOf(targetTable);
+        if (index < 0) {
+          return ImmutableList.of();
+        }
+        tables.set(index, replacement.getRowType().getFieldNames().get(0));
+        return ImmutableList.of(Substitution.createRootEquivalent(values(query.getCluster(), tables)));
+      }
+    };
+    provider.setObserver(observer);
+    return provider.findSubstitutions(root).stream()
+      .map(s -> s.getReplacement().getRowType().getFieldNames().toString())
+      .collect(Collectors.toList());
+  }
+
+  private DremioMaterialization materialization(String table, String materializationTable) {
+    return new DremioMaterialization(values(materializationTable), values(table),
+      IncrementalUpdateSettings.NON_INCREMENTAL, null,
+      new ReflectionInfo(materializationTable, ReflectionType.RAW, materializationTable, false,
+        null, null, null, null, null, null),
+      materializationTable, null, Long.MAX_VALUE, false, 0, null);
+  }
+
+  private RelNode values(String... tables) {
+    return values(cluster, ImmutableList.copyOf(tables));
+  }
+
+  private static RelNode values(RelOptCluster cluster, List<String> tables) {
+    final RelDataTypeFactory.Builder rowType = TYPE_FACTORY.builder();
+    tables.forEach(table -> rowType.add(table, SqlTypeName.INTEGER));
+    return LogicalValues.createEmpty(cluster, rowType.build());
+  }
+
+  private static final class StatsObserver extends AbstractAttemptObserver {
+    private int numAttempted;
+    private int numMatched;
+    private int numTimedOut;
+
+    @Override
+    public void substitutionStats(int numAttempted, int numMatched, int numTimedOut) {
+      this.numAttempted = numAttempted;
+      this.numMatched = numMatched;
+      this.numTimedOut = numTimedOut;
+    }
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.io.AsyncByteReader;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Test for {@link BlockCache}
+ */
+public class BlockCacheTest {
+  private static final int PAGE_SIZE = 1024;
+  private static final int FILE_LENGTH = 10 * PAGE_SIZE + 100;
+
+  @Rule
+  public final TemporaryFolder tempDir = new TemporaryFolder();
+
+  private final byte[] data = new byte[FILE_LENGTH];
+  private final AtomicInteger sourceReads = new AtomicInteger();
+  private final AsyncByteReader source = new AsyncByteReader() {
+    @Override
+    public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+      sourceReads.incrementAndGet();
+      dst.setBytes(dstOffset, data, (int) offset, len);
+      return completedFuture;
+    }
+  };
+
+  private final BufferAllocator allocator = new RootAllocator();
+  private Path mountDir;
+  private String indexDir;
+  private BlockCache cache;
+
+  @Before
+  public void setup() throws Exception {
+    new Random(42).nextBytes(data);
+    mountDir = tempDir.newFolder().toPath();
+    indexDir = tempDir.newFolder().getPath();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    try {
+      if (cache != null) {
+        cache.close();
+      }
+    } finally {
+      // fails if a fetched page was not released
+      allocator.close();
+    }
+  }
+
+  private BlockCache newCache(long maxSpace, BlockCache.EvictionPolicy policy) throws Exception {
+    final CacheMountPoint mountPoint = new CacheMountPoint(0, mountDir, 100, 0) {
+      @Override
+      long getTotalSpace() {
+        return maxSpace;
+      }
+
+      @Override
+      long getFreeSpace() {
+        return maxSpace;
+      }
+    };
+    return new BlockCache("localhost", Collections.singletonList(mountPoint), new BlockCacheIndex(indexDir),
+      PAGE_SIZE, policy, Long.MAX_VALUE);
+  }
+
+  private AsyncByteReader newReader(BlockCache.CachedFile file) {
+    return new CachingAsyncByteReader(source, cache, file, () -> (long) FILE_LENGTH, allocator, null);
+  }
+
+  private byte[] read(AsyncByteReader reader, long offset, int len) throws Exception {
+    final ByteBuf buffer = Unpooled.buffer(len);
+    try {
+      reader.readFully(offset, buffer, 0, len).get(10, TimeUnit.SECONDS);
+      final byte[] bytes = new byte[len];
+      buffer.getBytes(0, bytes);
+      return bytes;
+    } finally {
+      buffer.release();
+    }
+  }
+
+  private byte[] expected(int offset, int len) {
+    final byte[] bytes = new byte[len];
+    System.arraycopy(data, offset, bytes, 0, len);
+    return bytes;
+  }
+
+  private void awaitWrites() throws InterruptedException {
+    while (cache.getPendingWriteBytes() > 0) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void testMissThenHit() throws Exception {
+    cache = newCache(1024 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    final AsyncByteReader reader = newReader(file);
+
+    assertArrayEquals(expected(PAGE_SIZE / 2, 3 * PAGE_SIZE), read(reader, PAGE_SIZE / 2, 3 * PAGE_SIZE));
+    // the 4 pages are fetched at once
+    assertEquals(1, sourceReads.get());
+    awaitWrites();
+    for (int page = 0; page < 4; page++) {
+      assertTrue(cache.isCached(file, page));
+    }
+
+    assertArrayEquals(expected(PAGE_SIZE, 2 * PAGE_SIZE + 10), read(reader, PAGE_SIZE, 2 * PAGE_SIZE + 10));
+    assertEquals(1, sourceReads.get());
+
+    // only the last, partial, page is missing
+    assertArrayEquals(expected(3 * PAGE_SIZE, FILE_LENGTH - 3 * PAGE_SIZE),
+      read(reader, 3 * PAGE_SIZE, FILE_LENGTH - 3 * PAGE_SIZE));
+    assertEquals(2, sourceReads.get());
+  }
+
+  @Test
+  public void testNewVersionMisses() throws Exception {
+    cache = newCache(1024 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    read(newReader(new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1")), 0, PAGE_SIZE);
+    awaitWrites();
+
+    read(newReader(new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "2")), 0, PAGE_SIZE);
+    assertEquals(2, sourceReads.get());
+  }
+
+  @Test
+  public void testLruEviction() throws Exception {
+    cache = newCache(4 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    final AsyncByteReader reader = newReader(file);
+    for (int page = 0; page < 4; page++) {
+      read(reader, page * PAGE_SIZE, PAGE_SIZE);
+      awaitWrites();
+    }
+    // page 0 becomes the most recently used
+    read(reader, 0, PAGE_SIZE);
+
+    read(reader, 4 * PAGE_SIZE, PAGE_SIZE);
+    awaitWrites();
+    assertTrue(cache.isCached(file, 0));
+    assertFalse(cache.isCached(file, 1));
+    assertTrue(cache.isCached(file, 4));
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  public void testLfuEviction() throws Exception {
+    cache = newCache(4 * PAGE_SIZE, BlockCache.EvictionPolicy.LFU);
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    final AsyncByteReader reader = newReader(file);
+    for (int page = 0; page < 4; page++) {
+      read(reader, page * PAGE_SIZE, PAGE_SIZE);
+      awaitWrites();
+    }
+    // page 3 is the most recently read but the least frequently
+    for (int i = 0; i < 3; i++) {
+      for (int page = 0; page < 3; page++) {
+        read(reader, page * PAGE_SIZE, PAGE_SIZE);
+      }
+    }
+    read(reader, 3 * PAGE_SIZE, PAGE_SIZE);
+
+    read(reader, 4 * PAGE_SIZE, PAGE_SIZE);
+    awaitWrites();
+    assertFalse(cache.isCached(file, 3));
+    assertTrue(cache.isCached(file, 0));
+  }
+
+  @Test
+  public void testPluginQuota() throws Exception {
+    cache = newCache(8 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    cache.registerPlugin("s3", 25);
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    final AsyncByteReader reader = newReader(file);
+    for (int page = 0; page < 4; page++) {
+      read(reader, page * PAGE_SIZE, PAGE_SIZE);
+      awaitWrites();
+    }
+    assertFalse(cache.isCached(file, 0));
+    assertFalse(cache.isCached(file, 1));
+    assertTrue(cache.isCached(file, 2));
+    assertTrue(cache.isCached(file, 3));
+    assertEquals(2, cache.getStoragePluginStats().get(0).approx_file_count);
+  }
+
+  @Test
+  public void testReloadAfterRestart() throws Exception {
+    cache = newCache(1024 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    read(newReader(file), 0, 2 * PAGE_SIZE);
+    awaitWrites();
+    cache.close();
+
+    cache = newCache(1024 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    assertTrue(cache.isCached(file, 0));
+    assertArrayEquals(expected(10, PAGE_SIZE), read(newReader(file), 10, PAGE_SIZE));
+    assertEquals(1, sourceReads.get());
+    assertEquals(1, cache.getMountPointStats().size());
+    assertEquals(2 * PAGE_SIZE, cache.getMountPointStats().get(0).used_space);
+  }
+
+  @Test
+  public void testMissingPageIsRefetched() throws Exception {
+    cache = newCache(1024 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    read(newReader(file), 0, PAGE_SIZE);
+    awaitWrites();
+    deleteCachedFiles();
+
+    assertArrayEquals(expected(0, PAGE_SIZE), read(newReader(file), 0, PAGE_SIZE));
+    assertEquals(2, sourceReads.get());
+  }
+
+  @Test
+  public void testEvictedPageIsCachedAgain() throws Exception {
+    cache = newCache(PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    final AsyncByteReader reader = newReader(file);
+    read(reader, 0, PAGE_SIZE);
+    awaitWrites();
+    read(reader, PAGE_SIZE, PAGE_SIZE);
+    awaitWrites();
+    assertFalse(cache.isCached(file, 0));
+
+    // the file deleted by the eviction of page 0 must not remove it once cached again
+    read(reader, 0, PAGE_SIZE);
+    awaitWrites();
+    assertTrue(cache.isCached(file, 0));
+    assertArrayEquals(expected(0, PAGE_SIZE), read(reader, 0, PAGE_SIZE));
+    assertEquals(3, sourceReads.get());
+    assertEquals(2, cache.getEvictions());
+  }
+
+  @Test
+  public void testFailedFetchIsReleased() throws Exception {
+    cache = newCache(1024 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    final AsyncByteReader failing = new AsyncByteReader() {
+      @Override
+      public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new IOException("unavailable"));
+        return future;
+      }
+    };
+    final BlockCache.CachedFile file = new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1");
+    final AsyncByteReader reader = new CachingAsyncByteReader(failing, cache, file, () -> (long) FILE_LENGTH,
+      allocator, null);
+    try {
+      read(reader, 0, 2 * PAGE_SIZE);
+      fail("the read should fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+    assertFalse(cache.isCached(file, 0));
+  }
+
+  @Test
+  public void testCloseWaitsForOfferedPages() throws Exception {
+    cache = newCache(1024 * PAGE_SIZE, BlockCache.EvictionPolicy.LRU);
+    final AsyncByteReader reader = newReader(new BlockCache.CachedFile("s3", "s3.table", "/bucket/file", "1"));
+    read(reader, 0, FILE_LENGTH);
+    reader.close();
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  private void deleteCachedFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(mountDir)) {
+      files.filter(Files::isRegularFile).forEach(p -> p.toFile().delete());
+    }
+  }
+}
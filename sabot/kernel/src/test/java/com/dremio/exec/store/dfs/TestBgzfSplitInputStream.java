@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+
+/**
+ * Tests for {@link BgzfSplitInputStream}.
+ */
+public class TestBgzfSplitInputStream {
+  private static final int BLOCK_DATA_SIZE = 1000;
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FileSystem fs;
+  private byte[] data;
+
+  @Before
+  public void setup() throws IOException {
+    fs = HadoopFileSystem.getLocal(new Configuration());
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      builder.append(i).append(",value").append(i).append('\n');
+    }
+    data = builder.toString().getBytes(UTF_8);
+  }
+
+  @Test
+  public void testDetectsBgzf() throws IOException {
+    assertTrue(BgzfSplitInputStream.isBgzf(fs, writeBgzf()));
+
+    final File gzip = temporaryFolder.newFile("plain.gz");
+    try (GZIPOutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip.toPath()))) {
+      out.write(data);
+    }
+    assertFalse(BgzfSplitInputStream.isBgzf(fs, Path.of(gzip.toURI())));
+  }
+
+  @Test
+  public void testWholeFile() throws IOException {
+    final Path path = writeBgzf();
+    final long size = fs.getFileAttributes(path).size();
+    try (BgzfSplitInputStream stream = BgzfSplitInputStream.open(fs.open(path), 0, size)) {
+      assertArrayEquals(data, readAll(stream));
+      assertEquals(data.length, stream.getSplitEndPosition());
+    }
+  }
+
+  @Test
+  public void testSplitsCoverTheFile() throws IOException {
+    final Path path = writeBgzf();
+    final long size = fs.getFileAttributes(path).size();
+
+    for (long splitSize : new long[] {100, 777, 4096, size / 3}) {
+      final ByteArrayOutputStream combined = new ByteArrayOutputStream();
+      for (long start = 0; start < size; start += splitSize) {
+        try (BgzfSplitInputStream stream = BgzfSplitInputStream.open(fs.open(path), start, start + splitSize)) {
+          final byte[] split = readAll(stream);
+          final long end = Math.min(stream.getSplitEndPosition(), split.length);
+          combined.write(split, 0, (int) end);
+        }
+      }
+      assertArrayEquals("split size " + splitSize, data, combined.toByteArray());
+    }
+  }
+
+  private static byte[] readAll(BgzfSplitInputStream stream) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final ByteBuffer buffer = ByteBuffer.allocate(333);
+    while (stream.read(buffer) >= 0) {
+      out.write(buffer.array(), 0, buffer.position());
+      buffer.clear();
+    }
+    return out.toByteArray();
+  }
+
+  private Path writeBgzf() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int offset = 0; offset < data.length; offset += BLOCK_DATA_SIZE) {
+      writeBlock(out, Arrays.copyOfRange(data, offset, Math.min(data.length, offset + BLOCK_DATA_SIZE)));
+    }
+    // BGZF end of file marker.
+    writeBlock(out, new byte[0]);
+
+    final File file = temporaryFolder.newFile("data.csv.gz");
+    Files.write(file.toPath(), out.toByteArray());
+    return Path.of(file.toURI());
+  }
+
+  private static void writeBlock(ByteArrayOutputStream out, byte[] block) {
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(block);
+    deflater.finish();
+    final byte[] compressed = new byte[block.length + 1024];
+    final int compressedLength = deflater.deflate(compressed);
+    deflater.end();
+
+    final CRC32 crc = new CRC32();
+    crc.update(block);
+    final int blockSize = 18 + compressedLength + 8;
+
+    out.write(new byte[] {0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0}, 0, 16);
+    writeShort(out, blockSize - 1);
+    out.write(compressed, 0, compressedLength);
+    writeShort(out, (int) crc.getValue());
+    writeShort(out, (int) (crc.getValue() >>> 16));
+    writeShort(out, block.length);
+    writeShort(out, block.length >>> 16);
+  }
+
+  private static void writeShort(ByteArrayOutputStream out, int value) {
+    out.write(value & 0xFF);
+    out.write((value >>> 8) & 0xFF);
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json.reader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.complex.NonNullableStructVector;
+import org.apache.arrow.vector.complex.impl.ComplexWriterImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.physical.base.GroupScan;
+import com.dremio.exec.store.easy.json.JsonProcessor;
+import com.dremio.exec.vector.complex.fn.JsonReader;
+import com.dremio.sabot.exec.context.BufferManagerImpl;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link StructuralJsonReader}, comparing its output with the output of {@link JsonReader} on the same
+ * input.
+ */
+public class TestStructuralJsonReader {
+  private static final int MAX_FIELD_SIZE = 64 * 1024;
+  private static final int MAX_LEAF_LIMIT = 1000;
+  private static final int[] BUFFER_SIZES = {16, 64, 1000, 1024 * 1024};
+
+  private static final String[] CHARACTERS = {"a", "b", "z", " ", "0", "\u00e9", "\u20ac", "\ud83d\ude00",
+    "\\\"", "\\\\", "\\/", "\\n", "\\t", "\\u00e9", "\\u20ac", "\\ud83d\\ude00"};
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+  private BufferManagerImpl bufferManager;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-structural-json-reader", 0, Long.MAX_VALUE);
+    bufferManager = new BufferManagerImpl(allocator);
+  }
+
+  @After
+  public void cleanup() {
+    bufferManager.close();
+    allocator.close();
+  }
+
+  @Test
+  public void testGeneratedInput() throws Exception {
+    for (long seed = 0; seed < 5; seed++) {
+      final byte[] input = generate(new Random(seed), 500);
+      final List<Object> expected = read(newJsonReader(false), input);
+      assertEquals(500, expected.size());
+      for (int bufferSize : BUFFER_SIZES) {
+        final StructuralJsonReader reader = newReader(bufferSize, false);
+        assertEquals("seed " + seed + ", buffer size " + bufferSize, expected, read(reader, input));
+        assertFalse(reader.isDelegating());
+      }
+    }
+  }
+
+  @Test
+  public void testRecordsSpanningChunks() throws Exception {
+    final String longString = String.join("", Collections.nCopies(50, "0123456789"));
+    final byte[] input = ("{\"a\": 1, \"s\": \"x\"}\n"
+      + "{\"a\": 22, \"s\": \"" + longString + "\"}\n"
+      + "  {\"s\": \"\\ud83d\\ude00\", \"a\": 333}\r\n"
+      + "{\"a\": 4444, \"s\": \"yy\", \"b\": true}")
+      .getBytes(UTF_8);
+    final List<Object> expected = read(newJsonReader(false), input);
+    assertEquals(4, expected.size());
+    // every chunk size moves the chunk boundaries to other positions of the records
+    for (int bufferSize = 8; bufferSize <= 128; bufferSize++) {
+      final StructuralJsonReader reader = newReader(bufferSize, false);
+      assertEquals("buffer size " + bufferSize, expected, read(reader, input));
+      assertFalse(reader.isDelegating());
+    }
+  }
+
+  @Test
+  public void testEscapedSurrogatePairs() throws Exception {
+    final byte[] input = "{\"s\": \"\\ud83d\\ude00 \\u00e9\\n\\\"\"}\n{\"s\": \"\\uD83D\\uDE00\"}".getBytes(UTF_8);
+    final StructuralJsonReader reader = newReader(64, false);
+    final List<Object> records = read(reader, input);
+    assertFalse(reader.isDelegating());
+    assertEquals("\ud83d\ude00 \u00e9\n\"", getField(records.get(0), "s"));
+    assertEquals("\ud83d\ude00", getField(records.get(1), "s"));
+    assertEquals(read(newJsonReader(false), input), records);
+  }
+
+  @Test
+  public void testUnpairedSurrogateIsLeftToJackson() throws Exception {
+    assertDelegatedAfter(1, "{\"s\": \"a\"}\n{\"s\": \"\\ud83d x\"}\n{\"s\": \"b\"}".getBytes(UTF_8));
+    assertDelegatedAfter(1, "{\"s\": \"a\"}\n{\"s\": \"\\ude00\"}\n{\"s\": \"b\"}".getBytes(UTF_8));
+  }
+
+  @Test
+  public void testInvalidUtf8IsLeftToJackson() throws Exception {
+    // overlong encoding of '/' and UTF-8 encoded surrogate, which Jackson decodes rather than rejects
+    assertDelegatedAfter(1, concat("{\"s\": \"a\"}\n{\"s\": \"", new byte[] {(byte) 0xC0, (byte) 0xAF}, "\"}\n{\"s\": \"b\"}"));
+    assertDelegatedAfter(1, concat("{\"s\": \"a\"}\n{\"s\": \"", new byte[] {(byte) 0xED, (byte) 0xA0, (byte) 0x80}, "\"}"));
+
+    // truncated sequence, which Jackson reports
+    final byte[] input = concat("{\"s\": \"a\"}\n{\"s\": \"", new byte[] {(byte) 0xC3, '('}, "\"}");
+    final StructuralJsonReader reader = newReader(64, false);
+    assertEquals(readError(newJsonReader(false), input).getClass(), readError(reader, input).getClass());
+    assertTrue(reader.isDelegating());
+  }
+
+  @Test
+  public void testLongNumbers() throws Exception {
+    // up to 18 digits are decoded by the structural reader
+    final StructuralJsonReader reader = newReader(64, false);
+    final byte[] input = "{\"n\": 123456789012345678}\n{\"n\": -999999999999999999}".getBytes(UTF_8);
+    final List<Object> records = read(reader, input);
+    assertFalse(reader.isDelegating());
+    assertEquals(123456789012345678L, getField(records.get(0), "n"));
+    assertEquals(-999999999999999999L, getField(records.get(1), "n"));
+
+    // longer numbers may not fit in a long, and are left to Jackson
+    assertDelegatedAfter(1, "{\"n\": 1}\n{\"n\": 1234567890123456789}\n{\"n\": 2}".getBytes(UTF_8));
+    assertDelegatedAfter(1, "{\"n\": 1}\n{\"n\": 9223372036854775807}\n{\"n\": -9223372036854775808}".getBytes(UTF_8));
+  }
+
+  @Test
+  public void testNumbersReadAsDouble() throws Exception {
+    // integers and decimals are all FLOAT8, so mixing them is not a type change
+    final byte[] input = "{\"n\": 1}\n{\"n\": 2.5}\n{\"n\": -3e2}\n{\"n\": 1234567890123456789}".getBytes(UTF_8);
+    final StructuralJsonReader reader = newReader(64, true);
+    final List<Object> records = read(reader, input);
+    assertEquals(read(newJsonReader(true), input), records);
+    assertEquals(1.0, getField(records.get(0), "n"));
+    assertEquals(-300.0, getField(records.get(2), "n"));
+    assertTrue(reader.isDelegating());
+  }
+
+  @Test
+  public void testTypeChangeIsLeftToJackson() throws Exception {
+    // BIGINT then FLOAT8
+    assertDelegatedAfter(2, "{\"a\": 1, \"b\": \"x\"}\n{\"a\": 2}\n{\"a\": 2.5, \"b\": \"y\"}\n{\"a\": 3}".getBytes(UTF_8));
+    assertDelegatedAfter(1, "{\"a\": 1}\n{\"a\": \"x\"}\n{\"a\": 3}".getBytes(UTF_8));
+    // nested values
+    assertDelegatedAfter(1, "{\"a\": 1}\n{\"a\": 2, \"b\": {\"c\": 3}}\n{\"a\": 4}".getBytes(UTF_8));
+    assertDelegatedAfter(1, "{\"a\": 1}\n{\"a\": 2, \"b\": [1, 2]}\n{\"a\": 4}".getBytes(UTF_8));
+  }
+
+  @Test
+  public void testNullsDoNotChangeType() throws Exception {
+    final byte[] input = "{\"a\": null}\n{\"a\": 1, \"b\": null}\n{\"a\": null, \"b\": \"x\"}\n{}".getBytes(UTF_8);
+    final StructuralJsonReader reader = newReader(64, false);
+    assertEquals(read(newJsonReader(false), input), read(reader, input));
+    assertFalse(reader.isDelegating());
+  }
+
+  /**
+   * Checks that the structural reader writes the first records itself, hands the rest of the input over to
+   * {@link JsonReader}, and produces the same records as a {@link JsonReader} reading the whole input.
+   */
+  private void assertDelegatedAfter(int records, byte[] input) throws Exception {
+    final List<Object> expected = read(newJsonReader(false), input);
+    for (int bufferSize : BUFFER_SIZES) {
+      final StructuralJsonReader reader = newReader(bufferSize, false);
+      final List<Object> actual = read(reader, input, count ->
+        assertEquals("buffer size " + bufferSize + ", record " + count, count > records, reader.isDelegating()));
+      assertTrue(reader.isDelegating());
+      assertEquals("buffer size " + bufferSize, expected, actual);
+    }
+  }
+
+  private StructuralJsonReader newReader(int bufferSize, boolean readNumbersAsDouble) {
+    return new StructuralJsonReader(bufferManager.getManagedBuffer(), newJsonReader(readNumbersAsDouble),
+      GroupScan.ALL_COLUMNS, MAX_FIELD_SIZE, MAX_LEAF_LIMIT, readNumbersAsDouble, bufferSize);
+  }
+
+  private JsonReader newJsonReader(boolean readNumbersAsDouble) {
+    return new JsonReader(bufferManager.getManagedBuffer(), MAX_FIELD_SIZE, MAX_LEAF_LIMIT, false, true,
+      readNumbersAsDouble);
+  }
+
+  private List<Object> read(JsonProcessor reader, byte[] input) throws Exception {
+    return read(reader, input, count -> { });
+  }
+
+  /**
+   * @param onRecord called with the number of records read so far after each record
+   */
+  private List<Object> read(JsonProcessor reader, byte[] input, IntConsumer onRecord) throws Exception {
+    try (NonNullableStructVector vector = NonNullableStructVector.empty("", allocator)) {
+      final ComplexWriterImpl writer = new ComplexWriterImpl("root", vector);
+      writer.allocate();
+      reader.setSource(new ByteArrayInputStream(input));
+      int count = 0;
+      while (true) {
+        writer.setPosition(count);
+        if (reader.write(writer) != JsonProcessor.ReadState.WRITE_SUCCEED) {
+          break;
+        }
+        count++;
+        onRecord.accept(count);
+      }
+      writer.setValueCount(count);
+      return getRecords(vector, count);
+    }
+  }
+
+  private Exception readError(JsonProcessor reader, byte[] input) {
+    try {
+      read(reader, input);
+    } catch (Exception e) {
+      return e;
+    }
+    fail("Expected the input to be rejected");
+    return null;
+  }
+
+  private static List<Object> getRecords(NonNullableStructVector vector, int count) {
+    final List<Object> records = new ArrayList<>();
+    final ValueVector root = vector.getChild("root");
+    for (int i = 0; i < count; i++) {
+      records.add(root.getObject(i));
+    }
+    return records;
+  }
+
+  private static Object getField(Object record, String name) {
+    final Object value = ((Map<?, ?>) record).get(name);
+    // strings are returned as Text
+    return value instanceof Number || value instanceof Boolean ? value : value.toString();
+  }
+
+  /**
+   * Generates flat records with fields in random order, random white space, missing and null values, and strings
+   * with escapes and multi-byte characters. The type of each field stays the same so the structural reader never
+   * hands the input over.
+   */
+  private static byte[] generate(Random random, int records) {
+    final StringBuilder sb = new StringBuilder();
+    final List<String> names = Arrays.asList("id", "score", "name", "flag", "note");
+    for (int i = 0; i < records; i++) {
+      final List<String> fields = new ArrayList<>(names);
+      Collections.shuffle(fields, random);
+      sb.append('{');
+      boolean first = true;
+      for (String name : fields) {
+        if (random.nextInt(5) == 0) {
+          continue;
+        }
+        if (!first) {
+          sb.append(whitespace(random)).append(',');
+        }
+        first = false;
+        sb.append(whitespace(random)).append('"').append(name).append('"').append(whitespace(random)).append(':')
+          .append(whitespace(random));
+        if (random.nextInt(10) == 0) {
+          sb.append("null");
+          continue;
+        }
+        switch (name) {
+          case "id":
+            sb.append(random.nextLong() % 1_000_000_000_000_000_000L);
+            break;
+          case "score":
+            sb.append(random.nextDouble() * 1000 - 500);
+            break;
+          case "flag":
+            sb.append(random.nextBoolean());
+            break;
+          default:
+            sb.append('"');
+            final int length = random.nextInt(5) == 0 ? 20 + random.nextInt(100) : random.nextInt(10);
+            for (int c = 0; c < length; c++) {
+              sb.append(CHARACTERS[random.nextInt(CHARACTERS.length)]);
+            }
+            sb.append('"');
+            break;
+        }
+      }
+      sb.append(whitespace(random)).append('}').append(random.nextBoolean() ? "\n" : "\r\n").append(whitespace(random));
+    }
+    return sb.toString().getBytes(UTF_8);
+  }
+
+  private static String whitespace(Random random) {
+    switch (random.nextInt(6)) {
+      case 0:
+        return " ";
+      case 1:
+        return "\t ";
+      case 2:
+        return "\n";
+      default:
+        return "";
+    }
+  }
+
+  private static byte[] concat(String prefix, byte[] bytes, String suffix) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(prefix.getBytes(UTF_8), 0, prefix.getBytes(UTF_8).length);
+    out.write(bytes, 0, bytes.length);
+    out.write(suffix.getBytes(UTF_8), 0, suffix.getBytes(UTF_8).length);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.HasTableOperations;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.types.Types;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.store.iceberg.IcebergSnapshotDiff.ChangeType;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link IcebergSnapshotDiff}
+ */
+public class TestIcebergSnapshotDiff {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testChangeTypes() throws Exception {
+    final File root = folder.newFolder();
+    final Schema schema = new Schema(Types.NestedField.optional(1, "id", Types.IntegerType.get()));
+    final Table table = new HadoopTables(new Configuration()).create(schema, PartitionSpec.unpartitioned(), root.getAbsolutePath());
+
+    final DataFile first = dataFile(root, "first.parquet");
+    final DataFile second = dataFile(root, "second.parquet");
+    final DataFile compacted = dataFile(root, "compacted.parquet");
+
+    table.newAppend().appendFile(first).commit();
+    final long s1 = table.currentSnapshot().snapshotId();
+    table.newAppend().appendFile(second).commit();
+    final long s2 = table.currentSnapshot().snapshotId();
+    table.newRewrite().rewriteFiles(ImmutableSet.of(first, second), ImmutableSet.of(compacted)).commit();
+    final long s3 = table.currentSnapshot().snapshotId();
+    table.newDelete().deleteFile(compacted).commit();
+    final long s4 = table.currentSnapshot().snapshotId();
+
+    final TableMetadata metadata = ((HasTableOperations) table).operations().current();
+
+    assertEquals(ChangeType.NONE, IcebergSnapshotDiff.between(metadata, s2, s2).getChangeType());
+
+    final IcebergSnapshotDiff append = IcebergSnapshotDiff.between(metadata, s1, s2);
+    assertEquals(ChangeType.APPEND, append.getChangeType());
+    assertEquals(1, append.getSnapshotCount());
+    assertEquals(1, append.getAddedDataFiles());
+
+    final IcebergSnapshotDiff rewrite = IcebergSnapshotDiff.between(metadata, s1, s3);
+    assertEquals(ChangeType.REWRITE, rewrite.getChangeType());
+    assertEquals(2, rewrite.getSnapshotCount());
+    assertEquals(2, rewrite.getAddedDataFiles());
+    assertEquals(2, rewrite.getDeletedDataFiles());
+
+    assertEquals(ChangeType.DELETE, IcebergSnapshotDiff.between(metadata, s1, s4).getChangeType());
+
+    // s2 is not an ancestor of s1
+    assertEquals(ChangeType.UNKNOWN, IcebergSnapshotDiff.between(metadata, s2, s1).getChangeType());
+  }
+
+  private static DataFile dataFile(File root, String name) {
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+      .withPath(new File(root, name).getAbsolutePath())
+      .withFileSizeInBytes(100)
+      .withRecordCount(10)
+      .withFormat(FileFormat.PARQUET)
+      .build();
+  }
+}
@@ -0,0 +1,541 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.MapVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.util.Text;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.joda.time.DateTimeConstants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link ParquetColumnDecoder}, comparing the decoded vectors with the values written by parquet-mr.
+ */
+public class TestParquetColumnDecoder {
+  private static final int ROWS = 1000;
+  private static final int BATCH_SIZE = 384;
+
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test {\n" +
+    "  required int32 id;\n" +
+    "  optional binary name (UTF8);\n" +
+    "  optional int32 day (DATE);\n" +
+    "  optional group s {\n" +
+    "    optional int64 a;\n" +
+    "    optional double b;\n" +
+    "  }\n" +
+    "  optional group l (LIST) {\n" +
+    "    repeated group list {\n" +
+    "      optional int32 element;\n" +
+    "    }\n" +
+    "  }\n" +
+    "}");
+
+  private static final MessageType MAP_SCHEMA = MessageTypeParser.parseMessageType(
+    "message test {\n" +
+    "  required int32 u (UINT_32);\n" +
+    "  optional group m (MAP) {\n" +
+    "    repeated group key_value {\n" +
+    "      required binary key (UTF8);\n" +
+    "      optional int32 value;\n" +
+    "    }\n" +
+    "  }\n" +
+    "}");
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private BufferAllocator allocator;
+  private org.apache.hadoop.fs.Path file;
+
+  @Before
+  public void setup() throws Exception {
+    allocator = allocatorRule.newAllocator("test-parquet-column-decoder", 0, Long.MAX_VALUE);
+    file = new org.apache.hadoop.fs.Path(new File(temporaryFolder.getRoot(), "test.parquet").toURI());
+    final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(file).withType(SCHEMA).withPageSize(1024).withPageRowCountLimit(100).build()) {
+      for (int i = 0; i < ROWS; i++) {
+        final Group group = groups.newGroup().append("id", i);
+        if (name(i) != null) {
+          group.append("name", name(i));
+        }
+        if (i % 7 != 0) {
+          group.append("day", i);
+        }
+        if (i % 5 != 0) {
+          final Group struct = group.addGroup("s");
+          if (i % 2 != 0) {
+            struct.append("a", i * 10L);
+          }
+          struct.append("b", i / 2.0);
+        }
+        final List<Integer> list = list(i);
+        if (list != null) {
+          final Group listGroup = group.addGroup("l");
+          for (Integer element : list) {
+            final Group item = listGroup.addGroup("list");
+            if (element != null) {
+              item.append("element", element);
+            }
+          }
+        }
+        writer.write(group);
+      }
+    }
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  private static String name(int i) {
+    return i % 3 == 0 ? null : "name" + i;
+  }
+
+  private static List<Integer> list(int i) {
+    switch (i % 4) {
+      case 0:
+        return null;
+      case 1:
+        return Collections.emptyList();
+      case 2:
+        return Arrays.asList(i, null, i + 1);
+      default:
+        return Collections.singletonList(i);
+    }
+  }
+
+  @Test
+  public void testDecodeAcrossBatches() throws Exception {
+    try (IntVector id = new IntVector("id", allocator);
+         VarCharVector name = new VarCharVector("name", allocator);
+         DateMilliVector day = new DateMilliVector("day", allocator);
+         StructVector s = StructVector.empty("s", allocator);
+         ListVector l = ListVector.empty("l", allocator);
+         ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(file, new Configuration()))) {
+      s.addOrGet("a", FieldType.nullable(MinorType.BIGINT.getType()), BigIntVector.class);
+      s.addOrGet("b", FieldType.nullable(MinorType.FLOAT8.getType()), Float8Vector.class);
+      l.addOrGetVector(FieldType.nullable(MinorType.INT.getType()));
+      final List<FieldVector> vectors = Arrays.asList(id, name, day, s, l);
+
+      final PageReadStore pages = reader.readNextRowGroup();
+      final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+      for (ColumnChunkMetaData chunk : reader.getFooter().getBlocks().get(0).getColumns()) {
+        chunks.put(chunk.getPath(), chunk);
+      }
+      final SchemaDerivationHelper schemaHelper = SchemaDerivationHelper.builder()
+        .dateCorruptionStatus(ParquetReaderUtility.DateCorruptionStatus.META_SHOWS_NO_CORRUPTION)
+        .build();
+
+      final List<ParquetColumnDecoder> decoders = new ArrayList<>();
+      for (FieldVector vector : vectors) {
+        final ParquetColumnDecoder decoder = ParquetColumnDecoder.create(SCHEMA, SCHEMA.getType(vector.getName()), vector,
+          (descriptor, chunk) -> pages.getPageReader(descriptor), chunks, null, schemaHelper, Integer.MAX_VALUE);
+        assertNotNull(vector.getName(), decoder);
+        decoders.add(decoder);
+      }
+
+      for (int start = 0; start < ROWS; start += BATCH_SIZE) {
+        final int count = Math.min(BATCH_SIZE, ROWS - start);
+        vectors.forEach(FieldVector::allocateNew);
+        decoders.forEach(d -> d.decode(count));
+
+        for (int index = 0; index < count; index++) {
+          final int i = start + index;
+          assertEquals(count, id.getValueCount());
+          assertEquals(i, id.get(index));
+          assertEquals(name(i), name.isNull(index) ? null : name.getObject(index).toString());
+          if (i % 7 == 0) {
+            assertTrue(day.isNull(index));
+          } else {
+            assertEquals(i * (long) DateTimeConstants.MILLIS_PER_DAY, day.get(index));
+          }
+
+          if (i % 5 == 0) {
+            assertTrue(s.isNull(index));
+          } else {
+            assertFalse(s.isNull(index));
+            final BigIntVector a = s.getChild("a", BigIntVector.class);
+            assertEquals(i % 2 == 0 ? null : (Long) (i * 10L), a.getObject(index));
+            assertEquals(i / 2.0, s.getChild("b", Float8Vector.class).get(index), 0);
+          }
+
+          assertEquals(list(i), l.getObject(index));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDecodeSelectedRows() throws Exception {
+    try (IntVector id = new IntVector("id", allocator);
+         VarCharVector name = new VarCharVector("name", allocator);
+         StructVector s = StructVector.empty("s", allocator);
+         ListVector l = ListVector.empty("l", allocator);
+         ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(file, new Configuration()))) {
+      s.addOrGet("a", FieldType.nullable(MinorType.BIGINT.getType()), BigIntVector.class);
+      s.addOrGet("b", FieldType.nullable(MinorType.FLOAT8.getType()), Float8Vector.class);
+      l.addOrGetVector(FieldType.nullable(MinorType.INT.getType()));
+      final List<FieldVector> vectors = Arrays.asList(id, name, s, l);
+
+      final PageReadStore rowGroup = reader.readNextRowGroup();
+      final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+      final Map<ColumnChunkMetaData, OffsetIndex> offsetIndexes = new HashMap<>();
+      for (ColumnChunkMetaData chunk : reader.getFooter().getBlocks().get(0).getColumns()) {
+        chunks.put(chunk.getPath(), chunk);
+        offsetIndexes.put(chunk, reader.readOffsetIndex(chunk));
+      }
+      final SchemaDerivationHelper schemaHelper = SchemaDerivationHelper.builder()
+        .dateCorruptionStatus(ParquetReaderUtility.DateCorruptionStatus.META_SHOWS_NO_CORRUPTION)
+        .build();
+
+      // keeps the pages of each column to open them again from any page
+      final ParquetColumnDecoder.PageReaderProvider pages = new ParquetColumnDecoder.PageReaderProvider() {
+        private final Map<ColumnDescriptor, ListPageReader> columns = new HashMap<>();
+
+        @Override
+        public PageReader open(ColumnDescriptor descriptor, ColumnChunkMetaData chunk) {
+          final ListPageReader pageReader = new ListPageReader(rowGroup.getPageReader(descriptor));
+          columns.put(descriptor, pageReader);
+          return pageReader;
+        }
+
+        @Override
+        public OffsetIndex getOffsetIndex(ColumnChunkMetaData chunk) {
+          return offsetIndexes.get(chunk);
+        }
+
+        @Override
+        public PageReader seek(ColumnDescriptor descriptor, OffsetIndex offsetIndex, int page) {
+          return columns.get(descriptor).from(page, offsetIndex.getFirstRowIndex(page));
+        }
+      };
+
+      final List<ParquetColumnDecoder> decoders = new ArrayList<>();
+      for (FieldVector vector : vectors) {
+        final ParquetColumnDecoder decoder = ParquetColumnDecoder.create(SCHEMA, SCHEMA.getType(vector.getName()), vector,
+          pages, chunks, null, schemaHelper, Integer.MAX_VALUE);
+        assertNotNull(vector.getName(), decoder);
+        decoders.add(decoder);
+      }
+
+      final int[] positions = new int[BATCH_SIZE];
+      for (int start = 0; start < ROWS; start += BATCH_SIZE) {
+        final int count = Math.min(BATCH_SIZE, ROWS - start);
+        int selected = 0;
+        for (int index = 0; index < count; index++) {
+          if (isSelected(start + index)) {
+            positions[selected++] = index;
+          }
+        }
+        final int selectedCount = selected;
+        vectors.forEach(FieldVector::allocateNew);
+        decoders.forEach(d -> d.decode(count, positions, selectedCount));
+
+        for (int index = 0; index < count; index++) {
+          final int i = start + index;
+          assertEquals(count, id.getValueCount());
+          if (!isSelected(i)) {
+            assertTrue(id.isNull(index));
+            assertTrue(name.isNull(index));
+            assertTrue(s.isNull(index));
+            assertTrue(l.isNull(index));
+            continue;
+          }
+
+          assertEquals(i, id.get(index));
+          assertEquals(name(i), name.isNull(index) ? null : name.getObject(index).toString());
+          if (i % 5 == 0) {
+            assertTrue(s.isNull(index));
+          } else {
+            final BigIntVector a = s.getChild("a", BigIntVector.class);
+            assertEquals(i % 2 == 0 ? null : (Long) (i * 10L), a.getObject(index));
+            assertEquals(i / 2.0, s.getChild("b", Float8Vector.class).get(index), 0);
+          }
+          assertEquals(list(i), l.getObject(index));
+        }
+      }
+
+      // the gaps between the selected rows span whole pages, except for the repeated column
+      assertTrue(decoders.get(0).getPagesSkipped() > 0);
+      assertTrue(decoders.get(1).getPagesSkipped() > 0);
+      assertTrue(decoders.get(2).getPagesSkipped() > 0);
+      assertEquals(0, decoders.get(3).getPagesSkipped());
+    }
+  }
+
+  @Test
+  public void testDecodeMapsAndUnsignedInts() throws Exception {
+    final org.apache.hadoop.fs.Path mapFile =
+      new org.apache.hadoop.fs.Path(new File(temporaryFolder.getRoot(), "map.parquet").toURI());
+    final SimpleGroupFactory groups = new SimpleGroupFactory(MAP_SCHEMA);
+    try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(mapFile).withType(MAP_SCHEMA).withPageSize(1024).withPageRowCountLimit(100).build()) {
+      for (int i = 0; i < ROWS; i++) {
+        // above Integer.MAX_VALUE, stored as a negative int32
+        final Group group = groups.newGroup().append("u", (int) unsigned(i));
+        final List<Map<String, Object>> map = map(i);
+        if (map != null) {
+          final Group mapGroup = group.addGroup("m");
+          for (Map<String, Object> entry : map) {
+            final Group keyValue = mapGroup.addGroup("key_value").append("key", entry.get("key").toString());
+            if (entry.containsKey("value")) {
+              keyValue.append("value", (Integer) entry.get("value"));
+            }
+          }
+        }
+        writer.write(group);
+      }
+    }
+
+    try (BigIntVector u = new BigIntVector("u", allocator);
+         MapVector m = MapVector.empty("m", allocator, false);
+         ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(mapFile, new Configuration()))) {
+      final StructVector entries = m.<StructVector>addOrGetVector(FieldType.notNullable(MinorType.STRUCT.getType())).getVector();
+      entries.addOrGet("key", FieldType.notNullable(MinorType.VARCHAR.getType()), VarCharVector.class);
+      entries.addOrGet("value", FieldType.nullable(MinorType.INT.getType()), IntVector.class);
+      final List<FieldVector> vectors = Arrays.asList(u, m);
+
+      final PageReadStore pages = reader.readNextRowGroup();
+      final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+      for (ColumnChunkMetaData chunk : reader.getFooter().getBlocks().get(0).getColumns()) {
+        chunks.put(chunk.getPath(), chunk);
+      }
+      final SchemaDerivationHelper schemaHelper = SchemaDerivationHelper.builder().build();
+
+      final List<ParquetColumnDecoder> decoders = new ArrayList<>();
+      for (FieldVector vector : vectors) {
+        final ParquetColumnDecoder decoder = ParquetColumnDecoder.create(MAP_SCHEMA, MAP_SCHEMA.getType(vector.getName()),
+          vector, (descriptor, chunk) -> pages.getPageReader(descriptor), chunks, null, schemaHelper, Integer.MAX_VALUE);
+        assertNotNull(vector.getName(), decoder);
+        decoders.add(decoder);
+      }
+
+      final int[] positions = new int[BATCH_SIZE];
+      for (int start = 0; start < ROWS; start += BATCH_SIZE) {
+        final int count = Math.min(BATCH_SIZE, ROWS - start);
+        int selected = 0;
+        for (int index = 0; index < count; index++) {
+          if ((start + index) % 3 != 1) {
+            positions[selected++] = index;
+          }
+        }
+        final int selectedCount = selected;
+        vectors.forEach(FieldVector::allocateNew);
+        decoders.forEach(d -> d.decode(count, positions, selectedCount));
+
+        for (int index = 0; index < count; index++) {
+          final int i = start + index;
+          assertEquals(count, m.getValueCount());
+          if (i % 3 == 1) {
+            assertTrue(u.isNull(index));
+            assertTrue(m.isNull(index));
+            continue;
+          }
+          assertEquals(unsigned(i), u.get(index));
+          assertEquals(map(i), m.getObject(index));
+        }
+      }
+    }
+  }
+
+  private static long unsigned(int i) {
+    return Integer.MAX_VALUE + 1L + i;
+  }
+
+  private static List<Map<String, Object>> map(int i) {
+    switch (i % 4) {
+      case 0:
+        return null;
+      case 1:
+        return Collections.emptyList();
+      default:
+        final List<Map<String, Object>> entries = new ArrayList<>();
+        for (int e = 0; e < i % 4; e++) {
+          final Map<String, Object> entry = new HashMap<>();
+          entry.put("key", new Text("key" + e));
+          if (e % 2 == 0) {
+            // null values are left out of the entry
+            entry.put("value", i + e);
+          }
+          entries.add(entry);
+        }
+        return entries;
+    }
+  }
+
+  private static boolean isSelected(int i) {
+    return i % 250 < 5;
+  }
+
+  /**
+   * The data pages of a column chunk, which can be read again from any page.
+   */
+  private static final class ListPageReader implements PageReader {
+    private final DictionaryPage dictionaryPage;
+    private final List<DataPage> pages;
+    private final long totalValueCount;
+    private int next;
+
+    private ListPageReader(PageReader pageReader) {
+      this.dictionaryPage = pageReader.readDictionaryPage();
+      this.totalValueCount = pageReader.getTotalValueCount();
+      this.pages = new ArrayList<>();
+      DataPage page;
+      while ((page = pageReader.readPage()) != null) {
+        pages.add(page);
+      }
+    }
+
+    private ListPageReader(DictionaryPage dictionaryPage, List<DataPage> pages, long totalValueCount, int next) {
+      this.dictionaryPage = dictionaryPage;
+      this.pages = pages;
+      this.totalValueCount = totalValueCount;
+      this.next = next;
+    }
+
+    private ListPageReader from(int page, long valuesBefore) {
+      return new ListPageReader(dictionaryPage, pages, totalValueCount - valuesBefore, page);
+    }
+
+    @Override
+    public DictionaryPage readDictionaryPage() {
+      return dictionaryPage;
+    }
+
+    @Override
+    public long getTotalValueCount() {
+      return totalValueCount;
+    }
+
+    @Override
+    public DataPage readPage() {
+      return next < pages.size() ? pages.get(next++) : null;
+    }
+  }
+
+  @Test
+  public void testUnsupportedConversions() throws Exception {
+    try (VarCharVector id = new VarCharVector("id", allocator);
+         DateMilliVector day = new DateMilliVector("day", allocator);
+         ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(file, new Configuration()))) {
+      final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+      for (ColumnChunkMetaData chunk : reader.getFooter().getBlocks().get(0).getColumns()) {
+        chunks.put(chunk.getPath(), chunk);
+      }
+      final SchemaDerivationHelper schemaHelper = SchemaDerivationHelper.builder()
+        .dateCorruptionStatus(ParquetReaderUtility.DateCorruptionStatus.META_UNCLEAR_TEST_VALUES)
+        .build();
+      final ParquetColumnDecoder.PageReaderProvider pages = (descriptor, chunk) -> {
+        throw new AssertionError("No pages should be opened for " + descriptor);
+      };
+
+      // int32 into a varchar needs a coercion
+      assertNull(ParquetColumnDecoder.create(SCHEMA, SCHEMA.getType("id"), id, pages, chunks, null, schemaHelper, Integer.MAX_VALUE));
+      // dates that may be corrupt are checked row by row by the rowwise reader
+      assertNull(ParquetColumnDecoder.create(SCHEMA, SCHEMA.getType("day"), day, pages, chunks, null, schemaHelper, Integer.MAX_VALUE));
+    }
+  }
+
+  @Test
+  public void testSupportedShapes() {
+    final MessageType schema = MessageTypeParser.parseMessageType(
+      "message test {\n" +
+      "  optional int96 ts;\n" +
+      "  optional int32 dec (DECIMAL(9,2));\n" +
+      "  repeated int32 legacy_list;\n" +
+      "  optional group nested {\n" +
+      "    optional group inner {\n" +
+      "      optional int32 x;\n" +
+      "    }\n" +
+      "  }\n" +
+      "  optional group list_of_structs (LIST) {\n" +
+      "    repeated group list {\n" +
+      "      optional group element {\n" +
+      "        optional int32 x;\n" +
+      "      }\n" +
+      "    }\n" +
+      "  }\n" +
+      "  optional group map_of_structs (MAP) {\n" +
+      "    repeated group key_value {\n" +
+      "      required binary key (UTF8);\n" +
+      "      optional group value {\n" +
+      "        optional int32 x;\n" +
+      "      }\n" +
+      "    }\n" +
+      "  }\n" +
+      "}");
+    for (org.apache.parquet.schema.Type field : schema.getFields()) {
+      assertFalse(field.getName(), ParquetColumnDecoder.isSupported(field));
+    }
+    for (org.apache.parquet.schema.Type field : SCHEMA.getFields()) {
+      assertTrue(field.getName(), ParquetColumnDecoder.isSupported(field));
+    }
+    for (org.apache.parquet.schema.Type field : MAP_SCHEMA.getFields()) {
+      assertTrue(field.getName(), ParquetColumnDecoder.isSupported(field));
+    }
+  }
+}
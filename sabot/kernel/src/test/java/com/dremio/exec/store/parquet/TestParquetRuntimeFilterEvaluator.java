@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.GZIP;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.Types;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.statistics.BinaryStatistics;
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.column.statistics.LongStatistics;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.store.CompositeColumnFilter;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.util.ValueListFilterBuilder;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.test.AllocatorRule;
+import com.google.common.collect.Iterables;
+
+/**
+ * Tests for {@link ParquetRuntimeFilterEvaluator} using the footer statistics of a row group, and the column indexes
+ * and bloom filters of files written by parquet-mr.
+ */
+public class TestParquetRuntimeFilterEvaluator {
+  private static final int ROWS_PER_PAGE = 100;
+  private static final int PAGES = 3;
+
+  // id: 0-99, 200-299 and 400-499 in the three pages, sparse: same as id but null in the second page,
+  // even and plain: the even numbers 0-598, only even has a bloom filter
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test {\n" +
+    "  required int64 id;\n" +
+    "  optional int64 sparse;\n" +
+    "  required int64 even;\n" +
+    "  required int64 plain;\n" +
+    "}");
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private BufferAllocator allocator;
+  private ParquetReaderStats stats;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-runtime-filter-evaluator", 0, Long.MAX_VALUE);
+    stats = new ParquetReaderStats();
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testSkipWhenNoValueInMinMax() throws Exception {
+    try (RuntimeFilter filter = intFilter("int_col", Arrays.asList(1, 5, 50, 500));
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(block(), Function.identity())) {
+      assertTrue(evaluator.canSkipRowGroup(filter));
+      assertEquals(1, stats.numRuntimeFilterRowGroupsSkipped);
+      assertEquals(block().getCompressedSize(), stats.totalRuntimeFilterSkippedBytes);
+    }
+  }
+
+  @Test
+  public void testNoSkipWhenValueInMinMax() throws Exception {
+    try (RuntimeFilter filter = intFilter("int_col", Arrays.asList(1, 15, 500));
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(block(), Function.identity())) {
+      assertFalse(evaluator.canSkipRowGroup(filter));
+      assertEquals(0, stats.numRuntimeFilterRowGroupsSkipped);
+    }
+  }
+
+  @Test
+  public void testBoundaryValues() throws Exception {
+    try (RuntimeFilter min = intFilter("int_col", Arrays.asList(-4, 10));
+         RuntimeFilter max = longFilter("long_col", Arrays.asList(2000L, 3000L));
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(block(), Function.identity())) {
+      assertFalse(evaluator.canSkipRowGroup(min));
+      assertFalse(evaluator.canSkipRowGroup(max));
+    }
+  }
+
+  @Test
+  public void testSkipOnLongColumn() throws Exception {
+    try (RuntimeFilter filter = longFilter("long_col", Arrays.asList(-100L, 999L, 3001L));
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(block(), Function.identity())) {
+      assertTrue(evaluator.canSkipRowGroup(Collections.singletonList(filter)));
+    }
+  }
+
+  @Test
+  public void testColumnNameResolution() throws Exception {
+    try (RuntimeFilter filter = intFilter("renamed_col", Arrays.asList(1, 5));
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(block(), name -> name.equals("renamed_col") ? "INT_COL" : name)) {
+      assertTrue(evaluator.canSkipRowGroup(filter));
+    }
+  }
+
+  @Test
+  public void testUnknownOrUnsupportedColumns() throws Exception {
+    try (RuntimeFilter missing = intFilter("missing_col", Arrays.asList(1, 5));
+         RuntimeFilter mismatchedType = intFilter("long_col", Arrays.asList(1, 5));
+         RuntimeFilter binary = intFilter("binary_col", Arrays.asList(1, 5));
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(block(), Function.identity())) {
+      assertFalse(evaluator.canSkipRowGroup(missing));
+      assertFalse(evaluator.canSkipRowGroup(mismatchedType));
+      assertFalse(evaluator.canSkipRowGroup(binary));
+    }
+  }
+
+  @Test
+  public void testAllNullChunk() throws Exception {
+    BlockMetaData block = new BlockMetaData();
+    IntStatistics allNulls = new IntStatistics();
+    allNulls.setNumNulls(100);
+    block.addColumn(ColumnChunkMetaData.get(ColumnPath.get("int_col"), INT32, GZIP, new HashSet<>(), allNulls,
+      4, 0, 100, 400, 400));
+    try (RuntimeFilter filter = intFilter("int_col", Arrays.asList(1, 5));
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(block, Function.identity())) {
+      assertTrue(evaluator.canSkipRowGroup(filter));
+    }
+  }
+
+  @Test
+  public void testSkipAllPagesUsingColumnIndex() throws Exception {
+    final Path file = writeFile();
+    final BlockMetaData block = readBlock(file);
+    // 150 is within the min/max of the chunk, but not of any of its pages
+    try (RuntimeFilter filter = longFilter("id", Arrays.asList(150L, 350L), false);
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, false)) {
+      assertTrue(evaluator.canSkipRowGroup(filter));
+      assertEquals(1, stats.numRuntimeFilterRowGroupsSkipped);
+      assertEquals(PAGES, stats.numRuntimeFilterPagesSkipped);
+    }
+  }
+
+  @Test
+  public void testNoSkipWhenValueInPage() throws Exception {
+    final Path file = writeFile();
+    final BlockMetaData block = readBlock(file);
+    try (RuntimeFilter filter = longFilter("id", Arrays.asList(150L, 250L), false);
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, false)) {
+      assertFalse(evaluator.canSkipRowGroup(filter));
+      assertEquals(0, stats.numRuntimeFilterPagesSkipped);
+    }
+  }
+
+  @Test
+  public void testNullPages() throws Exception {
+    final Path file = writeFile();
+    final BlockMetaData block = readBlock(file);
+    // the second page only has nulls, which none of the filter values match
+    try (RuntimeFilter filter = longFilter("sparse", Collections.singletonList(150L), false);
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, false)) {
+      assertTrue(evaluator.canSkipRowGroup(filter));
+      assertEquals(PAGES, stats.numRuntimeFilterPagesSkipped);
+    }
+    try (RuntimeFilter filter = longFilter("sparse", Collections.singletonList(150L), true);
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, false)) {
+      assertFalse(evaluator.canSkipRowGroup(filter));
+    }
+  }
+
+  @Test
+  public void testNoColumnIndex() throws Exception {
+    final Path file = writeFile();
+    final BlockMetaData block = readBlock(file);
+    try (RuntimeFilter filter = longFilter("id", Collections.singletonList(150L), false)) {
+      try (ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, false, false)) {
+        assertFalse(evaluator.canSkipRowGroup(filter));
+      }
+
+      // files written before page indexes were added have no column index reference in the footer
+      for (ColumnChunkMetaData column : block.getColumns()) {
+        column.setColumnIndexReference(null);
+        column.setOffsetIndexReference(null);
+      }
+      try (ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, false)) {
+        assertFalse(evaluator.canSkipRowGroup(filter));
+      }
+    }
+    assertEquals(0, stats.numRuntimeFilterRowGroupsSkipped);
+  }
+
+  @Test
+  public void testSkipUsingBloomFilter() throws Exception {
+    final Path file = writeFile();
+    final BlockMetaData block = readBlock(file);
+    // odd values are within the min/max of every page, only the bloom filter rules them out
+    try (RuntimeFilter filter = longFilter("even", Arrays.asList(301L, 303L), false);
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, true)) {
+      assertTrue(evaluator.canSkipRowGroup(filter));
+      assertEquals(1, stats.numRuntimeFilterRowGroupsSkipped);
+      assertEquals(0, stats.numRuntimeFilterPagesSkipped);
+    }
+  }
+
+  @Test
+  public void testNoSkipWhenValueInBloomFilter() throws Exception {
+    final Path file = writeFile();
+    final BlockMetaData block = readBlock(file);
+    try (RuntimeFilter filter = longFilter("even", Arrays.asList(300L, 301L), false);
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, true)) {
+      assertFalse(evaluator.canSkipRowGroup(filter));
+    }
+  }
+
+  @Test
+  public void testNoBloomFilter() throws Exception {
+    final Path file = writeFile();
+    final BlockMetaData block = readBlock(file);
+    try (RuntimeFilter filter = longFilter("plain", Arrays.asList(301L, 303L), false);
+         ParquetRuntimeFilterEvaluator evaluator = newEvaluator(file, block, true, true)) {
+      assertFalse(evaluator.canSkipRowGroup(filter));
+    }
+    // the bloom filter is not probed for more values than allowed
+    try (RuntimeFilter filter = longFilter("even", Arrays.asList(301L, 303L, 305L), false);
+         ParquetRuntimeFilterEvaluator evaluator = new ParquetRuntimeFilterEvaluator(fs(), file, allocator, block,
+           Function.identity(), true, true, 2, stats)) {
+      assertFalse(evaluator.canSkipRowGroup(filter));
+    }
+  }
+
+  private ParquetRuntimeFilterEvaluator newEvaluator(BlockMetaData block, Function<String, String> resolver) {
+    return new ParquetRuntimeFilterEvaluator(null, null, allocator, block, resolver, false, false, 0, stats);
+  }
+
+  private ParquetRuntimeFilterEvaluator newEvaluator(Path file, BlockMetaData block, boolean useColumnIndexes,
+                                                     boolean useBloomFilters) throws IOException {
+    return new ParquetRuntimeFilterEvaluator(fs(), file, allocator, block, Function.identity(), useColumnIndexes,
+      useBloomFilters, 10, stats);
+  }
+
+  private static FileSystem fs() throws IOException {
+    return HadoopFileSystem.getLocal(new Configuration());
+  }
+
+  private Path writeFile() throws IOException {
+    final org.apache.hadoop.fs.Path file = new org.apache.hadoop.fs.Path(new File(temporaryFolder.getRoot(), "test.parquet").toURI());
+    final SimpleGroupFactory groups = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer = ExampleParquetWriter.builder(file)
+      .withType(SCHEMA)
+      .withPageRowCountLimit(ROWS_PER_PAGE)
+      .withBloomFilterEnabled("even", true)
+      .withBloomFilterNDV("even", 100_000)
+      .build()) {
+      for (int i = 0; i < ROWS_PER_PAGE * PAGES; i++) {
+        final int page = i / ROWS_PER_PAGE;
+        final long id = i + page * ROWS_PER_PAGE;
+        final Group group = groups.newGroup().append("id", id);
+        if (page != 1) {
+          group.append("sparse", id);
+        }
+        writer.write(group.append("even", i * 2L).append("plain", i * 2L));
+      }
+    }
+    return Path.of(file.toUri());
+  }
+
+  private static BlockMetaData readBlock(Path file) throws IOException {
+    try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(
+      new org.apache.hadoop.fs.Path(file.toURI()), new Configuration()))) {
+      return Iterables.getOnlyElement(reader.getFooter().getBlocks());
+    }
+  }
+
+  private static BlockMetaData block() {
+    BlockMetaData block = new BlockMetaData();
+    IntStatistics intStatistics = new IntStatistics();
+    intStatistics.setMinMax(10, 20);
+    block.addColumn(ColumnChunkMetaData.get(ColumnPath.get("int_col"), INT32, GZIP, new HashSet<>(), intStatistics,
+      4, 0, 100, 400, 400));
+    LongStatistics longStatistics = new LongStatistics();
+    longStatistics.setMinMax(1000L, 2000L);
+    block.addColumn(ColumnChunkMetaData.get(ColumnPath.get("long_col"), INT64, GZIP, new HashSet<>(), longStatistics,
+      404, 0, 100, 800, 800));
+    BinaryStatistics binaryStatistics = new BinaryStatistics();
+    binaryStatistics.setMinMax(Binary.fromString("a"), Binary.fromString("b"));
+    block.addColumn(ColumnChunkMetaData.get(ColumnPath.get("binary_col"), BINARY, GZIP, new HashSet<>(), binaryStatistics,
+      1204, 0, 100, 300, 300));
+    return block;
+  }
+
+  private RuntimeFilter intFilter(String column, List<Integer> values) throws Exception {
+    try (ValueListFilterBuilder builder = new ValueListFilterBuilder(allocator, values.size(), (byte) 4, false);
+         ArrowBuf keyBuf = allocator.buffer(4)) {
+      builder.setup();
+      builder.setName("Test").setFieldType(Types.MinorType.INT, (byte) 0, (byte) 0).setFieldName(column);
+      for (int value : values) {
+        keyBuf.setInt(0, value);
+        builder.insert(keyBuf);
+      }
+      return newRuntimeFilter(column, builder);
+    }
+  }
+
+  private RuntimeFilter longFilter(String column, List<Long> values) throws Exception {
+    return longFilter(column, values, false);
+  }
+
+  private RuntimeFilter longFilter(String column, List<Long> values, boolean containsNull) throws Exception {
+    try (ValueListFilterBuilder builder = new ValueListFilterBuilder(allocator, values.size(), (byte) 8, false);
+         ArrowBuf keyBuf = allocator.buffer(8)) {
+      builder.setup();
+      builder.setName("Test").setFieldType(Types.MinorType.BIGINT, (byte) 0, (byte) 0).setFieldName(column);
+      for (long value : values) {
+        keyBuf.setLong(0, value);
+        builder.insert(keyBuf);
+      }
+      if (containsNull) {
+        builder.insertNull();
+      }
+      return newRuntimeFilter(column, builder);
+    }
+  }
+
+  private static RuntimeFilter newRuntimeFilter(String column, ValueListFilterBuilder builder) {
+    CompositeColumnFilter columnFilter = new CompositeColumnFilter.Builder()
+      .setFilterType(CompositeColumnFilter.RuntimeFilterType.VALUE_LIST)
+      .setColumnsList(Collections.singletonList(column))
+      .setValueList(builder.build())
+      .build();
+    return new RuntimeFilter(null, Collections.singletonList(columnFilter), null);
+  }
+}
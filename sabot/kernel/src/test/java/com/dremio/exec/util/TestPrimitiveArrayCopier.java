@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PrimitiveArrayCopier}
+ */
+public class TestPrimitiveArrayCopier {
+  private static final int COUNT = 100;
+  // not aligned on a byte of the validity buffer, so that partial bytes are set on both ends
+  private static final int OUTPUT_IDX = 3;
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testCopyLongs() {
+    final long[] input = new long[COUNT + 1];
+    for (int i = 0; i < input.length; i++) {
+      input[i] = Long.MAX_VALUE - i;
+    }
+
+    try (BigIntVector output = new BigIntVector("out", allocator)) {
+      output.allocateNew(OUTPUT_IDX + COUNT);
+      PrimitiveArrayCopier.copy(input, 1, output, OUTPUT_IDX, COUNT);
+      PrimitiveArrayCopier.setValid(output, OUTPUT_IDX, COUNT);
+      output.setValueCount(OUTPUT_IDX + COUNT);
+
+      for (int i = 0; i < OUTPUT_IDX; i++) {
+        assertNull(output.getObject(i));
+      }
+      for (int i = 0; i < COUNT; i++) {
+        assertEquals(input[i + 1], output.get(OUTPUT_IDX + i));
+      }
+    }
+  }
+
+  @Test
+  public void testCopyDoublesWithNulls() {
+    final double[] input = new double[COUNT];
+    final boolean[] isNull = new boolean[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      input[i] = i * 1.5;
+      isNull[i] = i % 3 == 0;
+    }
+
+    try (Float8Vector output = new Float8Vector("out", allocator)) {
+      output.allocateNew(OUTPUT_IDX + COUNT);
+      PrimitiveArrayCopier.copy(input, 0, output, OUTPUT_IDX, COUNT);
+      PrimitiveArrayCopier.setValid(isNull, 0, output, OUTPUT_IDX, COUNT);
+      output.setValueCount(OUTPUT_IDX + COUNT);
+
+      for (int i = 0; i < COUNT; i++) {
+        if (isNull[i]) {
+          assertNull(output.getObject(OUTPUT_IDX + i));
+        } else {
+          assertEquals(input[i], output.get(OUTPUT_IDX + i), 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCopyConverting() {
+    final long[] longs = new long[COUNT];
+    final double[] doubles = new double[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      longs[i] = (1L << 32) + i;
+      doubles[i] = i + 0.25;
+    }
+
+    try (IntVector ints = new IntVector("ints", allocator);
+         Float4Vector floats = new Float4Vector("floats", allocator);
+         Float8Vector longsAsDoubles = new Float8Vector("doubles", allocator)) {
+      ints.allocateNew(COUNT);
+      floats.allocateNew(COUNT);
+      longsAsDoubles.allocateNew(COUNT);
+      PrimitiveArrayCopier.copyToInt(longs, 0, ints, 0, COUNT);
+      PrimitiveArrayCopier.copyToFloat(doubles, 0, floats, 0, COUNT);
+      PrimitiveArrayCopier.copyToDouble(longs, 0, longsAsDoubles, 0, COUNT);
+
+      for (int i = 0; i < COUNT; i++) {
+        assertEquals(i, ints.getDataBuffer().getInt((long) i * Integer.BYTES));
+        assertEquals(i + 0.25f, floats.getDataBuffer().getFloat((long) i * Float.BYTES), 0);
+        assertEquals((double) longs[i], longsAsDoubles.getDataBuffer().getDouble((long) i * Double.BYTES), 0);
+      }
+    }
+  }
+}
@@ -204,6 +204,36 @@ public class TestJsonReader extends PlanTestBase {
         .build().run();
   }
 
+  @Test
+  public void testStructuralReader() throws Exception {
+    File f = folder.newFile("structural_reader.json");
+    try (PrintWriter out = new PrintWriter(f, "UTF-8")) {
+      out.println("{\"a\": 1, \"b\": \"x\\\"y\\u00e9\", \"c\": true, \"d\": 1.5}");
+      out.println("{\"a\": 2, \"b\": null, \"c\": false, \"ignored\": \"z\"}");
+      out.println("{\"d\": 2.5e1, \"a\": 3}");
+      // nested record, read by the regular reader from here on
+      out.println("{\"a\": 4, \"b\": \"nested\", \"e\": {\"f\": 1}}");
+      out.println("{\"a\": 5}");
+    }
+
+    final String query = "select a, b, c, d from dfs.\"" + f.getPath() + "\"";
+    try {
+      testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .optionSettingQueriesForTestQuery("alter session set \"" + ExecConstants.JSON_STRUCTURAL_READER.getOptionName() + "\" = true")
+        .baselineColumns("a", "b", "c", "d")
+        .baselineValues(1L, "x\"y\u00e9", true, 1.5d)
+        .baselineValues(2L, null, false, null)
+        .baselineValues(3L, null, null, 25.0d)
+        .baselineValues(4L, "nested", null, null)
+        .baselineValues(5L, null, null, null)
+        .go();
+    } finally {
+      test("alter session set \"" + ExecConstants.JSON_STRUCTURAL_READER.getOptionName() + "\" = false");
+    }
+  }
+
   public static void gzipIt(File sourceFile) throws IOException {
 
     // modified from: http://www.mkyong.com/java/how-to-compress-a-file-in-gzip-format/
@@ -19,6 +19,7 @@ import static com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType.FUNCTI
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -44,7 +45,9 @@ import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.aggregate.hash.HashAggOperator;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.nospill.VectorizedHashAggOperatorNoSpill;
 import com.dremio.test.UserExceptionAssert;
@@ -119,6 +122,88 @@ public class TestHashAgg extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void partialAggregationBypass() throws Exception {
+    final Table input = t(
+      th("gb", "myvalue"),
+      tr(1, 1L),
+      tr(2, 2L),
+      tr(1, 3L),
+      tr(2, 4L));
+    HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
+                                           Arrays.asList(n("gb")),
+                                           Arrays.asList(n("sum(myvalue)", "sum")),
+                                           true,
+                                           true,
+                                           1f,
+                                           3968,
+                                           true);
+
+    /* the groups of the sampled batch are flushed, then every record is written as its own group */
+    final Table expected = t(
+      th("gb", "sum"),
+      tr(1, 1L),
+      tr(2, 2L),
+      tr(1, 3L),
+      tr(2, 4L));
+    try (AutoCloseable sample = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES, 1);
+         AutoCloseable ratio = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_RATIO, 0.5)) {
+      OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, input.toGenerator(allocator), expected, 2);
+      assertEquals(1L, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS));
+      assertEquals(100L, stats.getLongStat(HashAggStats.Metric.PARTIAL_GROUPS_PER_100_RECORDS));
+      assertEquals(1L, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_FLUSHES));
+      assertEquals(2L, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_PASSED_RECORDS));
+
+      /* without bypass, the groups are aggregated across batches */
+      try (AutoCloseable bypass = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS, false)) {
+        final Table aggregated = t(
+          th("gb", "sum"),
+          tr(1, 4L),
+          tr(2, 6L));
+        validateSingle(conf, VectorizedHashAggOperator.class, input.toGenerator(allocator), aggregated, 2);
+      }
+    }
+  }
+
+  @Test
+  public void partialAggregationPassThrough() throws Exception {
+    final Table input = t(
+      th("gb", "myint"),
+      tr("a", 1),
+      tr("b", Fixtures.NULL_INT),
+      tr("a", 3),
+      tr("a", Fixtures.NULL_INT));
+    HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
+                                           Arrays.asList(n("gb")),
+                                           Arrays.asList(
+                                             n("sum(myint)", "sum"),
+                                             n("count(myint)", "cnt"),
+                                             n("$sum0(myint)", "sum0"),
+                                             n("min(myint)", "min"),
+                                             n("max(myint)", "max")
+                                           ),
+                                           true,
+                                           true,
+                                           1f,
+                                           3968,
+                                           true);
+
+    /* the records of the second batch are not grouped, and null values get the partial results of an empty group */
+    final Table expected = t(
+      th("gb", "sum", "cnt", "sum0", "min", "max"),
+      tr("a", 1L, 1L, 1L, 1, 1),
+      tr("b", Fixtures.NULL_BIGINT, 0L, 0L, Fixtures.NULL_INT, Fixtures.NULL_INT),
+      tr("a", 3L, 1L, 3L, 3, 3),
+      tr("a", Fixtures.NULL_BIGINT, 0L, 0L, Fixtures.NULL_INT, Fixtures.NULL_INT))
+      .orderInsensitive();
+    try (AutoCloseable sample = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES, 1);
+         AutoCloseable ratio = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_RATIO, 0.5)) {
+      OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, input.toGenerator(allocator), expected, 2);
+      assertEquals(1L, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS));
+      assertEquals(2L, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_PASSED_RECORDS));
+    }
+  }
+
   @Test
   public void oneKeySumCnt() throws Exception {
     HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
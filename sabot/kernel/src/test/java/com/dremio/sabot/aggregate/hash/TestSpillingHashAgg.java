@@ -58,6 +58,7 @@ import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggSpillStats;
 import com.dremio.sabot.op.common.ht2.FieldVectorPair;
 import com.dremio.sabot.op.common.ht2.PivotBuilder;
 import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.test.AllocatorRule;
 import com.dremio.test.UserExceptionAssert;
 
@@ -386,6 +387,34 @@ public class TestSpillingHashAgg extends BaseTestOperator {
     }
   }
 
+  /**
+   * Test spill of 3K rows with each of the spill codecs
+   * @throws Exception
+   */
+  @Test
+  public void testSpill3KCompressed() throws Exception {
+    final HashAggregate agg = getHashAggregate(1_000_000, 4_000_000, 990);
+    for (SpillCompression compression : SpillCompression.values()) {
+      try (AutoCloseable useSpillingAgg = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+           AutoCloseable maxHashTableBatchSizeBytes = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_MAX_BATCHSIZE_BYTES, 128 * 1024);
+           AutoCloseable codec = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_SPILL_COMPRESSION, compression.name());
+           CustomHashAggDataGenerator generator = new CustomHashAggDataGenerator(3000, getTestAllocator(), true)) {
+        Fixtures.Table table = generator.getExpectedGroupsAndAggregations();
+        validateSingle(agg, VectorizedHashAggOperator.class, generator, table, 3000);
+        final VectorizedHashAggSpillStats stats = agg.getSpillStats();
+        assertTrue(stats.getSpills() > 0);
+        assertTrue(stats.getSpilledIOBytes() > 0);
+        if (compression.isCompressed()) {
+          assertTrue(stats.getCompressionNanos() > 0);
+          assertTrue(stats.getDecompressionNanos() > 0);
+        } else {
+          assertEquals(0, stats.getCompressionNanos());
+          assertEquals(0, stats.getDecompressionNanos());
+        }
+      }
+    }
+  }
+
   @Test
   public void testSpill3KWithLargeAccum() throws Exception {
     final int numAccum = 128;
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.join.hash;
+
+import org.junit.After;
+import org.junit.Before;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.options.OptionValue;
+import com.dremio.options.OptionValue.OptionType;
+
+/**
+ * Runs the vectorized hash join tests with a radix partitioned build side.
+ */
+public class TestVHashJoinRadixPartitioned extends TestVHashJoin {
+  private final OptionManager options = testContext.getOptions();
+
+  @Before
+  public void enableRadixPartitionedBuild() {
+    options.setOption(OptionValue.createBoolean(OptionType.SYSTEM,
+      ExecConstants.ENABLE_HASHJOIN_RADIX_PARTITIONED_BUILD.getOptionName(), true));
+    // few enough partitions that most of them get several keys
+    options.setOption(OptionValue.createLong(OptionType.SYSTEM,
+      ExecConstants.HASHJOIN_RADIX_PARTITIONS.getOptionName(), 16));
+  }
+
+  @After
+  public void resetRadixPartitionedBuild() {
+    options.setOption(ExecConstants.ENABLE_HASHJOIN_RADIX_PARTITIONED_BUILD.getDefault());
+    options.setOption(ExecConstants.HASHJOIN_RADIX_PARTITIONS.getDefault());
+  }
+}
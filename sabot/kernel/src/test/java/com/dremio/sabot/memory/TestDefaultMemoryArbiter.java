@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.memory.DremioRootAllocator;
+import com.dremio.sabot.op.spi.Operator;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link DefaultMemoryArbiter}
+ */
+public class TestDefaultMemoryArbiter {
+  private static final long MB = 1024 * 1024;
+  private static final long LIMIT = 16 * MB;
+
+  private DremioRootAllocator rootAllocator;
+  private BufferAllocator allocator;
+  private DefaultMemoryArbiter memoryArbiter;
+
+  @Before
+  public void setup() {
+    rootAllocator = DremioRootAllocator.create(LIMIT, Long.MAX_VALUE);
+    allocator = rootAllocator.newChildAllocator("test", 0, Long.MAX_VALUE);
+    memoryArbiter = new DefaultMemoryArbiter(rootAllocator);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+    rootAllocator.close();
+  }
+
+  @Test
+  public void testGrantAndRelease() {
+    TestTask task = new TestTask("task");
+    memoryArbiter.startTask(task);
+
+    assertTrue(memoryArbiter.acquireMemoryGrant(task, 4 * MB));
+    assertEquals(4 * MB, task.getMemoryGrant());
+    assertEquals(4 * MB, memoryArbiter.getGrantedMemory());
+
+    memoryArbiter.releaseMemoryGrant(task);
+    assertEquals(0, task.getMemoryGrant());
+    assertEquals(0, memoryArbiter.getGrantedMemory());
+    assertEquals(0, memoryArbiter.getNumGrantsDenied());
+    memoryArbiter.taskDone(task);
+  }
+
+  @Test
+  public void testBlockAndUnblock() {
+    TestTask task1 = new TestTask("task1");
+    TestTask task2 = new TestTask("task2");
+    TestTask task3 = new TestTask("task3");
+    memoryArbiter.startTask(task1);
+    memoryArbiter.startTask(task2);
+    memoryArbiter.startTask(task3);
+
+    assertTrue(memoryArbiter.acquireMemoryGrant(task1, 10 * MB));
+    assertFalse(memoryArbiter.acquireMemoryGrant(task2, 10 * MB));
+    assertTrue(task2.blocked);
+    // the blocked request is set aside, so the next request does not get ahead of it
+    assertFalse(memoryArbiter.acquireMemoryGrant(task3, 4 * MB));
+    assertTrue(task3.blocked);
+    assertEquals(2, memoryArbiter.getNumBlockedTasks());
+    assertEquals(2, memoryArbiter.getNumGrantsDenied());
+
+    memoryArbiter.releaseMemoryGrant(task1);
+    assertFalse(task2.blocked);
+    assertFalse(task3.blocked);
+    assertEquals(0, memoryArbiter.getNumBlockedTasks());
+
+    assertTrue(memoryArbiter.acquireMemoryGrant(task2, 10 * MB));
+    assertTrue(memoryArbiter.acquireMemoryGrant(task3, 4 * MB));
+    assertEquals(14 * MB, memoryArbiter.getGrantedMemory());
+
+    memoryArbiter.taskDone(task1);
+    memoryArbiter.taskDone(task2);
+    memoryArbiter.taskDone(task3);
+    assertEquals(0, memoryArbiter.getGrantedMemory());
+  }
+
+  @Test
+  public void testTaskDoneUnblocks() {
+    TestTask task1 = new TestTask("task1");
+    TestTask task2 = new TestTask("task2");
+    memoryArbiter.startTask(task1);
+    memoryArbiter.startTask(task2);
+
+    assertTrue(memoryArbiter.acquireMemoryGrant(task1, 10 * MB));
+    assertFalse(memoryArbiter.acquireMemoryGrant(task2, 10 * MB));
+
+    memoryArbiter.taskDone(task1);
+    assertFalse(task2.blocked);
+    assertTrue(memoryArbiter.acquireMemoryGrant(task2, 10 * MB));
+    memoryArbiter.taskDone(task2);
+  }
+
+  @Test
+  public void testShrinkLargestOperators() {
+    TestTask task1 = new TestTask("task1");
+    TestTask task2 = new TestTask("task2");
+    TestOperator small = task1.addOperator(1, MB);
+    TestOperator large = task1.addOperator(2, 4 * MB);
+    memoryArbiter.startTask(task1);
+    memoryArbiter.startTask(task2);
+
+    assertTrue(memoryArbiter.acquireMemoryGrant(task1, 10 * MB));
+    // 6MB are available, the 2MB missing are covered by the largest operator alone
+    assertFalse(memoryArbiter.acquireMemoryGrant(task2, 8 * MB));
+    assertEquals(1, memoryArbiter.getNumShrinkRequests());
+    assertTrue(task1.isOperatorShrinkingMemory(large));
+    assertFalse(task1.isOperatorShrinkingMemory(small));
+
+    // the operator is already shrinking, so it is not asked again
+    memoryArbiter.removeFromBlocked(task2);
+    assertFalse(memoryArbiter.acquireMemoryGrant(task2, 8 * MB));
+    assertEquals(1, memoryArbiter.getNumShrinkRequests());
+
+    memoryArbiter.taskDone(task1);
+    memoryArbiter.taskDone(task2);
+  }
+
+  @Test
+  public void testGrantWithoutOtherGrants() {
+    TestTask task = new TestTask("task");
+    TestOperator operator = task.addOperator(1, 2 * MB);
+    memoryArbiter.startTask(task);
+
+    try (ArrowBuf buf = allocator.buffer(8 * MB)) {
+      // nothing else would unblock the task, so it gets its grant and operators are asked to shrink instead
+      assertTrue(memoryArbiter.acquireMemoryGrant(task, 10 * MB));
+      assertFalse(task.blocked);
+      assertTrue(task.isOperatorShrinkingMemory(operator));
+      assertEquals(1, memoryArbiter.getNumShrinkRequests());
+      memoryArbiter.releaseMemoryGrant(task);
+    }
+    memoryArbiter.taskDone(task);
+  }
+
+  @Test
+  public void testShrinkAboveHighWatermark() {
+    TestTask task = new TestTask("task");
+    TestOperator operator = task.addOperator(1, 2 * MB);
+    memoryArbiter.startTask(task);
+
+    assertTrue(memoryArbiter.acquireMemoryGrant(task, (long) (LIMIT * DefaultMemoryArbiter.HIGH_WATERMARK) - MB));
+    assertFalse(task.isOperatorShrinkingMemory(operator));
+    memoryArbiter.releaseMemoryGrant(task);
+
+    assertTrue(memoryArbiter.acquireMemoryGrant(task, LIMIT));
+    assertTrue(task.isOperatorShrinkingMemory(operator));
+    memoryArbiter.taskDone(task);
+  }
+
+  /**
+   * Each task runs on its own thread: it sets up its operators, starts, then repeatedly takes a grant and grows its
+   * operators, or spills the operators the arbiter asked to shrink, while the other tasks arbitrate.
+   */
+  @Test
+  public void testConcurrentArbitration() throws Exception {
+    final int numTasks = 8;
+    final int numIterations = 300;
+    final ExecutorService executor = Executors.newFixedThreadPool(numTasks);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<TestTask> tasks = new ArrayList<>();
+    final List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < numTasks; i++) {
+        final TestTask task = new TestTask("task" + i);
+        tasks.add(task);
+        futures.add(executor.submit(() -> {
+          start.await();
+          // setup happens while the other tasks are already arbitrating
+          for (int operatorId = 0; operatorId < 3; operatorId++) {
+            task.addOperator(operatorId, 0);
+            LockSupport.parkNanos(10_000);
+          }
+          memoryArbiter.startTask(task);
+
+          for (int iteration = 0; iteration < numIterations; iteration++) {
+            if (task.spill()) {
+              continue;
+            }
+            if (!memoryArbiter.acquireMemoryGrant(task, 4 * MB)) {
+              task.awaitUnblock();
+              memoryArbiter.removeFromBlocked(task);
+              continue;
+            }
+            task.pump();
+            memoryArbiter.releaseMemoryGrant(task);
+          }
+          memoryArbiter.taskDone(task);
+          return null;
+        }));
+      }
+
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(60, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (TestTask task : tasks) {
+      for (MemoryTaskAndShrinkableOperator operator : task.getShrinkableOperators()) {
+        assertFalse("operator called from another thread", ((TestOperator) operator.getShrinkableOperator()).calledFromOtherThread);
+      }
+    }
+    assertEquals(0, memoryArbiter.getGrantedMemory());
+    assertEquals(0, memoryArbiter.getNumBlockedTasks());
+    assertTrue(memoryArbiter.getNumShrinkRequests() > 0);
+  }
+
+  private static final class TestOperator implements Operator.ShrinkableOperator {
+    private final int operatorId;
+    private final Thread owner = Thread.currentThread();
+    private long shrinkableMemory;
+    private volatile boolean calledFromOtherThread;
+
+    private TestOperator(int operatorId, long shrinkableMemory) {
+      this.operatorId = operatorId;
+      this.shrinkableMemory = shrinkableMemory;
+    }
+
+    @Override
+    public int getOperatorId() {
+      return operatorId;
+    }
+
+    @Override
+    public long shrinkableMemory() {
+      if (Thread.currentThread() != owner) {
+        calledFromOtherThread = true;
+      }
+      return shrinkableMemory;
+    }
+
+    @Override
+    public boolean shrinkMemory(long size) {
+      return false;
+    }
+  }
+
+  private static final class TestTask implements MemoryArbiterTask {
+    private final String taskId;
+    private volatile List<MemoryTaskAndShrinkableOperator> operators = ImmutableList.of();
+    private final Set<Operator.ShrinkableOperator> shrinkingOperators = ConcurrentHashMap.newKeySet();
+    private volatile long memoryGrant;
+    private volatile boolean blocked;
+
+    private TestTask(String taskId) {
+      this.taskId = taskId;
+    }
+
+    private TestOperator addOperator(int operatorId, long shrinkableMemory) {
+      TestOperator operator = new TestOperator(operatorId, shrinkableMemory);
+      MemoryTaskAndShrinkableOperator shrinkableOperator = new MemoryTaskAndShrinkableOperator(this, operator);
+      shrinkableOperator.updateShrinkableMemory();
+      operators = ImmutableList.<MemoryTaskAndShrinkableOperator>builder().addAll(operators).add(shrinkableOperator).build();
+      return operator;
+    }
+
+    /**
+     * Grows the operators while holding a grant, then publishes their shrinkable memory.
+     */
+    private void pump() {
+      for (MemoryTaskAndShrinkableOperator operator : operators) {
+        ((TestOperator) operator.getShrinkableOperator()).shrinkableMemory += ThreadLocalRandom.current().nextLong(MB);
+        operator.updateShrinkableMemory();
+      }
+      LockSupport.parkNanos(50_000);
+    }
+
+    /**
+     * Spills the operators asked to shrink, returns false if there were none.
+     */
+    private boolean spill() {
+      boolean spilled = false;
+      for (MemoryTaskAndShrinkableOperator operator : operators) {
+        if (shrinkingOperators.contains(operator.getShrinkableOperator())) {
+          ((TestOperator) operator.getShrinkableOperator()).shrinkableMemory = 0;
+          operator.updateShrinkableMemory();
+          shrinkingOperators.remove(operator.getShrinkableOperator());
+          spilled = true;
+        }
+      }
+      return spilled;
+    }
+
+    private void awaitUnblock() {
+      final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+      while (blocked && shrinkingOperators.isEmpty() && System.nanoTime() < deadline) {
+        LockSupport.parkNanos(10_000);
+      }
+    }
+
+    @Override
+    public String getTaskId() {
+      return taskId;
+    }
+
+    @Override
+    public long getUsedMemory() {
+      return 0;
+    }
+
+    @Override
+    public long getMemoryGrant() {
+      return memoryGrant;
+    }
+
+    @Override
+    public void setMemoryGrant(long memoryGrantInBytes) {
+      this.memoryGrant = memoryGrantInBytes;
+    }
+
+    @Override
+    public List<MemoryTaskAndShrinkableOperator> getShrinkableOperators() {
+      return operators;
+    }
+
+    @Override
+    public void shrinkMemory(Operator.ShrinkableOperator shrinkableOperator, long currentShrinkableMemory) {
+      shrinkingOperators.add(shrinkableOperator);
+    }
+
+    @Override
+    public boolean isOperatorShrinkingMemory(Operator.ShrinkableOperator shrinkableOperator) {
+      return shrinkingOperators.contains(shrinkableOperator);
+    }
+
+    @Override
+    public void blockOnMemory() {
+      blocked = true;
+    }
+
+    @Override
+    public void unblockOnMemory() {
+      blocked = false;
+    }
+  }
+}
@@ -25,6 +25,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.util.Iterator;
@@ -67,6 +68,7 @@ import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggPartition;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggPartitionSpillHandler;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggPartitionSpillHandler.SpilledPartitionIterator;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.service.spill.SpillDirectory;
 import com.dremio.service.spill.SpillService;
 import com.dremio.test.AllocatorRule;
@@ -93,6 +95,7 @@ public class TestVectorizedHashAggPartitionSpillHandler extends DremioTest {
   private final byte[] accumulatorTypes = new byte[7];
   private final List<FieldVector> varlenAccumVectorFields = Lists.newArrayList();
   private int MAX_VALUES_PER_BATCH = 0;
+  private SpillCompression spillCompression = SpillCompression.LZ4;
 
   @Rule
   public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
@@ -127,6 +130,17 @@ public class TestVectorizedHashAggPartitionSpillHandler extends DremioTest {
     varlenAccumVectorFields.clear();
   }
 
+  @Test
+  public void testPartitionSpillHandlerWithSpillCompression() throws Exception {
+    MAX_VALUES_PER_BATCH = 990;
+    for (SpillCompression compression : SpillCompression.values()) {
+      spillCompression = compression;
+      testPartitionSpillHandlerHelper();
+      postSpillAccumulatorVectorFields.clear();
+      varlenAccumVectorFields.clear();
+    }
+  }
+
   private void testPartitionSpillHandlerHelper() throws Exception {
 
     /* GROUP BY key columns */
@@ -390,6 +404,7 @@ public class TestVectorizedHashAggPartitionSpillHandler extends DremioTest {
         }).when(spillService).getSpillSubdir(any(String.class));
 
         OptionManager optionManager = mock(OptionManager.class);
+        when(optionManager.getOption(VectorizedHashAggOperator.VECTORIZED_HASHAGG_SPILL_COMPRESSION)).thenReturn(spillCompression.name());
         partitionSpillHandler = new VectorizedHashAggPartitionSpillHandler(partitions,
           fragmentHandle, optionManager, sabotConfig, 1, partitionToLoadSpilledData, spillService, true, null);
 
@@ -15,6 +15,7 @@
  */
 package com.dremio.sabot.op.join.vhash;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -87,6 +88,43 @@ public class LBlockHashTableEightTest {
         }
     }
 
+    @Test
+    public void testCopyKeysToBuffer() throws Exception {
+        final int count = 5000;
+        try (LBlockHashTableEight table = new LBlockHashTableEight(HashConfig.getDefault(), testAllocator, 16);
+             ArrowBuf ordinals = testAllocator.buffer(count * LBlockHashTableEight.ORDINAL_WIDTH);
+             ArrowBuf keyFixed = testAllocator.buffer(count * LBlockHashTableEight.PIVOTED_BLOCK_WIDTH)) {
+            // inserts rehash the table several times
+            final int nullOrdinal = table.insertNull();
+            final List<Long> keys = new ArrayList<>(generatedData(count - 1));
+            final int[] keyOrdinals = new int[keys.size()];
+            for (int i = 0; i < keys.size(); i++) {
+                keyOrdinals[i] = table.insert(keys.get(i), (int) HashComputation.computeHash(keys.get(i)));
+            }
+
+            // the null key and the keys in reverse order
+            ordinals.setInt(0, nullOrdinal);
+            for (int i = 0; i < keys.size(); i++) {
+                ordinals.setInt((i + 1) * LBlockHashTableEight.ORDINAL_WIDTH, keyOrdinals[keys.size() - 1 - i]);
+            }
+            table.copyKeysToBuffer(ordinals, keys.size() + 1, keyFixed);
+
+            assertEquals(0, keyFixed.getInt(0));
+            for (int i = 0; i < keys.size(); i++) {
+                final int blockOffset = (i + 1) * LBlockHashTableEight.PIVOTED_BLOCK_WIDTH;
+                assertEquals(1, keyFixed.getInt(blockOffset));
+                assertEquals(keys.get(keys.size() - 1 - i).longValue(), keyFixed.getLong(blockOffset + 4));
+            }
+
+            // keys inserted since the previous copy are indexed too
+            final int ordinal = table.insert(42L, (int) HashComputation.computeHash(42L));
+            ordinals.setInt(0, ordinal);
+            table.copyKeysToBuffer(ordinals, 1, keyFixed);
+            assertEquals(1, keyFixed.getInt(0));
+            assertEquals(42L, keyFixed.getLong(4));
+        }
+    }
+
     private static ArrowBuf writeNull(ArrowBuf keyBuf) {
         keyBuf.writerIndex(0);
         keyBuf.writeByte(0x00);
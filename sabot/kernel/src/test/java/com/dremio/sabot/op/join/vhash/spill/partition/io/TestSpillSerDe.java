@@ -61,6 +61,7 @@ import com.dremio.sabot.op.join.vhash.spill.io.SpillChunk;
 import com.dremio.sabot.op.join.vhash.spill.io.SpillSerializableImpl;
 import com.dremio.sabot.op.join.vhash.spill.io.SpillWriter;
 import com.dremio.sabot.op.join.vhash.spill.pool.PagePool;
+import com.dremio.sabot.op.sort.external.SpillCompression;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.service.spill.SpillDirectory;
 import com.dremio.service.spill.SpillService;
@@ -136,12 +137,26 @@ public class TestSpillSerDe extends ExecTest {
     check(GenerationDefinition.TpchTable.CUSTOMER, 0.1, 64_000, 4095, 1, "c_custkey");
   }
 
+  @Test
+  public void manyBatchesUncompressed() throws Exception {
+    check(SpillCompression.NONE, GenerationDefinition.TpchTable.CUSTOMER, 0.1, 64_000, 100, 3);
+  }
+
+  @Test
+  public void manyBatchesZstd() throws Exception {
+    check(SpillCompression.ZSTD, GenerationDefinition.TpchTable.CUSTOMER, 0.1, 64_000, 100, 3);
+  }
+
   private void check(GenerationDefinition.TpchTable table, double scale, int pageSize, int batchSize, int numPivotColumns, String... columns) throws Exception {
+    check(SpillCompression.LZ4, table, scale, pageSize, batchSize, numPivotColumns, columns);
+  }
+
+  private void check(SpillCompression compression, GenerationDefinition.TpchTable table, double scale, int pageSize, int batchSize, int numPivotColumns, String... columns) throws Exception {
     Fixtures.Table expected = TpchGenerator.singleGenerator(table, scale, getAllocator(), columns).toTable(batchSize);
-    check(expected, pageSize, batchSize, numPivotColumns, TpchGenerator.singleGenerator(table, scale, allocator, columns));
+    check(compression, expected, pageSize, batchSize, numPivotColumns, TpchGenerator.singleGenerator(table, scale, allocator, columns));
   }
 
-  private void check(Fixtures.Table expected, int pageSize, int batchSize, int numPivotColumns, Generator generator) throws Exception {
+  private void check(SpillCompression compression, Fixtures.Table expected, int pageSize, int batchSize, int numPivotColumns, Generator generator) throws Exception {
     final String fileName = "batches";
 
     try (AutoCloseables.RollbackCloseable rc = new AutoCloseables.RollbackCloseable(true)) {
@@ -163,10 +178,10 @@ public class TestSpillSerDe extends ExecTest {
       final PagePool pool = rc.add(new PagePool(getAllocator(), pageSize, 0));
 
       // stream data to spill file
-      SpillManager.SpillFile spillFile = streamToOutput(fileName, generator, batchSize, pivotDef,  unpivotedBitSet, pool);
+      SpillManager.SpillFile spillFile = streamToOutput(compression, fileName, generator, batchSize, pivotDef,  unpivotedBitSet, pool);
 
       // read back from the spill file
-      List<SpillChunk> chunks = readAllFromInput(spillFile, generator.getOutput(), pivotDef, unpivotedBitSet, pool);
+      List<SpillChunk> chunks = readAllFromInput(compression, spillFile, generator.getOutput(), pivotDef, unpivotedBitSet, pool);
       rc.addAll(chunks);
 
       // The pivoted data is present in the fixed/variable blocks, while the container has the unpivoted data.
@@ -204,13 +219,13 @@ public class TestSpillSerDe extends ExecTest {
     }
   }
 
-  private SpillManager.SpillFile streamToOutput(String fileName, Generator generator, int batchSize, PivotDef pivotDef, ImmutableBitSet unpivotedColumns,
+  private SpillManager.SpillFile streamToOutput(SpillCompression compression, String fileName, Generator generator, int batchSize, PivotDef pivotDef, ImmutableBitSet unpivotedColumns,
                                                 PagePool pool) throws Exception {
     try (ArrowBuf sv2Buf = getFilledSV2(getAllocator(), batchSize);
          FixedBlockVector pivotedFixed = new FixedBlockVector(getAllocator(), pivotDef.getBlockWidth());
          VariableBlockVector pivotedVariable = new VariableBlockVector(getAllocator(), pivotDef.getVariableCount())) {
 
-      try (SpillWriter writer = new SpillWriter(spillManager, new SpillSerializableImpl(), fileName, pool, sv2Buf,
+      try (SpillWriter writer = new SpillWriter(spillManager, compression, new SpillSerializableImpl(), fileName, pool, sv2Buf,
            generator.getOutput(), unpivotedColumns, pivotedFixed, pivotedVariable)) {
         int records;
         while ((records = generator.next(batchSize)) != 0) {
@@ -225,7 +240,7 @@ public class TestSpillSerDe extends ExecTest {
     }
   }
 
-  private List<SpillChunk> readAllFromInput(SpillManager.SpillFile spillFile, VectorAccessible incoming,
+  private List<SpillChunk> readAllFromInput(SpillCompression compression, SpillManager.SpillFile spillFile, VectorAccessible incoming,
                                             PivotDef pivotDef, ImmutableBitSet unpivotedColumns, PagePool pool) throws Exception {
     int index = 0;
     List<Field> unpivotedFields = new ArrayList<>();
@@ -236,7 +251,7 @@ public class TestSpillSerDe extends ExecTest {
       ++index;
     }
 
-    try (BatchCombiningSpillReader reader = new BatchCombiningSpillReader(spillFile, new SpillSerializableImpl(), pool, pivotDef, new BatchSchema(unpivotedFields), 4095)) {
+    try (BatchCombiningSpillReader reader = new BatchCombiningSpillReader(spillFile, compression, new SpillSerializableImpl(), pool, pivotDef, new BatchSchema(unpivotedFields), 4095)) {
       return Lists.newArrayList(reader);
     }
   }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.ExchangeCompression;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.op.receiver.ExchangeDecompressor;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.test.AllocatorRule;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests for {@link ExchangeCompressor} and {@link ExchangeDecompressor}
+ */
+public class TestExchangeCompressor {
+  private static final int RECORDS = 4096;
+  private static final BatchSchema SCHEMA = BatchSchema.newBuilder()
+    .addField(new Field("id", new FieldType(true, MinorType.INT.getType(), null), null))
+    .addField(new Field("name", new FieldType(true, MinorType.VARCHAR.getType(), null), null))
+    .build();
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-exchange-compressor", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void roundTripLz4Frame() {
+    roundTrip(ExchangeCompression.LZ4_FRAME);
+  }
+
+  @Test
+  public void roundTripZstd() {
+    roundTrip(ExchangeCompression.ZSTD);
+  }
+
+  @Test
+  public void noCompression() {
+    final ExchangeCompressor compressor = new ExchangeCompressor(allocator, ExchangeCompression.NONE, 0, 0.9);
+    try (VectorContainer container = newContainer(false)) {
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, container));
+      assertEquals(0, compressor.getBytesBeforeCompression());
+    }
+  }
+
+  @Test
+  public void skipsSmallBatches() {
+    final ExchangeCompressor compressor = new ExchangeCompressor(allocator, ExchangeCompression.LZ4_FRAME, Integer.MAX_VALUE, 0.9);
+    try (VectorContainer container = newContainer(false)) {
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, container));
+      assertEquals(0, compressor.getCompressionNanos());
+    }
+  }
+
+  @Test
+  public void backsOffOnPoorRatio() {
+    final ExchangeCompressor compressor = new ExchangeCompressor(allocator, ExchangeCompression.LZ4_FRAME, 0, 0.9);
+    try (VectorContainer random = newContainer(true);
+         VectorContainer repetitive = newContainer(false)) {
+      // incompressible batch, sent raw and the next batch is not compressed
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, random));
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, repetitive));
+      assertEquals(CompressionUtil.CodecType.LZ4_FRAME.getType(), send(compressor, repetitive));
+
+      // a second poor batch in a row skips two batches
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, random));
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, random));
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, random));
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, repetitive));
+      assertEquals(NoCompressionCodec.COMPRESSION_TYPE, send(compressor, repetitive));
+      assertEquals(CompressionUtil.CodecType.LZ4_FRAME.getType(), send(compressor, repetitive));
+    }
+  }
+
+  private void roundTrip(ExchangeCompression compression) {
+    final ExchangeCompressor compressor = new ExchangeCompressor(allocator, compression, 0, 0.9);
+    final ExchangeDecompressor decompressor = new ExchangeDecompressor(allocator);
+    try (VectorContainer container = newContainer(false);
+         ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(allocator, SCHEMA)) {
+      final ArrowRecordBatch recordBatch = FragmentWritableBatch.getArrowRecordBatch(container);
+      final ArrowRecordBatch sentBatch;
+      try {
+        sentBatch = compressor.newRecordBatch(recordBatch.getLength(), recordBatch.getNodes(), recordBatch.getBuffers());
+      } finally {
+        recordBatch.close();
+      }
+      assertEquals(compression.newCodec().getCodecType().getType(), sentBatch.getBodyCompression().getCodec());
+
+      final FragmentWritableBatch writableBatch = new FragmentWritableBatch(QueryId.getDefaultInstance(), 1, 0, 2, sentBatch, 0);
+      try (RawFragmentBatch received = receive(writableBatch)) {
+        assertEquals(writableBatch.getByteCount(), decompressor.load(loader, received));
+      }
+
+      assertTrue(compressor.getBytesAfterCompression() < compressor.getBytesBeforeCompression());
+      assertEquals(compressor.getBytesAfterCompression(), decompressor.getBytesBeforeDecompression());
+      assertEquals(compressor.getBytesBeforeCompression(), decompressor.getBytesAfterDecompression());
+      assertEquals(RECORDS, loader.getRecordCount());
+      final IntVector ids = loader.getValueAccessorById(IntVector.class, 0).getValueVector();
+      final VarCharVector names = loader.getValueAccessorById(VarCharVector.class, 1).getValueVector();
+      for (int i = 0; i < RECORDS; i++) {
+        assertEquals(i, ids.get(i));
+        assertEquals(name(i), new String(names.get(i), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  private byte send(ExchangeCompressor compressor, VectorContainer container) {
+    final ArrowRecordBatch recordBatch = FragmentWritableBatch.getArrowRecordBatch(container);
+    try (ArrowRecordBatch sentBatch = compressor.newRecordBatch(recordBatch.getLength(), recordBatch.getNodes(),
+      recordBatch.getBuffers())) {
+      return sentBatch.getBodyCompression().getCodec();
+    } finally {
+      recordBatch.close();
+    }
+  }
+
+  /**
+   * Concatenates the buffers of the batch, as they would be received over the wire.
+   */
+  private RawFragmentBatch receive(FragmentWritableBatch writableBatch) {
+    try (ArrowBuf body = allocator.buffer(writableBatch.getByteCount())) {
+      long offset = 0;
+      for (ByteBuf buf : writableBatch.getBuffers()) {
+        final int length = buf.readableBytes();
+        final byte[] bytes = new byte[length];
+        buf.getBytes(buf.readerIndex(), bytes);
+        body.setBytes(offset, bytes);
+        offset += length;
+        buf.release();
+      }
+      body.writerIndex(offset);
+      return new RawFragmentBatch(writableBatch.getHeader(), body, null);
+    }
+  }
+
+  private VectorContainer newContainer(boolean random) {
+    final VectorContainer container = VectorContainer.create(allocator, SCHEMA);
+    final IntVector ids = container.getValueAccessorById(IntVector.class, 0).getValueVector();
+    final VarCharVector names = container.getValueAccessorById(VarCharVector.class, 1).getValueVector();
+    final Random rand = new Random(42);
+    final byte[] randomName = new byte[64];
+    container.allocateNew();
+    for (int i = 0; i < RECORDS; i++) {
+      ids.setSafe(i, random ? rand.nextInt() : i);
+      if (random) {
+        rand.nextBytes(randomName);
+        names.setSafe(i, randomName);
+      } else {
+        names.setSafe(i, name(i).getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    container.setAllCount(RECORDS);
+    return container;
+  }
+
+  private static String name(int i) {
+    return "exchange-compression-test-row-" + (i % 16);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Test;
+
+import com.dremio.sabot.BaseTestWithAllocator;
+
+/**
+ * Tests for the streams of {@link AsyncSpillIO}
+ */
+public class TestAsyncSpillIO extends BaseTestWithAllocator {
+
+  private static final int BUFFER_SIZE = 4096;
+
+  private static byte[] randomBytes(int size) {
+    final byte[] bytes = new byte[size];
+    new Random(size).nextBytes(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    // not a multiple of the buffer size, to have a partial last buffer
+    final byte[] expected = randomBytes(10 * BUFFER_SIZE + 123);
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+    try (AsyncSpillIO asyncIO = new AsyncSpillIO("test", BUFFER_SIZE)) {
+      try (OutputStream out = asyncIO.wrap(sink, allocator)) {
+        int offset = 0;
+        int length = 1;
+        while (offset < expected.length) {
+          final int toWrite = Math.min(length, expected.length - offset);
+          out.write(expected, offset, toWrite);
+          offset += toWrite;
+          length = length * 3 + 1;
+        }
+      }
+      assertEquals(0, allocator.getAllocatedMemory());
+      assertArrayEquals(expected, sink.toByteArray());
+
+      final byte[] actual = new byte[expected.length];
+      try (InputStream in = asyncIO.wrap(new ByteArrayInputStream(sink.toByteArray()), allocator)) {
+        int offset = 0;
+        actual[offset++] = (byte) in.read();
+        int read;
+        while ((read = in.read(actual, offset, Math.min(BUFFER_SIZE + 7, actual.length - offset))) > 0) {
+          offset += read;
+        }
+        assertEquals(expected.length, offset);
+        assertEquals(-1, in.read());
+      }
+      assertEquals(0, allocator.getAllocatedMemory());
+      assertArrayEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testEmptyStream() throws Exception {
+    try (AsyncSpillIO asyncIO = new AsyncSpillIO("test", BUFFER_SIZE);
+         InputStream in = asyncIO.wrap(new ByteArrayInputStream(new byte[0]), allocator)) {
+      assertEquals(-1, in.read());
+      assertEquals(-1, in.read(new byte[16], 0, 16));
+    }
+  }
+
+  @Test
+  public void testFallbackWithoutMemory() throws Exception {
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    final InputStream source = new ByteArrayInputStream(new byte[0]);
+    try (AsyncSpillIO asyncIO = new AsyncSpillIO("test", BUFFER_SIZE);
+         BufferAllocator small = allocator.newChildAllocator("small", 0, BUFFER_SIZE)) {
+      assertSame(sink, asyncIO.wrap(sink, small));
+      assertSame(source, asyncIO.wrap(source, small));
+      assertEquals(0, small.getAllocatedMemory());
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.dremio.sabot.task.AsyncTask;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.Task;
+import com.dremio.sabot.task.TaskDescriptor;
+import com.dremio.sabot.threads.AvailabilityCallback;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * Unit tests for {@link SlicingTaskPool}
+ */
+public class TestSlicingTaskPool {
+
+  /**
+   * Task that burns CPU in small runs until it is told to stop, and optionally blocks once.
+   */
+  private static class SpinningTask implements AsyncTask {
+    private final AtomicLong runNanos = new AtomicLong();
+    private volatile boolean stop;
+    private volatile boolean blockOnce;
+    private volatile Task.State state = Task.State.RUNNABLE;
+    private volatile AvailabilityCallback callback;
+
+    @Override
+    public void run() {
+      if (stop) {
+        state = Task.State.DONE;
+        return;
+      }
+      if (blockOnce) {
+        blockOnce = false;
+        state = Task.State.BLOCKED_ON_UPSTREAM;
+        return;
+      }
+      final long start = System.nanoTime();
+      while (System.nanoTime() - start < TimeUnit.MICROSECONDS.toNanos(100)) {
+        // spin
+      }
+      runNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    void wakeUp() {
+      callback.nowAvailable();
+    }
+
+    @Override
+    public void refreshState() {
+      state = Task.State.RUNNABLE;
+    }
+
+    @Override
+    public Task.State getState() {
+      return state;
+    }
+
+    @Override
+    public SharedResourceType getFirstBlockedResource() {
+      return SharedResourceType.UNKNOWN;
+    }
+
+    @Override
+    public void updateSleepDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnDownstreamDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnUpstreamDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnMemoryDuration(long duration) {
+    }
+
+    @Override
+    public void addBlockedOnSharedResourceDuration(SharedResourceType resource, long duration) {
+    }
+
+    @Override
+    public void setWakeupCallback(AvailabilityCallback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void setTaskDescriptor(TaskDescriptor descriptor) {
+    }
+  }
+
+  private static AsyncTaskWrapper wrap(SchedulingGroup<AsyncTaskWrapper> group, AsyncTask task, CountDownLatch done) {
+    return new AsyncTaskWrapper(1, group, task, done::countDown, Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testGroupWeightsAreHonoured() throws Exception {
+    try (SlicingTaskPool pool = new SlicingTaskPool(1, TimeUnit.MILLISECONDS.toNanos(1), 0)) {
+      final SchedulingGroup<AsyncTaskWrapper> light = pool.newGroup(1);
+      final SchedulingGroup<AsyncTaskWrapper> heavy = pool.newGroup(9);
+      final SpinningTask lightTask = new SpinningTask();
+      final SpinningTask heavyTask = new SpinningTask();
+      final CountDownLatch done = new CountDownLatch(2);
+
+      pool.execute(wrap(light, lightTask, done));
+      pool.execute(wrap(heavy, heavyTask, done));
+      Thread.sleep(500);
+      lightTask.stop = true;
+      heavyTask.stop = true;
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      // the heavy group should get ~9x the cpu time of the light one, keep a large margin to avoid flakiness
+      assertTrue(String.format("light: %d, heavy: %d", lightTask.runNanos.get(), heavyTask.runNanos.get()),
+        heavyTask.runNanos.get() > 3 * lightTask.runNanos.get());
+      assertTrue(pool.getSchedulerStats().getStats(true).contains("weight 9"));
+    }
+  }
+
+  @Test
+  public void testBlockedTaskIsRescheduled() throws Exception {
+    try (SlicingTaskPool pool = new SlicingTaskPool(2, TimeUnit.MILLISECONDS.toNanos(1), 0)) {
+      final SpinningTask task = new SpinningTask();
+      task.blockOnce = true;
+      final CountDownLatch done = new CountDownLatch(1);
+      pool.execute(wrap(pool.newGroup(1), task, done));
+
+      while (task.callback == null) {
+        Thread.sleep(1);
+      }
+      assertEquals(Task.State.BLOCKED_ON_UPSTREAM, task.getState());
+      task.wakeUp();
+      task.stop = true;
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals(Task.State.DONE, task.getState());
+    }
+  }
+
+  @Test
+  public void testFailedTaskIsCleanedUp() throws Exception {
+    try (SlicingTaskPool pool = new SlicingTaskPool(1, TimeUnit.MILLISECONDS.toNanos(1), 0)) {
+      final SpinningTask task = new SpinningTask() {
+        @Override
+        public void run() {
+          throw new RuntimeException("task failure");
+        }
+      };
+      final CountDownLatch done = new CountDownLatch(1);
+      pool.execute(wrap(pool.newGroup(1), task, done));
+
+      // the cleaner of the task runs even though the task never finished
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertTrue(pool.areAllThreadsAlive());
+    }
+  }
+
+  @Test
+  public void testIdleThreadsStealWork() throws Exception {
+    try (SlicingTaskPool pool = new SlicingTaskPool(4, TimeUnit.MILLISECONDS.toNanos(1), 0)) {
+      final SchedulingGroup<AsyncTaskWrapper> group = pool.newGroup(1);
+      final SpinningTask[] tasks = new SpinningTask[8];
+      final CountDownLatch done = new CountDownLatch(tasks.length);
+      for (int i = 0; i < tasks.length; i++) {
+        tasks[i] = new SpinningTask();
+        pool.execute(wrap(group, tasks[i], done));
+      }
+      Thread.sleep(200);
+      for (SpinningTask task : tasks) {
+        assertTrue(task.runNanos.get() > 0);
+        task.stop = true;
+      }
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertTrue(pool.areAllThreadsAlive());
+    }
+  }
+}
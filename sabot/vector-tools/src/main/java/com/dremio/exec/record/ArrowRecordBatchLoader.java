@@ -96,6 +96,8 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
       if (recordBatch.length() > Integer.MAX_VALUE) {
         throw new IllegalArgumentException("record batch length too big: " + recordBatch.length());
       }
+      Preconditions.checkArgument(recordBatch.compression() == null,
+        "compressed record batches must be decompressed before they are loaded");
       valueCount = (int)recordBatch.length();
       if (valueCount == 0) {
         return 0;
@@ -112,6 +114,27 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
     return size;
   }
 
+  /**
+   * Loads the buffers of an already deserialized batch into Vectors in VectorContainer. The batch keeps its own
+   * references on the buffers.
+   * @param arrowRecordBatch uncompressed batch
+   */
+  public void load(ArrowRecordBatch arrowRecordBatch) {
+    container.zeroVectors();
+    valueCount = arrowRecordBatch.getLength();
+    if (valueCount == 0) {
+      container.setRecordCount(0);
+      return;
+    }
+    try {
+      load(arrowRecordBatch, container);
+    } catch (final Throwable cause) {
+      container.zeroVectors();
+      throw cause;
+    }
+    container.setRecordCount(valueCount);
+  }
+
   public static ArrowRecordBatch deserializeRecordBatch(RecordBatch recordBatchFB,
                                                         ArrowBuf body) throws IOException {
     // Now read the body
@@ -154,21 +177,32 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
       }).toList();
     try {
       ArrowRecordBatch arrowRecordBatch = deserializeRecordBatch(recordBatch, body);
-      Iterator<ArrowFieldNode> nodes = arrowRecordBatch.getNodes().iterator();
-      Iterator<ArrowBuf> buffers = arrowRecordBatch.getBuffers().iterator();
-      for (int i = 0; i < fields.size(); ++i) {
-        Field field = fields.get(i);
-        FieldVector fieldVector = fieldVectors.get(i);
-        loadBuffers(fieldVector, field, buffers, nodes);
-      }
-      if (buffers.hasNext()) {
-        throw new IllegalArgumentException("not all buffers were consumed. " + buffers);
-      }
+      load(arrowRecordBatch, fields, fieldVectors);
     } catch (IOException e) {
       throw new RuntimeException("could not deserialize batch for " + vectorAccessible.getSchema(), e);
     }
   }
 
+  private static void load(ArrowRecordBatch arrowRecordBatch, VectorAccessible vectorAccessible) {
+    List<FieldVector> fieldVectors = FluentIterable.from(vectorAccessible)
+      .transform(wrapper -> (FieldVector) wrapper.getValueVector())
+      .toList();
+    load(arrowRecordBatch, vectorAccessible.getSchema().getFields(), fieldVectors);
+  }
+
+  private static void load(ArrowRecordBatch arrowRecordBatch, List<Field> fields, List<FieldVector> fieldVectors) {
+    Iterator<ArrowFieldNode> nodes = arrowRecordBatch.getNodes().iterator();
+    Iterator<ArrowBuf> buffers = arrowRecordBatch.getBuffers().iterator();
+    for (int i = 0; i < fields.size(); ++i) {
+      Field field = fields.get(i);
+      FieldVector fieldVector = fieldVectors.get(i);
+      loadBuffers(fieldVector, field, buffers, nodes);
+    }
+    if (buffers.hasNext()) {
+      throw new IllegalArgumentException("not all buffers were consumed. " + buffers);
+    }
+  }
+
   private static void loadBuffers(FieldVector vector, Field field, Iterator<ArrowBuf> buffers, Iterator<ArrowFieldNode> nodes) {
     checkArgument(nodes.hasNext(), "no more field nodes for for field %s and vector %s", field, vector);
     ArrowFieldNode fieldNode = nodes.next();
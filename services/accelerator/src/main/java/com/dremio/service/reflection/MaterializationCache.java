@@ -17,7 +17,9 @@ package com.dremio.service.reflection;
 
 import static com.dremio.service.reflection.ExternalReflectionStatus.STATUS.OUT_OF_SYNC;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.calcite.rel.RelNode;
@@ -28,6 +30,8 @@ import com.dremio.exec.calcite.logical.ScanCrel;
 import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.ExternalQueryDescriptor;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.service.Pointer;
@@ -40,9 +44,16 @@ import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.MaterializationId;
 import com.dremio.service.reflection.proto.ReflectionId;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import io.protostuff.ByteString;
 
@@ -53,9 +64,9 @@ import io.protostuff.ByteString;
 class MaterializationCache {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MaterializationCache.class);
 
-  private static final Map<String, CachedMaterializationDescriptor> EMPTY_MAP = ImmutableMap.of();
+  private static final CachedMaterializations EMPTY = new CachedMaterializations(ImmutableMap.of());
 
-  private final AtomicReference<Map<String, CachedMaterializationDescriptor>> cached = new AtomicReference<>(EMPTY_MAP);
+  private final AtomicReference<CachedMaterializations> cached = new AtomicReference<>(EMPTY);
 
   /**
    * CacheHelper helps with keeping MaterializationCache up to date and also handles materialization expansion.
@@ -110,17 +121,17 @@ class MaterializationCache {
   private void compareAndSetCache() {
     boolean exchanged;
     do {
-      Map<String, CachedMaterializationDescriptor> old = cached.get();
-      Map<String, CachedMaterializationDescriptor> updated = updateCache(old);
-      exchanged = cached.compareAndSet(old, updated);
+      CachedMaterializations old = cached.get();
+      Map<String, CachedMaterializationDescriptor> updated = updateCache(old.descriptors);
+      exchanged = cached.compareAndSet(old, new CachedMaterializations(updated));
     } while(!exchanged);
   }
 
   void resetCache() {
     boolean exchanged;
     do {
-      Map<String, CachedMaterializationDescriptor> old = cached.get();
-      exchanged = cached.compareAndSet(old, EMPTY_MAP);
+      CachedMaterializations old = cached.get();
+      exchanged = cached.compareAndSet(old, EMPTY);
     } while(!exchanged);
   }
 
@@ -253,16 +264,16 @@ class MaterializationCache {
   void invalidate(MaterializationId mId) {
     boolean exchanged;
     do {
-      Map<String, CachedMaterializationDescriptor> old = cached.get();
-      if (!old.containsKey(mId.getId())) {
+      CachedMaterializations old = cached.get();
+      if (!old.descriptors.containsKey(mId.getId())) {
         break; // entry not present in the cache, nothing more to do
       }
       //copy over everything
-      Map<String, CachedMaterializationDescriptor> updated =  Maps.newHashMap(old);
+      Map<String, CachedMaterializationDescriptor> updated =  Maps.newHashMap(old.descriptors);
       //remove the specific materialization.
       updated.remove(mId.getId());
       //update the cache.
-      exchanged = cached.compareAndSet(old, updated);
+      exchanged = cached.compareAndSet(old, new CachedMaterializations(updated));
     } while(!exchanged);
   }
 
@@ -273,23 +284,103 @@ class MaterializationCache {
     if (descriptor != null) {
       boolean exchanged;
       do {
-        Map<String, CachedMaterializationDescriptor> old = cached.get();
-        Map<String, CachedMaterializationDescriptor> updated = Maps.newHashMap(old); //copy over everything
+        CachedMaterializations old = cached.get();
+        Map<String, CachedMaterializationDescriptor> updated = Maps.newHashMap(old.descriptors); //copy over everything
         updated.put(m.getId().getId(), descriptor);
-        exchanged = cached.compareAndSet(old, updated); //update the cache.
+        exchanged = cached.compareAndSet(old, new CachedMaterializations(updated)); //update the cache.
       } while (!exchanged);
     }
   }
 
   Iterable<MaterializationDescriptor> getAll() {
-    return Iterables.unmodifiableIterable(cached.get().values());
+    return Iterables.unmodifiableIterable(cached.get().descriptors.values());
+  }
+
+  /**
+   * Returns all the cached descriptors of the reflections that have at least one materialization using one of the
+   * given tables, views or external queries.
+   */
+  Iterable<MaterializationDescriptor> getCandidates(Set<List<String>> queryTablesUsed, Set<List<String>> queryVdsUsed,
+                                                    Set<ExternalQueryDescriptor> externalQueries) {
+    return Iterables.unmodifiableIterable(cached.get().getCandidates(queryTablesUsed, queryVdsUsed, externalQueries));
   }
 
   MaterializationDescriptor get(MaterializationId mId) {
-    return cached.get().get(mId.getId());
+    return cached.get().descriptors.get(mId.getId());
   }
 
   boolean contains(MaterializationId mId) {
-    return cached.get().containsKey(mId.getId());
+    return cached.get().descriptors.containsKey(mId.getId());
+  }
+
+  /**
+   * Immutable content of the cache: the descriptors by materialization id and an inverted index from the tables,
+   * views and external queries they use to their reflections. The index is built on first use, so it is always
+   * swapped together with the descriptors it was built from.
+   */
+  private static final class CachedMaterializations {
+    private final Map<String, CachedMaterializationDescriptor> descriptors;
+    private final Supplier<Index> index;
+
+    CachedMaterializations(Map<String, CachedMaterializationDescriptor> descriptors) {
+      this.descriptors = descriptors;
+      this.index = Suppliers.memoize(() -> new Index(descriptors.values()));
+    }
+
+    List<CachedMaterializationDescriptor> getCandidates(Set<List<String>> queryTablesUsed, Set<List<String>> queryVdsUsed,
+                                                        Set<ExternalQueryDescriptor> externalQueries) {
+      final Index index = this.index.get();
+      // reflections that could not be indexed are always candidates
+      final Set<String> reflectionIds = Sets.newLinkedHashSet(index.unindexed);
+      for (List<String> table : queryTablesUsed) {
+        reflectionIds.addAll(index.byTable.get(table));
+      }
+      for (List<String> vdsPath : queryVdsUsed) {
+        reflectionIds.addAll(index.byVds.get(vdsPath));
+      }
+      for (ExternalQueryDescriptor externalQuery : externalQueries) {
+        reflectionIds.addAll(index.byExternalQuery.get(externalQuery));
+      }
+
+      final ImmutableList.Builder<CachedMaterializationDescriptor> candidates = ImmutableList.builder();
+      for (String reflectionId : reflectionIds) {
+        candidates.addAll(index.byReflection.get(reflectionId));
+      }
+      return candidates.build();
+    }
+  }
+
+  private static final class Index {
+    private final ImmutableListMultimap<String, CachedMaterializationDescriptor> byReflection;
+    private final ImmutableSetMultimap<List<String>, String> byTable;
+    private final ImmutableSetMultimap<List<String>, String> byVds;
+    private final ImmutableSetMultimap<ExternalQueryDescriptor, String> byExternalQuery;
+    private final ImmutableSet<String> unindexed;
+
+    Index(Iterable<CachedMaterializationDescriptor> descriptors) {
+      final ImmutableListMultimap.Builder<String, CachedMaterializationDescriptor> byReflection = ImmutableListMultimap.builder();
+      final ImmutableSetMultimap.Builder<List<String>, String> byTable = ImmutableSetMultimap.builder();
+      final ImmutableSetMultimap.Builder<List<String>, String> byVds = ImmutableSetMultimap.builder();
+      final ImmutableSetMultimap.Builder<ExternalQueryDescriptor, String> byExternalQuery = ImmutableSetMultimap.builder();
+      final ImmutableSet.Builder<String> unindexed = ImmutableSet.builder();
+      for (CachedMaterializationDescriptor descriptor : descriptors) {
+        final String reflectionId = descriptor.getLayoutId();
+        byReflection.put(reflectionId, descriptor);
+        try {
+          final SubstitutionUtils.DatasetsUsed datasetsUsed = descriptor.getDatasetsUsed();
+          datasetsUsed.getTables().forEach(table -> byTable.put(table, reflectionId));
+          datasetsUsed.getVdsPaths().forEach(vdsPath -> byVds.put(vdsPath, reflectionId));
+          datasetsUsed.getExternalQueries().forEach(externalQuery -> byExternalQuery.put(externalQuery, reflectionId));
+        } catch (Exception e) {
+          logger.debug("couldn't index materialization {}", descriptor.getMaterializationId(), e);
+          unindexed.add(reflectionId);
+        }
+      }
+      this.byReflection = byReflection.build();
+      this.byTable = byTable.build();
+      this.byVds = byVds.build();
+      this.byExternalQuery = byExternalQuery.build();
+      this.unindexed = unindexed.build();
+    }
   }
 }
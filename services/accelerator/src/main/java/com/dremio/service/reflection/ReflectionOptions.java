@@ -63,6 +63,9 @@ public interface ReflectionOptions {
   BooleanValidator CLOUD_CACHING_ENABLED = new BooleanValidator("reflection.cloud.cache.enabled", true);
   // If disabled, only vds schema and expanded sql definition will be considered when deciding to do an incremental refresh
   BooleanValidator STRICT_INCREMENTAL_REFRESH = new BooleanValidator("reflection.manager.strict_incremental_refresh.enabled", false);
+  // If enabled, incremental refreshes fall back to full refreshes when rows of a source iceberg dataset have been deleted
+  // or overwritten since the previous refresh, as found by comparing the snapshots of the dataset
+  BooleanValidator INCREMENTAL_REFRESH_SNAPSHOT_CHECK = new BooleanValidator("reflection.manager.incremental_refresh_snapshot_check.enabled", true);
   StringValidator NESSIE_REFLECTIONS_NAMESPACE = new StringValidator("reflection.manager.nessie_iceberg_namespace", "dremio.reflections");
   BooleanValidator AUTO_REBUILD_PLAN = new BooleanValidator("reflection.manager.auto_plan_rebuild", true);
   BooleanValidator REFRESH_AFTER_DESERIALIZATION_FAILURE = new BooleanValidator("reflection.manager.auto_refresh_failed", false);
@@ -73,6 +73,7 @@ import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.MaterializationExpander;
 import com.dremio.exec.planner.acceleration.StrippingFactory;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.ExternalQueryDescriptor;
 import com.dremio.exec.planner.observer.AbstractAttemptObserver;
 import com.dremio.exec.planner.observer.AttemptObservers;
 import com.dremio.exec.planner.serialization.DeserializationException;
@@ -964,6 +965,28 @@ public class ReflectionServiceImpl extends BaseReflectionService {
           .filter(notNull());
       }
 
+      return getLatestByReflection(descriptors);
+    }
+
+    @Override
+    public Optional<List<MaterializationDescriptor>> getCandidates(Set<List<String>> queryTablesUsed,
+        Set<List<String>> queryVdsUsed, Set<ExternalQueryDescriptor> externalQueries) {
+      if (!isSubstitutionEnabled()) {
+        return Optional.of(Collections.emptyList());
+      }
+      if (!isCacheEnabled()) {
+        return Optional.empty();
+      }
+
+      final long currentTime = System.currentTimeMillis();
+      final Set<String> activeHosts = getActiveHosts();
+      return Optional.of(getLatestByReflection(
+        FluentIterable.from(materializationCache.getCandidates(queryTablesUsed, queryVdsUsed, externalQueries))
+          .filter(descriptor -> descriptor.getExpirationTimestamp() > currentTime
+            && activeHosts.containsAll(descriptor.getPartition()))));
+    }
+
+    private List<MaterializationDescriptor> getLatestByReflection(FluentIterable<MaterializationDescriptor> descriptors) {
       if (Iterables.isEmpty(descriptors)) {
         return Collections.emptyList();
       }
@@ -15,6 +15,7 @@
  */
 package com.dremio.service.reflection.refresh;
 
+import static com.dremio.exec.store.metadatarefresh.MetadataRefreshExecConstants.METADATA_STORAGE_PLUGIN_NAME;
 import static com.dremio.service.reflection.ReflectionUtils.removeUpdateColumn;
 
 import java.util.Optional;
@@ -25,6 +26,7 @@ import org.apache.calcite.rel.RelShuttle;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.catalog.MutablePlugin;
 import com.dremio.exec.planner.acceleration.ExpansionNode;
 import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils;
 import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.MaterializationShuttle;
@@ -34,11 +36,16 @@ import com.dremio.exec.planner.serialization.RelSerializerFactory;
 import com.dremio.exec.planner.sql.handlers.RelTransformer;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.store.StoragePlugin;
+import com.dremio.exec.store.iceberg.IcebergSnapshotDiff;
+import com.dremio.exec.store.iceberg.SupportsIcebergRootPointer;
 import com.dremio.options.OptionManager;
 import com.dremio.proto.model.UpdateId;
+import com.dremio.service.namespace.DatasetHelper;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
 import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.dremio.service.reflection.IncrementalUpdateServiceUtils;
 import com.dremio.service.reflection.ReflectionOptions;
@@ -145,6 +152,7 @@ class ReflectionPlanNormalizer implements RelTransformer {
     Iterable<DremioTable> requestedTables = sqlHandlerConfig.getContext().getCatalog().getAllRequestedTables();
 
     final boolean strictRefresh = optionManager != null && optionManager.getOption(ReflectionOptions.STRICT_INCREMENTAL_REFRESH);
+    final boolean checkSnapshots = optionManager != null && optionManager.getOption(ReflectionOptions.INCREMENTAL_REFRESH_SNAPSHOT_CHECK);
     final boolean isLegacy = optionManager != null && optionManager.getOption(PlannerSettings.LEGACY_SERIALIZER_ENABLED);
     final RelSerializerFactory serializerFactory =
       isLegacy ?
@@ -163,7 +171,8 @@ class ReflectionPlanNormalizer implements RelTransformer {
       serializerFactory,
       strictRefresh,
       forceFullUpdate,
-      sqlHandlerConfig.getContext().getFunctionRegistry());
+      sqlHandlerConfig.getContext().getFunctionRegistry(),
+      checkSnapshots ? this::getSnapshotDiff : null);
 
     if (isIncremental(refreshDecision)) {
       strippedPlan = strippedPlan.accept(getIncremental(refreshDecision));
@@ -173,6 +182,30 @@ class ReflectionPlanNormalizer implements RelTransformer {
   }
 
 
+  /**
+   * Computes the changes of an iceberg dataset from the metadata of the table, read through the plugin storing it.
+   */
+  private IcebergSnapshotDiff getSnapshotDiff(DatasetConfig dataset, long fromSnapshotId, long toSnapshotId) {
+    final IcebergMetadata icebergMetadata = dataset.getPhysicalDataset().getIcebergMetadata();
+    if (icebergMetadata.getMetadataFileLocation() == null) {
+      return null;
+    }
+    final String pluginName = DatasetHelper.isInternalIcebergTable(dataset)
+      ? METADATA_STORAGE_PLUGIN_NAME
+      : dataset.getFullPathList().get(0);
+    try {
+      final StoragePlugin plugin = sqlHandlerConfig.getContext().getCatalogService().getSource(pluginName);
+      if (!(plugin instanceof SupportsIcebergRootPointer) || !(plugin instanceof MutablePlugin)) {
+        return null;
+      }
+      return IcebergSnapshotDiff.load((SupportsIcebergRootPointer) plugin, icebergMetadata.getMetadataFileLocation(),
+        fromSnapshotId, toSnapshotId);
+    } catch (Exception e) {
+      logger.debug("Failed to read the snapshots of {}", dataset.getFullPathList(), e);
+      return null;
+    }
+  }
+
   private static boolean isIncremental(RefreshDecision decision) {
     return decision.getAccelerationSettings().getMethod() == RefreshMethod.INCREMENTAL;
   }
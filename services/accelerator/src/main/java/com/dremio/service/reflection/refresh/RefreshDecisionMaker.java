@@ -15,7 +15,9 @@
  */
 package com.dremio.service.reflection.refresh;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.calcite.rel.RelNode;
 
@@ -25,11 +27,13 @@ import com.dremio.exec.expr.fn.FunctionImplementationRegistry;
 import com.dremio.exec.planner.acceleration.PlanHasher;
 import com.dremio.exec.planner.serialization.LogicalPlanSerializer;
 import com.dremio.exec.planner.serialization.RelSerializerFactory;
+import com.dremio.exec.store.iceberg.IcebergSnapshotDiff;
 import com.dremio.proto.model.UpdateId;
 import com.dremio.service.job.proto.ScanPath;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
 import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.dremio.service.reflection.IncrementalUpdateServiceUtils;
 import com.dremio.service.reflection.ReflectionSettings;
@@ -38,7 +42,9 @@ import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.ReflectionEntry;
 import com.dremio.service.reflection.proto.Refresh;
 import com.dremio.service.reflection.proto.RefreshDecision;
+import com.dremio.service.reflection.proto.SourceSnapshot;
 import com.dremio.service.reflection.store.MaterializationStore;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
@@ -51,8 +57,20 @@ class RefreshDecisionMaker {
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RefreshDecisionMaker.class);
 
+  /**
+   * Computes the changes of an iceberg dataset between two of its snapshots.
+   */
+  interface SnapshotDiffProvider {
+    /**
+     * @return the changes, or null if they cannot be computed for the dataset.
+     */
+    IcebergSnapshotDiff getDiff(DatasetConfig dataset, long fromSnapshotId, long toSnapshotId);
+  }
+
   /**
    * Determine whether the provided materialization will be a partial or a full along with associated updateId, seriesId, etc.
+   * @param snapshotDiffProvider used to check the changes made to the source iceberg datasets since the previous refresh,
+   *                             or null to skip the check
    * @return The refresh decisions made
    */
   static RefreshDecision getRefreshDecision(
@@ -67,7 +85,8 @@ class RefreshDecisionMaker {
       RelSerializerFactory serializerFactory,
       boolean strictRefresh,
       boolean forceFullUpdate,
-      FunctionImplementationRegistry functionImplementationRegistry) {
+      FunctionImplementationRegistry functionImplementationRegistry,
+      SnapshotDiffProvider snapshotDiffProvider) {
 
     final long newSeriesId = System.currentTimeMillis();
 
@@ -95,6 +114,7 @@ class RefreshDecisionMaker {
           }
         }).toList();
       decision.setScanPathsList(scanPathsList);
+      decision.setSourceSnapshotList(getSourceSnapshots(requestedTables));
     }
 
     final LogicalPlanSerializer serializer = serializerFactory.getSerializer(plan.getCluster(), functionImplementationRegistry);
@@ -168,10 +188,86 @@ class RefreshDecisionMaker {
           .setSeriesId(newSeriesId);
     }
 
+    if (snapshotDiffProvider != null && hasRemovedRows(refresh, requestedTables, settings, snapshotDiffProvider)) {
+      return decision.setInitialRefresh(true)
+          .setUpdateId(new UpdateId())
+          .setSeriesId(newSeriesId);
+    }
+
     return decision.setInitialRefresh(false)
         .setUpdateId(refresh.getUpdateId())
         .setSeriesId(refresh.getSeriesId())
         .setSeriesOrdinal(refresh.getSeriesOrdinal() + 1);
   }
 
+  private static List<SourceSnapshot> getSourceSnapshots(Iterable<DremioTable> requestedTables) {
+    return FluentIterable.from(requestedTables)
+      .filter(table -> getSnapshotId(table.getDatasetConfig()) != null)
+      .transform(table -> new SourceSnapshot()
+        .setPathList(table.getPath().getPathComponents())
+        .setSnapshotId(getSnapshotId(table.getDatasetConfig())))
+      .toList();
+  }
+
+  /**
+   * @return the current snapshot of a physical iceberg dataset, or null for other datasets.
+   */
+  private static Long getSnapshotId(DatasetConfig dataset) {
+    if (dataset == null || !ReflectionUtils.isPhysicalDataset(dataset.getType()) || dataset.getPhysicalDataset() == null) {
+      return null;
+    }
+    final IcebergMetadata icebergMetadata = dataset.getPhysicalDataset().getIcebergMetadata();
+    return icebergMetadata != null ? icebergMetadata.getSnapshotId() : null;
+  }
+
+  /**
+   * Incremental refreshes only pick up new rows. Checks whether rows of the source iceberg datasets have been deleted
+   * or overwritten since the previous refresh, in which case the reflection must be rebuilt. Datasets whose snapshot
+   * was not recorded by the previous refresh, or whose changes cannot be computed, are not checked.
+   * Removed rows are never retracted incrementally, even from aggregate reflections.
+   */
+  @VisibleForTesting
+  static boolean hasRemovedRows(Refresh refresh, Iterable<DremioTable> requestedTables,
+                                        AccelerationSettings settings, SnapshotDiffProvider snapshotDiffProvider) {
+    if (refresh.getSourceSnapshotList() == null || requestedTables == null) {
+      return false;
+    }
+    final Map<List<String>, Long> previousSnapshots = new HashMap<>();
+    for (SourceSnapshot snapshot : refresh.getSourceSnapshotList()) {
+      previousSnapshots.put(snapshot.getPathList(), snapshot.getSnapshotId());
+    }
+
+    for (DremioTable table : requestedTables) {
+      final List<String> path = table.getPath().getPathComponents();
+      final Long previousSnapshot = previousSnapshots.get(path);
+      final Long currentSnapshot = getSnapshotId(table.getDatasetConfig());
+      if (previousSnapshot == null || currentSnapshot == null || previousSnapshot.equals(currentSnapshot)) {
+        continue;
+      }
+
+      final IcebergSnapshotDiff diff = snapshotDiffProvider.getDiff(table.getDatasetConfig(), previousSnapshot, currentSnapshot);
+      if (diff == null) {
+        logger.debug("Couldn't compute the changes of {} since the previous refresh.", path);
+        continue;
+      }
+      switch (diff.getChangeType()) {
+        case DELETE:
+        case UNKNOWN:
+          logger.trace("{} changed since the previous refresh: {}, doing an initial refresh.", path, diff);
+          return true;
+        case REWRITE:
+          // rewritten files are newer than the previous refresh, and would be read again when the refresh is based on
+          // the file modification time
+          if (settings.getRefreshField() == null) {
+            logger.trace("{} changed since the previous refresh: {}, doing an initial refresh.", path, diff);
+            return true;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return false;
+  }
+
 }
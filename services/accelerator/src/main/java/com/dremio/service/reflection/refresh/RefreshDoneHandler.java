@@ -262,6 +262,7 @@ public class RefreshDoneHandler {
     Preconditions.checkArgument(!isIcebergRefresh || decision.getInitialRefresh() || icebergBasePath.equals(materialization.getBasePath()));
     final Refresh refresh = ReflectionUtils.createRefresh(reflection.getId(), refreshPath, decision.getSeriesId(),
       decision.getSeriesOrdinal(), updateId, details, metrics, dataPartitions, isIcebergRefresh, icebergBasePath);
+    refresh.setSourceSnapshotList(decision.getSourceSnapshotList());
 
     logger.trace("Refresh created: {}", refresh);
     materializationStore.save(refresh);
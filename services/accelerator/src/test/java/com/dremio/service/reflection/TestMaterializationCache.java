@@ -16,12 +16,17 @@
 package com.dremio.service.reflection;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.List;
 
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.rel.RelShuttle;
+import org.apache.calcite.rel.core.TableScan;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -32,10 +37,13 @@ import org.mockito.quality.Strictness;
 import org.mockito.stubbing.Answer;
 
 import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.MaterializationId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 public class TestMaterializationCache {
   @Rule
@@ -100,4 +108,55 @@ public class TestMaterializationCache {
 
     refreshThread.interrupt();
   }
+
+  /**
+   * Test that the candidates include every materialization of the reflections using one of the query tables,
+   * and only those.
+   */
+  @Test
+  public void testGetCandidates() throws Exception {
+    MaterializationCache materializationCache = new MaterializationCache(provider, namespaceService, reflectionStatusService, catalogService);
+    Materialization m1 = newMaterialization("m1");
+    Materialization m2 = newMaterialization("m2");
+    Materialization m3 = newMaterialization("m3");
+    CachedMaterializationDescriptor descriptor1 = newDescriptor("r1", ImmutableList.of("s", "t1"));
+    CachedMaterializationDescriptor descriptor2 = newDescriptor("r2", ImmutableList.of("s", "t2"));
+    // older materialization of r1 that uses another table
+    CachedMaterializationDescriptor descriptor3 = newDescriptor("r1", ImmutableList.of("s", "t3"));
+
+    when(provider.expand(m1)).thenReturn(descriptor1);
+    when(provider.expand(m2)).thenReturn(descriptor2);
+    when(provider.expand(m3)).thenReturn(descriptor3);
+    when(provider.getValidMaterializations()).thenReturn(Arrays.asList(m1, m2, m3));
+    when(provider.getExternalReflections()).thenReturn(Arrays.asList());
+    materializationCache.refresh();
+
+    assertThat(materializationCache.getCandidates(ImmutableSet.of(ImmutableList.of("s", "t1")), ImmutableSet.of(), ImmutableSet.of()))
+      .containsExactlyInAnyOrder(descriptor1, descriptor3);
+    assertThat(materializationCache.getCandidates(ImmutableSet.of(ImmutableList.of("s", "t2")), ImmutableSet.of(), ImmutableSet.of()))
+      .containsExactly(descriptor2);
+    assertThat(materializationCache.getCandidates(ImmutableSet.of(ImmutableList.of("s", "t4")), ImmutableSet.of(), ImmutableSet.of()))
+      .isEmpty();
+  }
+
+  private static Materialization newMaterialization(String id) {
+    Materialization materialization = new Materialization();
+    materialization.setId(new MaterializationId(id));
+    return materialization;
+  }
+
+  private static CachedMaterializationDescriptor newDescriptor(String reflectionId, List<String> table) {
+    TableScan scan = mock(TableScan.class);
+    RelOptTable relOptTable = mock(RelOptTable.class);
+    when(scan.getTable()).thenReturn(relOptTable);
+    when(relOptTable.getQualifiedName()).thenReturn(table);
+    when(scan.accept(any(RelShuttle.class))).thenCallRealMethod();
+
+    SubstitutionUtils.DatasetsUsed datasetsUsed = SubstitutionUtils.findDatasetsUsed(scan);
+
+    CachedMaterializationDescriptor descriptor = mock(CachedMaterializationDescriptor.class);
+    when(descriptor.getLayoutId()).thenReturn(reflectionId);
+    when(descriptor.getDatasetsUsed()).thenReturn(datasetsUsed);
+    return descriptor;
+  }
 }
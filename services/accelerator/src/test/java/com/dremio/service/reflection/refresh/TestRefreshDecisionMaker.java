@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.refresh;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.HasTableOperations;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.types.Types;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.store.iceberg.IcebergSnapshotDiff;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
+import com.dremio.service.namespace.dataset.proto.PhysicalDataset;
+import com.dremio.service.namespace.dataset.proto.RefreshMethod;
+import com.dremio.service.reflection.proto.Refresh;
+import com.dremio.service.reflection.proto.SourceSnapshot;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for the snapshot checks of {@link RefreshDecisionMaker}
+ */
+public class TestRefreshDecisionMaker {
+  private static final List<String> PATH = ImmutableList.of("source", "table");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private TableMetadata metadata;
+  private long appended;
+  private long secondAppended;
+  private long compacted;
+  private long deleted;
+
+  @Before
+  public void setup() throws Exception {
+    final File root = folder.newFolder();
+    final Schema schema = new Schema(Types.NestedField.optional(1, "id", Types.IntegerType.get()));
+    final Table table = new HadoopTables(new Configuration()).create(schema, PartitionSpec.unpartitioned(), root.getAbsolutePath());
+
+    final DataFile first = dataFile(root, "first.parquet");
+    final DataFile second = dataFile(root, "second.parquet");
+    final DataFile rewritten = dataFile(root, "rewritten.parquet");
+
+    table.newAppend().appendFile(first).commit();
+    appended = table.currentSnapshot().snapshotId();
+    table.newAppend().appendFile(second).commit();
+    secondAppended = table.currentSnapshot().snapshotId();
+    table.newRewrite().rewriteFiles(ImmutableSet.of(first, second), ImmutableSet.of(rewritten)).commit();
+    compacted = table.currentSnapshot().snapshotId();
+    table.newDelete().deleteFile(rewritten).commit();
+    deleted = table.currentSnapshot().snapshotId();
+
+    metadata = ((HasTableOperations) table).operations().current();
+  }
+
+  @Test
+  public void testAppendOnlyChangesStayIncremental() {
+    assertFalse(hasRemovedRows(appended, secondAppended, null));
+  }
+
+  @Test
+  public void testUnchangedSnapshotStaysIncremental() {
+    assertFalse(hasRemovedRows(secondAppended, secondAppended, null));
+  }
+
+  @Test
+  public void testDeletedRowsRequireFullRefresh() {
+    assertTrue(hasRemovedRows(appended, deleted, null));
+    assertTrue(hasRemovedRows(appended, deleted, "id"));
+  }
+
+  @Test
+  public void testUnknownSnapshotLineageRequiresFullRefresh() {
+    // the recorded snapshot is newer than the current one, so the changes in between are not known
+    assertTrue(hasRemovedRows(secondAppended, appended, "id"));
+  }
+
+  @Test
+  public void testRewrittenFilesDependOnRefreshField() {
+    // rewritten files have a newer modification time, and would be read again
+    assertTrue(hasRemovedRows(appended, compacted, null));
+    assertFalse(hasRemovedRows(appended, compacted, "id"));
+  }
+
+  @Test
+  public void testUnrecordedSnapshotIsNotChecked() {
+    final Refresh refresh = new Refresh().setSourceSnapshotList(ImmutableList.of());
+    assertFalse(RefreshDecisionMaker.hasRemovedRows(refresh, ImmutableList.of(newTable(deleted)),
+      newSettings(null), this::getDiff));
+  }
+
+  @Test
+  public void testMissingDiffIsNotChecked() {
+    assertFalse(RefreshDecisionMaker.hasRemovedRows(newRefresh(appended), ImmutableList.of(newTable(deleted)),
+      newSettings(null), (dataset, from, to) -> null));
+  }
+
+  private boolean hasRemovedRows(long previousSnapshot, long currentSnapshot, String refreshField) {
+    return RefreshDecisionMaker.hasRemovedRows(newRefresh(previousSnapshot), ImmutableList.of(newTable(currentSnapshot)),
+      newSettings(refreshField), this::getDiff);
+  }
+
+  private IcebergSnapshotDiff getDiff(DatasetConfig dataset, long fromSnapshotId, long toSnapshotId) {
+    return IcebergSnapshotDiff.between(metadata, fromSnapshotId, toSnapshotId);
+  }
+
+  private static Refresh newRefresh(long snapshotId) {
+    return new Refresh()
+      .setSourceSnapshotList(ImmutableList.of(new SourceSnapshot().setPathList(PATH).setSnapshotId(snapshotId)));
+  }
+
+  private static DremioTable newTable(long snapshotId) {
+    final DatasetConfig dataset = new DatasetConfig()
+      .setType(DatasetType.PHYSICAL_DATASET)
+      .setFullPathList(PATH)
+      .setPhysicalDataset(new PhysicalDataset()
+        .setIcebergMetadata(new IcebergMetadata().setSnapshotId(snapshotId)));
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getPath()).thenReturn(new NamespaceKey(PATH));
+    when(table.getDatasetConfig()).thenReturn(dataset);
+    return table;
+  }
+
+  private static AccelerationSettings newSettings(String refreshField) {
+    return new AccelerationSettings()
+      .setMethod(RefreshMethod.INCREMENTAL)
+      .setRefreshField(refreshField);
+  }
+
+  private static DataFile dataFile(File root, String name) {
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+      .withPath(new File(root, name).getAbsolutePath())
+      .withFileSizeInBytes(100)
+      .withRecordCount(10)
+      .withFormat(FileFormat.PARQUET)
+      .build();
+  }
+}
@@ -38,6 +38,9 @@ import static org.apache.arrow.flight.sql.impl.FlightSql.CommandStatementUpdate;
 import static org.apache.arrow.flight.sql.impl.FlightSql.TicketStatementQuery;
 
 import java.util.Collections;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Provider;
 
@@ -75,9 +78,13 @@ import com.dremio.service.flight.error.mapping.DremioFlightErrorMapper;
 import com.dremio.service.flight.impl.FlightPreparedStatement;
 import com.dremio.service.flight.impl.FlightWorkManager;
 import com.dremio.service.flight.impl.FlightWorkManager.RunQueryResponseHandlerFactory;
+import com.dremio.service.flight.impl.ParallelFlightStream;
 import com.dremio.service.grpc.HeaderKeys;
 import com.dremio.service.usersessions.UserSessionService;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.protobuf.Any;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -88,11 +95,20 @@ import com.google.protobuf.Message;
  */
 public class DremioFlightProducer implements FlightSqlProducer {
   private static final Logger logger = LoggerFactory.getLogger(DremioFlightProducer.class);
+  private static final long PARALLEL_STREAM_EXPIRATION_MINUTES = 60;
+  private static final long MAX_PARALLEL_STREAMS = 10_000;
 
   private final FlightWorkManager flightWorkManager;
   private final Location location;
   private final DremioFlightSessionsManager sessionsManager;
   private final BufferAllocator allocator;
+  // Streams of queries split across several endpoints, registered with their owner and partition count when the
+  // FlightInfo is issued, until all of their endpoints have been requested. Tickets of streams which are not
+  // registered, because they were never issued, already ran or expired, are rejected.
+  private final Cache<String, IssuedParallelStream> parallelStreams = CacheBuilder.newBuilder()
+    .maximumSize(MAX_PARALLEL_STREAMS)
+    .expireAfterAccess(PARALLEL_STREAM_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+    .build();
 
   public DremioFlightProducer(Location location, DremioFlightSessionsManager sessionsManager,
                               Provider<UserWorker> workerProvider, Provider<OptionManager> optionManagerProvider,
@@ -122,6 +138,11 @@ public class DremioFlightProducer implements FlightSqlProducer {
         TicketContent.PreparedStatementTicket.parseFrom(ticket.getBytes());
 
       final UserProtos.PreparedStatementHandle preparedStatementHandle = preparedStatementTicket.getHandle();
+      if (preparedStatementTicket.hasParallel()) {
+        getStreamParallel(callContext, serverStreamListener, preparedStatementHandle,
+          preparedStatementTicket.getParallel());
+        return;
+      }
       runPreparedStatement(callContext, serverStreamListener, preparedStatementHandle);
     } catch (InvalidProtocolBufferException ex) {
       final RuntimeException error =
@@ -134,6 +155,49 @@ public class DremioFlightProducer implements FlightSqlProducer {
     }
   }
 
+  /**
+   * Attaches the listener to the shared stream of a query whose results are split across several endpoints.
+   * The query is run once, when the first endpoint of the stream is requested.
+   */
+  private void getStreamParallel(CallContext callContext, ServerStreamListener serverStreamListener,
+                                 UserProtos.PreparedStatementHandle preparedStatementHandle,
+                                 TicketContent.ParallelStream parallelStream) {
+    final String streamId = parallelStream.getStreamId();
+    final IssuedParallelStream issued = parallelStreams.getIfPresent(streamId);
+    if (issued == null) {
+      throw CallStatus.NOT_FOUND
+        .withDescription(String.format("Stream %s does not exist or all of its endpoints have already been requested.",
+          streamId))
+        .toRuntimeException();
+    }
+    if (!Objects.equals(issued.owner, callContext.peerIdentity())) {
+      throw CallStatus.UNAUTHENTICATED
+        .withDescription(String.format("Stream %s was not issued to this user.", streamId))
+        .toRuntimeException();
+    }
+    final ParallelFlightStream stream = issued.stream;
+    if (parallelStream.getPartitionCount() != stream.getPartitionCount()) {
+      throw CallStatus.INVALID_ARGUMENT
+        .withDescription(String.format("Stream %s has %d partitions, not %d.", streamId, stream.getPartitionCount(),
+          parallelStream.getPartitionCount()))
+        .toRuntimeException();
+    }
+
+    final boolean first;
+    try {
+      first = stream.attach(parallelStream.getPartition(), serverStreamListener);
+    } catch (IllegalArgumentException ex) {
+      throw CallStatus.INVALID_ARGUMENT.withCause(ex).withDescription(ex.getMessage()).toRuntimeException();
+    }
+
+    if (stream.isFullyAttached()) {
+      parallelStreams.invalidate(streamId);
+    }
+    if (first) {
+      runPreparedStatement(callContext, stream, preparedStatementHandle);
+    }
+  }
+
   @Override
   public void getStreamPreparedStatement(CommandPreparedStatementQuery commandPreparedStatementQuery,
                                          CallContext callContext, ServerStreamListener serverStreamListener) {
@@ -189,7 +253,24 @@ public class DremioFlightProducer implements FlightSqlProducer {
     final FlightPreparedStatement flightPreparedStatement = flightWorkManager
       .createPreparedStatement(flightDescriptor, callContext::isCancelled, session);
 
-    return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor);
+    final int endpointCount = flightWorkManager.getParallelEndpointCount(flightDescriptor, session);
+    if (endpointCount <= 1) {
+      return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor);
+    }
+
+    final String streamId = UUID.randomUUID().toString();
+    final FlightInfo flightInfo =
+      flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor, endpointCount, streamId);
+    registerParallelStream(streamId, callContext.peerIdentity(), endpointCount);
+    return flightInfo;
+  }
+
+  /**
+   * Registers a stream split across several endpoints, which only the given user can request.
+   */
+  @VisibleForTesting
+  void registerParallelStream(String streamId, String owner, int partitionCount) {
+    parallelStreams.put(streamId, new IssuedParallelStream(owner, new ParallelFlightStream(partitionCount)));
   }
 
   @Override
@@ -666,7 +747,9 @@ public class DremioFlightProducer implements FlightSqlProducer {
 
   private static void handleStreamException(Exception ex, ServerStreamListener listener) {
     logger.error("Error from Flight streaming function", ex);
-    if (ex instanceof UserException) {
+    if (ex instanceof FlightRuntimeException) {
+      listener.error(ex);
+    } else if (ex instanceof UserException) {
       listener.error(DremioFlightErrorMapper.toFlightRuntimeException((UserException) ex));
     } else {
       listener.error(CallStatus.INTERNAL.withCause(ex).toRuntimeException());
@@ -678,4 +761,17 @@ public class DremioFlightProducer implements FlightSqlProducer {
       throw CallStatus.INTERNAL.withCause(ex).toRuntimeException();
     }
   }
+
+  /**
+   * A parallel stream with the user it was issued to.
+   */
+  private static final class IssuedParallelStream {
+    private final String owner;
+    private final ParallelFlightStream stream;
+
+    private IssuedParallelStream(String owner, ParallelFlightStream stream) {
+      this.owner = owner;
+      this.stream = stream;
+    }
+  }
 }
@@ -36,4 +36,9 @@ public interface DremioFlightServiceOptions {
     new TypeValidators.PositiveLongValidator(
       "flight.client.readiness.timeout.millis", 900000L, 50000L
     );
+
+  // Allows users to split the results of a query across several endpoints which clients can fetch concurrently.
+  // Queries with an ORDER BY are always served by a single endpoint. Default to 1, which disables parallel streams.
+  TypeValidators.RangeLongValidator PARALLEL_ENDPOINTS =
+    new TypeValidators.RangeLongValidator("flight.parallel_endpoints", 1, 64, 1);
 }
@@ -86,6 +86,20 @@ public class FlightPreparedStatement {
    * @return The FlightInfo.
    */
   public FlightInfo getFlightInfoLegacy(Location location, FlightDescriptor flightDescriptor) {
+    return getFlightInfoLegacy(location, flightDescriptor, 1, null);
+  }
+
+  /**
+   * Returns a FlightInfo for the PreparedStatement which a given instance manages, with the results split
+   * across the given number of endpoints. All endpoints share a single execution of the query.
+   *
+   * @param location       The server location.
+   * @param endpointCount  The number of endpoints to expose, 1 for a single stream.
+   * @param streamId       The id the caller registered the stream with, unused for a single stream.
+   * @return The FlightInfo.
+   */
+  public FlightInfo getFlightInfoLegacy(Location location, FlightDescriptor flightDescriptor, int endpointCount,
+                                        String streamId) {
     final UserProtos.CreatePreparedStatementArrowResp createPreparedStatementResp = responseHandler.get();
     final Schema schema = buildSchema(createPreparedStatementResp.getPreparedStatement().getArrowSchema());
 
@@ -94,10 +108,24 @@ public class FlightPreparedStatement {
       .setHandle(createPreparedStatementResp.getPreparedStatement().getServerHandle())
       .build();
 
-    final Ticket ticket = new Ticket(preparedStatementTicketContent.toByteArray());
+    if (endpointCount <= 1) {
+      final Ticket ticket = new Ticket(preparedStatementTicketContent.toByteArray());
 
-    final FlightEndpoint flightEndpoint = new FlightEndpoint(ticket, location);
-    return new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint), -1, -1);
+      final FlightEndpoint flightEndpoint = new FlightEndpoint(ticket, location);
+      return new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint), -1, -1);
+    }
+
+    final ImmutableList.Builder<FlightEndpoint> endpoints = ImmutableList.builder();
+    for (int partition = 0; partition < endpointCount; partition++) {
+      final TicketContent.PreparedStatementTicket partitionTicketContent = preparedStatementTicketContent.toBuilder()
+        .setParallel(TicketContent.ParallelStream.newBuilder()
+          .setStreamId(streamId)
+          .setPartition(partition)
+          .setPartitionCount(endpointCount))
+        .build();
+      endpoints.add(new FlightEndpoint(new Ticket(partitionTicketContent.toByteArray()), location));
+    }
+    return new FlightInfo(schema, flightDescriptor, endpoints.build(), -1, -1);
   }
 
   /**
@@ -66,9 +66,18 @@ import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.arrow.vector.util.Text;
+import org.apache.calcite.avatica.util.Quoting;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.SqlWith;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.calcite.sql.parser.SqlParser;
 
 import com.dremio.common.expression.CompleteType;
 import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.ParserConfig;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.proto.UserProtos;
 import com.dremio.exec.work.foreman.TerminationListenerRegistry;
@@ -742,6 +751,51 @@ public class FlightWorkManager {
     return response.getServerMeta();
   }
 
+  /**
+   * Returns the number of endpoints the results of the given query should be split across.
+   *
+   * Queries whose top level carries an ORDER BY, or which cannot be parsed, use a single endpoint so that the
+   * order of the results is preserved.
+   *
+   * @param flightDescriptor The client request containing the query to execute.
+   * @param userSession      The session for the user which made the request.
+   * @return The number of endpoints, 1 when results are served by a single stream.
+   */
+  public int getParallelEndpointCount(FlightDescriptor flightDescriptor, UserSession userSession) {
+    final int endpointCount = (int) optionManagerProvider.get().getOption(DremioFlightServiceOptions.PARALLEL_ENDPOINTS);
+    if (endpointCount <= 1) {
+      return 1;
+    }
+    return isOrderedQuery(getQuery(flightDescriptor), userSession) ? 1 : endpointCount;
+  }
+
+  @VisibleForTesting
+  static boolean isOrderedQuery(String query, UserSession userSession) {
+    final Quoting quoting = userSession.getInitialQuoting() != null ? userSession.getInitialQuoting() : ParserConfig.QUOTING;
+    final ParserConfig parserConfig = new ParserConfig(quoting, PlannerSettings.DEFAULT_IDENTIFIER_MAX_LENGTH,
+      PlannerSettings.FULL_NESTED_SCHEMA_SUPPORT.getDefault().getBoolVal());
+    try {
+      return isOrdered(SqlParser.create(query, parserConfig).parseStmt());
+    } catch (SqlParseException e) {
+      // The planner reports the actual error, just avoid splitting a query we do not understand.
+      return true;
+    }
+  }
+
+  private static boolean isOrdered(SqlNode node) {
+    switch (node.getKind()) {
+      case ORDER_BY:
+        return true;
+      case SELECT:
+        final SqlNodeList orderList = ((SqlSelect) node).getOrderList();
+        return orderList != null && orderList.size() > 0;
+      case WITH:
+        return isOrdered(((SqlWith) node).body);
+      default:
+        return false;
+    }
+  }
+
   @VisibleForTesting
   static String getQuery(FlightDescriptor descriptor) {
     if (!descriptor.isCommand()) {
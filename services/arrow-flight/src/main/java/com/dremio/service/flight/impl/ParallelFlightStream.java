@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightProducer.ServerStreamListener;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A ServerStreamListener which spreads the results of a single query across several client streams.
+ *
+ * Each partition of a parallel FlightInfo attaches its own ServerStreamListener. The first partition to attach
+ * starts the query with this instance as its listener; every batch is then sent to the next attached partition
+ * which is ready for data, so faster consumers receive more batches. Since all partitions together always receive
+ * every batch exactly once, the result is complete regardless of the order in which the client consumes the
+ * endpoints. Partitions attaching after the query finished are started and then terminated the same way as the
+ * others.
+ */
+public class ParallelFlightStream implements ServerStreamListener {
+
+  private final Object lock = new Object();
+  private final ServerStreamListener[] partitions;
+  private final boolean[] cancelled;
+  private final List<ServerStreamListener> pendingStart = new ArrayList<>();
+
+  private int attachedCount;
+  private int nextPartition;
+
+  private VectorSchemaRoot root;
+  private DictionaryProvider dictionaries;
+  private IpcOption ipcOption;
+  private boolean completed;
+  private Throwable error;
+
+  private Runnable onReadyHandler;
+  private Runnable onCancelHandler;
+
+  public ParallelFlightStream(int partitionCount) {
+    Preconditions.checkArgument(partitionCount > 0, "Partition count must be positive.");
+    this.partitions = new ServerStreamListener[partitionCount];
+    this.cancelled = new boolean[partitionCount];
+  }
+
+  /**
+   * Attaches the client stream of a partition.
+   *
+   * @param partition the index of the partition.
+   * @param listener  the listener of the client stream serving the partition.
+   * @return {@code true} if this is the first partition to attach, and the caller should start the query.
+   */
+  public boolean attach(int partition, ServerStreamListener listener) {
+    Preconditions.checkArgument(partition >= 0 && partition < partitions.length,
+      "Invalid partition %s for a stream of %s partitions.", partition, partitions.length);
+
+    synchronized (lock) {
+      if (partitions[partition] != null) {
+        throw CallStatus.ALREADY_EXISTS
+          .withDescription(String.format("Partition %d of the stream has already been requested.", partition))
+          .toRuntimeException();
+      }
+      partitions[partition] = listener;
+      attachedCount++;
+
+      listener.setOnReadyHandler(this::onPartitionReady);
+      listener.setOnCancelHandler(() -> onPartitionCancelled(partition));
+
+      if (root != null) {
+        pendingStart.add(listener);
+      }
+      if (completed || error != null) {
+        // The query is already done, terminate the partition straight away.
+        startPendingPartitions();
+        terminate(listener);
+      }
+      return attachedCount == 1;
+    }
+  }
+
+  /**
+   * @return the number of partitions of the stream.
+   */
+  public int getPartitionCount() {
+    return partitions.length;
+  }
+
+  /**
+   * @return {@code true} once every partition of the stream has been attached.
+   */
+  public boolean isFullyAttached() {
+    synchronized (lock) {
+      return attachedCount == partitions.length;
+    }
+  }
+
+  @Override
+  public boolean isCancelled() {
+    synchronized (lock) {
+      return allAttachedCancelled();
+    }
+  }
+
+  @Override
+  public void setOnCancelHandler(Runnable handler) {
+    synchronized (lock) {
+      this.onCancelHandler = handler;
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    synchronized (lock) {
+      return findPartition(true, false) != null;
+    }
+  }
+
+  @Override
+  public void setOnReadyHandler(Runnable handler) {
+    synchronized (lock) {
+      this.onReadyHandler = handler;
+    }
+  }
+
+  @Override
+  public void start(VectorSchemaRoot root, DictionaryProvider dictionaries, IpcOption option) {
+    synchronized (lock) {
+      this.root = root;
+      this.dictionaries = dictionaries;
+      this.ipcOption = option;
+      for (ServerStreamListener partition : partitions) {
+        if (partition != null) {
+          pendingStart.add(partition);
+        }
+      }
+      startPendingPartitions();
+    }
+  }
+
+  @Override
+  public void putNext(ArrowBuf metadata) {
+    synchronized (lock) {
+      startPendingPartitions();
+      ServerStreamListener target = nextReadyPartition();
+      if (target == null) {
+        // No partition reported readiness, fall back to buffering on any live partition.
+        target = nextLivePartition();
+      }
+      if (target == null) {
+        if (metadata != null) {
+          metadata.close();
+        }
+        return;
+      }
+      target.putNext(metadata);
+    }
+  }
+
+  @Override
+  public void putMetadata(ArrowBuf metadata) {
+    synchronized (lock) {
+      final ServerStreamListener target = nextLivePartition();
+      if (target != null) {
+        target.putMetadata(metadata);
+      } else {
+        metadata.close();
+      }
+    }
+  }
+
+  @Override
+  public void error(Throwable ex) {
+    synchronized (lock) {
+      this.error = ex;
+      startPendingPartitions();
+      for (ServerStreamListener partition : partitions) {
+        if (partition != null) {
+          partition.error(ex);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void completed() {
+    synchronized (lock) {
+      this.completed = true;
+      startPendingPartitions();
+      for (ServerStreamListener partition : partitions) {
+        if (partition != null) {
+          partition.completed();
+        }
+      }
+    }
+  }
+
+  private void terminate(ServerStreamListener listener) {
+    if (error != null) {
+      listener.error(error);
+    } else {
+      listener.completed();
+    }
+  }
+
+  private void startPendingPartitions() {
+    if (root == null) {
+      return;
+    }
+    for (ServerStreamListener partition : pendingStart) {
+      partition.start(root, dictionaries, ipcOption);
+    }
+    pendingStart.clear();
+  }
+
+  private ServerStreamListener nextReadyPartition() {
+    return findPartition(true, true);
+  }
+
+  private ServerStreamListener nextLivePartition() {
+    return findPartition(false, true);
+  }
+
+  /**
+   * Round-robins over the attached, non cancelled partitions starting after the last one which received data.
+   */
+  private ServerStreamListener findPartition(boolean mustBeReady, boolean advance) {
+    for (int i = 0; i < partitions.length; i++) {
+      final int index = (nextPartition + i) % partitions.length;
+      final ServerStreamListener partition = partitions[index];
+      if (partition == null || cancelled[index] || (mustBeReady && !partition.isReady())) {
+        continue;
+      }
+      if (advance) {
+        nextPartition = (index + 1) % partitions.length;
+      }
+      return partition;
+    }
+    return null;
+  }
+
+  private boolean allAttachedCancelled() {
+    if (attachedCount == 0) {
+      return false;
+    }
+    for (int i = 0; i < partitions.length; i++) {
+      if (partitions[i] != null && !cancelled[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void onPartitionReady() {
+    final Runnable handler;
+    synchronized (lock) {
+      handler = onReadyHandler;
+    }
+    if (handler != null) {
+      handler.run();
+    }
+  }
+
+  private void onPartitionCancelled(int partition) {
+    final Runnable handler;
+    synchronized (lock) {
+      cancelled[partition] = true;
+      handler = allAttachedCancelled() ? onCancelHandler : null;
+    }
+    if (handler != null) {
+      handler.run();
+    }
+  }
+}
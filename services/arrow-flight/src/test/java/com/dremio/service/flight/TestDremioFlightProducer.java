@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.arrow.flight.CallInfo;
+import org.apache.arrow.flight.FlightCallHeaders;
+import org.apache.arrow.flight.FlightMethod;
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.flight.Ticket;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.proto.UserProtos;
+import com.dremio.service.flight.impl.FlightWorkManager.RunQueryResponseHandlerFactory;
+import com.dremio.service.usersessions.UserSessionService;
+
+/**
+ * Unit tests for the parallel stream checks of {@link DremioFlightProducer}
+ */
+public class TestDremioFlightProducer {
+  private static final String STREAM_ID = "stream";
+  private static final String OWNER = "alice";
+
+  private DremioFlightProducer producer;
+
+  @Before
+  public void setup() {
+    final DremioFlightSessionsManager sessionsManager = mock(DremioFlightSessionsManager.class);
+    when(sessionsManager.getUserSession(anyString(), any()))
+      .thenReturn(mock(UserSessionService.UserSessionData.class));
+
+    producer = new DremioFlightProducer(Location.forGrpcInsecure("localhost", 0), sessionsManager,
+      () -> null, () -> null, null, mock(RunQueryResponseHandlerFactory.class));
+    producer.registerParallelStream(STREAM_ID, OWNER, 2);
+  }
+
+  @Test
+  public void testTicketOfAnotherUserIsRejected() {
+    assertRejected("bob", newTicket(STREAM_ID, 0, 2), FlightStatusCode.UNAUTHENTICATED);
+  }
+
+  @Test
+  public void testForgedPartitionCountIsRejected() {
+    assertRejected(OWNER, newTicket(STREAM_ID, 2, 3), FlightStatusCode.INVALID_ARGUMENT);
+    // the stream is still available to its owner
+    assertRejected(OWNER, newTicket(STREAM_ID, 0, 1), FlightStatusCode.INVALID_ARGUMENT);
+  }
+
+  @Test
+  public void testOutOfRangePartitionIsRejected() {
+    assertRejected(OWNER, newTicket(STREAM_ID, 2, 2), FlightStatusCode.INVALID_ARGUMENT);
+  }
+
+  @Test
+  public void testUnknownStreamIsRejected() {
+    assertRejected(OWNER, newTicket("unknown", 0, 2), FlightStatusCode.NOT_FOUND);
+  }
+
+  private void assertRejected(String user, Ticket ticket, FlightStatusCode expectedCode) {
+    final FlightProducer.ServerStreamListener listener = mock(FlightProducer.ServerStreamListener.class);
+    assertThatThrownBy(() -> producer.getStream(newCallContext(user), ticket, listener))
+      .isInstanceOfSatisfying(FlightRuntimeException.class,
+        e -> assertEquals(expectedCode, e.status().code()));
+    verify(listener).error(any(FlightRuntimeException.class));
+  }
+
+  private static FlightProducer.CallContext newCallContext(String user) {
+    final FlightProducer.CallContext callContext = mock(FlightProducer.CallContext.class);
+    when(callContext.peerIdentity()).thenReturn(user);
+    when(callContext.getMiddleware(DremioFlightService.FLIGHT_CLIENT_PROPERTIES_MIDDLEWARE_KEY))
+      .thenReturn(new ServerCookieMiddleware.Factory()
+        .onCallStarted(new CallInfo(FlightMethod.DO_GET), new FlightCallHeaders(), null));
+    return callContext;
+  }
+
+  private static Ticket newTicket(String streamId, int partition, int partitionCount) {
+    return new Ticket(TicketContent.PreparedStatementTicket.newBuilder()
+      .setHandle(UserProtos.PreparedStatementHandle.getDefaultInstance())
+      .setParallel(TicketContent.ParallelStream.newBuilder()
+        .setStreamId(streamId)
+        .setPartition(partition)
+        .setPartitionCount(partitionCount))
+      .build()
+      .toByteArray());
+  }
+}
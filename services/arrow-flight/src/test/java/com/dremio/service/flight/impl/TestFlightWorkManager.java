@@ -19,6 +19,9 @@ package com.dremio.service.flight.impl;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -40,6 +43,7 @@ import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Test;
 
 import com.dremio.exec.proto.UserProtos;
+import com.dremio.sabot.rpc.user.UserSession;
 import com.google.common.collect.ImmutableMap;
 
 /**
@@ -193,4 +197,16 @@ public class TestFlightWorkManager {
 
     assertEquals(expectedMap, actualMap);
   }
+
+  @Test
+  public void testIsOrderedQuery() {
+    final UserSession userSession = mock(UserSession.class);
+
+    assertTrue(FlightWorkManager.isOrderedQuery("SELECT a FROM t ORDER BY a", userSession));
+    assertTrue(FlightWorkManager.isOrderedQuery("SELECT a FROM t UNION ALL SELECT b FROM u ORDER BY 1", userSession));
+    assertTrue(FlightWorkManager.isOrderedQuery("WITH c AS (SELECT a FROM t) SELECT a FROM c ORDER BY a", userSession));
+    assertTrue(FlightWorkManager.isOrderedQuery("this is not sql", userSession));
+    assertFalse(FlightWorkManager.isOrderedQuery("SELECT a FROM t", userSession));
+    assertFalse(FlightWorkManager.isOrderedQuery("SELECT a FROM (SELECT a FROM t ORDER BY a LIMIT 10)", userSession));
+  }
 }
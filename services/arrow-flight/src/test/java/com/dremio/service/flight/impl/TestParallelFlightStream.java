@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.arrow.flight.FlightProducer.ServerStreamListener;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests for ParallelFlightStream.
+ */
+public class TestParallelFlightStream {
+
+  private static ServerStreamListener readyListener() {
+    final ServerStreamListener listener = mock(ServerStreamListener.class);
+    when(listener.isReady()).thenReturn(true);
+    return listener;
+  }
+
+  @Test
+  public void testOnlyFirstAttachStartsQuery() {
+    final ParallelFlightStream stream = new ParallelFlightStream(2);
+
+    assertTrue(stream.attach(1, readyListener()));
+    assertFalse(stream.isFullyAttached());
+    assertFalse(stream.attach(0, readyListener()));
+    assertTrue(stream.isFullyAttached());
+  }
+
+  @Test
+  public void testDuplicatePartitionRejected() {
+    final ParallelFlightStream stream = new ParallelFlightStream(2);
+    stream.attach(0, readyListener());
+
+    assertThatThrownBy(() -> stream.attach(0, readyListener()))
+      .isInstanceOf(FlightRuntimeException.class);
+    assertThatThrownBy(() -> stream.attach(2, readyListener()))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testBatchesSpreadAcrossReadyPartitions() {
+    final ParallelFlightStream stream = new ParallelFlightStream(2);
+    final ServerStreamListener first = readyListener();
+    final ServerStreamListener second = readyListener();
+    final VectorSchemaRoot root = mock(VectorSchemaRoot.class);
+    stream.attach(0, first);
+    stream.attach(1, second);
+
+    stream.start(root, null, IpcOption.DEFAULT);
+    stream.putNext(null);
+    stream.putNext(null);
+    stream.completed();
+
+    verify(first).start(root, null, IpcOption.DEFAULT);
+    verify(second).start(root, null, IpcOption.DEFAULT);
+    verify(first, times(1)).putNext(null);
+    verify(second, times(1)).putNext(null);
+    verify(first).completed();
+    verify(second).completed();
+  }
+
+  @Test
+  public void testBatchesSkipPartitionsNotReady() {
+    final ParallelFlightStream stream = new ParallelFlightStream(2);
+    final ServerStreamListener busy = mock(ServerStreamListener.class);
+    final ServerStreamListener ready = readyListener();
+    stream.attach(0, busy);
+    stream.attach(1, ready);
+
+    stream.start(mock(VectorSchemaRoot.class), null, IpcOption.DEFAULT);
+    stream.putNext(null);
+    stream.putNext(null);
+
+    verify(busy, never()).putNext(any());
+    verify(ready, times(2)).putNext(null);
+  }
+
+  @Test
+  public void testLateAttachIsStartedAndCompleted() {
+    final ParallelFlightStream stream = new ParallelFlightStream(2);
+    final VectorSchemaRoot root = mock(VectorSchemaRoot.class);
+    stream.attach(0, readyListener());
+    stream.start(root, null, IpcOption.DEFAULT);
+    stream.putNext(null);
+    stream.completed();
+
+    final ServerStreamListener late = readyListener();
+    stream.attach(1, late);
+
+    verify(late).start(root, null, IpcOption.DEFAULT);
+    verify(late, never()).putNext(any());
+    verify(late).completed();
+  }
+
+  @Test
+  public void testCancelledOnlyOnceAllAttachedPartitionsCancel() {
+    final ParallelFlightStream stream = new ParallelFlightStream(2);
+    final ServerStreamListener first = readyListener();
+    final ServerStreamListener second = readyListener();
+    final Runnable onCancel = mock(Runnable.class);
+    stream.setOnCancelHandler(onCancel);
+    stream.attach(0, first);
+    stream.attach(1, second);
+
+    final ArgumentCaptor<Runnable> firstCancel = ArgumentCaptor.forClass(Runnable.class);
+    final ArgumentCaptor<Runnable> secondCancel = ArgumentCaptor.forClass(Runnable.class);
+    verify(first).setOnCancelHandler(firstCancel.capture());
+    verify(second).setOnCancelHandler(secondCancel.capture());
+
+    firstCancel.getValue().run();
+    assertFalse(stream.isCancelled());
+    verify(onCancel, never()).run();
+
+    secondCancel.getValue().run();
+    assertTrue(stream.isCancelled());
+    verify(onCancel).run();
+  }
+}
@@ -21,6 +21,7 @@ import java.util.List;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableFindByRange;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.datastore.api.options.VersionOption;
 import com.google.common.base.Function;
 import com.google.common.base.Strings;
@@ -109,6 +110,11 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
     }
   }
 
+  @Override
+  public void bulkWrite(KVWriteBatch<KVStoreTuple<KEY>, KVStoreTuple<VALUE>> batch, BulkWriteOption... options) {
+    rawStore.bulkWrite(batch.transform(keyToBytes, KVStoreTuple::getSerializedBytes), options);
+  }
+
   @Override
   public Iterable<Document<KVStoreTuple<KEY>, KVStoreTuple<VALUE>>> find(FindByRange<KVStoreTuple<KEY>> find, FindOption... options) {
     final ImmutableFindByRange.Builder<byte[]> rangeBuilder = new ImmutableFindByRange.Builder<>();
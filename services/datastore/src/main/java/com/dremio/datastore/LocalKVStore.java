@@ -22,6 +22,7 @@ import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableFindByRange;
 import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 
@@ -88,6 +89,11 @@ public class LocalKVStore<K, V> implements KVStore<K, V> {
     coreKVStore.delete(buildKey(key), options);
   }
 
+  @Override
+  public void bulkWrite(KVWriteBatch<K, V> batch, BulkWriteOption... options) {
+    coreKVStore.bulkWrite(batch.transform(this::buildKey, this::buildValue), options);
+  }
+
   @Override
   public Iterable<Document<K, V>> find(FindByRange<K> find, FindOption... options) {
     final FindByRange<KVStoreTuple<K>> convertedRange = new ImmutableFindByRange.Builder<KVStoreTuple<K>>()
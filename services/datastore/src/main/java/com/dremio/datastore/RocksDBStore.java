@@ -21,14 +21,19 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -46,6 +51,8 @@ import org.rocksdb.FlushOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
@@ -55,6 +62,7 @@ import com.dremio.common.concurrent.AutoCloseableLock;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableDocument;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.datastore.api.options.KVStoreOptionUtility;
 import com.dremio.datastore.api.options.VersionOption;
 import com.dremio.datastore.rocks.Rocks;
@@ -499,11 +507,112 @@ class RocksDBStore implements ByteStore {
 
   @Override
   public Iterable<Document<byte[], byte[]>> get(List<byte[]> keys, GetOption... options) {
-    final List<Document<byte[], byte[]>> results = new ArrayList<>();
+    if (keys.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    // multiGet returns the values by key instance, so the keys must not be a lazily transformed list
+    final List<byte[]> keyList = new ArrayList<>(keys);
+    final List<AutoCloseableLock> locks = sharedLocks(keyList);
+    try {
+      throwIfClosed();
+      final Map<byte[], byte[]> valuesOrPtrs = db.multiGet(Collections.nCopies(keyList.size(), handle), keyList);
+      final List<Document<byte[], byte[]>> results = new ArrayList<>(keyList.size());
+      for (byte[] key : keyList) {
+        final RocksEntry result = resolvePtrOrValue(valuesOrPtrs.get(key));
+        if (result == null) {
+          results.add(null);
+        } else {
+          final byte[] value = result.getData();
+          results.add(toDocument(key, value, toTag(result.getMeta(), value)));
+        }
+      }
+      return results;
+    } catch (RocksDBException | BlobNotFoundException e) {
+      throw new RuntimeException(e);
+    } finally {
+      closeLocks(locks);
+    }
+  }
+
+  /**
+   * Writes the batch with a single RocksDB write batch, which RocksDB applies atomically. Only the last write of a
+   * key is kept, and the blobs of the replaced and deleted values are removed once the batch is written.
+   */
+  @Override
+  public void bulkWrite(KVWriteBatch<byte[], byte[]> batch, BulkWriteOption... options) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    final Map<ByteBuffer, KVWriteBatch.Write<byte[], byte[]>> lastWrites = new LinkedHashMap<>();
+    for (KVWriteBatch.Write<byte[], byte[]> write : batch.getWrites()) {
+      final ByteBuffer key = ByteBuffer.wrap(write.getKey());
+      // keep the insertion order of the final writes
+      lastWrites.remove(key);
+      lastWrites.put(key, write);
+    }
+    final List<byte[]> keys = new ArrayList<>(lastWrites.size());
+    for (KVWriteBatch.Write<byte[], byte[]> write : lastWrites.values()) {
+      keys.add(write.getKey());
+    }
+
+    final List<AutoCloseableLock> locks = sharedLocks(keys);
+    final List<BlobHolder> blobs = new ArrayList<>();
+    try (WriteBatch writeBatch = new WriteBatch();
+         WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+      final Map<byte[], byte[]> oldValuesOrPtrs = db.multiGet(Collections.nCopies(keys.size(), handle), keys);
+
+      for (KVWriteBatch.Write<byte[], byte[]> write : lastWrites.values()) {
+        if (write.isDelete()) {
+          writeBatch.delete(handle, write.getKey());
+        } else {
+          final BlobHolder blob = metaManager.filterPut(write.getValue(), ByteStore.generateTagFromBytes(write.getValue()));
+          blobs.add(blob);
+          writeBatch.put(handle, write.getKey(), blob.ptrOrValue());
+        }
+      }
+      db.write(writeOptions, writeBatch);
+
+      for (BlobHolder blob : blobs) {
+        blob.commit();
+      }
+      for (byte[] oldValueOrPtr : oldValuesOrPtrs.values()) {
+        metaManager.deleteTranslation(meta(oldValueOrPtr));
+      }
+    } catch (RocksDBException | IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      // removes the blobs of a failed batch
+      for (BlobHolder blob : blobs) {
+        blob.close();
+      }
+      closeLocks(locks);
+    }
+  }
+
+  /**
+   * Opens the shared locks of the stripes of the keys, in stripe order.
+   */
+  private List<AutoCloseableLock> sharedLocks(List<byte[]> keys) {
+    final BitSet stripes = new BitSet(parallel);
     for (byte[] key : keys) {
-      results.add(get(key, options));
+      Preconditions.checkNotNull(key);
+      stripes.set(Math.abs(Arrays.hashCode(key) % parallel));
+    }
+
+    final List<AutoCloseableLock> locks = new ArrayList<>(stripes.cardinality());
+    for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+      locks.add(sharedLocks[i].open());
+    }
+    return locks;
+  }
+
+  private static void closeLocks(List<AutoCloseableLock> locks) {
+    for (int i = locks.size() - 1; i >= 0; i--) {
+      locks.get(i).close();
     }
-    return results;
   }
 
   @Override
@@ -29,6 +29,7 @@ import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.IndexedStore;
 import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.telemetry.api.metrics.Histogram;
 import com.dremio.telemetry.api.metrics.Metrics;
 import com.google.common.base.Stopwatch;
@@ -49,6 +50,7 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     put,
     contains,
     delete,
+    bulkWrite,
     findByRange,
     findAll,
     applyForAllTenants,
@@ -113,6 +115,13 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     }
   }
 
+  @Override
+  public void bulkWrite(KVWriteBatch<K, V> batch, BulkWriteOption... options) {
+    try(final OpTimer ctx = time(Ops.bulkWrite)) {
+      delegate.bulkWrite(batch, options);
+    }
+  }
+
   @Override
   public boolean contains(K key, ContainsOption... options) {
     try(final OpTimer ctx = time(Ops.contains)) {
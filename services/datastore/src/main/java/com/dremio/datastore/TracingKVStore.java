@@ -24,6 +24,7 @@ import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.IndexedStore;
 import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVWriteBatch;
 
 import io.opentracing.Tracer;
 
@@ -101,6 +102,11 @@ class TracingKVStore<K, V> implements KVStore<K, V> {
     trace("delete", () -> delegate.delete(key, options));
   }
 
+  @Override
+  public void bulkWrite(KVWriteBatch<K, V> batch, BulkWriteOption... options) {
+    trace("bulkWrite", () -> delegate.bulkWrite(batch, options));
+  }
+
   @Override
   public KVAdmin getAdmin() {
     return trace("getAdmin", delegate::getAdmin);
@@ -28,6 +28,7 @@ import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableFindByRange;
 import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.datastore.api.LegacyKVStore;
 import com.dremio.datastore.api.options.ImmutableVersionOption;
 import com.dremio.datastore.api.options.VersionOption;
@@ -107,6 +108,16 @@ public class LegacyKVStoreAdapter<K, V> implements LegacyKVStore<K, V> {
     underlyingStore.delete(key);
   }
 
+  @Override
+  public void bulkWrite(KVWriteBatch<K, V> batch, KVStore.BulkWriteOption... options) {
+    if (versionExtractor != null) {
+      // versioned values are validated and tagged one put at a time
+      LegacyKVStore.super.bulkWrite(batch, options);
+      return;
+    }
+    underlyingStore.bulkWrite(batch, options);
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public Iterable<Map.Entry<K, V>> find(LegacyFindByRange<K> find) {
@@ -24,6 +24,7 @@ import com.dremio.context.TenantContext;
 import com.dremio.datastore.KVAdmin;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutOptionInfo;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutOptionType;
+import com.dremio.datastore.api.options.KVStoreOptionUtility;
 
 /**
  * A key value store abstraction.
@@ -87,6 +88,17 @@ public interface KVStore<K, V> {
    */
   interface FindOption extends KVStoreOption {}
 
+  /**
+   * Options for BULK WRITE operations.
+   */
+  interface BulkWriteOption extends KVStoreOption {
+    /**
+     * Requires the writes of the batch to be applied all together or not at all. Stores that can't apply
+     * a batch atomically raise an {@link UnsupportedOperationException} when this option is used.
+     */
+    BulkWriteOption ATOMIC = new BulkWriteOption() {};
+  }
+
   /**
    * Return the document associated with the key, or {@code null} if no such entry exists.
    *
@@ -135,6 +147,30 @@ public interface KVStore<K, V> {
    */
   void delete(K key, DeleteOption ... options);
 
+  /**
+   * Applies the puts and deletes of the batch, in order. Stores backed by a local database write the whole batch
+   * at once, which is cheaper than one put or delete per key.
+   *
+   * The default implementation applies the writes one by one, and does not support {@link BulkWriteOption#ATOMIC}.
+   *
+   * @param batch the writes to apply.
+   * @param options extra options for BULK WRITE operation.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are encountered.
+   * @throws UnsupportedOperationException when ATOMIC is requested but the store can't apply the batch atomically.
+   */
+  default void bulkWrite(KVWriteBatch<K, V> batch, BulkWriteOption... options) {
+    if (KVStoreOptionUtility.isAtomic(options)) {
+      throw new UnsupportedOperationException("Atomic bulk writes are not supported by " + getName());
+    }
+    for (KVWriteBatch.Write<K, V> write : batch.getWrites()) {
+      if (write.isDelete()) {
+        delete(write.getKey());
+      } else {
+        put(write.getKey(), write.getValue());
+      }
+    }
+  }
+
   /**
    * Checks if the KV Store contains a document corresponding to the provided key.
    *
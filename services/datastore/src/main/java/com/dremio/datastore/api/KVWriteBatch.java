@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.datastore.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * An ordered list of puts and deletes applied together by {@link KVStore#bulkWrite}.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public final class KVWriteBatch<K, V> {
+
+  /**
+   * A single put or delete of a batch.
+   *
+   * @param <K> the key type.
+   * @param <V> the value type.
+   */
+  public static final class Write<K, V> {
+    private final K key;
+    private final V value;
+
+    private Write(K key, V value) {
+      this.key = Preconditions.checkNotNull(key);
+      this.value = value;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    /**
+     * Get the value to put.
+     *
+     * @return the value to put, or {@code null} for a delete.
+     */
+    public V getValue() {
+      return value;
+    }
+
+    public boolean isDelete() {
+      return value == null;
+    }
+  }
+
+  private final List<Write<K, V>> writes;
+
+  public KVWriteBatch() {
+    this.writes = new ArrayList<>();
+  }
+
+  private KVWriteBatch(int size) {
+    this.writes = new ArrayList<>(size);
+  }
+
+  /**
+   * Adds a put of the value to the batch.
+   *
+   * @param key the key to save the value.
+   * @param value the value to save.
+   * @return this batch.
+   */
+  public KVWriteBatch<K, V> put(K key, V value) {
+    Preconditions.checkNotNull(value, "null values are not allowed in kvstore");
+    writes.add(new Write<>(key, value));
+    return this;
+  }
+
+  /**
+   * Adds a delete of the key to the batch.
+   *
+   * @param key the key of the document to remove.
+   * @return this batch.
+   */
+  public KVWriteBatch<K, V> delete(K key) {
+    writes.add(new Write<>(key, null));
+    return this;
+  }
+
+  /**
+   * Get the writes of the batch, in the order they were added.
+   *
+   * @return the writes of the batch.
+   */
+  public List<Write<K, V>> getWrites() {
+    return Collections.unmodifiableList(writes);
+  }
+
+  public int size() {
+    return writes.size();
+  }
+
+  public boolean isEmpty() {
+    return writes.isEmpty();
+  }
+
+  public void clear() {
+    writes.clear();
+  }
+
+  /**
+   * Creates a batch with the same writes, converting their keys and values.
+   *
+   * @param keyFunction the key converter.
+   * @param valueFunction the value converter, not called for deletes.
+   * @return the converted batch.
+   */
+  public <K2, V2> KVWriteBatch<K2, V2> transform(Function<K, K2> keyFunction, Function<V, V2> valueFunction) {
+    final KVWriteBatch<K2, V2> transformed = new KVWriteBatch<>(writes.size());
+    for (Write<K, V> write : writes) {
+      transformed.writes.add(new Write<>(keyFunction.apply(write.key),
+        write.isDelete() ? null : valueFunction.apply(write.value)));
+    }
+    return transformed;
+  }
+}
@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Objects;
 
 import com.dremio.datastore.KVAdmin;
+import com.dremio.datastore.api.options.KVStoreOptionUtility;
 
 /**
  * A sorted key value store abstraction
@@ -78,6 +79,27 @@ public interface LegacyKVStore<K, V> {
    */
   void delete(K key);
 
+  /**
+   * Apply the puts and deletes of the batch, in order. Possibly more efficient than
+   * looping over the writes in application code depending on the underlying storage system.
+   *
+   * @param batch the writes to apply.
+   * @param options extra options, see {@link KVStore#bulkWrite}.
+   * @throws UnsupportedOperationException when ATOMIC is requested but the store can't apply the batch atomically.
+   */
+  default void bulkWrite(KVWriteBatch<K, V> batch, KVStore.BulkWriteOption... options) {
+    if (KVStoreOptionUtility.isAtomic(options)) {
+      throw new UnsupportedOperationException("Atomic bulk writes are not supported by this store");
+    }
+    for (KVWriteBatch.Write<K, V> write : batch.getWrites()) {
+      if (write.isDelete()) {
+        delete(write.getKey());
+      } else {
+        put(write.getKey(), write.getValue());
+      }
+    }
+  }
+
 
   /**
    * Return a iterable of keys & values for any key within the provided Range
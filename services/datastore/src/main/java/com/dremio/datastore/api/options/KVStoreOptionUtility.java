@@ -112,6 +112,26 @@ public class KVStoreOptionUtility {
     return false;
   }
 
+  /**
+   * Checks whether a bulk write must be applied atomically.
+   *
+   * @param options The array of options to search.
+   * @return true if the ATOMIC option is found.
+   */
+  public static boolean isAtomic(KVStore.BulkWriteOption... options) {
+    if (null == options) {
+      return false;
+    }
+
+    for (KVStore.BulkWriteOption option : options) {
+      if (option == KVStore.BulkWriteOption.ATOMIC) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
   /**
    * Helper function to validate that IndexPutOption does not exist in the array of KVStoreOption
    * objects.
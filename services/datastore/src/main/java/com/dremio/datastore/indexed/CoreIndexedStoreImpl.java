@@ -18,7 +18,9 @@ package com.dremio.datastore.indexed;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.document.Document;
@@ -42,6 +44,7 @@ import com.dremio.datastore.SearchTypes.SortOrder;
 import com.dremio.datastore.api.DocumentConverter;
 import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.FindByRange;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.datastore.api.options.KVStoreOptionUtility;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
@@ -338,6 +341,34 @@ public class CoreIndexedStoreImpl<K, V> implements CoreIndexedStore<K, V> {
     index.deleteDocuments(keyAsTerm(key));
   }
 
+  /**
+   * Writes the batch to the underlying store, then updates the index of all the written keys at once.
+   */
+  @Override
+  public void bulkWrite(KVWriteBatch<KVStoreTuple<K>, KVStoreTuple<V>> batch, BulkWriteOption... options) {
+    if (indexesViaPutOption) {
+      throw new UnsupportedOperationException("Bulk writes are not supported by stores indexed through put options");
+    }
+    base.bulkWrite(batch, options);
+
+    // same outcome as indexing the writes one by one: a put without index fields leaves the index as is
+    final Map<Term, Document> documents = new LinkedHashMap<>();
+    for (KVWriteBatch.Write<KVStoreTuple<K>, KVStoreTuple<V>> write : batch.getWrites()) {
+      final Term term = keyAsTerm(write.getKey());
+      if (write.isDelete()) {
+        documents.put(term, null);
+      } else {
+        final Document document = toDoc(write.getKey(), write.getValue());
+        if (document != null) {
+          documents.put(term, document);
+        }
+      }
+    }
+    if (!documents.isEmpty()) {
+      index.updateMany(documents);
+    }
+  }
+
   @Override
   public Iterable<com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>>> get(List<KVStoreTuple<K>> keys, GetOption... options) {
     final Iterable<com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>>> documents = base.get(keys, options);
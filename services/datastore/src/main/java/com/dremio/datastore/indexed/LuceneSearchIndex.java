@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -345,6 +346,28 @@ public class LuceneSearchIndex implements AutoCloseable {
     }
   }
 
+  /**
+   * Updates the documents of many terms at once, a {@code null} document deleting the documents of its term.
+   */
+  public void updateMany(Map<Term, Document> documents) {
+    committerThread.throwExceptionIfAny();
+    final List<Term> deletes = new ArrayList<>();
+    try {
+      for (Map.Entry<Term, Document> entry : documents.entrySet()) {
+        if (entry.getValue() == null) {
+          deletes.add(entry.getKey());
+        } else {
+          writer.updateDocument(entry.getKey(), entry.getValue());
+        }
+      }
+      if (!deletes.isEmpty()) {
+        writer.deleteDocuments(deletes.toArray(new Term[0]));
+      }
+    } catch(IOException ex) {
+      throw Throwables.propagate(ex);
+    }
+  }
+
   public int count(final Query query){
     committerThread.throwExceptionIfAny();
     checkIfChanged();
@@ -47,6 +47,7 @@ import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableFindByRange;
 import com.dremio.datastore.api.KVStore;
 import com.dremio.datastore.api.KVStoreProvider;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.datastore.format.visitor.SupportFindFormatVisitor;
 import com.dremio.datastore.format.visitor.SupportNullFieldsFormatVisitor;
 import com.dremio.datastore.generator.ByteContainerStoreGenerator;
@@ -305,6 +306,32 @@ public abstract class AbstractTestKVStore<K, V> {
     gen.assertValueEquals(value, kvStore.get(key).getValue());
   }
 
+  @Test
+  public void testBulkWrite() {
+    final K updatedKey = gen.newKey();
+    final K deletedKey = gen.newKey();
+    final K createdKey = gen.newKey();
+    final K createdThenDeletedKey = gen.newKey();
+    final V updatedValue = gen.newVal();
+    final V createdValue = gen.newVal();
+
+    kvStore.put(updatedKey, gen.newVal());
+    kvStore.put(deletedKey, gen.newVal());
+
+    kvStore.bulkWrite(new KVWriteBatch<K, V>()
+      .put(updatedKey, updatedValue)
+      .delete(deletedKey)
+      .put(createdKey, createdValue)
+      .put(createdThenDeletedKey, gen.newVal())
+      .delete(createdThenDeletedKey));
+
+    gen.assertValueEquals(updatedValue, kvStore.get(updatedKey).getValue());
+    assertFalse(TAG_ASSERT_FAILURE_MSG, Strings.isNullOrEmpty(kvStore.get(updatedKey).getTag()));
+    assertNull(kvStore.get(deletedKey));
+    gen.assertValueEquals(createdValue, kvStore.get(createdKey).getValue());
+    assertNull(kvStore.get(createdThenDeletedKey));
+  }
+
   @Test
   public void testDeleteExistingValue() {
     final K key = gen.newKey();
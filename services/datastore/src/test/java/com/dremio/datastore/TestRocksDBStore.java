@@ -59,8 +59,11 @@ import org.rocksdb.RocksDBException;
 
 import com.dremio.datastore.RocksDBStore.RocksMetaManager;
 import com.dremio.datastore.api.Document;
+import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.datastore.api.options.ImmutableVersionOption;
 import com.dremio.datastore.api.options.VersionOption;
+import com.google.common.collect.Lists;
 
 /**
  * Some robustness tests for {@code RocksDBStore}
@@ -245,6 +248,48 @@ public class TestRocksDBStore {
     assertEquals(null, store.get(randomKey));
   }
 
+  @Test
+  public void checkBulkWriteBlobOps() throws IOException {
+    byte[] randomKey1 = new byte[5];
+    byte[] randomKey2 = new byte[5];
+    byte[] randomValue1 = new byte[(int) BLOB_FILTER_SIZE + 1];
+    byte[] randomValue2 = new byte[(int) BLOB_FILTER_SIZE + 1];
+    Random r = new Random(123);
+    r.nextBytes(randomKey1);
+    r.nextBytes(randomKey2);
+    r.nextBytes(randomValue1);
+    r.nextBytes(randomValue2);
+
+    store.bulkWrite(new KVWriteBatch<byte[], byte[]>()
+      .put(randomKey1, randomValue1)
+      .put(randomKey2, randomValue1), KVStore.BulkWriteOption.ATOMIC);
+
+    final List<Document<byte[], byte[]>> documents = Lists.newArrayList(store.get(Arrays.asList(randomKey1, specialKey, randomKey2)));
+    assertEquals(3, documents.size());
+    Assert.assertArrayEquals(randomValue1, documents.get(0).getValue());
+    Assert.assertArrayEquals(specialKey, documents.get(1).getKey());
+    Assert.assertArrayEquals(randomValue1, documents.get(2).getValue());
+
+    // overwrite a key twice in the same batch and delete the other one - should not result in any orphan blobs
+    store.bulkWrite(new KVWriteBatch<byte[], byte[]>()
+      .put(randomKey1, randomValue2)
+      .delete(randomKey2)
+      .put(randomKey1, randomValue1));
+    Assert.assertArrayEquals(randomValue1, store.get(randomKey1).getValue());
+    assertEquals(null, store.get(randomKey2));
+
+    store.bulkWrite(new KVWriteBatch<byte[], byte[]>().delete(randomKey1));
+
+    Path blobDir = Paths.get(rocksDBResource.getDbDir(), "blob", "test");
+    try (Stream<Path> stream = Files.list(blobDir)) {
+      List<Path> remainingBlobFiles = stream.collect(Collectors.toList());
+      assertEquals("Expected zero remaining files.", Collections.EMPTY_LIST, remainingBlobFiles);
+    }
+
+    final List<Document<byte[], byte[]>> missing = Lists.newArrayList(store.get(Arrays.asList(randomKey1, randomKey2)));
+    assertEquals(Arrays.asList(null, null), missing);
+  }
+
   @Test()
   public void testNotClosed() throws InterruptedException, ExecutionException {
     ExecutorService executor = Executors.newFixedThreadPool(4);
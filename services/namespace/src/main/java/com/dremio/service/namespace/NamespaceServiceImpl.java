@@ -67,6 +67,7 @@ import com.dremio.connector.metadata.DatasetSplit;
 import com.dremio.datastore.SearchQueryUtils;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.DocumentConverter;
+import com.dremio.datastore.api.KVWriteBatch;
 import com.dremio.datastore.api.LegacyIndexedStore;
 import com.dremio.datastore.api.LegacyIndexedStore.LegacyFindByCondition;
 import com.dremio.datastore.api.LegacyIndexedStoreCreationFunction;
@@ -112,6 +113,8 @@ public class NamespaceServiceImpl implements NamespaceService {
   public static final String PARTITION_CHUNKS = "metadata-dataset-splits";
   public static final String MULTI_SPLITS = "metadata-multi-splits";
   private static final int LOG_BATCH = 99;
+  // number of partition chunks written or deleted with a single bulk write
+  private static final int SPLIT_WRITE_BATCH = 500;
   public static final int LATEST_VERSION = 1;
   public static final int MAX_ENTITIES_PER_QUERY = 1000;
 
@@ -568,6 +571,8 @@ public class NamespaceServiceImpl implements NamespaceService {
     private List<DatasetSplit> accumulatedSplits;
     private int totalNumSplits;
     private boolean datasetMetadataConsistencyValidate;
+    private final KVWriteBatch<PartitionChunkId, PartitionChunk> pendingPartitionChunks = new KVWriteBatch<>();
+    private final KVWriteBatch<PartitionChunkId, MultiSplit> pendingMultiSplits = new KVWriteBatch<>();
 
     DatasetMetadataSaverImpl(NamespaceKey datasetPath, EntityId datasetId, long nextDatasetVersion, SplitCompression splitCompression, long maxSinglePartitionChunks, boolean datasetMetadataConsistencyValidate) {
       this.datasetPath = datasetPath;
@@ -631,16 +636,29 @@ public class NamespaceServiceImpl implements NamespaceService {
         partitionChunkWithSingleSplitCount++;
       }
       PartitionChunkId chunkId = PartitionChunkId.of(datasetId, nextDatasetVersion, splitKey);
-      NamespaceServiceImpl.this.partitionChunkStore.put(chunkId, builder.build());
+      pendingPartitionChunks.put(chunkId, builder.build());
       createdPartitionChunks.add(chunkId);
-      // Intentionally creating any potential multi-splits after creating the partition chunk.
-      // This makes orphan cleaning simpler, as we can key only on the existing partitionChunk(s), and remove
-      // any matching multi-splits
       if (accumulatedSplits.size() > 1 || !singleSplitPartitionAllowed) {
-        NamespaceServiceImpl.this.multiSplitStore.put(chunkId, createMultiSplitFromAccumulated(splitKey));
+        pendingMultiSplits.put(chunkId, createMultiSplitFromAccumulated(splitKey));
       }
       totalNumSplits += accumulatedSplits.size();
       resetSplitAccumulation();
+      if (pendingPartitionChunks.size() >= SPLIT_WRITE_BATCH) {
+        writePendingSplits();
+      }
+    }
+
+    /**
+     * Write the accumulated partition chunks and multi-splits, with one bulk write per store.
+     */
+    private void writePendingSplits() {
+      // Intentionally creating any potential multi-splits after creating the partition chunk.
+      // This makes orphan cleaning simpler, as we can key only on the existing partitionChunk(s), and remove
+      // any matching multi-splits
+      NamespaceServiceImpl.this.partitionChunkStore.bulkWrite(pendingPartitionChunks);
+      pendingPartitionChunks.clear();
+      NamespaceServiceImpl.this.multiSplitStore.bulkWrite(pendingMultiSplits);
+      pendingMultiSplits.clear();
     }
 
     private OutputStream wrapIfNeeded(OutputStream o) throws IOException {
@@ -692,6 +710,7 @@ public class NamespaceServiceImpl implements NamespaceService {
       Objects.requireNonNull(datasetConfig.getReadDefinition(), "read_definition is required");
       datasetConfig.getReadDefinition().setSplitVersion(nextDatasetVersion);
       datasetConfig.setTotalNumSplits(totalNumSplits);
+      writePendingSplits();
       while (true) {
         try {
           NamespaceServiceImpl.this.addOrUpdateDataset(datasetPath, datasetConfig, attributes);
@@ -740,6 +759,8 @@ public class NamespaceServiceImpl implements NamespaceService {
     @Override
     public void close() {
       if (!isClosed) {
+        pendingPartitionChunks.clear();
+        pendingMultiSplits.clear();
         deleteSplits(createdPartitionChunks);
       }
     }
@@ -801,10 +822,20 @@ public class NamespaceServiceImpl implements NamespaceService {
 
   @Override
   public void deleteSplits(Iterable<PartitionChunkId> splits) {
+    final KVWriteBatch<PartitionChunkId, PartitionChunk> partitionChunkDeletes = new KVWriteBatch<>();
+    final KVWriteBatch<PartitionChunkId, MultiSplit> multiSplitDeletes = new KVWriteBatch<>();
     for (PartitionChunkId split: splits) {
-      partitionChunkStore.delete(split);
-      multiSplitStore.delete(split);
+      partitionChunkDeletes.delete(split);
+      multiSplitDeletes.delete(split);
+      if (partitionChunkDeletes.size() >= SPLIT_WRITE_BATCH) {
+        partitionChunkStore.bulkWrite(partitionChunkDeletes);
+        partitionChunkDeletes.clear();
+        multiSplitStore.bulkWrite(multiSplitDeletes);
+        multiSplitDeletes.clear();
+      }
     }
+    partitionChunkStore.bulkWrite(partitionChunkDeletes);
+    multiSplitStore.bulkWrite(multiSplitDeletes);
   }
 
   @Override